@@ -28,9 +28,12 @@
 import java.io.UncheckedIOException;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.Callable;
@@ -53,6 +56,8 @@
 import org.geowebcache.storage.BlobStoreListener;
 import org.geowebcache.storage.BlobStoreListenerList;
 import org.geowebcache.storage.CompositeBlobStore;
+import org.geowebcache.storage.ParallelRequests;
+import org.geowebcache.storage.ParametersMetadataRegistry;
 import org.geowebcache.storage.StorageException;
 import org.geowebcache.storage.TileObject;
 import org.geowebcache.storage.TileRange;
@@ -69,6 +74,8 @@ public class AzureBlobStore implements BlobStore {
     private final BlobStoreListenerList listeners = new BlobStoreListenerList();
     private final AzureClient client;
     DeleteManager deleteManager;
+    private final ParallelRequests transfers;
+    private final ParametersMetadataRegistry parametersMetadata;
 
     private volatile boolean shutDown = false;
 
@@ -78,6 +85,7 @@ public AzureBlobStore(AzureBlobStoreData configuration, TileLayerDispatcher laye
 
         String prefix = Optional.ofNullable(configuration.getPrefix()).orElse("");
         this.keyBuilder = new TMSKeyBuilder(prefix, layers);
+        this.parametersMetadata = new ParametersMetadataRegistry(this::listParametersIds);
 
         // check target is suitable for a cache
         boolean emptyFolder = !client.prefixExists(prefix);
@@ -91,6 +99,11 @@ public AzureBlobStore(AzureBlobStoreData configuration, TileLayerDispatcher laye
         // deletes are a complicated beast, we have a dedicated class to run them
         deleteManager = new DeleteManager(client, lockProvider, keyBuilder, configuration.getMaxConnections());
         deleteManager.issuePendingBulkDeletes();
+
+        transfers = new ParallelRequests(
+                "GWC AzureBlobStore transfer thread-%d. Container: " + client.getContainerName(),
+                "container " + client.getContainerName(),
+                configuration.getMaxConnections());
     }
 
     @Override
@@ -100,6 +113,8 @@ public boolean delete(String layerName) throws StorageException {
         final String metadataKey = keyBuilder.layerMetadata(layerName);
         final String layerPrefix = keyBuilder.forLayer(layerName);
 
+        parametersMetadata.invalidateLayer(layerName);
+
         // this might not be there, tolerant delete
         if (!client.deleteBlob(metadataKey)) {
             return false;
@@ -117,6 +132,7 @@ public boolean deleteByParametersId(String layerName, String parametersId) throw
         checkNotNull(layerName, "layerName");
         checkNotNull(parametersId, "parametersId");
 
+        parametersMetadata.invalidate(layerName, parametersId);
         boolean prefixExists = keyBuilder.forParameters(layerName, parametersId).stream()
                 .map(prefix -> {
                     try {
@@ -311,8 +327,49 @@ public boolean get(TileObject obj) throws StorageException {
         return found;
     }
 
+    /** Downloads the batch with up to max connections concurrent requests */
+    @Override
+    public List<TileObject> getAll(Collection<TileObject> objs) throws StorageException {
+        List<Callable<TileObject>> downloads = new ArrayList<>(objs.size());
+        for (TileObject obj : objs) {
+            downloads.add(() -> get(obj) ? obj : null);
+        }
+        return executeParallel(downloads).stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
     @Override
     public void put(TileObject obj) throws StorageException {
+        upload(obj, true);
+    }
+
+    /**
+     * Uploads the batch with up to max connections concurrent requests, writing the parameters metadata of each
+     * distinct layer and parameters id only once
+     */
+    @Override
+    public void putAll(Collection<TileObject> objs) throws StorageException {
+        Map<String, TileObject> byParameters = new LinkedHashMap<>();
+        for (TileObject obj : objs) {
+            byParameters.putIfAbsent(keyBuilder.parametersMetadata(obj.getLayerName(), obj.getParametersId()), obj);
+        }
+        for (TileObject obj : byParameters.values()) {
+            putParametersMetadata(obj.getLayerName(), obj.getParametersId(), obj.getParameters());
+        }
+        List<Callable<TileObject>> uploads = new ArrayList<>(objs.size());
+        for (TileObject obj : objs) {
+            uploads.add(() -> {
+                upload(obj, false);
+                return obj;
+            });
+        }
+        executeParallel(uploads);
+    }
+
+    private <T> List<T> executeParallel(List<Callable<T>> callables) throws StorageException {
+        return transfers.execute(callables);
+    }
+
+    private void upload(TileObject obj, boolean putParametersMetadata) throws StorageException {
         final Resource blob = obj.getBlob();
         checkNotNull(blob);
         checkNotNull(obj.getBlobFormat());
@@ -350,7 +407,9 @@ public void put(TileObject obj) throws StorageException {
         }
 
         // along with the metadata
-        putParametersMetadata(obj.getLayerName(), obj.getParametersId(), obj.getParameters());
+        if (putParametersMetadata) {
+            putParametersMetadata(obj.getLayerName(), obj.getParametersId(), obj.getParameters());
+        }
 
         // This is important because listeners may be tracking tile existence
         if (!listeners.isEmpty()) {
@@ -374,7 +433,7 @@ private String getMimeType(TileObject obj) {
 
     private void putParametersMetadata(String layerName, String parametersId, Map<String, String> parameters) {
         assert (isNull(parametersId) == isNull(parameters));
-        if (isNull(parametersId)) {
+        if (isNull(parametersId) || parametersMetadata.isPersisted(layerName, parametersId)) {
             return;
         }
         Properties properties = new Properties();
@@ -385,6 +444,16 @@ private void putParametersMetadata(String layerName, String parametersId, Map<St
         } catch (StorageException e) {
             throw new UncheckedIOException(e);
         }
+        parametersMetadata.persisted(layerName, parametersId);
+    }
+
+    private List<String> listParametersIds(String layerName) {
+        try (Stream<BlobItem> items = client.listBlobs(keyBuilder.parametersMetadataPrefix(layerName))) {
+            return items.map(BlobItem::getName)
+                    .map(TMSKeyBuilder::parametersIdFromMetadataKey)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
     }
 
     @Override
@@ -400,6 +469,9 @@ public void destroy() {
         if (deleteManager != null) {
             deleteManager.close();
         }
+        if (transfers != null) {
+            transfers.shutdown();
+        }
     }
 
     @Override
@@ -418,6 +490,7 @@ public boolean rename(String oldLayerName, String newLayerName) throws StorageEx
         // return getName() from getId(), as in AbstractTileLayer. Unfortunately the only option
         // for non-GeoServerTileLayers would be copy and delete. Expensive.
         LOG.fine("No need to rename layers, AzureBlobStore uses layer id as key root");
+        parametersMetadata.invalidateLayer(oldLayerName);
         if (client.prefixExists(oldLayerName)) {
             listeners.sendLayerRenamed(oldLayerName, newLayerName);
         }
@@ -81,6 +81,8 @@ public class GeoWebCacheDispatcher extends AbstractController {
 
     public static final String TYPE_HOME = "home";
 
+    public static final String TYPE_METRICS = "metrics";
+
     private TileLayerDispatcher tileLayerDispatcher = null;
 
     private DefaultStorageFinder defaultStorageFinder = null;
@@ -276,6 +278,8 @@ public ServletOutputStream getOutputStream() throws IOException {
             } else if (requestComps[0].equalsIgnoreCase(TYPE_DEMO)
                     || requestComps[0].equalsIgnoreCase(TYPE_DEMO + "s")) {
                 handleDemoRequest(requestComps[1], request, response);
+            } else if (requestComps[0].equalsIgnoreCase(TYPE_METRICS)) {
+                handleMetricsRequest(response);
             } else {
                 ResponseUtils.writeErrorPage(response, 404, "Unknown path: " + requestComps[0], runtimeStats);
             }
@@ -375,6 +379,7 @@ private String[] parseRequest(String servletPath) throws GeoWebCacheException {
     /** This is the main method for handling service requests. See comments in the code. */
     private void handleServiceRequest(String serviceStr, HttpServletRequest request, HttpServletResponse response)
             throws Exception {
+        final long start = System.nanoTime();
 
         Conveyor conv;
 
@@ -405,7 +410,26 @@ private void handleServiceRequest(String serviceStr, HttpServletRequest request,
         } else {
             ResponseUtils.writeTile(
                     getSecurityDispatcher(), conv, layerName, tileLayerDispatcher, defaultStorageFinder, runtimeStats);
+            if (runtimeStats != null && conv instanceof ConveyorTile tile) {
+                runtimeStats.logTile(service.getPathName(), tile, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /** Writes the runtime statistics in the Prometheus text format, for administrators only */
+    private void handleMetricsRequest(HttpServletResponse response) throws IOException {
+        if (runtimeStats == null || !runtimeStats.isStarted()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Runtime statistics are disabled");
+            return;
+        }
+        if (!securityDispatcher.isAdmin()) {
+            throw new SecurityException("Runtime statistics are only available to administrators");
         }
+        response.setStatus(200);
+        response.setContentType("text/plain; version=0.0.4");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        runtimeStats.writePrometheusStats(response.getWriter());
+        response.getWriter().flush();
     }
 
     private void handleDemoRequest(String action, HttpServletRequest request, HttpServletResponse response)
@@ -16,6 +16,7 @@
 import jakarta.servlet.ServletContext;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
@@ -204,9 +205,13 @@ public static <T extends BaseConfiguration> List<T> configurations(Class<T> exte
         return configurations(extensionPoint, context);
     }
 
-    /** Reinitialize all reinitializable beans in the context. */
+    /**
+     * Reinitialize all reinitializable beans in the context. Configurations are reinitialized first, so that the beans
+     * caching their contents are reloaded from the new state.
+     */
     public static void reinitialize(ApplicationContext context) {
-        List<ReinitializingBean> extensions = extensions(ReinitializingBean.class, context);
+        List<ReinitializingBean> extensions = new ArrayList<>(extensions(ReinitializingBean.class, context));
+        extensions.sort(Comparator.comparing(bean -> !(bean instanceof BaseConfiguration)));
         for (ReinitializingBean bean : extensions) {
             try {
                 bean.deinitialize();
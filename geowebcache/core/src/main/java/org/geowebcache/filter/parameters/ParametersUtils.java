@@ -13,12 +13,16 @@
  */
 package org.geowebcache.filter.parameters;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
@@ -30,6 +34,10 @@
 
 public class ParametersUtils {
 
+    // ids of the maps returned by identified(Map), by identity, for as long as they are in use
+    private static final Cache<Map<String, String>, String> IDS =
+            CacheBuilder.newBuilder().weakKeys().build();
+
     /**
      * This should be treated as an opaque Identifier and should not be parsed, it is used to to maintain compatibility
      * with old caches. For any other uses, {@link #getKvp(Map)} is preferred as it uses safe escaping of values.
@@ -104,10 +112,28 @@ public static String getId(Map<String, String> parameters) {
         if (parameters == null || parameters.isEmpty()) {
             return null;
         }
+        String id = IDS.getIfPresent(parameters);
+        if (id != null) {
+            return id;
+        }
         String parametersKvp = getLegacyParametersKvp(parameters);
         return ParametersUtils.buildKey(parametersKvp);
     }
 
+    /**
+     * Returns an unmodifiable copy of the given parameters whose {@link #getId(Map) id} is computed once, and then
+     * looked up by identity for as long as the copy is in use. Meant for the parameters shared by many requests, such
+     * as the ones cached by the layers.
+     */
+    public static Map<String, String> identified(Map<String, String> parameters) {
+        Map<String, String> copy = Collections.unmodifiableMap(new HashMap<>(parameters));
+        String id = getId(copy);
+        if (id != null) {
+            IDS.put(copy, id);
+        }
+        return copy;
+    }
+
     public static String buildKey(String parametersKvp) {
         return DigestUtils.sha1Hex(parametersKvp);
     }
@@ -34,7 +34,8 @@ public class RegexParameterFilter extends CaseNormalizingParameterFilter {
 
     private String regex = DEFAULT_EXPRESSION;
 
-    private transient Pattern pat;
+    // patterns are immutable and thread safe, a new one is published on every change
+    private transient volatile Pattern pat;
 
     public RegexParameterFilter() {
         super();
@@ -42,7 +43,7 @@ public RegexParameterFilter() {
     }
 
     /** Get a {@link Matcher} for this filter's regexp against the given string. */
-    public synchronized Matcher getMatcher(String value) {
+    public Matcher getMatcher(String value) {
         return pat.matcher(value);
     }
 
@@ -0,0 +1,113 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Read only {@link Resource} backed by an already open {@link FileChannel}, with size and last modification time
+ * captured when the file was opened, so that serving it costs no further filesystem metadata calls.
+ *
+ * <p>The open channel is handed over to the first {@link #transferTo(WritableByteChannel)} or {@link #getInputStream()}
+ * call, and closed once the contents have been transferred, or when the returned stream is closed. Any later read
+ * reopens the file. A resource that is never read keeps its channel open until it is garbage collected.
+ */
+public class FileChannelResource implements Resource {
+
+    private final File file;
+
+    private final long size;
+
+    private final long lastModified;
+
+    private final AtomicReference<FileChannel> channel;
+
+    /**
+     * @param file the file the channel was opened on
+     * @param channel a channel open for reading on {@code file}, ownership is transferred to this resource
+     * @param attributes the attributes of {@code file}, read while the channel was open
+     */
+    public FileChannelResource(File file, FileChannel channel, BasicFileAttributes attributes) {
+        this.file = file;
+        this.channel = new AtomicReference<>(channel);
+        this.size = attributes.size();
+        this.lastModified = attributes.lastModifiedTime().toMillis();
+    }
+
+    @Override
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /** @see FileResource#getSize() */
+    @Override
+    public long getSize() {
+        return size == 0 ? -1 : size;
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target) throws IOException {
+        try (FileChannel in = takeChannel()) {
+            final long size = in.size();
+            long written = 0;
+            while (written < size) {
+                long transferred = in.transferTo(written, size - written, target);
+                if (transferred <= 0) {
+                    // truncated while being read
+                    break;
+                }
+                written += transferred;
+            }
+            return written;
+        }
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel channel) throws IOException {
+        throw new UnsupportedOperationException("Read only resource");
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Channels.newInputStream(takeChannel());
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        throw new UnsupportedOperationException("Read only resource");
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /** Hands over the channel opened at creation time the first time, opens a new one afterwards */
+    private FileChannel takeChannel() throws IOException {
+        FileChannel open = channel.getAndSet(null);
+        if (open != null && open.isOpen()) {
+            return open.position(0);
+        }
+        return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+}
@@ -66,6 +66,38 @@ public XMLBuilder appendUnescaped(@Nullable String s) throws IOException {
         return this;
     }
 
+    /**
+     * Creates a builder for a fragment of the document being built by this one, nested at its current depth. The
+     * fragment can be built separately, and even cached, and then {@link #appendFragment(String) appended} here.
+     *
+     * @param builder where to append the fragment
+     */
+    public XMLBuilder fragmentBuilder(Appendable builder) {
+        XMLBuilder fragment = new XMLBuilder(builder);
+        for (NodeInfo ni : nodeStack) {
+            NodeInfo parent = new NodeInfo();
+            parent.name = ni.name;
+            parent.indented = ni.indented;
+            fragment.nodeStack.addLast(parent);
+        }
+        return fragment;
+    }
+
+    /**
+     * Append a fragment built by a {@link #fragmentBuilder(Appendable) fragment builder} of this one, at the same depth
+     *
+     * @throws IOException thrown if the underlying Appendable throws IOException
+     */
+    public XMLBuilder appendFragment(String fragment) throws IOException {
+        if (fragment.isEmpty()) {
+            return this;
+        }
+        if (startOfElement) appendUnescaped(">");
+        startOfElement = false;
+        if (!nodeStack.isEmpty()) nodeStack.peek().containsIndented = true;
+        return appendUnescaped(fragment);
+    }
+
     /**
      * Start an XML Element on a new line indented for its depth
      *
@@ -13,9 +13,13 @@
  */
 package org.geowebcache.layer;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -117,6 +121,16 @@ public class MetaTile implements TileResponseReceiver {
 
     private List<RenderedImage> disposableImages;
 
+    // whether each tile is a single colour, known once written
+    private final boolean[] uniform;
+
+    /**
+     * Encoded single colour tiles, by format, size and colour, so that the blank tiles of sparse layers are encoded
+     * once rather than once per tile
+     */
+    private static final Cache<UniformTile, byte[]> UNIFORM_TILES =
+            CacheBuilder.newBuilder().maximumSize(256).build();
+
     /**
      * The the request format is the format used for the request to the backend.
      *
@@ -144,6 +158,7 @@ public MetaTile(
         int tileHeight = gridSubset.getTileHeight();
         int tileWidth = gridSubset.getTileWidth();
         this.tiles = createTiles(tileHeight, tileWidth);
+        this.uniform = new boolean[tiles.length];
     }
 
     /**
@@ -338,7 +353,8 @@ protected boolean nativeAccelAvailable() {
     }
 
     /**
-     * Outputs one tile from the internal array of tiles to a provided resource
+     * Outputs one tile from the internal array of tiles to a provided resource. Different tiles can be written
+     * concurrently by different threads.
      *
      * @param tileIdx the index of the tile relative to the internal array
      * @param target the resource
@@ -354,6 +370,20 @@ public boolean writeTileToStream(final int tileIdx, Resource target) throws IOEx
         }
 
         Rectangle tileRegion = tiles[tileIdx];
+        Integer colour = uniformColour(tileRegion);
+        uniform[tileIdx] = colour != null;
+        // the format modifier may vary by layer, don't share their encodings
+        UniformTile key = colour == null || formatModifier != null
+                ? null
+                : new UniformTile(responseFormat.getFormat(), tileRegion.width, tileRegion.height, colour);
+        byte[] encoded = key == null ? null : UNIFORM_TILES.getIfPresent(key);
+        if (encoded != null) {
+            try (OutputStream outputStream = target.getOutputStream()) {
+                outputStream.write(encoded);
+            }
+            return true;
+        }
+
         RenderedImage tile = createTile(tileRegion.x, tileRegion.y, tileRegion.width, tileRegion.height);
         disposeLater(tile);
 
@@ -376,10 +406,65 @@ public boolean writeTileToStream(final int tileIdx, Resource target) throws IOEx
             writer.dispose();
         }
 
+        if (key != null && target instanceof ByteArrayResource resource && resource.getSize() > 0) {
+            // the target may be a reused buffer, keep a copy
+            UNIFORM_TILES.put(key, resource.getContents().clone());
+        }
         return true;
     }
 
-    protected void disposeLater(RenderedImage tile) {
+    /**
+     * Whether a tile of the meta tile is a single colour, like the empty or all ocean tiles of sparse layers. Only
+     * known once the tile has been {@link #writeTileToStream(int, Resource) written}.
+     *
+     * @param tileIdx the index of the tile relative to the internal array
+     */
+    public boolean isUniform(int tileIdx) {
+        return uniform[tileIdx];
+    }
+
+    /**
+     * Checks whether a region of the meta tile is a single colour, scanning the meta tile raster in place if it's a
+     * {@link BufferedImage}
+     *
+     * @return the colour of the region as ARGB, or {@code null} if it has more than one colour or its colour can't be
+     *     told
+     */
+    protected Integer uniformColour(Rectangle region) {
+        if (metaTileImage == null) {
+            return null;
+        }
+        Raster raster =
+                metaTileImage instanceof BufferedImage image ? image.getRaster() : metaTileImage.getData(region);
+        if (!raster.getBounds().contains(region) || raster.getDataBuffer().getDataType() > DataBuffer.TYPE_INT) {
+            // leave odd sizes to the cropping, and floating point samples are not worth it
+            return null;
+        }
+        final int bands = raster.getNumBands();
+        final int[] first = raster.getPixel(region.x, region.y, (int[]) null);
+        final int[] row = new int[region.width * bands];
+        for (int y = region.y; y < region.y + region.height; y++) {
+            raster.getPixels(region.x, y, region.width, 1, row);
+            for (int i = 0; i < row.length; i += bands) {
+                for (int b = 0; b < bands; b++) {
+                    if (row[i + b] != first[b]) {
+                        return null;
+                    }
+                }
+            }
+        }
+        try {
+            return metaTileImage.getColorModel().getRGB(raster.getDataElements(region.x, region.y, null));
+        } catch (RuntimeException e) {
+            // colour models that can't tell the RGB value of a pixel
+            return null;
+        }
+    }
+
+    /** A single colour tile, as encoded in a given format */
+    private record UniformTile(String format, int width, int height, int argb) {}
+
+    protected synchronized void disposeLater(RenderedImage tile) {
         if (disposableImages == null) {
             disposableImages = new ArrayList<>(tiles.length);
         }
@@ -463,7 +548,7 @@ public MimeType getRequestFormat() {
     }
 
     /** Should be called as soon as the meta tile is no longer needed in order to dispose any held resource */
-    public void dispose() {
+    public synchronized void dispose() {
         if (metaTileImage == null) {
             return;
         }
@@ -0,0 +1,100 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Bounded pool of threads encoding the tiles of meta tiles, see {@link TileLayer#saveTiles}. Its size is set by the
+ * {@link #ENCODER_THREADS} system property or environment variable and defaults to the number of available processors,
+ * a value of 1 or less disables parallel encoding. Tasks that do not fit in the pool queue are left to the submitting
+ * thread.
+ *
+ * <p>The pool is a bean of the application context, which shuts it down along with the context, and the layers look it
+ * up from there unless {@link TileLayer#setMetaTileEncoderPool(MetaTileEncoderPool) given one}. Tiles are encoded on
+ * the requesting thread when there is no pool, or once it is shut down.
+ */
+public class MetaTileEncoderPool implements DisposableBean {
+
+    private static final Logger log = Logging.getLogger(MetaTileEncoderPool.class.getName());
+
+    public static final String ENCODER_THREADS = "GWC_METATILE_ENCODER_THREADS";
+
+    private final ThreadPoolExecutor executor;
+
+    public MetaTileEncoderPool() {
+        this(configuredThreads());
+    }
+
+    MetaTileEncoderPool(int threads) {
+        this.executor = createExecutor(threads);
+    }
+
+    private static int configuredThreads() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String configured = GeoWebCacheExtensions.getProperty(ENCODER_THREADS);
+        if (configured != null) {
+            try {
+                threads = Integer.parseInt(configured.trim());
+            } catch (NumberFormatException e) {
+                log.warning("Invalid value for " + ENCODER_THREADS + ": " + configured + ", using " + threads);
+            }
+        }
+        return threads;
+    }
+
+    private static ThreadPoolExecutor createExecutor(int threads) {
+        if (threads <= 1) {
+            return null;
+        }
+        CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC MetaTile encoder-");
+        tf.setDaemon(true);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 16),
+                tf,
+                new ThreadPoolExecutor.DiscardPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /** Schedules the task, which is left unstarted if the pool is disabled, saturated or shut down */
+    void submit(FutureTask<?> task) {
+        if (executor != null) {
+            executor.execute(task);
+        }
+    }
+
+    /**
+     * Stops the pool. Queued tasks are left to the submitting threads, running ones are interrupted and their tiles are
+     * not stored.
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
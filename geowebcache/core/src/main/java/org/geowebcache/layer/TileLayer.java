@@ -13,6 +13,8 @@
  */
 package org.geowebcache.layer;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -24,15 +26,21 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.GeoWebCacheExtensions;
 import org.geowebcache.config.HintsLevel;
 import org.geowebcache.config.Info;
 import org.geowebcache.conveyor.ConveyorTile;
 import org.geowebcache.filter.parameters.ParameterFilter;
+import org.geowebcache.filter.parameters.ParametersUtils;
 import org.geowebcache.filter.request.RequestFilter;
 import org.geowebcache.filter.request.RequestFilterException;
 import org.geowebcache.grid.BoundingBox;
@@ -68,9 +76,28 @@ public abstract class TileLayer implements Info {
 
     protected static final ThreadLocal<ByteArrayResource> WMS_BUFFER2 = new ThreadLocal<>();
 
+    /**
+     * Name of the system property or environment variable enabling the per layer cache of the filtered request
+     * parameters, {@code false} by default. Only enable it when the parameter filters are pure, that is, when their
+     * result depends only on the parameter value and on their own configuration, and not on the request, the user, or a
+     * catalog that may change under them.
+     */
+    public static final String PARAMETERS_CACHE = "GWC_PARAMETERS_CACHE";
+
+    /** Maximum number of request parameter combinations whose filtered values are cached by each layer */
+    static final int PARAMETERS_CACHE_SIZE = 1000;
+
     // cached default parameter filter values
     protected transient Map<String, String> defaultParameterFilterValues;
 
+    // whether the filtered parameter values are cached, read from PARAMETERS_CACHE on first use
+    private transient Boolean parametersCacheEnabled;
+
+    // cached filtered parameter values, by request values
+    private transient volatile ParametersCache parametersCache;
+
+    private transient MetaTileEncoderPool encoderPool;
+
     /**
      * Registers a layer listener to be notified of layer events
      *
@@ -376,10 +403,11 @@ public void applyRequestFilters(ConveyorTile convTile) throws RequestFilterExcep
      *     are defined
      */
     public Map<String, String> getDefaultParameterFilters() {
-        if (defaultParameterFilterValues == null) {
+        Map<String, String> defaultValues = defaultParameterFilterValues;
+        if (defaultValues == null) {
             List<ParameterFilter> parameterFilters = getParameterFilters();
             if (parameterFilters == null || parameterFilters.isEmpty()) {
-                defaultParameterFilterValues = Collections.emptyMap();
+                defaultValues = Collections.emptyMap();
             } else {
                 Map<String, String> defaults = new HashMap<>();
                 for (ParameterFilter parameterFilter : parameterFilters) {
@@ -387,13 +415,19 @@ public Map<String, String> getDefaultParameterFilters() {
                     String defaultValue = decodeDimensionValue(parameterFilter.getDefaultValue());
                     defaults.put(key, defaultValue);
                 }
-                defaultParameterFilterValues = Collections.unmodifiableMap(defaults);
+                defaultValues = Collections.unmodifiableMap(defaults);
             }
+            defaultParameterFilterValues = defaultValues;
         }
-        return defaultParameterFilterValues;
+        return defaultValues;
     }
 
     /**
+     * Filters the request parameters. The services get them through {@link #getFilteredParameters(Map, String)}, which
+     * calls this method unless the {@link #PARAMETERS_CACHE} is enabled. Subclasses overriding this method to customize
+     * the filtering should therefore either leave the cache disabled, or override {@link #getFilteredParameters(Map,
+     * String)} as well.
+     *
      * @param map keys are parameter names, values are either a single string or an array of strings as they come form
      *     httpservletrequest
      * @return Set of parameter filter keys and values, with keys normalized to upper case, or empty map if they match
@@ -407,12 +441,74 @@ public Map<String, String> getModifiableParameters(Map<String, ?> map, String en
             return Collections.emptyMap();
         }
 
-        Map<String, String> fullParameters = new HashMap<>();
-
         final String[] keys =
                 parameterFilters.stream().map(ParameterFilter::getKey).toArray(i -> new String[i]);
-
         final Map<String, String> requestValues = ServletUtils.selectedStringsFromMap(map, encoding, keys);
+        return filterParameters(parameterFilters, requestValues);
+    }
+
+    /**
+     * Filters the request parameters for the services. Unless the {@link #PARAMETERS_CACHE} is enabled, this is the
+     * result of {@link #getModifiableParameters(Map, String)}. When it is enabled, the result is unmodifiable, shared
+     * by the requests with the same parameter values, and its {@link ParametersUtils#getId(Map) parameters id} is
+     * computed only once.
+     *
+     * @param map keys are parameter names, values are either a single string or an array of strings as they come form
+     *     httpservletrequest
+     * @return Set of parameter filter keys and values, with keys normalized to upper case, or empty map if they match
+     *     the layer's parameter filters default values
+     * @throws GeoWebCacheException if {@link ParameterFilter#apply(String)} does
+     */
+    public Map<String, String> getFilteredParameters(Map<String, ?> map, String encoding) throws GeoWebCacheException {
+        if (!isParametersCacheEnabled()) {
+            return getModifiableParameters(map, encoding);
+        }
+
+        final List<ParameterFilter> parameterFilters = getParameterFilters();
+        if (parameterFilters == null) {
+            return Collections.emptyMap();
+        }
+
+        ParametersCache cache = parametersCache;
+        // compares with copies of the filters, so that filters modified in place are noticed as well
+        if (cache == null || !cache.filters().equals(parameterFilters)) {
+            List<ParameterFilter> copies =
+                    parameterFilters.stream().map(ParameterFilter::clone).toList();
+            String[] keys = copies.stream().map(ParameterFilter::getKey).toArray(i -> new String[i]);
+            cache = new ParametersCache(
+                    copies,
+                    keys,
+                    CacheBuilder.newBuilder().maximumSize(PARAMETERS_CACHE_SIZE).build());
+            defaultParameterFilterValues = null;
+            parametersCache = cache;
+        }
+
+        final Map<String, String> requestValues = ServletUtils.selectedStringsFromMap(map, encoding, cache.keys());
+
+        Map<String, String> fullParameters = cache.filtered().getIfPresent(requestValues);
+        if (fullParameters == null) {
+            fullParameters = filterParameters(parameterFilters, requestValues);
+            if (!fullParameters.isEmpty()) {
+                // computes the parameters id once for all the requests sharing the result
+                fullParameters = ParametersUtils.identified(fullParameters);
+            }
+            cache.filtered().put(requestValues, fullParameters);
+        }
+        return fullParameters;
+    }
+
+    private boolean isParametersCacheEnabled() {
+        Boolean enabled = parametersCacheEnabled;
+        if (enabled == null) {
+            enabled = "true".equalsIgnoreCase(GeoWebCacheExtensions.getProperty(PARAMETERS_CACHE));
+            parametersCacheEnabled = enabled;
+        }
+        return enabled;
+    }
+
+    private Map<String, String> filterParameters(
+            List<ParameterFilter> parameterFilters, Map<String, String> requestValues) throws GeoWebCacheException {
+        Map<String, String> fullParameters = new HashMap<>();
 
         final Map<String, String> defaultValues = getDefaultParameterFilters();
 
@@ -479,7 +575,13 @@ protected ByteArrayResource getImageBuffer(ThreadLocal<ByteArrayResource> tl) {
         return buffer;
     }
 
-    /** Loops over the gridPositions, generates cache keys and saves to cache */
+    /**
+     * Loops over the gridPositions, generates cache keys and saves to cache.
+     *
+     * <p>The requested tile is encoded on the calling thread while the other tiles of the meta tile are encoded in
+     * parallel on the shared, bounded {@link MetaTileEncoderPool encoder pool}. Once all are encoded they are saved
+     * with a single {@link org.geowebcache.storage.StorageBroker#putAll(java.util.Collection) batch put}.
+     */
     protected void saveTiles(MetaTile metaTile, ConveyorTile tileProto, long requestTime) throws GeoWebCacheException {
 
         final long[][] gridPositions = metaTile.getTilesGridPositions();
@@ -489,59 +591,156 @@ protected void saveTiles(MetaTile metaTile, ConveyorTile tileProto, long request
         final int zoomLevel = (int) gridLoc[2];
         final boolean store = this.getExpireCache(zoomLevel) != GWCVars.CACHE_DISABLE_CACHE;
 
-        Resource resource;
-        boolean encode;
+        // start encoding the other tiles first, so that they proceed while the requested one is encoded
+        final MetaTileEncoderPool pool = getMetaTileEncoderPool();
+        final AtomicBoolean abandoned = new AtomicBoolean();
+        List<FutureTask<TileObject>> siblings = new ArrayList<>(gridPositions.length);
+        int requested = -1;
         for (int i = 0; i < gridPositions.length; i++) {
             final long[] gridPos = gridPositions[i];
             if (Arrays.equals(gridLoc, gridPos)) {
-                // Is this the one we need to save? then don't use the buffer or it'll be overridden
-                // by the next tile
-                resource = getImageBuffer(WMS_BUFFER2);
+                requested = i;
+            } else if (store && gridSubset.covers(gridPos)) {
+                // edge tiles outside coverage are not stored
+                final int tileIdx = i;
+                FutureTask<TileObject> task = new FutureTask<>(() -> abandoned.get()
+                        ? null
+                        : encodeTile(metaTile, tileIdx, new ByteArrayResource(16 * 1024), tileProto, requestTime));
+                siblings.add(task);
+                if (pool != null) {
+                    pool.submit(task);
+                }
+            }
+        }
+
+        List<TileObject> tiles = new ArrayList<>(siblings.size() + 1);
+        boolean encoded = false;
+        try {
+            if (requested >= 0) {
+                // Is this the one we need to save? then don't use the shared buffer, the client will read it
+                Resource resource = getImageBuffer(WMS_BUFFER2);
                 tileProto.setBlob(resource);
-                encode = true;
-            } else {
-                resource = getImageBuffer(WMS_BUFFER);
-                encode = store;
+                if (gridSubset.covers(gridPositions[requested])) {
+                    TileObject tile = encodeTile(metaTile, requested, resource, tileProto, requestTime);
+                    if (tile != null && store) {
+                        tiles.add(tile);
+                    }
+                }
             }
+            for (FutureTask<TileObject> sibling : siblings) {
+                // tasks rejected by a saturated pool are run here
+                sibling.run();
+                TileObject tile = sibling.get();
+                if (tile != null) {
+                    tiles.add(tile);
+                }
+            }
+            encoded = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeoWebCacheException("Interrupted while encoding the tiles of " + metaTile.debugString());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException exception) {
+                throw exception;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new GeoWebCacheException(cause);
+        } finally {
+            if (!encoded) {
+                // the meta tile gets disposed once we return, skip the pending tiles and wait for the running ones
+                abandoned.set(true);
+                awaitQuietly(siblings);
+            }
+        }
 
-            if (encode) {
-                if (!gridSubset.covers(gridPos)) {
-                    // edge tile outside coverage, do not store it
-                    continue;
+        if (tiles.isEmpty()) {
+            return;
+        }
+        try {
+            if (tileProto.isMetaTileCacheOnly()) {
+                for (TileObject tile : tiles) {
+                    tileProto.getStorageBroker().putTransient(tile);
                 }
+            } else {
+                tileProto.getStorageBroker().putAll(tiles);
+            }
+            tileProto.getStorageObject().setCreated(requestTime);
+        } catch (StorageException e) {
+            throw new GeoWebCacheException(e);
+        }
+    }
+
+    /**
+     * Sets the pool encoding the tiles of the meta tiles in parallel
+     *
+     * <p>When unset, the bean of this type is looked up through {@link GeoWebCacheExtensions#bean(Class)}
+     */
+    public void setMetaTileEncoderPool(MetaTileEncoderPool encoderPool) {
+        this.encoderPool = encoderPool;
+    }
+
+    private MetaTileEncoderPool getMetaTileEncoderPool() {
+        MetaTileEncoderPool pool = this.encoderPool;
+        return pool != null ? pool : GeoWebCacheExtensions.bean(MetaTileEncoderPool.class);
+    }
 
+    private static void awaitQuietly(List<FutureTask<TileObject>> tasks) {
+        boolean interrupted = Thread.interrupted();
+        for (FutureTask<TileObject> task : tasks) {
+            task.run();
+            while (true) {
                 try {
-                    boolean completed = metaTile.writeTileToStream(i, resource);
-                    if (!completed) {
-                        log.log(Level.SEVERE, "metaTile.writeTileToStream returned false, no tiles saved");
-                    }
-                    if (store) {
-                        long[] idx = {gridPos[0], gridPos[1], gridPos[2]};
-
-                        TileObject tile = TileObject.createCompleteTileObject(
-                                this.getName(),
-                                idx,
-                                tileProto.getGridSetId(),
-                                tileProto.getMimeType().getFormat(),
-                                tileProto.getParameters(),
-                                resource);
-                        tile.setCreated(requestTime);
-
-                        try {
-                            if (tileProto.isMetaTileCacheOnly()) {
-                                tileProto.getStorageBroker().putTransient(tile);
-                            } else {
-                                tileProto.getStorageBroker().put(tile);
-                            }
-                            tileProto.getStorageObject().setCreated(tile.getCreated());
-                        } catch (StorageException e) {
-                            throw new GeoWebCacheException(e);
-                        }
-                    }
-                } catch (IOException ioe) {
-                    log.log(Level.SEVERE, "Unable to write image tile to " + "ByteArrayOutputStream", ioe);
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    break;
                 }
             }
         }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Encodes a single tile of the meta tile into the given resource
+     *
+     * @return the tile, or {@code null} if it could not be encoded
+     */
+    private TileObject encodeTile(
+            MetaTile metaTile, int tileIdx, Resource resource, ConveyorTile tileProto, long requestTime) {
+        try {
+            boolean completed = metaTile.writeTileToStream(tileIdx, resource);
+            if (!completed) {
+                log.log(Level.SEVERE, "metaTile.writeTileToStream returned false, no tiles saved");
+            }
+        } catch (IOException ioe) {
+            log.log(Level.SEVERE, "Unable to write image tile to " + "ByteArrayOutputStream", ioe);
+            return null;
+        }
+        long[] gridPos = metaTile.getTilesGridPositions()[tileIdx];
+        long[] idx = {gridPos[0], gridPos[1], gridPos[2]};
+        TileObject tile = TileObject.createCompleteTileObject(
+                this.getName(),
+                idx,
+                tileProto.getGridSetId(),
+                tileProto.getMimeType().getFormat(),
+                tileProto.getParameters(),
+                resource);
+        tile.setCreated(requestTime);
+        // blob stores sharing uniform tiles may report the creation time of the shared copy, older than the tile, which
+        // would make tiles with an expiration look expired right away
+        int expireCache = getExpireCache((int) gridPos[2]);
+        boolean expires = expireCache > 0 || expireCache == GWCVars.CACHE_USE_WMS_BACKEND_VALUE;
+        tile.setUniform(!expires && metaTile.isUniform(tileIdx));
+        return tile;
     }
+
+    /** The filtered values of the request parameters, for copies of the parameter filters they were computed with */
+    private record ParametersCache(
+            List<ParameterFilter> filters, String[] keys, Cache<Map<String, String>, Map<String, String>> filtered) {}
 }
@@ -26,10 +26,15 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.ReinitializingBean;
 import org.geowebcache.config.BaseConfiguration;
 import org.geowebcache.config.ConfigurationAggregator;
 import org.geowebcache.config.ServerConfiguration;
@@ -37,6 +42,7 @@
 import org.geowebcache.config.meta.ServiceInformation;
 import org.geowebcache.grid.GridSet;
 import org.geowebcache.grid.GridSetBroker;
+import org.geowebcache.stats.RenderCostStats;
 import org.geowebcache.util.CompositeIterable;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.DisposableBean;
@@ -45,13 +51,26 @@
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.util.Assert;
 
-/** Serves tile layers from the {@link TileLayerConfiguration}s available in the application context. */
+/**
+ * Serves tile layers from the {@link TileLayerConfiguration}s available in the application context.
+ *
+ * <p>When the {@link #LAYER_INDEX} system property or environment variable is set to {@code true}, layers are indexed
+ * by name as they are looked up, so that the configurations are only queried once per layer. The index is kept up to
+ * date by the changes made through this dispatcher, and is rebuilt when the configurations are
+ * {@link GeoWebCacheExtensions#reinitialize(ApplicationContext) reinitialized}; changes made to the configurations
+ * directly need {@link #clearLayerIndex()} to be called, so it should only be enabled when all the configurations in
+ * use are changed through this dispatcher.
+ */
 public class TileLayerDispatcher
         implements DisposableBean,
                 InitializingBean,
+                ReinitializingBean,
                 ApplicationContextAware,
                 ConfigurationAggregator<TileLayerConfiguration> {
 
+    /** System property or environment variable enabling the index of the layers by name, {@code false} by default */
+    public static final String LAYER_INDEX = "GWC_TILE_LAYER_INDEX";
+
     TileLayerDispatcherFilter tileLayerDispatcherFilter;
 
     private List<TileLayerConfiguration> configs;
@@ -62,6 +81,17 @@
 
     private ApplicationContext applicationContext;
 
+    private volatile boolean layerIndexEnabled =
+            "true".equalsIgnoreCase(GeoWebCacheExtensions.getProperty(LAYER_INDEX));
+
+    // layers by name, filled on lookup
+    private final Map<String, TileLayer> layerIndex = new ConcurrentHashMap<>();
+
+    // bumped on every change to the layers, to tell whether a lookup raced with one
+    private final AtomicLong layerChanges = new AtomicLong();
+
+    private final List<TileLayerDispatcherListener> listeners = new CopyOnWriteArrayList<>();
+
     /**
      * Used for testing only, in production use {@link #TileLayerDispatcher(GridSetBroker, TileLayerDispatcherFilter)}
      * instead, configurations are loaded from the application context, the {@code configs} parameter will be
@@ -82,13 +112,7 @@ public TileLayerDispatcher(GridSetBroker gridSetBroker, TileLayerDispatcherFilte
     }
 
     public boolean layerExists(final String layerName) {
-        for (TileLayerConfiguration configuration : configs) {
-            Optional<TileLayer> layer = configuration.getLayer(layerName);
-            if (layer.isPresent()) {
-                return true;
-            }
-        }
-        return false;
+        return layerName != null && findLayer(layerName) != null;
     }
 
     /**
@@ -99,11 +123,9 @@ public boolean layerExists(final String layerName) {
     public TileLayer getTileLayer(final String layerName) throws GeoWebCacheException {
         Preconditions.checkNotNull(layerName, "layerName is null");
 
-        for (TileLayerConfiguration configuration : configs) {
-            Optional<TileLayer> layer = configuration.getLayer(layerName);
-            if (layer.isPresent()) {
-                return layer.get();
-            }
+        TileLayer layer = findLayer(layerName);
+        if (layer != null) {
+            return layer;
         }
         throw new GeoWebCacheException("Thread "
                 + Thread.currentThread().getName()
@@ -113,6 +135,66 @@ public TileLayer getTileLayer(final String layerName) throws GeoWebCacheExceptio
                 + " it may not have loaded properly.");
     }
 
+    private @Nullable TileLayer findLayer(final String layerName) {
+        if (!layerIndexEnabled) {
+            for (TileLayerConfiguration configuration : configs) {
+                Optional<TileLayer> layer = configuration.getLayer(layerName);
+                if (layer.isPresent()) {
+                    return layer.get();
+                }
+            }
+            return null;
+        }
+        TileLayer indexed = layerIndex.get(layerName);
+        if (indexed != null) {
+            return indexed;
+        }
+        final long changes = layerChanges.get();
+        for (TileLayerConfiguration configuration : configs) {
+            Optional<TileLayer> layer = configuration.getLayer(layerName);
+            if (layer.isPresent()) {
+                TileLayer found = layer.get();
+                layerIndex.put(layerName, found);
+                if (layerChanges.get() != changes) {
+                    // the layer changed in the meantime, what was found may be stale
+                    layerIndex.remove(layerName, found);
+                }
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether layers are indexed by name as they are looked up, see the class documentation for the caveats. Changing
+     * it clears the index.
+     */
+    public void setLayerIndexEnabled(boolean layerIndexEnabled) {
+        this.layerIndexEnabled = layerIndexEnabled;
+        layerIndex.clear();
+    }
+
+    public boolean isLayerIndexEnabled() {
+        return layerIndexEnabled;
+    }
+
+    /**
+     * Forgets about the indexed layers, so that they're looked up in the configurations again, and {@link #addListener
+     * tells the listeners} anything might have changed. Needed after changing the layers of a configuration without
+     * going through this dispatcher.
+     */
+    public void clearLayerIndex() {
+        layerChanges.incrementAndGet();
+        layerIndex.clear();
+        listeners.forEach(TileLayerDispatcherListener::reset);
+    }
+
+    private void layerChanged(String layerName) {
+        layerChanges.incrementAndGet();
+        layerIndex.remove(layerName);
+        listeners.forEach(listener -> listener.layerChanged(layerName));
+    }
+
     public int getLayerCount() {
         int count = 0;
         for (TileLayerConfiguration configuration : configs) {
@@ -148,6 +230,11 @@ public Iterable<TileLayer> getLayerList() {
         return result;
     }
 
+    /** @return whether {@link #getLayerListFiltered()} filters the layers with a {@link TileLayerDispatcherFilter} */
+    public boolean isLayerListFiltered() {
+        return tileLayerDispatcherFilter != null;
+    }
+
     /**
      * This is the same as {@link #getLayerList()} filtered based on the tileLayerDispatcherFilter.
      *
@@ -168,6 +255,17 @@ public ServiceInformation getServiceInformation() {
     /** @param serviceInformation the serviceInformation to set */
     public void setServiceInformation(ServiceInformation serviceInformation) {
         this.serviceInformation = serviceInformation;
+        listeners.forEach(TileLayerDispatcherListener::reset);
+    }
+
+    /** Adds a listener to be notified of the changes made through this dispatcher */
+    public void addListener(TileLayerDispatcherListener listener) {
+        listeners.add(listener);
+    }
+
+    /** @return {@code true} if the listener was registered and has been removed */
+    public boolean removeListener(TileLayerDispatcherListener listener) {
+        return listeners.remove(listener);
     }
 
     /** @see org.springframework.beans.factory.DisposableBean#destroy() */
@@ -184,7 +282,12 @@ public void destroy() throws Exception {
     public synchronized void removeLayer(final String layerName) throws IllegalArgumentException {
         for (TileLayerConfiguration config : configs) {
             if (config.containsLayer(layerName)) {
-                config.removeLayer(layerName);
+                try {
+                    config.removeLayer(layerName);
+                    RenderCostStats.getInstance().clear(layerName);
+                } finally {
+                    layerChanged(layerName);
+                }
                 return;
             }
         }
@@ -201,7 +304,11 @@ public synchronized void removeLayer(final String layerName) throws IllegalArgum
     public synchronized void addLayer(final TileLayer tl) throws IllegalArgumentException {
         for (TileLayerConfiguration c : configs) {
             if (c.canSave(tl)) {
-                c.addLayer(tl);
+                try {
+                    c.addLayer(tl);
+                } finally {
+                    layerChanged(tl.getName());
+                }
                 return;
             }
         }
@@ -217,7 +324,13 @@ public synchronized void addLayer(final TileLayer tl) throws IllegalArgumentExce
     public synchronized void rename(final String oldName, final String newName)
             throws NoSuchElementException, IllegalArgumentException {
         TileLayerConfiguration config = getConfiguration(oldName);
-        config.renameLayer(oldName, newName);
+        try {
+            config.renameLayer(oldName, newName);
+            RenderCostStats.getInstance().clear(oldName);
+        } finally {
+            layerChanged(oldName);
+            layerChanged(newName);
+        }
     }
 
     /**
@@ -228,7 +341,11 @@ public synchronized void rename(final String oldName, final String newName)
     public synchronized void modify(final TileLayer tl) throws IllegalArgumentException {
         TileLayerConfiguration config = getConfiguration(tl);
         // TODO: this won't work with GetCapabilitiesConfiguration
-        config.modifyLayer(tl);
+        try {
+            config.modifyLayer(tl);
+        } finally {
+            layerChanged(tl.getName());
+        }
     }
 
     public TileLayerConfiguration getConfiguration(TileLayer tl) throws IllegalArgumentException {
@@ -310,6 +427,7 @@ public <T extends TileLayerConfiguration> List<? extends T> getConfigurations(Cl
     @Override
     public void afterPropertiesSet() throws Exception {
         this.configs = GeoWebCacheExtensions.configurations(TileLayerConfiguration.class, applicationContext);
+        clearLayerIndex();
 
         Map<String, BaseConfiguration> config = applicationContext.getBeansOfType(BaseConfiguration.class);
         if (config != null && !config.isEmpty()) {
@@ -321,6 +439,11 @@ public void afterPropertiesSet() throws Exception {
         }
     }
 
+    @Override
+    public void deinitialize() throws Exception {
+        clearLayerIndex();
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         if (this.applicationContext != null)
@@ -0,0 +1,29 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer;
+
+import java.util.EventListener;
+
+/**
+ * Gets notified of the changes made through a {@link TileLayerDispatcher}, for example to drop what has been derived
+ * from the layers it serves.
+ */
+public interface TileLayerDispatcherListener extends EventListener {
+
+    /** The layer with the given name has been added, modified, renamed or removed */
+    void layerChanged(String layerName);
+
+    /** Any of the layers, gridsets or service metadata might have changed */
+    void reset();
+}
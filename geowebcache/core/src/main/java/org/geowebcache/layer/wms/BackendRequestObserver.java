@@ -0,0 +1,29 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+/**
+ * Gets notified of the outcome of each request {@link WMSHttpHelper} sends to a WMS backend on the current thread.
+ *
+ * @see WMSHttpHelper#setRequestObserver(BackendRequestObserver)
+ */
+public interface BackendRequestObserver {
+
+    /**
+     * @param backendUrl the URL of the backend, without the request parameters
+     * @param elapsedNanos the time it took to issue the request and read the response
+     * @param success {@literal false} if the request failed or the backend returned an error
+     */
+    void requestCompleted(String backendUrl, long elapsedNanos, boolean success);
+}
@@ -0,0 +1,249 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+
+/**
+ * Coordinates the requests sent to the WMS backends by the threads serving tile misses and by the seeding threads.
+ *
+ * <p>Each layer accepts as many concurrent requests to a backend host as its {@link WMSSourceHelper#getConcurrency()
+ * concurrency}, further requests wait for a slot. When the {@link #HOST_CONCURRENCY} system property or environment
+ * variable is set, the layers using the same host share that many slots instead. Waiting requests are served by
+ * {@link Priority}, so interactive requests overtake queued seeding ones, and seeding requests leave a share of the
+ * slots, set by the {@link #INTERACTIVE_RESERVE} system property or environment variable (0.25 by default), free for
+ * interactive ones.
+ *
+ * <p>The priority of the requests is set per thread with {@link #setPriority(Priority)}, threads that don't set it
+ * issue interactive requests.
+ */
+public class BackendRequestScheduler {
+
+    private static final Logger log = Logging.getLogger(BackendRequestScheduler.class.getName());
+
+    /** Share of the backend slots seeding requests can't use, between 0 and 1 */
+    public static final String INTERACTIVE_RESERVE = "GWC_BACKEND_INTERACTIVE_RESERVE";
+
+    static final double DEFAULT_INTERACTIVE_RESERVE = 0.25;
+
+    /**
+     * Maximum number of concurrent requests to each backend host, shared by all the layers requesting it. Not set by
+     * default, each layer being limited by its own concurrency.
+     */
+    public static final String HOST_CONCURRENCY = "GWC_BACKEND_HOST_CONCURRENCY";
+
+    /** Request priority classes, from the most to the least urgent */
+    public enum Priority {
+        /** Tile misses of client requests */
+        INTERACTIVE,
+        /** Tiles missing from the cache being seeded */
+        SEED,
+        /** Tiles being regenerated */
+        RESEED
+    }
+
+    private static final ThreadLocal<Priority> PRIORITY = new ThreadLocal<>();
+
+    private static final BackendRequestScheduler INSTANCE =
+            new BackendRequestScheduler(readInteractiveReserve(), readHostConcurrency());
+
+    private final double interactiveReserve;
+
+    private final int hostConcurrency;
+
+    private final Map<String, Backend> backends = new ConcurrentHashMap<>();
+
+    BackendRequestScheduler(double interactiveReserve) {
+        this(interactiveReserve, 0);
+    }
+
+    BackendRequestScheduler(double interactiveReserve, int hostConcurrency) {
+        this.interactiveReserve = Math.max(0, Math.min(1, interactiveReserve));
+        this.hostConcurrency = Math.max(0, hostConcurrency);
+    }
+
+    /** @return the scheduler shared by all the layers */
+    public static BackendRequestScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Sets the priority of the backend requests made by the current thread, until cleared
+     *
+     * @param priority the priority, or {@code null} to go back to {@link Priority#INTERACTIVE}
+     */
+    public static void setPriority(Priority priority) {
+        if (priority == null) {
+            PRIORITY.remove();
+        } else {
+            PRIORITY.set(priority);
+        }
+    }
+
+    /** @return the priority of the backend requests made by the current thread */
+    public static Priority getPriority() {
+        Priority priority = PRIORITY.get();
+        return priority == null ? Priority.INTERACTIVE : priority;
+    }
+
+    private static double readInteractiveReserve() {
+        String configured = GeoWebCacheExtensions.getProperty(INTERACTIVE_RESERVE);
+        if (configured != null) {
+            try {
+                return Double.parseDouble(configured.trim());
+            } catch (NumberFormatException e) {
+                log.warning("Invalid value for "
+                        + INTERACTIVE_RESERVE
+                        + ": "
+                        + configured
+                        + ", using "
+                        + DEFAULT_INTERACTIVE_RESERVE);
+            }
+        }
+        return DEFAULT_INTERACTIVE_RESERVE;
+    }
+
+    private static int readHostConcurrency() {
+        String configured = GeoWebCacheExtensions.getProperty(HOST_CONCURRENCY);
+        if (configured != null) {
+            try {
+                return Integer.parseInt(configured.trim());
+            } catch (NumberFormatException e) {
+                log.warning("Invalid value for " + HOST_CONCURRENCY + ": " + configured + ", using 0");
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param layerName the layer issuing the requests
+     * @param host the backend host, usually its URL without the path
+     * @return the backend whose slots the layer requests to the host use, for {@link #acquire(String, int)}
+     */
+    public String backend(String layerName, String host) {
+        return hostConcurrency > 0 ? host : layerName + "@" + host;
+    }
+
+    /**
+     * @param layerConcurrency the concurrency of the layer issuing the requests
+     * @return the limit to {@link #acquire(String, int) acquire} the backend slots with
+     */
+    public int limit(int layerConcurrency) {
+        return hostConcurrency > 0 ? hostConcurrency : layerConcurrency;
+    }
+
+    /**
+     * Waits for a slot to send a request to the given backend, with the priority of the current thread. Must be paired
+     * with {@link #release(String)}.
+     *
+     * @param backend identifies the backend, as returned by {@link #backend(String, String)}
+     * @param limit the maximum number of concurrent requests to the backend
+     */
+    public void acquire(String backend, int limit) throws InterruptedException {
+        Priority priority = getPriority();
+        int allowed = allowed(priority, Math.max(1, limit));
+        Backend b = backends.computeIfAbsent(backend, k -> new Backend());
+        synchronized (b) {
+            if (b.waiting.isEmpty() && b.active < allowed) {
+                b.active++;
+                return;
+            }
+            Waiter waiter = new Waiter(priority, b.sequence++);
+            b.waiting.add(waiter);
+            try {
+                while (b.waiting.peek() != waiter || b.active >= allowed) {
+                    b.wait();
+                }
+            } catch (InterruptedException e) {
+                b.waiting.remove(waiter);
+                b.notifyAll();
+                throw e;
+            }
+            b.waiting.poll();
+            b.active++;
+            // the next waiter may fit too
+            b.notifyAll();
+        }
+    }
+
+    /** Frees the slot taken by {@link #acquire(String, int)} */
+    public void release(String backend) {
+        Backend b = backends.get(backend);
+        if (b == null) {
+            return;
+        }
+        synchronized (b) {
+            b.active--;
+            b.notifyAll();
+        }
+    }
+
+    /** @return the number of requests currently sent to the backend */
+    public int getActive(String backend) {
+        Backend b = backends.get(backend);
+        if (b == null) {
+            return 0;
+        }
+        synchronized (b) {
+            return b.active;
+        }
+    }
+
+    /** @return the number of requests waiting for a slot of the backend */
+    public int getWaiting(String backend) {
+        Backend b = backends.get(backend);
+        if (b == null) {
+            return 0;
+        }
+        synchronized (b) {
+            return b.waiting.size();
+        }
+    }
+
+    private int allowed(Priority priority, int limit) {
+        if (priority == Priority.INTERACTIVE) {
+            return limit;
+        }
+        return Math.max(1, limit - (int) (limit * interactiveReserve));
+    }
+
+    private static final class Backend {
+
+        // guarded by this
+        int active;
+
+        long sequence;
+
+        final PriorityQueue<Waiter> waiting = new PriorityQueue<>(
+                Comparator.comparing((Waiter w) -> w.priority).thenComparingLong(w -> w.sequence));
+    }
+
+    private static final class Waiter {
+
+        final Priority priority;
+
+        final long sequence;
+
+        Waiter(Priority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -87,6 +87,10 @@ public class WMSHttpHelper extends WMSSourceHelper {
 
     protected CloseableHttpClient client;
 
+    private static final ThreadLocal<BackendRequestObserver> REQUEST_OBSERVER = new ThreadLocal<>();
+
+    private BackendRequestScheduler scheduler = BackendRequestScheduler.getInstance();
+
     public WMSHttpHelper() {
         this(null, null, null);
     }
@@ -168,6 +172,24 @@ CloseableHttpClient buildHttpClient(
         return builder.buildClient();
     }
 
+    /** Sets the scheduler coordinating the requests to the backends, the shared one by default */
+    public void setScheduler(BackendRequestScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Sets the observer notified of the backend requests made by the current thread, until cleared
+     *
+     * @param observer the observer, or {@code null} to clear it
+     */
+    public static void setRequestObserver(BackendRequestObserver observer) {
+        if (observer == null) {
+            REQUEST_OBSERVER.remove();
+        } else {
+            REQUEST_OBSERVER.set(observer);
+        }
+    }
+
     /** Loops over the different backends, tries the request */
     @Override
     protected void makeRequest(
@@ -193,6 +215,17 @@ protected void makeRequest(
             } catch (MalformedURLException maue) {
                 throw new GeoWebCacheException("Malformed URL: " + requestUrl + " " + maue.getMessage());
             }
+            final String backend = scheduler.backend(
+                    layer.getName(), wmsBackendUrl.getProtocol() + "://" + wmsBackendUrl.getAuthority());
+            try {
+                scheduler.acquire(backend, scheduler.limit(getConcurrency()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GeoWebCacheException("Interrupted while waiting to request " + requestUrl);
+            }
+            final BackendRequestObserver observer = REQUEST_OBSERVER.get();
+            final long start = requestStarted();
+            boolean success = false;
             try {
                 connectAndCheckHeaders(
                         tileRespRecv,
@@ -202,8 +235,14 @@ protected void makeRequest(
                         backendTimeout,
                         target,
                         layer.getHttpRequestMode());
+                success = !tileRespRecv.getError();
             } catch (GeoWebCacheException e) {
                 fetchException = e;
+            } finally {
+                scheduler.release(backend);
+                if (observer != null) {
+                    observer.requestCompleted(requestUrl, System.nanoTime() - start, success);
+                }
             }
 
             backendTries++;
@@ -52,6 +52,7 @@
 import org.geowebcache.mime.FormatModifier;
 import org.geowebcache.mime.MimeType;
 import org.geowebcache.mime.XMLMime;
+import org.geowebcache.stats.RenderCostStats;
 import org.geowebcache.util.GWCVars;
 import org.geowebcache.util.URLs;
 
@@ -356,11 +357,19 @@ private ConveyorTile getMetatilingReponse(ConveyorTile tile, boolean tryCache) t
                 metaTile.setExpiresHeader(GWCVars.CACHE_USE_WMS_BACKEND_VALUE);
             }
             long requestTime = System.currentTimeMillis();
+            long start = System.nanoTime();
             sourceHelper.makeRequest(metaTile, buffer);
 
             if (metaTile.getError()) {
                 throw new GeoWebCacheException("Empty metatile, error message: " + metaTile.getErrorMessage());
             }
+            RenderCostStats.getInstance()
+                    .record(
+                            getName(),
+                            (int) metaTile.getMetaGridPos()[2],
+                            metaTile.getTilesGridPositions().length,
+                            buffer.getSize(),
+                            WMSSourceHelper.elapsedSinceRequestStart(start));
 
             if (saveExpirationHeaders) {
                 // Converting to seconds
@@ -475,11 +484,19 @@ public ConveyorTile doNonMetatilingRequest(ConveyorTile tile) throws GeoWebCache
         tile.setTileLayer(this);
 
         ByteArrayResource buffer = getImageBuffer(WMS_BUFFER);
+        long start = System.nanoTime();
         sourceHelper.makeRequest(tile, buffer);
 
         if (tile.getError() || buffer.getSize() == 0) {
             throw new GeoWebCacheException("Empty tile, error message: " + tile.getErrorMessage());
         }
+        RenderCostStats.getInstance()
+                .record(
+                        getName(),
+                        (int) tile.getTileIndex()[2],
+                        1,
+                        buffer.getSize(),
+                        WMSSourceHelper.elapsedSinceRequestStart(start));
 
         tile.setBlob(buffer);
         return tile;
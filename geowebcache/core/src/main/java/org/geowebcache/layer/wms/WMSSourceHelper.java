@@ -34,6 +34,9 @@ public abstract class WMSSourceHelper {
     private int concurrency = 32;
     private int backendTimetout;
 
+    /** When the last backend request of each thread started, once cleared to go */
+    private static final ThreadLocal<Long> REQUEST_START = new ThreadLocal<>();
+
     protected abstract void makeRequest(
             TileResponseReceiver tileRespRecv,
             WMSLayer layer,
@@ -146,4 +149,27 @@ public void setBackendTimeout(int backendTimeout) {
     public int getBackendTimeout() {
         return this.backendTimetout;
     }
+
+    /**
+     * Notes that the current thread starts a backend request now, after waiting for its turn if any, so that the render
+     * times measured by the layers leave the wait out
+     *
+     * @return the start time, in {@link System#nanoTime() nanoseconds}
+     */
+    protected static long requestStarted() {
+        long start = System.nanoTime();
+        REQUEST_START.set(start);
+        return start;
+    }
+
+    /**
+     * @param since when the caller asked for the request, in {@link System#nanoTime() nanoseconds}
+     * @return the nanoseconds elapsed since the current thread last {@link #requestStarted() started} a backend
+     *     request, or since the given time if it did not start one after it
+     */
+    static long elapsedSinceRequestStart(long since) {
+        Long start = REQUEST_START.get();
+        REQUEST_START.remove();
+        return System.nanoTime() - (start == null ? since : Math.max(since, start));
+    }
 }
@@ -66,6 +66,9 @@ public static enum STATE {
 
     private long groupStartTime;
 
+    /** The journal entry of the job this task is part of, if any */
+    SeedJournal.Job journalJob;
+
     /**
      * Marks this task as active in the group by incrementing the shared counter, delegates to
      * {@link #doActionInternal()}, and makes sure to remove this task from the group count.
@@ -112,6 +115,11 @@ public int getThreadCount() {
         return sharedThreadCount.get();
     }
 
+    /** @return the number of tasks of the group currently allowed to work at the same time */
+    public int getConcurrency() {
+        return getThreadCount();
+    }
+
     public int getThreadOffset() {
         return threadOffset;
     }
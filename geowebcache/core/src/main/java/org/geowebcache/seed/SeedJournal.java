@@ -0,0 +1,336 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.config.ConfigurationException;
+import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.mime.MimeException;
+import org.geowebcache.mime.MimeType;
+import org.geowebcache.seed.GWCTask.TYPE;
+import org.geowebcache.storage.DefaultStorageFinder;
+import org.geowebcache.storage.DiscontinuousTileRange;
+import org.geowebcache.storage.TileRange;
+
+/**
+ * Persists the seed and truncate jobs dispatched by the {@link TileBreeder}, so that they can be resumed after a
+ * restart.
+ *
+ * <p>Each job is saved as a properties file in the {@code seed-journal} directory of the cache, holding the tile range,
+ * the task settings and the last {@link org.geowebcache.storage.TileRangeIterator#getCheckpoint() checkpoint} of the
+ * seeding threads. Files are replaced atomically, so a crash while writing leaves the previous version in place.
+ */
+public class SeedJournal {
+
+    private static final Logger LOGGER = Logging.getLogger(SeedJournal.class.getName());
+
+    /** Name of the journal directory inside the cache directory */
+    public static final String JOURNAL_DIRECTORY = "seed-journal";
+
+    private static final String EXTENSION = ".properties";
+
+    private final File directory;
+
+    private final DefaultStorageFinder storageFinder;
+
+    /** Keeps the journal in the {@link #JOURNAL_DIRECTORY} of the default cache directory */
+    public SeedJournal(DefaultStorageFinder storageFinder) {
+        this.storageFinder = storageFinder;
+        this.directory = null;
+    }
+
+    /** Keeps the journal in the given directory */
+    public SeedJournal(File directory) {
+        this.storageFinder = null;
+        this.directory = directory;
+    }
+
+    /** @return {@literal true} if jobs on the given range can be saved and resumed */
+    public static boolean isJournaled(TileRange tr) {
+        // the tile filter of discontinuous ranges is not serializable
+        return !(tr instanceof DiscontinuousTileRange);
+    }
+
+    /** @return all the saved jobs, skipping those that can't be read */
+    public List<Job> list() throws IOException {
+        File[] files = getDirectory().listFiles((dir, name) -> name.endsWith(EXTENSION));
+        List<Job> jobs = new ArrayList<>();
+        if (files == null) {
+            return jobs;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            Properties props = new Properties();
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                props.load(in);
+                jobs.add(Job.fromProperties(props));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Ignoring unreadable seed journal entry " + file, e);
+            }
+        }
+        return jobs;
+    }
+
+    /** Saves or replaces a job */
+    public void save(Job job) throws IOException {
+        File dir = getDirectory();
+        Files.createDirectories(dir.toPath());
+        Path target = new File(dir, job.getId() + EXTENSION).toPath();
+        Path tmp = new File(dir, job.getId() + EXTENSION + ".tmp").toPath();
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            job.toProperties().store(out, "GeoWebCache " + job.getType() + " job on " + job.getLayerName());
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Removes a job, if saved */
+    public void remove(String id) throws IOException {
+        Files.deleteIfExists(new File(getDirectory(), id + EXTENSION).toPath());
+    }
+
+    private File getDirectory() throws IOException {
+        if (directory != null) {
+            return directory;
+        }
+        try {
+            return new File(storageFinder.getDefaultPath(), JOURNAL_DIRECTORY);
+        } catch (ConfigurationException e) {
+            throw new IOException("Unable to locate the seed journal directory", e);
+        }
+    }
+
+    /** A saved seed, reseed or truncate job */
+    public static final class Job {
+
+        private final String id;
+
+        private final TYPE type;
+
+        private final int threadCount;
+
+        private final boolean filterUpdate;
+
+        private final int tileFailureRetryCount;
+
+        private final long tileFailureRetryWaitTime;
+
+        private final long totalFailuresBeforeAborting;
+
+        private final TileRange tileRange;
+
+        private volatile long[] checkpoint;
+
+        Job(
+                String id,
+                TYPE type,
+                int threadCount,
+                boolean filterUpdate,
+                int tileFailureRetryCount,
+                long tileFailureRetryWaitTime,
+                long totalFailuresBeforeAborting,
+                TileRange tileRange,
+                long[] checkpoint) {
+            this.id = id;
+            this.type = type;
+            this.threadCount = threadCount;
+            this.filterUpdate = filterUpdate;
+            this.tileFailureRetryCount = tileFailureRetryCount;
+            this.tileFailureRetryWaitTime = tileFailureRetryWaitTime;
+            this.totalFailuresBeforeAborting = totalFailuresBeforeAborting;
+            this.tileRange = tileRange;
+            this.checkpoint = checkpoint;
+        }
+
+        Job(
+                TYPE type,
+                int threadCount,
+                boolean filterUpdate,
+                int tileFailureRetryCount,
+                long tileFailureRetryWaitTime,
+                long totalFailuresBeforeAborting,
+                TileRange tileRange) {
+            this(
+                    UUID.randomUUID().toString(),
+                    type,
+                    threadCount,
+                    filterUpdate,
+                    tileFailureRetryCount,
+                    tileFailureRetryWaitTime,
+                    totalFailuresBeforeAborting,
+                    tileRange,
+                    null);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getLayerName() {
+            return tileRange.getLayerName();
+        }
+
+        public TYPE getType() {
+            return type;
+        }
+
+        public int getThreadCount() {
+            return threadCount;
+        }
+
+        public boolean isFilterUpdate() {
+            return filterUpdate;
+        }
+
+        public int getTileFailureRetryCount() {
+            return tileFailureRetryCount;
+        }
+
+        public long getTileFailureRetryWaitTime() {
+            return tileFailureRetryWaitTime;
+        }
+
+        public long getTotalFailuresBeforeAborting() {
+            return totalFailuresBeforeAborting;
+        }
+
+        public TileRange getTileRange() {
+            return tileRange;
+        }
+
+        /** @return the {z, y} row seeding resumes from, or {@code null} to start from the beginning of the range */
+        public long[] getCheckpoint() {
+            return checkpoint;
+        }
+
+        public void setCheckpoint(long[] checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        Properties toProperties() {
+            Properties props = new Properties();
+            props.setProperty("id", id);
+            props.setProperty("type", type.name());
+            props.setProperty("threadCount", String.valueOf(threadCount));
+            props.setProperty("filterUpdate", String.valueOf(filterUpdate));
+            props.setProperty("tileFailureRetryCount", String.valueOf(tileFailureRetryCount));
+            props.setProperty("tileFailureRetryWaitTime", String.valueOf(tileFailureRetryWaitTime));
+            props.setProperty("totalFailuresBeforeAborting", String.valueOf(totalFailuresBeforeAborting));
+            props.setProperty("layer", tileRange.getLayerName());
+            props.setProperty("gridSet", tileRange.getGridSetId());
+            if (tileRange.getMimeType() != null) {
+                props.setProperty("format", tileRange.getMimeType().getFormat());
+            }
+            Map<String, String> parameters = tileRange.getParameters();
+            if (parameters != null && !parameters.isEmpty()) {
+                props.setProperty("parameters", ParametersUtils.getKvp(parameters));
+            }
+            props.setProperty("zoomStart", String.valueOf(tileRange.getZoomStart()));
+            props.setProperty("zoomStop", String.valueOf(tileRange.getZoomStop()));
+            for (int z = tileRange.getZoomStart(); z <= tileRange.getZoomStop(); z++) {
+                long[] bounds = tileRange.rangeBounds(z);
+                props.setProperty("bounds." + z, bounds[0] + "," + bounds[1] + "," + bounds[2] + "," + bounds[3]);
+            }
+            long[] checkpoint = this.checkpoint;
+            if (checkpoint != null) {
+                props.setProperty("checkpoint", checkpoint[0] + "," + checkpoint[1]);
+            }
+            return props;
+        }
+
+        static Job fromProperties(Properties props) throws IOException {
+            int zoomStart = Integer.parseInt(required(props, "zoomStart"));
+            int zoomStop = Integer.parseInt(required(props, "zoomStop"));
+            long[][] bounds = new long[zoomStop - zoomStart + 1][];
+            for (int z = zoomStart; z <= zoomStop; z++) {
+                long[] b = parseLongs(required(props, "bounds." + z), 4);
+                bounds[z - zoomStart] = new long[] {b[0], b[1], b[2], b[3], z};
+            }
+            MimeType mimeType = null;
+            String format = props.getProperty("format");
+            if (format != null) {
+                try {
+                    mimeType = MimeType.createFromFormat(format);
+                } catch (MimeException e) {
+                    throw new IOException("Unknown format " + format, e);
+                }
+            }
+            String kvp = props.getProperty("parameters");
+            Map<String, String> parameters = kvp == null ? null : ParametersUtils.getMap(kvp);
+            TileRange tileRange = new TileRange(
+                    required(props, "layer"),
+                    required(props, "gridSet"),
+                    zoomStart,
+                    zoomStop,
+                    bounds,
+                    mimeType,
+                    parameters);
+            String checkpoint = props.getProperty("checkpoint");
+            return new Job(
+                    required(props, "id"),
+                    TYPE.valueOf(required(props, "type")),
+                    Integer.parseInt(required(props, "threadCount")),
+                    Boolean.parseBoolean(props.getProperty("filterUpdate")),
+                    Integer.parseInt(required(props, "tileFailureRetryCount")),
+                    Long.parseLong(required(props, "tileFailureRetryWaitTime")),
+                    Long.parseLong(required(props, "totalFailuresBeforeAborting")),
+                    tileRange,
+                    checkpoint == null ? null : parseLongs(checkpoint, 2));
+        }
+
+        private static String required(Properties props, String key) throws IOException {
+            String value = props.getProperty(key);
+            if (value == null) {
+                throw new IOException("Missing property " + key);
+            }
+            return value;
+        }
+
+        private static long[] parseLongs(String value, int expected) throws IOException {
+            String[] parts = value.split(",");
+            if (parts.length != expected) {
+                throw new IOException("Expected " + expected + " comma separated values: " + value);
+            }
+            long[] result = new long[expected];
+            for (int i = 0; i < expected; i++) {
+                result[i] = Long.parseLong(parts[i].trim());
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return type + " job " + id + " on layer " + getLayerName();
+        }
+    }
+}
@@ -15,6 +15,7 @@
 package org.geowebcache.seed;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
@@ -27,6 +28,9 @@
 import org.geowebcache.conveyor.ConveyorTile;
 import org.geowebcache.filter.request.RequestFilter;
 import org.geowebcache.layer.TileLayer;
+import org.geowebcache.layer.wms.BackendRequestScheduler;
+import org.geowebcache.layer.wms.BackendRequestScheduler.Priority;
+import org.geowebcache.layer.wms.WMSHttpHelper;
 import org.geowebcache.layer.wms.WMSLayer;
 import org.geowebcache.storage.StorageBroker;
 import org.geowebcache.storage.TileRange;
@@ -55,6 +59,8 @@ class SeedTask extends GWCTask {
 
     private AtomicLong sharedFailureCounter;
 
+    private SeedThrottle throttle;
+
     @VisibleForTesting
     Sleeper sleeper = Thread::sleep;
 
@@ -81,6 +87,10 @@ public SeedTask(StorageBroker sb, TileRangeIterator trIter, TileLayer tl, boolea
         super.state = GWCTask.STATE.READY;
     }
 
+    TileRangeIterator getTileRangeIterator() {
+        return trIter;
+    }
+
     // TODO: refactoring this into smaller functions might improve readability
     @Override
     protected void doActionInternal() throws GeoWebCacheException, InterruptedException {
@@ -125,7 +135,7 @@ protected void doActionInternal() throws GeoWebCacheException, InterruptedExcept
                     fetchAttempt++) {
                 try {
                     checkInterrupted();
-                    tl.seedTile(tile, tryCache);
+                    seedTile(tile, tryCache);
                     break; // success, let it go
                 } catch (Exception e) {
                     // if GWC_SEED_RETRY_COUNT was not set then none of the settings have effect, in
@@ -208,6 +218,28 @@ protected void doActionInternal() throws GeoWebCacheException, InterruptedExcept
         super.state = GWCTask.STATE.DONE;
     }
 
+    private void seedTile(ConveyorTile tile, boolean tryCache)
+            throws GeoWebCacheException, IOException, InterruptedException {
+        // let the backend requests of tile misses go first
+        BackendRequestScheduler.setPriority(parsedType == TYPE.RESEED ? Priority.RESEED : Priority.SEED);
+        try {
+            if (throttle == null) {
+                tl.seedTile(tile, tryCache);
+                return;
+            }
+            throttle.acquire();
+            WMSHttpHelper.setRequestObserver(throttle);
+            try {
+                tl.seedTile(tile, tryCache);
+            } finally {
+                WMSHttpHelper.setRequestObserver(null);
+                throttle.release();
+            }
+        } finally {
+            BackendRequestScheduler.setPriority(null);
+        }
+    }
+
     @SuppressWarnings("ThreadPriorityCheck")
     private void reprioritize() {
         Thread.currentThread().setPriority((java.lang.Thread.NORM_PRIORITY + java.lang.Thread.MIN_PRIORITY) / 2);
@@ -297,6 +329,16 @@ public void setFailurePolicy(
         this.sharedFailureCounter = sharedFailureCounter;
     }
 
+    /** @param throttle limits how many of the tasks of the group request tiles at the same time, may be null */
+    public void setThrottle(SeedThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return throttle == null ? super.getConcurrency() : throttle.getConcurrency();
+    }
+
     @Override
     protected void dispose() {
         if (tl instanceof WMSLayer layer) {
@@ -0,0 +1,185 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.geowebcache.layer.wms.BackendRequestObserver;
+import org.geowebcache.layer.wms.WMSHttpHelper;
+
+/**
+ * Adapts the number of tasks of a seeding job that are allowed to request tiles at the same time to how the WMS
+ * backends cope with the load, following an additive increase, multiplicative decrease (AIMD) scheme.
+ *
+ * <p>The backend requests made by the tasks are reported by {@link WMSHttpHelper}. The allowed concurrency grows by one
+ * task each time as many requests as allowed tasks complete normally. It is halved, at most once per request round
+ * trip, when over a fifth of the recent requests to a backend failed, or when the recent latency of a backend gets over
+ * {@link #DEFAULT_LATENCY_TOLERANCE} times the long term average. Isolated failures leave it alone. It never goes below
+ * one task, nor above the number of tasks of the job.
+ */
+public class SeedThrottle implements BackendRequestObserver {
+
+    /** How many times the long term latency average the recent one can reach before backing off */
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    private static final double BACKOFF_RATIO = 0.5;
+
+    private final int maxConcurrency;
+
+    private final double latencyTolerance;
+
+    private final Map<String, BackendStatistics> backends = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private double limit;
+
+    private int active;
+
+    private long lastDecrease = System.nanoTime() - TimeUnit.HOURS.toNanos(1);
+
+    public SeedThrottle(int maxConcurrency) {
+        this(maxConcurrency, DEFAULT_LATENCY_TOLERANCE);
+    }
+
+    public SeedThrottle(int maxConcurrency, double latencyTolerance) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.latencyTolerance = latencyTolerance;
+        this.limit = this.maxConcurrency;
+    }
+
+    /** Waits until the calling task is allowed to request a tile. Must be paired with {@link #release()}. */
+    public synchronized void acquire() throws InterruptedException {
+        while (active >= (int) limit) {
+            wait();
+        }
+        active++;
+    }
+
+    /** Lets another task request tiles */
+    public synchronized void release() {
+        active--;
+        notifyAll();
+    }
+
+    /** @return the number of tasks currently allowed to request tiles at the same time */
+    public synchronized int getConcurrency() {
+        return (int) limit;
+    }
+
+    /** @return the statistics of the backends seen so far, by URL */
+    public Map<String, BackendStatistics> getBackendStatistics() {
+        return Collections.unmodifiableMap(backends);
+    }
+
+    @Override
+    public void requestCompleted(String backendUrl, long elapsedNanos, boolean success) {
+        BackendStatistics stats = backends.computeIfAbsent(backendUrl, url -> new BackendStatistics());
+        boolean overloaded = stats.update(elapsedNanos, success, latencyTolerance);
+        synchronized (this) {
+            if (overloaded) {
+                long now = System.nanoTime();
+                // only requests sent after the last decrease reflect its effect
+                if (now - lastDecrease >= elapsedNanos) {
+                    limit = Math.max(1, limit * BACKOFF_RATIO);
+                    lastDecrease = now;
+                    stats.resetFailureWindow();
+                }
+            } else if (success) {
+                limit = Math.min(maxConcurrency, limit + 1 / limit);
+                notifyAll();
+            }
+        }
+    }
+
+    /** Latency and error counters of a backend */
+    public static class BackendStatistics {
+
+        /** Requests to see before the latency averages are considered meaningful */
+        private static final int WARM_UP_REQUESTS = 10;
+
+        private static final double SHORT_TERM_WEIGHT = 0.2;
+
+        private static final double LONG_TERM_WEIGHT = 0.02;
+
+        /** Recent requests the failure rate is computed over */
+        static final int FAILURE_WINDOW = 20;
+
+        /** Share of the recent requests that can fail before backing off */
+        static final double MAX_FAILURE_RATE = 0.2;
+
+        /** Outcome of the recent requests, {@code true} for the failed ones, used as a ring buffer */
+        private final boolean[] recentFailures = new boolean[FAILURE_WINDOW];
+
+        private int recentRequests;
+
+        private int recentFailureCount;
+
+        private long requests;
+
+        private long failures;
+
+        private double shortTermLatency;
+
+        private double longTermLatency;
+
+        /**
+         * @return whether too many of the recent requests failed, or the recent latency went over the tolerated ratio
+         *     of the long term one
+         */
+        synchronized boolean update(long elapsedNanos, boolean success, double tolerance) {
+            requests++;
+            int slot = recentRequests++ % FAILURE_WINDOW;
+            if (recentRequests > FAILURE_WINDOW && recentFailures[slot]) {
+                recentFailureCount--;
+            }
+            recentFailures[slot] = !success;
+            if (!success) {
+                failures++;
+                recentFailureCount++;
+                return recentFailureCount > MAX_FAILURE_RATE * Math.max(FAILURE_WINDOW, recentRequests);
+            }
+            if (requests == failures + 1) {
+                shortTermLatency = longTermLatency = elapsedNanos;
+                return false;
+            }
+            shortTermLatency += SHORT_TERM_WEIGHT * (elapsedNanos - shortTermLatency);
+            boolean congested = requests > WARM_UP_REQUESTS && shortTermLatency > tolerance * longTermLatency;
+            longTermLatency += LONG_TERM_WEIGHT * (elapsedNanos - longTermLatency);
+            return congested;
+        }
+
+        /** Forgets about the recent failures, once the throttle backed off because of them */
+        synchronized void resetFailureWindow() {
+            Arrays.fill(recentFailures, false);
+            recentRequests = 0;
+            recentFailureCount = 0;
+        }
+
+        public synchronized long getRequests() {
+            return requests;
+        }
+
+        public synchronized long getFailures() {
+            return failures;
+        }
+
+        /** @return the recent average latency, in milliseconds */
+        public synchronized double getLatency() {
+            return shortTermLatency / 1_000_000d;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.geowebcache.seed;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -25,8 +26,14 @@
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -50,8 +57,12 @@
 import org.geowebcache.util.GWCVars;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  * Class in charge of dispatching seed/truncate tasks.
@@ -71,6 +82,13 @@
  *       as a single thread group; so if the value is {@code 10} and you launch a seed task with four threads, when
  *       {@code 10} failures are reached by all or any of those four threads the four threads will abort the seeding
  *       task. The default is {@code 1000}.
+ *   <li>{@code GWC_SEED_CHECKPOINT_INTERVAL}: when a {@link SeedJournal} is configured, specifies how often, in
+ *       seconds, the progress of the running jobs is saved. Defaults to {@code 30}s;
+ *   <li>{@code GWC_SEED_RESUME}: whether the jobs left in the {@link SeedJournal} by a previous run are resumed on
+ *       startup. Defaults to {@code true}.
+ *   <li>{@code GWC_SEED_THROTTLE}: whether the number of threads of a seeding job requesting tiles at the same time
+ *       adapts to the latency and errors of the WMS backends, see {@link SeedThrottle}. The thread count of the job is
+ *       then an upper bound. Defaults to {@code false}.
  * </ul>
  *
  * These environment variables can be established by any of the following ways, in order of precedence:
@@ -92,11 +110,22 @@
  *       here>}
  * </ol>
  *
+ * <p>If a {@link SeedJournal} is set, the dispatched jobs are saved in it along with a periodic checkpoint of their
+ * progress, and the jobs that did not complete are resumed from their last checkpoint when GWC starts again, or on
+ * demand through {@link #resumeJobs(String)}. Truncate jobs are resumed from the beginning.
+ *
  * @author Gabriel Roldan, based on Marius Suta's and Arne Kepp's SeedRestlet
  */
-public class TileBreeder implements ApplicationContextAware {
+public class TileBreeder
+        implements ApplicationContextAware, ApplicationListener<ContextRefreshedEvent>, DisposableBean {
     private static final String GWC_SEED_ABORT_LIMIT = "GWC_SEED_ABORT_LIMIT";
 
+    private static final String GWC_SEED_CHECKPOINT_INTERVAL = "GWC_SEED_CHECKPOINT_INTERVAL";
+
+    private static final String GWC_SEED_RESUME = "GWC_SEED_RESUME";
+
+    private static final String GWC_SEED_THROTTLE = "GWC_SEED_THROTTLE";
+
     private static final String GWC_SEED_RETRY_WAIT = "GWC_SEED_RETRY_WAIT";
 
     private static final String GWC_SEED_RETRY_COUNT = "GWC_SEED_RETRY_COUNT";
@@ -109,6 +138,23 @@ public class TileBreeder implements ApplicationContextAware {
 
     private StorageBroker storageBroker;
 
+    private SeedJournal journal;
+
+    /** Seconds between two checkpoints of the journaled jobs */
+    private long checkpointInterval = 30;
+
+    private boolean resumeOnStartup = true;
+
+    private boolean throttleSeeding = false;
+
+    private final AtomicBoolean startupResumeDone = new AtomicBoolean();
+
+    private volatile boolean shuttingDown;
+
+    private ScheduledExecutorService checkpointScheduler;
+
+    private final Map<String, JournaledJob> journaledJobs = new ConcurrentHashMap<>();
+
     /** How many retries per failed tile. -1: disable checks, 0 = don't retry, 1 = retry once if failed, etc */
     public static int TILE_FAILURE_RETRY_COUNT_DEFAULT = 0;
 
@@ -142,6 +188,38 @@ public SubmittedTask(final GWCTask task, final Future<GWCTask> future) {
         }
     }
 
+    /** The tasks of a job saved in the {@link SeedJournal} */
+    private static class JournaledJob {
+        final SeedJournal.Job job;
+
+        final List<GWCTask> tasks = new CopyOnWriteArrayList<>();
+
+        JournaledJob(SeedJournal.Job job) {
+            this.job = job;
+        }
+
+        /** @return whether all the tasks stopped, ignoring the ones that were interrupted if {@code shuttingDown} */
+        boolean isFinished(boolean shuttingDown) {
+            for (GWCTask task : tasks) {
+                STATE state = task.getState();
+                if (state != STATE.DONE && (shuttingDown || state != STATE.DEAD)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** @return the current seeding checkpoint, or {@code null} if there is nothing new to save */
+        long[] checkpoint() {
+            for (GWCTask task : tasks) {
+                if (task instanceof SeedTask seedTask) {
+                    return seedTask.getTileRangeIterator().getCheckpoint();
+                }
+            }
+            return null;
+        }
+    }
+
     /**
      * Initializes the seed task failure control variables either with the provided environment variable values or their
      * defaults.
@@ -155,6 +233,9 @@ public void setApplicationContext(ApplicationContext applicationContext) throws
         String retryCount = GWCVars.findEnvVar(applicationContext, GWC_SEED_RETRY_COUNT);
         String retryWait = GWCVars.findEnvVar(applicationContext, GWC_SEED_RETRY_WAIT);
         String abortLimit = GWCVars.findEnvVar(applicationContext, GWC_SEED_ABORT_LIMIT);
+        String interval = GWCVars.findEnvVar(applicationContext, GWC_SEED_CHECKPOINT_INTERVAL);
+        String resume = GWCVars.findEnvVar(applicationContext, GWC_SEED_RESUME);
+        String throttle = GWCVars.findEnvVar(applicationContext, GWC_SEED_THROTTLE);
 
         TILE_FAILURE_RETRY_COUNT_DEFAULT = (int) toLong(GWC_SEED_RETRY_COUNT, retryCount, -1);
         TILE_FAILURE_RETRY_WAIT_TIME_DEFAULT = toLong(GWC_SEED_RETRY_WAIT, retryWait, 100);
@@ -162,6 +243,46 @@ public void setApplicationContext(ApplicationContext applicationContext) throws
 
         checkPositive(TILE_FAILURE_RETRY_WAIT_TIME_DEFAULT, GWC_SEED_RETRY_WAIT);
         checkPositive(TOTAL_FAILURES_BEFORE_ABORTING_DEFAULT, GWC_SEED_ABORT_LIMIT);
+
+        checkpointInterval = toLong(GWC_SEED_CHECKPOINT_INTERVAL, interval, 30);
+        if (checkpointInterval <= 0) {
+            throw new BeanInitializationException("Invalid configuration value for environment variable "
+                    + GWC_SEED_CHECKPOINT_INTERVAL
+                    + ". It should be a positive integer.");
+        }
+        resumeOnStartup = resume == null || Boolean.parseBoolean(resume.trim());
+        throttleSeeding = throttle != null && Boolean.parseBoolean(throttle.trim());
+    }
+
+    /** Resumes the jobs left in the journal by a previous run, once the layers are available */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (journal == null || !resumeOnStartup || !startupResumeDone.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<GWCTask> tasks = resumeJobs(null);
+            if (!tasks.isEmpty()) {
+                log.info("Resumed " + tasks.size() + " seeding tasks left unfinished by the previous run");
+            }
+        } catch (GeoWebCacheException e) {
+            log.log(Level.WARNING, "Unable to resume the journaled seeding jobs", e);
+        }
+    }
+
+    /** Saves the progress of the running jobs so that they are resumed on the next startup */
+    @Override
+    public void destroy() {
+        shuttingDown = true;
+        synchronized (this) {
+            if (checkpointScheduler != null) {
+                checkpointScheduler.shutdownNow();
+                checkpointScheduler = null;
+            }
+        }
+        if (journal != null) {
+            checkpoint();
+        }
     }
 
     @SuppressWarnings("serial")
@@ -264,11 +385,47 @@ public GWCTask[] createTasks(
         }
 
         TileRangeIterator trIter = new TileRangeIterator(tr, tl.getMetaTilingFactors());
+        GWCTask[] tasks = createTasks(
+                trIter,
+                tl,
+                type,
+                threadCount,
+                filterUpdate,
+                tileFailureRetryCount,
+                tileFailureRetryWaitTime,
+                totalFailuresBeforeAborting);
+
+        if (journal != null && SeedJournal.isJournaled(tr)) {
+            SeedJournal.Job job = new SeedJournal.Job(
+                    type,
+                    threadCount,
+                    filterUpdate,
+                    tileFailureRetryCount,
+                    tileFailureRetryWaitTime,
+                    totalFailuresBeforeAborting,
+                    tr);
+            for (GWCTask task : tasks) {
+                task.journalJob = job;
+            }
+        }
+        return tasks;
+    }
+
+    private GWCTask[] createTasks(
+            TileRangeIterator trIter,
+            TileLayer tl,
+            GWCTask.TYPE type,
+            int threadCount,
+            boolean filterUpdate,
+            int tileFailureRetryCount,
+            long tileFailureRetryWaitTime,
+            long totalFailuresBeforeAborting) {
 
         GWCTask[] tasks = new GWCTask[threadCount];
 
         AtomicLong failureCounter = new AtomicLong();
         AtomicInteger sharedThreadCount = new AtomicInteger();
+        SeedThrottle throttle = throttleSeeding && threadCount > 1 ? new SeedThrottle(threadCount) : null;
         for (int i = 0; i < threadCount; i++) {
             if (type == TYPE.TRUNCATE) {
                 tasks[i] = createTruncateTask(trIter, tl, filterUpdate);
@@ -276,6 +433,7 @@ public GWCTask[] createTasks(
                 SeedTask task = (SeedTask) createSeedTask(type, trIter, tl, filterUpdate);
                 task.setFailurePolicy(
                         tileFailureRetryCount, tileFailureRetryWaitTime, totalFailuresBeforeAborting, failureCounter);
+                task.setThrottle(throttle);
                 tasks[i] = task;
             }
             tasks[i].setThreadInfo(sharedThreadCount, i);
@@ -288,6 +446,7 @@ public GWCTask[] createTasks(
     public void dispatchTasks(GWCTask[] tasks) {
         lock.writeLock().lock();
         try {
+            journal(tasks);
             for (GWCTask gwcTask : tasks) {
                 final Long taskId = this.currentId.incrementAndGet();
                 final GWCTask task = gwcTask;
@@ -305,6 +464,112 @@ public void dispatchTasks(GWCTask[] tasks) {
         }
     }
 
+    /** Saves the jobs of the given tasks in the journal, if not already there */
+    private void journal(GWCTask[] tasks) {
+        if (journal == null) {
+            return;
+        }
+        for (GWCTask task : tasks) {
+            SeedJournal.Job job = task.journalJob;
+            if (job == null) {
+                continue;
+            }
+            JournaledJob journaled = journaledJobs.computeIfAbsent(job.getId(), id -> {
+                try {
+                    journal.save(job);
+                } catch (IOException e) {
+                    log.log(Level.WARNING, "Unable to save " + job + " in the seed journal", e);
+                }
+                return new JournaledJob(job);
+            });
+            journaled.tasks.add(task);
+        }
+        startCheckpoints();
+    }
+
+    private synchronized void startCheckpoints() {
+        if (checkpointScheduler != null || shuttingDown) {
+            return;
+        }
+        CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC Seed Checkpoint-");
+        tf.setDaemon(true);
+        checkpointScheduler = Executors.newSingleThreadScheduledExecutor(tf);
+        checkpointScheduler.scheduleWithFixedDelay(
+                this::checkpoint, checkpointInterval, checkpointInterval, TimeUnit.SECONDS);
+    }
+
+    /** Saves the progress of the journaled jobs, and removes the finished ones from the journal */
+    void checkpoint() {
+        for (JournaledJob journaled : journaledJobs.values()) {
+            SeedJournal.Job job = journaled.job;
+            try {
+                if (journaled.isFinished(shuttingDown)) {
+                    journaledJobs.remove(job.getId());
+                    journal.remove(job.getId());
+                    continue;
+                }
+                long[] checkpoint = journaled.checkpoint();
+                if (checkpoint != null && !Arrays.equals(checkpoint, job.getCheckpoint())) {
+                    job.setCheckpoint(checkpoint);
+                    journal.save(job);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.log(Level.WARNING, "Unable to update " + job + " in the seed journal", e);
+            }
+        }
+    }
+
+    /**
+     * Resumes the jobs saved in the {@link SeedJournal} that are not running, seeding from their last checkpoint. Jobs
+     * on layers that no longer exist are kept in the journal.
+     *
+     * @param layerName the layer to resume the jobs of, or {@code null} for all layers
+     * @return the dispatched tasks
+     */
+    public synchronized List<GWCTask> resumeJobs(String layerName) throws GeoWebCacheException {
+        List<GWCTask> resumed = new ArrayList<>();
+        if (journal == null) {
+            return resumed;
+        }
+        List<SeedJournal.Job> jobs;
+        try {
+            jobs = journal.list();
+        } catch (IOException e) {
+            throw new GeoWebCacheException("Unable to read the seed journal", e);
+        }
+        for (SeedJournal.Job job : jobs) {
+            if ((layerName != null && !layerName.equals(job.getLayerName()))
+                    || journaledJobs.containsKey(job.getId())) {
+                continue;
+            }
+            TileLayer tl;
+            try {
+                tl = findTileLayer(job.getLayerName());
+            } catch (GeoWebCacheException e) {
+                log.warning("Unable to resume " + job + ": " + e.getMessage());
+                continue;
+            }
+            TileRangeIterator trIter =
+                    new TileRangeIterator(job.getTileRange(), tl.getMetaTilingFactors(), job.getCheckpoint());
+            GWCTask[] tasks = createTasks(
+                    trIter,
+                    tl,
+                    job.getType(),
+                    job.getThreadCount(),
+                    job.isFilterUpdate(),
+                    job.getTileFailureRetryCount(),
+                    job.getTileFailureRetryWaitTime(),
+                    job.getTotalFailuresBeforeAborting());
+            for (GWCTask task : tasks) {
+                task.journalJob = job;
+            }
+            dispatchTasks(tasks);
+            log.info("Resumed " + job + " from checkpoint " + Arrays.toString(job.getCheckpoint()));
+            resumed.addAll(Arrays.asList(tasks));
+        }
+        return resumed;
+    }
+
     /** Find the tile range for a Seed Request. */
     public static TileRange createTileRange(SeedRequest req, TileLayer tl) throws GeoWebCacheException {
         int zoomStart = req.getZoomStart().intValue();
@@ -393,8 +658,9 @@ private GWCTask createTruncateTask(TileRangeIterator trIter, TileLayer tl, boole
     /**
      * Method returns List of Strings representing the status of the currently running and scheduled threads
      *
-     * @return array of {@code [[tilesDone, tilesTotal, timeRemaining, taskID, taskStatus],...]} where
-     *     {@code taskStatus} is one of: {@code 0 = PENDING, 1 = RUNNING, 2 = DONE, -1 = ABORTED}
+     * @return array of {@code [[tilesDone, tilesTotal, timeRemaining, taskID, taskStatus, concurrency],...]} where
+     *     {@code taskStatus} is one of: {@code 0 = PENDING, 1 = RUNNING, 2 = DONE, -1 = ABORTED}, and
+     *     {@code concurrency} the number of tasks of its group currently allowed to request tiles at the same time
      */
     public long[][] getStatusList() {
         return getStatusList(null);
@@ -404,8 +670,9 @@ public long[][] getStatusList() {
      * Method returns List of Strings representing the status of the currently running and scheduled threads for a
      * specific layer.
      *
-     * @return array of {@code [[tilesDone, tilesTotal, timeRemaining, taskID, taskStatus],...]} where
-     *     {@code taskStatus} is one of: {@code 0 = PENDING, 1 = RUNNING, 2 = DONE, -1 = ABORTED}
+     * @return array of {@code [[tilesDone, tilesTotal, timeRemaining, taskID, taskStatus, concurrency],...]} where
+     *     {@code taskStatus} is one of: {@code 0 = PENDING, 1 = RUNNING, 2 = DONE, -1 = ABORTED}, and
+     *     {@code concurrency} the number of tasks of its group currently allowed to request tiles at the same time
      * @param layerName the name of the layer. null for all layers.
      */
     public long[][] getStatusList(final String layerName) {
@@ -420,12 +687,13 @@ public long[][] getStatusList(final String layerName) {
                 if (layerName != null && !layerName.equals(task.getLayerName())) {
                     continue;
                 }
-                long[] ret = new long[5];
+                long[] ret = new long[6];
                 ret[0] = task.getTilesDone();
                 ret[1] = task.getTilesTotal();
                 ret[2] = task.getTimeRemaining();
                 ret[3] = task.getTaskId();
                 ret[4] = stateCode(task.getState());
+                ret[5] = task.getConcurrency();
                 list.add(ret);
             }
         } finally {
@@ -483,6 +751,15 @@ public void setStorageBroker(StorageBroker sb) {
         storageBroker = sb;
     }
 
+    /** @param journal where to save the dispatched jobs so they can be resumed, {@code null} to disable */
+    public void setSeedJournal(SeedJournal journal) {
+        this.journal = journal;
+    }
+
+    public SeedJournal getSeedJournal() {
+        return journal;
+    }
+
     public StorageBroker getStorageBroker() {
         return storageBroker;
     }
@@ -551,6 +828,15 @@ public boolean terminateGWCTask(final long id) {
             return false;
         }
         submittedTask.task.terminateNicely();
+        // a job stopped on purpose is not to be resumed
+        SeedJournal.Job job = submittedTask.task.journalJob;
+        if (job != null && journaledJobs.remove(job.getId()) != null) {
+            try {
+                journal.remove(job.getId());
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Unable to remove " + job + " from the seed journal", e);
+            }
+        }
         // submittedTask.future.cancel(true);
         return true;
     }
@@ -0,0 +1,303 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.layer.TileLayerDispatcherListener;
+
+/**
+ * Keeps the capabilities documents of a service, already encoded, along with the fragments they're assembled from for
+ * each layer, so that they're only generated again for what changed.
+ *
+ * <p>Documents are cached by {@link Key}, that is, by service, by the URLs they advertise as produced by the
+ * {@link org.geowebcache.util.URLMangler} for the request, and by user. Any change made through the
+ * {@link TileLayerDispatcher} discards all the documents, and the fragments of the layer it affects.
+ *
+ * <p>The cache is disabled by default, the {@link #CACHE_SIZE} property sets how many documents it keeps. It only
+ * learns about the changes made through the dispatcher and the REST API, so it should only be enabled when the layers
+ * and the grid sets are not changed otherwise, and when the documents only depend on the user name, not on its roles.
+ * It stays disabled when the dispatcher filters its layers per request with a
+ * {@link org.geowebcache.layer.TileLayerDispatcherFilter}.
+ */
+public class CapabilitiesCache implements TileLayerDispatcherListener {
+
+    private static final Logger log = Logging.getLogger(CapabilitiesCache.class.getName());
+
+    /** Property setting how many documents are cached per service, none by default */
+    public static final String CACHE_SIZE = "GWC_CAPABILITIES_CACHE_SIZE";
+
+    static final int DEFAULT_CACHE_SIZE = 0;
+
+    /** Bounds the fragments kept for all the documents, in characters */
+    static final long MAX_FRAGMENT_CHARS = 32 * 1024 * 1024;
+
+    private final int size;
+
+    private final Cache<Key, Document> documents;
+
+    private final Cache<FragmentKey, String> fragments;
+
+    // bumped on every change, to tell whether generating a document raced with one
+    private final AtomicLong changes = new AtomicLong();
+
+    /** Creates a cache sized after the {@link #CACHE_SIZE} property, listening to the changes to the given layers */
+    public CapabilitiesCache(TileLayerDispatcher layers) {
+        this(layers, configuredSize(layers));
+    }
+
+    /** Creates a cache of the given size, listening to the changes to the given layers */
+    public CapabilitiesCache(TileLayerDispatcher layers, int size) {
+        this(size);
+        layers.addListener(this);
+    }
+
+    CapabilitiesCache(int size) {
+        this.size = Math.max(0, size);
+        this.documents = CacheBuilder.newBuilder().maximumSize(this.size).build();
+        this.fragments = CacheBuilder.newBuilder()
+                .maximumWeight(this.size == 0 ? 0 : MAX_FRAGMENT_CHARS)
+                .<FragmentKey, String>weigher((key, fragment) -> fragment.length())
+                .build();
+    }
+
+    private static int configuredSize(TileLayerDispatcher layers) {
+        int size = DEFAULT_CACHE_SIZE;
+        String configured = GeoWebCacheExtensions.getProperty(CACHE_SIZE);
+        if (configured != null) {
+            try {
+                size = Integer.parseInt(configured.trim());
+            } catch (NumberFormatException e) {
+                log.warning("Invalid value for " + CACHE_SIZE + ": " + configured + ", using " + size);
+            }
+        }
+        if (size > 0 && layers.isLayerListFiltered()) {
+            log.info("Layers are filtered per request, capabilities documents won't be cached");
+            return 0;
+        }
+        return size;
+    }
+
+    /** @return whether documents are cached at all */
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    /**
+     * Builds the key of a document for the given request
+     *
+     * @param request the request, to tell the user the document is for
+     * @param service the service name
+     * @param parts whatever else the document depends on, typically the URLs it advertises, already mangled
+     */
+    public static Key key(HttpServletRequest request, String service, String... parts) {
+        Principal principal = request.getUserPrincipal();
+        return new Key(service, List.of(parts), principal == null ? null : principal.getName());
+    }
+
+    /**
+     * Returns the cached document for the key, generating it if missing
+     *
+     * @param key the document key
+     * @param encoding the document encoding
+     * @param generator generates the document
+     */
+    public Document document(Key key, Charset encoding, Supplier<String> generator) {
+        Document document = documents.getIfPresent(key);
+        if (document != null) {
+            return document;
+        }
+        final long changed = changes.get();
+        document = new Document(generator.get().getBytes(encoding));
+        if (isEnabled()) {
+            documents.put(key, document);
+            if (changes.get() != changed) {
+                // something changed in the meantime, what was generated may be stale
+                documents.asMap().remove(key, document);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Returns the cached fragment of a document for a layer, generating it if missing
+     *
+     * @param key the key of the document the fragment is part of
+     * @param layerName the layer the fragment describes
+     * @param section the part of the document the fragment belongs to, for documents with several fragments per layer
+     * @param generator generates the fragment
+     */
+    public String fragment(Key key, String layerName, String section, Supplier<String> generator) {
+        FragmentKey fragmentKey = new FragmentKey(key, layerName, section);
+        String fragment = fragments.getIfPresent(fragmentKey);
+        if (fragment != null) {
+            return fragment;
+        }
+        final long changed = changes.get();
+        fragment = generator.get();
+        if (isEnabled()) {
+            fragments.put(fragmentKey, fragment);
+            if (changes.get() != changed) {
+                fragments.asMap().remove(fragmentKey, fragment);
+            }
+        }
+        return fragment;
+    }
+
+    @Override
+    public void layerChanged(String layerName) {
+        changes.incrementAndGet();
+        documents.invalidateAll();
+        fragments.asMap().keySet().removeIf(key -> key.layerName().equals(layerName));
+    }
+
+    @Override
+    public void reset() {
+        changes.incrementAndGet();
+        documents.invalidateAll();
+        fragments.invalidateAll();
+    }
+
+    /**
+     * Identifies a capabilities document
+     *
+     * @param service the service name
+     * @param parts whatever else the document depends on, typically the URLs it advertises
+     * @param principal the name of the user the document is for, if any
+     */
+    public record Key(String service, List<String> parts, @Nullable String principal) {}
+
+    private record FragmentKey(Key key, String layerName, String section) {}
+
+    /** An encoded capabilities document, along with its ETags and, once asked for, its gzipped version */
+    public static final class Document {
+
+        private final byte[] bytes;
+
+        private volatile String hash;
+
+        private volatile byte[] gzipped;
+
+        /** @param bytes the encoded document, not to be modified afterwards */
+        public Document(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /** @return the encoded document, not to be modified */
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        /** @return a strong ETag for the document contents */
+        public String getETag() {
+            return '"' + hash() + '"';
+        }
+
+        /** @return a strong ETag for the gzipped document, which is a different representation of the same contents */
+        public String getGzipETag() {
+            return '"' + hash() + "-gz\"";
+        }
+
+        private String hash() {
+            String computed = hash;
+            if (computed == null) {
+                computed = Hashing.murmur3_128().hashBytes(bytes).toString();
+                hash = computed;
+            }
+            return computed;
+        }
+
+        /** @return the gzipped document, not to be modified */
+        public byte[] getGzipped() {
+            byte[] compressed = gzipped;
+            if (compressed == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(bytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                compressed = out.toByteArray();
+                gzipped = compressed;
+            }
+            return compressed;
+        }
+
+        /**
+         * Writes the document, or a 304 if the client already has it in either encoding, gzipped if the client accepts
+         * it. The status, content type and other headers are expected to be set already.
+         *
+         * @return the number of bytes written
+         */
+        public int write(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            String acceptEncoding = request.getHeader("Accept-Encoding");
+            boolean gzip =
+                    acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+            response.setHeader("ETag", gzip ? getGzipETag() : getETag());
+            response.setHeader("Vary", "Accept-Encoding");
+            if (matches(request.getHeader("If-None-Match"))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return 0;
+            }
+            byte[] data = bytes;
+            if (gzip) {
+                data = getGzipped();
+                response.setHeader("Content-Encoding", "gzip");
+            }
+            response.setContentLength(data.length);
+            try (OutputStream os = response.getOutputStream()) {
+                os.write(data);
+                os.flush();
+            }
+            return data.length;
+        }
+
+        /** @return whether the client has the document already, with the ETag of either encoding */
+        private boolean matches(@Nullable String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            String tag = getETag();
+            String gzipTag = getGzipETag();
+            for (String candidate : ifNoneMatch.split(",")) {
+                candidate = candidate.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(tag) || candidate.equals(gzipTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
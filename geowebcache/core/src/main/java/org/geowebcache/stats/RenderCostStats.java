@@ -0,0 +1,119 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.stats;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of how long it takes to render the tiles of each layer and zoom level, and how big they are, so that
+ * cache management can tell the tiles that are expensive to get back from the ones that are cheap to re-render.
+ *
+ * <p>Layers {@link #record(String, int, int, long, long) record} each backend request they issue; averages are
+ * exponentially weighted so they follow the changes in the backend load and in the data being rendered.
+ */
+public class RenderCostStats {
+
+    /** Weight of each new sample in the averages */
+    static final double SMOOTHING = 0.2;
+
+    private static final RenderCostStats INSTANCE = new RenderCostStats();
+
+    private final Map<String, Map<Integer, Cost>> costs = new ConcurrentHashMap<>();
+
+    RenderCostStats() {}
+
+    /** @return the statistics shared by all the layers */
+    public static RenderCostStats getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a backend request
+     *
+     * @param layerName the layer the tiles belong to
+     * @param zoomLevel the zoom level of the tiles
+     * @param tiles the number of tiles rendered by the request, more than one for meta tiles
+     * @param bytes the size of the response
+     * @param elapsedNanos the time it took to get the response
+     */
+    public void record(String layerName, int zoomLevel, int tiles, long bytes, long elapsedNanos) {
+        if (tiles <= 0 || bytes <= 0 || elapsedNanos <= 0) {
+            return;
+        }
+        costs.computeIfAbsent(layerName, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(zoomLevel, k -> new Cost())
+                .add((double) elapsedNanos / tiles, (double) bytes / tiles);
+    }
+
+    /**
+     * @return the average time, in nanoseconds, it takes to render a byte of tiles of the given layer and zoom level,
+     *     or {@link Double#NaN} if no request has been recorded for them
+     */
+    public double getCostPerByte(String layerName, int zoomLevel) {
+        Map<Integer, Cost> levels = costs.get(layerName);
+        Cost cost = levels == null ? null : levels.get(zoomLevel);
+        return cost == null ? Double.NaN : cost.perByte();
+    }
+
+    /**
+     * @return a snapshot of the {@link #getCostPerByte(String, int) costs per byte} recorded so far, by layer name,
+     *     each array indexed by zoom level and holding {@link Double#NaN} for the levels without recorded requests
+     */
+    public Map<String, double[]> getCostsPerByte() {
+        Map<String, double[]> snapshot = new HashMap<>();
+        costs.forEach((layerName, levels) -> {
+            int maxZoom =
+                    levels.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+            double[] perByte = new double[maxZoom + 1];
+            Arrays.fill(perByte, Double.NaN);
+            levels.forEach((zoomLevel, cost) -> {
+                if (zoomLevel >= 0) {
+                    perByte[zoomLevel] = cost.perByte();
+                }
+            });
+            snapshot.put(layerName, perByte);
+        });
+        return snapshot;
+    }
+
+    /** Forgets about the given layer, for example because it has been removed or its style changed */
+    public void clear(String layerName) {
+        costs.remove(layerName);
+    }
+
+    /** Exponentially weighted averages of the render time and size of a tile */
+    private static class Cost {
+
+        private double nanosPerTile = Double.NaN;
+
+        private double bytesPerTile = Double.NaN;
+
+        synchronized void add(double nanos, double bytes) {
+            if (Double.isNaN(nanosPerTile)) {
+                nanosPerTile = nanos;
+                bytesPerTile = bytes;
+            } else {
+                nanosPerTile += SMOOTHING * (nanos - nanosPerTile);
+                bytesPerTile += SMOOTHING * (bytes - bytesPerTile);
+            }
+        }
+
+        synchronized double perByte() {
+            return nanosPerTile / bytesPerTile;
+        }
+    }
+}
@@ -13,17 +13,49 @@
  */
 package org.geowebcache.stats;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.time.Clock;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.conveyor.Conveyor.CacheResult;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.io.Resource;
 import org.geowebcache.util.ServletUtils;
 
+/**
+ * Keeps track of the requests served, their size and how they were served.
+ *
+ * <p>Responses are recorded on {@link LongAdder}s, so that the request threads don't contend on a lock, and a
+ * background thread rolls them up every {@link #pollInterval} seconds into ring buffers read by
+ * {@link #getHTMLStats()}. Tile responses are also recorded on latency and size histograms by service, layer, grid set,
+ * zoom level and {@link CacheResult}, which {@link #writePrometheusStats(Writer)} exports in the Prometheus text
+ * format.
+ */
 public class RuntimeStats {
     private static Logger log = Logging.getLogger(RuntimeStats.class.getName());
 
+    /**
+     * Maximum number of service, layer, grid set, zoom level and cache result combinations to keep histograms for, the
+     * tiles of combinations past it are recorded on a single overflow series without layer, grid set and zoom level
+     */
+    static final int MAX_SERIES = 10_000;
+
+    /** Upper bounds of the tile latency histogram buckets, in seconds */
+    static final double[] LATENCY_BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    /** Upper bounds of the tile size histogram buckets, in bytes */
+    static final double[] SIZE_BUCKETS = {256, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304};
+
     final int pollInterval;
 
     final long startTime;
@@ -33,33 +65,32 @@ public class RuntimeStats {
 
     final String[] intervalDescs;
 
-    int curBytes = 0;
+    final LongAdder totalBytes = new LongAdder();
 
-    int curRequests = 0;
+    final LongAdder totalRequests = new LongAdder();
 
-    long peakBytesTime = 0;
+    final Map<CacheResult, LongAdder> results = new EnumMap<>(CacheResult.class);
 
-    int peakBytes = 0;
+    final Map<Series, TileStats> tileStats = new ConcurrentHashMap<>();
 
-    long peakRequestsTime = 0;
+    // written by the stats thread only
+    volatile long peakBytesTime = 0;
 
-    int peakRequests = 0;
+    volatile long peakBytes = 0;
 
-    long totalBytes = 0;
+    volatile long peakRequestsTime = 0;
 
-    long totalRequests = 0;
+    volatile long peakRequests = 0;
 
-    long totalHits;
+    final AtomicLongArray bytes;
 
-    long totalMisses;
+    final AtomicLongArray requests;
 
-    long totalWMS;
+    volatile int ringPos = 0;
 
-    final int[] bytes;
+    private long lastBytes;
 
-    final int[] requests;
-
-    int ringPos = 0;
+    private long lastRequests;
 
     RuntimeStatsThread statsThread;
 
@@ -112,8 +143,12 @@ public RuntimeStats(int pollInterval, List<Integer> intervals, List<String> inte
             this.intervalDescs[i] = intervalDescs.get(i);
         }
 
-        bytes = new int[this.intervals[this.intervals.length - 1] / pollInterval];
-        requests = new int[this.intervals[this.intervals.length - 1] / pollInterval];
+        bytes = new AtomicLongArray(this.intervals[this.intervals.length - 1] / pollInterval);
+        requests = new AtomicLongArray(this.intervals[this.intervals.length - 1] / pollInterval);
+
+        for (CacheResult result : CacheResult.values()) {
+            results.put(result, new LongAdder());
+        }
     }
 
     public void start() {
@@ -122,6 +157,11 @@ public void start() {
         statsThread.start();
     }
 
+    /** @return whether the statistics are being collected, that is, {@link #start()} has been called */
+    public boolean isStarted() {
+        return statsThread != null;
+    }
+
     @SuppressWarnings(
             "ThreadPriorityCheck") // errorprone complaint on Thread.yield(), revisit, might indeed be unnecessary
     public void destroy() {
@@ -136,30 +176,58 @@ public void destroy() {
 
     public void log(int size, CacheResult cacheResult) {
         if (this.statsThread != null) {
-            synchronized (bytes) {
-                curBytes += size;
-                curRequests += 1;
-
-                if (cacheResult == CacheResult.HIT) {
-                    totalHits++;
-                } else if (cacheResult == CacheResult.MISS) {
-                    totalMisses++;
-                } else if (cacheResult == CacheResult.WMS) {
-                    totalWMS++;
-                }
+            totalBytes.add(size);
+            totalRequests.increment();
+            if (cacheResult != null) {
+                results.get(cacheResult).increment();
             }
         }
     }
 
-    protected int[] popIntervalData() {
-        synchronized (bytes) {
-            int[] ret = {curBytes, curRequests};
+    /**
+     * Records the latency and size of a tile response on the histograms of its service, layer, grid set, zoom level and
+     * {@link CacheResult}. The response itself is expected to be {@link #log(int, CacheResult) logged} as well.
+     *
+     * @param service the service the tile was requested through
+     * @param tile the tile served
+     * @param elapsedNanos the time it took to serve the tile
+     */
+    public void logTile(String service, ConveyorTile tile, long elapsedNanos) {
+        if (this.statsThread == null) {
+            return;
+        }
+        long[] index = tile.getTileIndex();
+        Series series = new Series(
+                service,
+                tile.getLayerId(),
+                tile.getGridSetId(),
+                index == null ? -1 : (int) index[2],
+                tile.getCacheResult() == null ? CacheResult.OTHER : tile.getCacheResult());
+        TileStats stats = tileStats.get(series);
+        if (stats == null) {
+            if (tileStats.size() >= MAX_SERIES) {
+                series = new Series(service, null, null, -1, series.cacheResult());
+            }
+            stats = tileStats.computeIfAbsent(series, k -> new TileStats());
+        }
+        Resource blob = tile.getBlob();
+        stats.latency.observe(elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+        stats.size.observe(blob == null ? 0 : blob.getSize());
+    }
 
-            curBytes = 0;
-            curRequests = 0;
+    private long count(CacheResult cacheResult) {
+        return results.get(cacheResult).sum();
+    }
 
-            return ret;
-        }
+    protected long[] popIntervalData() {
+        long bytes = totalBytes.sum();
+        long requests = totalRequests.sum();
+        long[] ret = {bytes - lastBytes, requests - lastRequests};
+
+        lastBytes = bytes;
+        lastRequests = requests;
+
+        return ret;
     }
 
     public String getHTMLStats() {
@@ -169,152 +237,166 @@ public String getHTMLStats() {
 
         str.append("<table border=\"0\" cellspacing=\"5\" class=\"stats\">");
 
-        synchronized (bytes) {
-            // Starting time
-            if (runningTime > 0) {
-                str.append("<tbody>");
-                str.append("<tr><th colspan=\"2\" scope=\"row\">Started:</th><td colspan=\"3\">");
-                str.append(ServletUtils.formatTimestamp(this.startTime) + " (" + formatTimeDiff(runningTime) + ") ");
-                str.append("</td></tr>\n");
-
-                str.append("<tr><th colspan=\"2\" scope=\"row\">Total number of requests:</th><td colspan=\"3\">"
-                        + totalRequests);
-                str.append(" (" + totalRequests / runningTime + "/s ) ");
-                str.append("</td></tr>\n");
-
-                str.append(
-                        "<tr><th colspan=\"2\" scope=\"row\">Total number of untiled WMS requests:</th><td colspan=\"3\">"
-                                + totalWMS);
-                str.append(" (" + totalWMS / runningTime + "/s ) ");
-                str.append("</td></tr>\n");
-
-                str.append("<tr><th colspan=\"2\" scope=\"row\">Total number of bytes:</th><td colspan=\"3\">"
-                        + totalBytes);
-                str.append(" (" + formatBits((totalBytes * 8.0) / runningTime) + ") ");
-                str.append("</td></tr>\n");
-
-                str.append("</tbody>");
-                str.append("<tbody>");
-            } else {
-                str.append("<tbody>");
-                str.append(
-                        "<tr><th colspan=\"5\">Runtime stats not yet available, try again in a few seconds.</th></tr>");
-                str.append("<tbody>");
-            }
-
-            str.append("<tr><th colspan=\"2\" scope=\"row\">Cache hit ratio:</th><td colspan=\"3\">");
-            if (totalHits + totalMisses > 0) {
-                double hitPercentage = (totalHits * 100.0) / (totalHits + totalMisses);
-                int rounded = (int) Math.round(hitPercentage * 100.0);
-                int percents = rounded / 100;
-                int decimals = rounded - percents * 100;
-                str.append(percents + "." + decimals + "% of requests");
-            } else {
-                str.append("No data");
-            }
+        long totalRequests = this.totalRequests.sum();
+        long totalBytes = this.totalBytes.sum();
+        long totalHits = count(CacheResult.HIT);
+        long totalMisses = count(CacheResult.MISS);
+        long totalWMS = count(CacheResult.WMS);
+        long peakRequests = this.peakRequests;
+        long peakBytes = this.peakBytes;
 
+        // Starting time
+        if (runningTime > 0) {
+            str.append("<tbody>");
+            str.append("<tr><th colspan=\"2\" scope=\"row\">Started:</th><td colspan=\"3\">");
+            str.append(ServletUtils.formatTimestamp(this.startTime) + " (" + formatTimeDiff(runningTime) + ") ");
             str.append("</td></tr>\n");
 
-            str.append("<tr><th colspan=\"2\" scope=\"row\">Blank/KML/HTML:</th><td colspan=\"3\">");
-            if (totalRequests > 0) {
-                if (totalHits + totalMisses == 0) {
-                    str.append("100.0% of requests");
-                } else {
-                    int rounded = (int)
-                            Math.round(((totalRequests - totalHits - totalMisses - totalWMS) * 100.0) / totalRequests);
-                    int percents = rounded / 100;
-                    int decimals = rounded - percents * 100;
-                    str.append(percents + "." + decimals + "% of requests");
-                }
-            } else {
-                str.append("No data");
-            }
+            str.append("<tr><th colspan=\"2\" scope=\"row\">Total number of requests:</th><td colspan=\"3\">"
+                    + totalRequests);
+            str.append(" (" + totalRequests / runningTime + "/s ) ");
             str.append("</td></tr>\n");
 
-            str.append("</tbody>");
-            str.append("<tbody>");
-
-            str.append("<tr><th colspan=\"2\" scope=\"row\">Peak request rate:</th><td colspan=\"3\">");
-            if (totalRequests > 0) {
-                str.append(formatRequests((peakRequests * 1.0) / pollInterval));
-                str.append(" (" + ServletUtils.formatTimestamp(peakRequestsTime) + ") ");
-            } else {
-                str.append("No data");
-            }
+            str.append(
+                    "<tr><th colspan=\"2\" scope=\"row\">Total number of untiled WMS requests:</th><td colspan=\"3\">"
+                            + totalWMS);
+            str.append(" (" + totalWMS / runningTime + "/s ) ");
             str.append("</td></tr>\n");
 
-            str.append("<tr><th colspan=\"2\" scope=\"row\">Peak bandwidth:</th><td colspan=\"3\">");
-            if (totalRequests > 0) {
-                str.append(formatBits((peakBytes * 8.0) / pollInterval));
-                str.append(" (" + ServletUtils.formatTimestamp(peakRequestsTime) + ") ");
-            } else {
-                str.append("No data");
-            }
+            str.append(
+                    "<tr><th colspan=\"2\" scope=\"row\">Total number of bytes:</th><td colspan=\"3\">" + totalBytes);
+            str.append(" (" + formatBits((totalBytes * 8.0) / runningTime) + ") ");
             str.append("</td></tr>\n");
 
             str.append("</tbody>");
             str.append("<tbody>");
+        } else {
+            str.append("<tbody>");
+            str.append("<tr><th colspan=\"5\">Runtime stats not yet available, try again in a few seconds.</th></tr>");
+            str.append("<tbody>");
+        }
 
-            str.append(
-                    "<tr><th scope=\"col\">Interval</th><th scope=\"col\">Requests</th><th scope=\"col\">Rate</th><th scope=\"col\">Bytes</th><th scope=\"col\">Bandwidth</th></tr>\n");
+        str.append("<tr><th colspan=\"2\" scope=\"row\">Cache hit ratio:</th><td colspan=\"3\">");
+        if (totalHits + totalMisses > 0) {
+            double hitPercentage = (totalHits * 100.0) / (totalHits + totalMisses);
+            int rounded = (int) Math.round(hitPercentage * 100.0);
+            int percents = rounded / 100;
+            int decimals = rounded - percents * 100;
+            str.append(percents + "." + decimals + "% of requests");
+        } else {
+            str.append("No data");
+        }
 
-            for (int i = 0; i < intervals.length; i++) {
-                if (runningTime < intervals[i]) {
-                    continue;
-                }
+        str.append("</td></tr>\n");
 
-                String[] requests = calculateRequests(intervals[i]);
-
-                String[] bits = calculateBits(intervals[i]);
-
-                str.append("<tr><td>"
-                        + intervalDescs[i]
-                        + "</td><td>"
-                        + requests[0]
-                        + "</td><td>"
-                        + requests[1]
-                        + "</td><td>"
-                        + bits[0]
-                        + "</td><td>"
-                        + bits[1]
-                        + "</td><td>"
-                        + "</tr>\n");
+        str.append("<tr><th colspan=\"2\" scope=\"row\">Blank/KML/HTML:</th><td colspan=\"3\">");
+        if (totalRequests > 0) {
+            if (totalHits + totalMisses == 0) {
+                str.append("100.0% of requests");
+            } else {
+                int rounded = (int)
+                        Math.round(((totalRequests - totalHits - totalMisses - totalWMS) * 100.0) / totalRequests);
+                int percents = rounded / 100;
+                int decimals = rounded - percents * 100;
+                str.append(percents + "." + decimals + "% of requests");
             }
+        } else {
+            str.append("No data");
+        }
+        str.append("</td></tr>\n");
 
-            str.append("</tbody>");
-            str.append("<tbody>");
-
-            str.append("<tr><td colspan=\"5\">All figures are "
-                    + pollInterval
-                    + " second(s) delayed and do not include HTTP overhead</td></tr>");
-
-            str.append("<tr><td colspan=\"5\">The cache hit ratio does not account for metatiling</td></tr>");
+        str.append("</tbody>");
+        str.append("<tbody>");
 
-            str.append("</tbody>");
+        str.append("<tr><th colspan=\"2\" scope=\"row\">Peak request rate:</th><td colspan=\"3\">");
+        if (totalRequests > 0) {
+            str.append(formatRequests((peakRequests * 1.0) / pollInterval));
+            str.append(" (" + ServletUtils.formatTimestamp(peakRequestsTime) + ") ");
+        } else {
+            str.append("No data");
         }
+        str.append("</td></tr>\n");
 
-        return str.toString();
-    }
-
-    private String[] calculateRequests(int interval) {
-        int nodeCount = interval / pollInterval;
+        str.append("<tr><th colspan=\"2\" scope=\"row\">Peak bandwidth:</th><td colspan=\"3\">");
+        if (totalRequests > 0) {
+            str.append(formatBits((peakBytes * 8.0) / pollInterval));
+            str.append(" (" + ServletUtils.formatTimestamp(peakRequestsTime) + ") ");
+        } else {
+            str.append("No data");
+        }
+        str.append("</td></tr>\n");
 
-        int accu = 0;
+        str.append("</tbody>");
+        str.append("<tbody>");
 
-        synchronized (bytes) {
-            int pos = ((ringPos - 1) + bytes.length) % bytes.length;
+        str.append(
+                "<tr><th scope=\"col\">Interval</th><th scope=\"col\">Requests</th><th scope=\"col\">Rate</th><th scope=\"col\">Bytes</th><th scope=\"col\">Bandwidth</th></tr>\n");
 
-            for (int i = 0; i < nodeCount; i++) {
-                accu += requests[pos];
-                pos = ((pos - 1) + bytes.length) % bytes.length;
+        for (int i = 0; i < intervals.length; i++) {
+            if (runningTime < intervals[i]) {
+                continue;
             }
+
+            String[] requests = calculateRequests(intervals[i]);
+
+            String[] bits = calculateBits(intervals[i]);
+
+            str.append("<tr><td>"
+                    + intervalDescs[i]
+                    + "</td><td>"
+                    + requests[0]
+                    + "</td><td>"
+                    + requests[1]
+                    + "</td><td>"
+                    + bits[0]
+                    + "</td><td>"
+                    + bits[1]
+                    + "</td><td>"
+                    + "</tr>\n");
         }
 
-        String avg = formatRequests((accu * 1.0) / interval);
+        str.append("</tbody>");
+        str.append("<tbody>");
 
-        String[] ret = {accu + "", avg};
+        str.append("<tr><td colspan=\"5\">All figures are "
+                + pollInterval
+                + " second(s) delayed and do not include HTTP overhead</td></tr>");
 
-        return ret;
+        str.append("<tr><td colspan=\"5\">The cache hit ratio does not account for metatiling</td></tr>");
+
+        str.append("</tbody>");
+
+        return str.toString();
+    }
+
+    /**
+     * Writes the statistics in the Prometheus text exposition format: request, byte and cache result counters, and the
+     * tile latency and size histograms
+     */
+    public void writePrometheusStats(Writer out) throws IOException {
+        out.write("# HELP gwc_requests_total Requests served, by cache result\n");
+        out.write("# TYPE gwc_requests_total counter\n");
+        for (CacheResult result : CacheResult.values()) {
+            out.write("gwc_requests_total{cache_result=\"" + result + "\"} " + count(result) + "\n");
+        }
+        out.write("# HELP gwc_response_bytes_total Bytes served\n");
+        out.write("# TYPE gwc_response_bytes_total counter\n");
+        out.write("gwc_response_bytes_total " + totalBytes.sum() + "\n");
+
+        out.write("# HELP gwc_tile_request_duration_seconds Time taken to serve tiles\n");
+        out.write("# TYPE gwc_tile_request_duration_seconds histogram\n");
+        for (Map.Entry<Series, TileStats> entry : tileStats.entrySet()) {
+            entry.getValue().latency.write(out, "gwc_tile_request_duration_seconds", entry.getKey());
+        }
+        out.write("# HELP gwc_tile_response_size_bytes Size of the tiles served\n");
+        out.write("# TYPE gwc_tile_response_size_bytes histogram\n");
+        for (Map.Entry<Series, TileStats> entry : tileStats.entrySet()) {
+            entry.getValue().size.write(out, "gwc_tile_response_size_bytes", entry.getKey());
+        }
+    }
+
+    private String[] calculateRequests(int interval) {
+        return accumulate(requests, interval, false);
     }
 
     private String formatRequests(double requestsps) {
@@ -322,21 +404,22 @@ private String formatRequests(double requestsps) {
     }
 
     private String[] calculateBits(int interval) {
+        return accumulate(bytes, interval, true);
+    }
 
+    private String[] accumulate(AtomicLongArray ring, int interval, boolean bits) {
         int nodeCount = interval / pollInterval;
 
-        int accu = 0;
+        long accu = 0;
 
-        int pos = ((ringPos - 1) + bytes.length) % bytes.length;
+        int pos = ((ringPos - 1) + ring.length()) % ring.length();
 
-        synchronized (bytes) {
-            for (int i = 0; i < nodeCount; i++) {
-                accu += bytes[pos];
-                pos = ((pos - 1) + bytes.length) % bytes.length;
-            }
+        for (int i = 0; i < nodeCount; i++) {
+            accu += ring.get(pos);
+            pos = ((pos - 1) + ring.length()) % ring.length();
         }
 
-        String avg = formatBits((accu * 8.0) / interval);
+        String avg = bits ? formatBits((accu * 8.0) / interval) : formatRequests((accu * 1.0) / interval);
 
         String[] ret = {accu + "", avg};
 
@@ -367,6 +450,90 @@ private String formatTimeDiff(long seconds) {
         }
     }
 
+    /** The labels of a tile histogram */
+    record Series(String service, String layer, String gridSet, int zoomLevel, CacheResult cacheResult) {
+
+        String labels() {
+            return "service=\""
+                    + escape(service)
+                    + "\",layer=\""
+                    + escape(layer)
+                    + "\",gridset=\""
+                    + escape(gridSet)
+                    + "\",zoom=\""
+                    + (zoomLevel < 0 ? "" : String.valueOf(zoomLevel))
+                    + "\",cache_result=\""
+                    + cacheResult
+                    + "\"";
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+    }
+
+    /** Latency and size histograms of the tiles of a {@link Series} */
+    static class TileStats {
+
+        final Histogram latency = new Histogram(LATENCY_BUCKETS);
+
+        final Histogram size = new Histogram(SIZE_BUCKETS);
+    }
+
+    /** A histogram with fixed buckets, recorded on {@link LongAdder}s */
+    static class Histogram {
+
+        private final double[] bounds;
+
+        // one more bucket for the values past the last bound
+        private final LongAdder[] buckets;
+
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(double[] bounds) {
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void observe(double value) {
+            int i = 0;
+            while (i < bounds.length && value > bounds[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            sum.add(value);
+        }
+
+        /** @return the cumulative counts, one per bound plus the total count */
+        long[] cumulativeCounts() {
+            long[] counts = new long[buckets.length];
+            long count = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                count += buckets[i].sum();
+                counts[i] = count;
+            }
+            return counts;
+        }
+
+        void write(Writer out, String name, Series series) throws IOException {
+            String labels = series.labels();
+            long[] counts = cumulativeCounts();
+            for (int i = 0; i < bounds.length; i++) {
+                out.write(name + "_bucket{" + labels + ",le=\"" + bounds[i] + "\"} " + counts[i] + "\n");
+            }
+            long count = counts[counts.length - 1];
+            out.write(name + "_bucket{" + labels + ",le=\"+Inf\"} " + count + "\n");
+            out.write(name + "_sum{" + labels + "} " + sum.sum() + "\n");
+            out.write(name + "_count{" + labels + "} " + count + "\n");
+        }
+    }
+
     private class RuntimeStatsThread extends Thread {
 
         final RuntimeStats stats;
@@ -391,27 +558,22 @@ public void run() {
         }
 
         private void updateLists() {
-            synchronized (bytes) {
-                int[] bytesRequests = stats.popIntervalData();
-
-                stats.totalBytes += bytesRequests[0];
-                stats.totalRequests += bytesRequests[1];
+            long[] bytesRequests = stats.popIntervalData();
 
-                if (bytesRequests[0] > peakBytes) {
-                    peakBytes = bytesRequests[0];
-                    peakBytesTime = clock.millis();
-                }
+            if (bytesRequests[0] > peakBytes) {
+                peakBytes = bytesRequests[0];
+                peakBytesTime = clock.millis();
+            }
 
-                if (bytesRequests[1] > peakRequests) {
-                    peakRequests = bytesRequests[1];
-                    peakRequestsTime = clock.millis();
-                }
+            if (bytesRequests[1] > peakRequests) {
+                peakRequests = bytesRequests[1];
+                peakRequestsTime = clock.millis();
+            }
 
-                bytes[ringPos] = bytesRequests[0];
-                requests[ringPos] = bytesRequests[1];
+            bytes.set(ringPos, bytesRequests[0]);
+            requests.set(ringPos, bytesRequests[1]);
 
-                ringPos = (ringPos + 1) % bytes.length;
-            }
+            ringPos = (ringPos + 1) % bytes.length();
         }
     }
 }
@@ -14,6 +14,8 @@
 package org.geowebcache.storage;
 
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -91,9 +93,36 @@ public default boolean deleteByParameters(final String layerName, final Map<Stri
      */
     public boolean get(TileObject obj) throws StorageException;
 
+    /**
+     * Retrieves a batch of tiles, filling the blob of each one found as {@link #get(TileObject)} does. The default
+     * implementation fetches them one at a time, stores that can read several tiles concurrently or in a single round
+     * trip should override it.
+     *
+     * @return the tiles that were found, in the same order as requested
+     */
+    public default List<TileObject> getAll(Collection<TileObject> objs) throws StorageException {
+        List<TileObject> found = new ArrayList<>(objs.size());
+        for (TileObject obj : objs) {
+            if (get(obj)) {
+                found.add(obj);
+            }
+        }
+        return found;
+    }
+
     /** Store blob. Calls getBlob() on passed object, does not modify the object. */
     public void put(TileObject obj) throws StorageException;
 
+    /**
+     * Store a batch of blobs. The default implementation stores them one at a time, stores that can write several tiles
+     * in a single round trip or transaction should override it.
+     */
+    public default void putAll(Collection<TileObject> objs) throws StorageException {
+        for (TileObject obj : objs) {
+            put(obj);
+        }
+    }
+
     /** Wipes the entire storage. Should only be invoked during testing. */
     public void clear() throws StorageException;
 
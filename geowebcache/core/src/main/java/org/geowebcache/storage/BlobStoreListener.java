@@ -71,6 +71,33 @@ void tileDeleted(
             int z,
             long blobSize);
 
+    /**
+     * Notifies that the blob store has deleted a batch of tiles of the same tile set and zoom level, as it does when
+     * truncating a {@link TileRange}, so that listeners can process them in one go. The default implementation calls
+     * {@link #tileDeleted} for each tile.
+     *
+     * @param layerName {@link TileLayer#getName() name} of the layer for the deleted tiles
+     * @param gridSetId {@link GridSet#getName() name} of the gridset for the deleted tiles
+     * @param blobFormat {@link MimeType#getFormat() format name} of the mime type for the deleted tiles
+     * @param parametersId {@link TileObject#getParametersId() parameters id} for the deleted tiles
+     * @param tiles the grid locations of the deleted tiles and the blob sizes freed for each of them
+     */
+    default void tilesDeleted(
+            String layerName, String gridSetId, String blobFormat, String parametersId, TileBatch tiles) {
+        final int z = tiles.getZoomLevel();
+        for (int i = 0; i < tiles.size(); i++) {
+            tileDeleted(
+                    layerName,
+                    gridSetId,
+                    blobFormat,
+                    parametersId,
+                    tiles.getX(i),
+                    tiles.getY(i),
+                    z,
+                    tiles.getBlobSize(i));
+        }
+    }
+
     /**
      * Notifies that the blob store replaced an existing tile blob by a new one.
      *
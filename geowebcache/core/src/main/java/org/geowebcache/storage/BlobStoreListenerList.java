@@ -77,6 +77,16 @@ public void sendTileDeleted(
         });
     }
 
+    public void sendTilesDeleted(
+            String layerName, String gridSetId, String blobFormat, String parametersId, TileBatch tiles) {
+        if (tiles.isEmpty()) {
+            return;
+        }
+        listeners.forEach(listener -> {
+            listener.tilesDeleted(layerName, gridSetId, blobFormat, parametersId, tiles);
+        });
+    }
+
     public void sendTileDeleted(final TileObject stObj) {
 
         final long[] xyz = stObj.getXYZ();
@@ -16,7 +16,12 @@
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -39,6 +44,8 @@
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.locks.LockProvider;
 import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.geowebcache.storage.blobstore.memory.CacheProvider;
+import org.geowebcache.storage.blobstore.memory.MemoryBlobStore;
 
 /**
  * A composite {@link BlobStore} that multiplexes tile operations to configured blobstores based on
@@ -53,6 +60,9 @@
  * <p>At construction time, {@link BlobStore} instances will be created for all {@link BlobStoreInfo#isEnabled()
  * enabled} configs.
  *
+ * <p>If a {@link #setCacheProvider(CacheProvider) cache provider} is set, each live blob store is wrapped by a
+ * {@link MemoryBlobStore} that serves the tiles it has already read from memory.
+ *
  * @since 1.8
  */
 public class CompositeBlobStore implements BlobStore, BlobStoreConfigurationListener {
@@ -78,6 +88,8 @@ public class CompositeBlobStore implements BlobStore, BlobStoreConfigurationList
 
     private final BlobStoreListenerList listeners = new BlobStoreListenerList();
 
+    private CacheProvider cacheProvider;
+
     @VisibleForTesting
     static final class LiveStore {
         BlobStoreInfo config;
@@ -174,11 +186,35 @@ public boolean get(TileObject obj) throws StorageException {
         return readFunctionUnsafe(() -> store(obj.getLayerName()).get(obj));
     }
 
+    @Override
+    public List<TileObject> getAll(Collection<TileObject> objs) throws StorageException {
+        Map<String, List<TileObject>> byLayer = objs.stream()
+                .collect(Collectors.groupingBy(TileObject::getLayerName, LinkedHashMap::new, Collectors.toList()));
+        return readFunctionUnsafe(() -> {
+            Set<TileObject> found = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Map.Entry<String, List<TileObject>> entry : byLayer.entrySet()) {
+                found.addAll(store(entry.getKey()).getAll(entry.getValue()));
+            }
+            return objs.stream().filter(found::contains).collect(Collectors.toList());
+        });
+    }
+
     @Override
     public void put(TileObject obj) throws StorageException {
         readActionUnsafe(() -> store(obj.getLayerName()).put(obj));
     }
 
+    @Override
+    public void putAll(Collection<TileObject> objs) throws StorageException {
+        Map<String, List<TileObject>> byLayer = objs.stream()
+                .collect(Collectors.groupingBy(TileObject::getLayerName, LinkedHashMap::new, Collectors.toList()));
+        readActionUnsafe(() -> {
+            for (Map.Entry<String, List<TileObject>> entry : byLayer.entrySet()) {
+                store(entry.getKey()).putAll(entry.getValue());
+            }
+        });
+    }
+
     @Deprecated
     @Override
     public void clear() throws StorageException {
@@ -312,6 +348,15 @@ private LiveStore defaultStore() throws StorageException {
         return store;
     }
 
+    /**
+     * @return the running instance of the blob store with the given id, empty if there is no such blob store or it's
+     *     disabled
+     */
+    public Optional<BlobStore> getLiveBlobStore(String blobStoreId) {
+        return readFunction(
+                () -> Optional.ofNullable(blobStores.get(blobStoreId)).map(store -> store.liveInstance));
+    }
+
     public void setBlobStores(Iterable<? extends BlobStoreInfo> configs)
             throws StorageException, ConfigurationException {
         configLock.writeLock().lock();
@@ -329,6 +374,43 @@ public void setBlobStores(Iterable<? extends BlobStoreInfo> configs)
         }
     }
 
+    /**
+     * Sets the in memory tile cache to put in front of all the live blob stores, wrapping the already loaded ones too.
+     *
+     * @param cacheProvider the memory cache, or {@code null} to serve all tiles straight from the blob stores
+     */
+    public void setCacheProvider(@Nullable CacheProvider cacheProvider) {
+        configLock.writeLock().lock();
+        try {
+            this.cacheProvider = cacheProvider;
+            // the default store id maps to the same LiveStore than its own id, wrap it once
+            Set<LiveStore> liveStores = Collections.newSetFromMap(new IdentityHashMap<>());
+            liveStores.addAll(blobStores.values());
+            for (LiveStore ls : liveStores) {
+                if (ls.liveInstance != null) {
+                    BlobStore store = ls.liveInstance;
+                    if (store instanceof MemoryBlobStore memoryStore) {
+                        store = memoryStore.getStore();
+                        store.removeListener(memoryStore);
+                    }
+                    ls.liveInstance = withMemoryCache(store);
+                }
+            }
+        } finally {
+            configLock.writeLock().unlock();
+        }
+    }
+
+    /** @return the in memory tile cache in front of the live blob stores, or {@code null} if there's none */
+    @Nullable
+    public CacheProvider getCacheProvider() {
+        return cacheProvider;
+    }
+
+    private BlobStore withMemoryCache(BlobStore store) {
+        return cacheProvider == null ? store : new MemoryBlobStore(store, cacheProvider);
+    }
+
     /**
      * Loads the blob stores from the list of configuration objects
      *
@@ -358,7 +440,7 @@ Map<String, LiveStore> loadBlobStores(Iterable<? extends BlobStoreInfo> configs)
                 config.setEnabled(true);
                 config.setDefault(true);
                 config.setBaseDirectory(defaultStorageFinder.getDefaultPath());
-                BlobStore store = new FileBlobStore(config.getBaseDirectory());
+                BlobStore store = withMemoryCache(new FileBlobStore(config.getBaseDirectory()));
 
                 stores.put(CompositeBlobStore.DEFAULT_STORE_DEFAULT_ID, new LiveStore(config, store));
             }
@@ -403,7 +485,7 @@ private LiveStore loadBlobStore(Map<String, LiveStore> stores, BlobStoreInfo con
 
         BlobStore store = null;
         if (enabled) {
-            store = config.createInstance(layers, lockProvider);
+            store = withMemoryCache(config.createInstance(layers, lockProvider));
         }
 
         LiveStore liveStore = new LiveStore(config, store);
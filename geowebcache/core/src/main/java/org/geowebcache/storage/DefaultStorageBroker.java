@@ -13,6 +13,7 @@
  */
 package org.geowebcache.storage;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
@@ -93,6 +94,12 @@ public boolean put(TileObject tileObj) throws StorageException {
         return true;
     }
 
+    @Override
+    public boolean putAll(Collection<TileObject> tileObjs) throws StorageException {
+        blobStore.putAll(tileObjs);
+        return true;
+    }
+
     @Override
     public void destroy() {
         log.fine("Destroying StorageBroker");
@@ -111,10 +118,7 @@ public void putLayerMetadata(final String layerName, final String key, final Str
     @Override
     public boolean getTransient(TileObject tile) {
         String key = TransientCache.computeTransientKey(tile);
-        Resource resource;
-        synchronized (transientCache) {
-            resource = transientCache.get(key);
-        }
+        Resource resource = transientCache.get(key);
         tile.setBlob(resource);
         return resource != null;
     }
@@ -122,9 +126,7 @@ public boolean getTransient(TileObject tile) {
     @Override
     public void putTransient(TileObject tile) {
         String key = TransientCache.computeTransientKey(tile);
-        synchronized (transientCache) {
-            transientCache.put(key, tile.getBlob());
-        }
+        transientCache.put(key, tile.getBlob());
     }
 
     /**
@@ -0,0 +1,100 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool of daemon threads running the requests of the batch operations of a blob store concurrently, so that
+ * their round trips overlap. Idle threads go away after a minute.
+ */
+public class ParallelRequests {
+
+    private final ThreadPoolExecutor executor;
+
+    private final String target;
+
+    /**
+     * @param threadNameFormat the {@link String#format(String, Object...) format} of the thread names, with a
+     *     {@code %d} for the thread number
+     * @param target what the requests work on, such as {@code "bucket tiles"}, for the error messages
+     * @param threads the maximum number of requests running at the same time, usually the size of the client connection
+     *     pool
+     */
+    public ParallelRequests(String threadNameFormat, String target, int threads) {
+        this.target = target;
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat(threadNameFormat)
+                        .build());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs the given requests concurrently and waits for all of them to complete
+     *
+     * @return the results of the requests, in the same order
+     * @throws StorageException the first failure, if any request failed
+     */
+    public <T> List<T> execute(List<Callable<T>> requests) throws StorageException {
+        List<Future<T>> futures = new ArrayList<>(requests.size());
+        for (Callable<T> request : requests) {
+            futures.add(executor.submit(request));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        StorageException failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new StorageException("Interrupted while transferring tiles on " + target, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (failure == null) {
+                    failure = cause instanceof StorageException se
+                            ? se
+                            : new StorageException("Failed to transfer tiles on " + target, cause);
+                } else {
+                    failure.addSuppressed(cause);
+                }
+                results.add(null);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /** Stops the running requests and discards the pending ones */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.util.TMSKeyBuilder;
+
+/**
+ * Bounded registry of the parameters metadata objects a blob store already persisted, used by the object storage based
+ * blob stores to write the {@link TMSKeyBuilder#parametersMetadata(String, String) parameters metadata} of a layer and
+ * parameters id once, instead of once per stored tile.
+ *
+ * <p>The parameters ids of a layer are listed from the store the first time the layer is looked up, so the objects
+ * written before a restart are not uploaded again. Concurrent lookups of the same layer share a single listing, and a
+ * failed listing is not retried before {@link #LISTING_RETRY_DELAY} has elapsed. Evicting an entry is harmless, it only
+ * costs a redundant write of the same contents, as the parameters id is a
+ * {@link org.geowebcache.filter.parameters.ParametersUtils#getId(java.util.Map) hash} of them.
+ */
+public class ParametersMetadataRegistry {
+
+    private static final Logger LOGGER = Logging.getLogger(ParametersMetadataRegistry.class.getName());
+
+    /** Environment property overriding {@link #DEFAULT_MAX_SIZE} */
+    public static final String MAX_SIZE_PROPERTY = "GWC_PARAMETERS_METADATA_REGISTRY_SIZE";
+
+    /** Default maximum number of layer and parameters id pairs tracked */
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    /** Milliseconds to wait before listing the parameters ids of a layer again after a failure */
+    public static final long LISTING_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+    /** Lists the parameters ids whose metadata is already persisted for a layer */
+    @FunctionalInterface
+    public interface ParametersLister {
+        Collection<String> list(String layerName) throws Exception;
+    }
+
+    private final Cache<List<String>, Boolean> persisted;
+
+    /**
+     * Listing of the parameters ids of each layer looked up, resulting in the time it can be retried at, or
+     * {@link Long#MAX_VALUE} if it succeeded
+     */
+    private final ConcurrentMap<String, FutureTask<Long>> warmups = new ConcurrentHashMap<>();
+
+    private final ParametersLister lister;
+
+    private final long retryDelay;
+
+    public ParametersMetadataRegistry(ParametersLister lister) {
+        this(lister, maxSize());
+    }
+
+    public ParametersMetadataRegistry(ParametersLister lister, int maxSize) {
+        this(lister, maxSize, LISTING_RETRY_DELAY);
+    }
+
+    ParametersMetadataRegistry(ParametersLister lister, int maxSize, long retryDelay) {
+        this.lister = lister;
+        this.persisted = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        this.retryDelay = retryDelay;
+    }
+
+    private static int maxSize() {
+        String value = GeoWebCacheExtensions.getProperty(MAX_SIZE_PROPERTY);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning("Invalid " + MAX_SIZE_PROPERTY + " value '" + value + "', using " + DEFAULT_MAX_SIZE);
+            }
+        }
+        return DEFAULT_MAX_SIZE;
+    }
+
+    /** @return {@literal true} if the metadata of the given layer and parameters id is known to be persisted */
+    public boolean isPersisted(String layerName, String parametersId) {
+        warm(layerName);
+        return persisted.getIfPresent(List.of(layerName, parametersId)) != null;
+    }
+
+    /** Records that the metadata of the given layer and parameters id has been persisted */
+    public void persisted(String layerName, String parametersId) {
+        persisted.put(List.of(layerName, parametersId), Boolean.TRUE);
+    }
+
+    /** Forgets the given layer and parameters id, its metadata will be written again on the next store */
+    public void invalidate(String layerName, String parametersId) {
+        persisted.invalidate(List.of(layerName, parametersId));
+    }
+
+    /** Forgets all the parameters ids of the given layer, and lists them again on the next lookup */
+    public void invalidateLayer(String layerName) {
+        warmups.remove(layerName);
+        persisted.asMap().keySet().removeIf(key -> key.get(0).equals(layerName));
+    }
+
+    /** Forgets everything */
+    public void clear() {
+        warmups.clear();
+        persisted.invalidateAll();
+    }
+
+    private void warm(String layerName) {
+        while (true) {
+            FutureTask<Long> listing = new FutureTask<>(() -> list(layerName));
+            FutureTask<Long> warmup = warmups.computeIfAbsent(layerName, name -> listing);
+            if (warmup == listing) {
+                listing.run();
+                return;
+            }
+            long retryAt;
+            try {
+                retryAt = warmup.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // list() does not throw
+                throw new IllegalStateException(e.getCause());
+            }
+            if (retryAt > System.currentTimeMillis()) {
+                return;
+            }
+            // the failed listing is due for a retry, unless another lookup already replaced it
+            warmups.remove(layerName, warmup);
+        }
+    }
+
+    /** @return the time the listing can be retried at, {@link Long#MAX_VALUE} if it succeeded */
+    private long list(String layerName) {
+        try {
+            for (String parametersId : lister.list(layerName)) {
+                persisted(layerName, parametersId);
+            }
+            return Long.MAX_VALUE;
+        } catch (Exception e) {
+            // not fatal, the metadata is going to be written again
+            LOGGER.log(Level.FINE, "Failed to list the parameters metadata of layer " + layerName, e);
+            return System.currentTimeMillis() + retryDelay;
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package org.geowebcache.storage;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import org.geowebcache.layer.TileLayer;
@@ -55,6 +56,14 @@ public interface StorageBroker {
     /** Puts the given TileObject into storage */
     boolean put(TileObject tileObj) throws StorageException;
 
+    /** Puts the given TileObjects into storage, as a single batch if the underlying storage supports it */
+    default boolean putAll(Collection<TileObject> tileObjs) throws StorageException {
+        for (TileObject tileObj : tileObjs) {
+            put(tileObj);
+        }
+        return true;
+    }
+
     /** Destroy method for Spring */
     void destroy();
 
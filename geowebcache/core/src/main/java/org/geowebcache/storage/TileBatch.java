@@ -0,0 +1,97 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import java.util.Arrays;
+
+/**
+ * The grid locations and blob sizes of a batch of tiles of the same tile set and zoom level, as reported to
+ * {@link BlobStoreListener#tilesDeleted} by blob stores deleting many tiles at once.
+ */
+public class TileBatch {
+
+    private final int zoomLevel;
+
+    private long[] xy = new long[32];
+
+    private long[] sizes = new long[16];
+
+    private int size;
+
+    private long totalSize;
+
+    /** @param zoomLevel the zoom level of all the tiles in the batch */
+    public TileBatch(int zoomLevel) {
+        this.zoomLevel = zoomLevel;
+    }
+
+    /** Adds a tile to the batch */
+    public void add(long x, long y, long blobSize) {
+        if (size == sizes.length) {
+            sizes = Arrays.copyOf(sizes, size * 2);
+            xy = Arrays.copyOf(xy, size * 4);
+        }
+        xy[2 * size] = x;
+        xy[2 * size + 1] = y;
+        sizes[size] = blobSize;
+        totalSize += blobSize;
+        size++;
+    }
+
+    /** @return the zoom level of all the tiles in the batch */
+    public int getZoomLevel() {
+        return zoomLevel;
+    }
+
+    /** @return the number of tiles in the batch */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return the X ordinate of the {@code index}th tile */
+    public long getX(int index) {
+        return xy[2 * checkIndex(index)];
+    }
+
+    /** @return the Y ordinate of the {@code index}th tile */
+    public long getY(int index) {
+        return xy[2 * checkIndex(index) + 1];
+    }
+
+    /** @return the blob size of the {@code index}th tile */
+    public long getBlobSize(int index) {
+        return sizes[checkIndex(index)];
+    }
+
+    /** @return the sum of the blob sizes of all the tiles */
+    public long getTotalBlobSize() {
+        return totalSize;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for batch of " + size + " tiles");
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "TileBatch[z=" + zoomLevel + ", " + size + " tiles, " + totalSize + " bytes]";
+    }
+}
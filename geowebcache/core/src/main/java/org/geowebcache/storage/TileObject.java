@@ -43,6 +43,8 @@ public class TileObject extends StorageObject implements Serializable {
 
     String gridSetId;
 
+    boolean uniform;
+
     public static TileObject createQueryTileObject(
             String layerName, long[] xyz, String gridSetId, String format, Map<String, String> parameters) {
         TileObject obj = new TileObject();
@@ -128,6 +130,18 @@ public Map<String, String> getParameters() {
         return parameters;
     }
 
+    /**
+     * Whether the tile is a single colour, like the empty tiles of sparse layers. Blob stores may share the contents of
+     * uniform tiles of the same format instead of storing a copy for each of them.
+     */
+    public boolean isUniform() {
+        return uniform;
+    }
+
+    public void setUniform(boolean uniform) {
+        this.uniform = uniform;
+    }
+
     @Override
     public String getType() {
         return TYPE;
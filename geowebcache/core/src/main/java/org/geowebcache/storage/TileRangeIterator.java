@@ -13,10 +13,28 @@
  */
 package org.geowebcache.storage;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Hands out the meta tile locations of a {@link TileRange} to any number of concurrent consumers, without locking.
+ *
+ * <p>Each zoom level is split up front in chunks of up to {@link #CHUNK_SIZE} meta tiles of the same row. Consumers
+ * claim whole chunks through an atomic cursor and walk them on their own, evaluating the {@link DiscontinuousTileRange}
+ * filter concurrently. Once all the chunks are claimed, consumers that run out of work take over the remaining
+ * locations of the chunks others are still working on.
+ *
+ * <p>Each thread calling {@link #nextMetaGridLocation(long[])} is a consumer on its own. Code walking the locations
+ * from several threads in turn, or walking several sequences of locations on the same thread, gets its own
+ * {@link #newConsumer() consumer} instead.
+ */
 public class TileRangeIterator {
 
+    /** Maximum number of meta tiles in a chunk */
+    static final int CHUNK_SIZE = 32;
+
     private final TileRange tr;
 
     private final DiscontinuousTileRange dtr;
@@ -25,23 +43,78 @@ public class TileRangeIterator {
 
     private final int metaY;
 
-    private AtomicLong tilesSkippedCount = new AtomicLong();
+    private final LongAdder tilesSkippedCount = new LongAdder();
+
+    private final LongAdder tilesRenderedCount = new LongAdder();
+
+    private final int zoomStart;
+
+    /** Range bounds of each zoom level, starting at {@link #zoomStart} */
+    private final long[][] levelBounds;
+
+    /** Number of chunks in a row of each zoom level */
+    private final long[] chunksPerRow;
+
+    /** Index of the first chunk of each zoom level, plus the total number of chunks as the last element */
+    private final long[] firstChunk;
 
-    private AtomicLong tilesRenderedCount = new AtomicLong();
+    /** Index of the chunk the iteration started from */
+    private final long startChunk;
 
-    private volatile long[] lastGridLoc;
+    /** Index of the next chunk to be claimed */
+    private final AtomicLong cursor;
+
+    /** Row to start from instead of the beginning of the range, as {z, y} */
+    private final long[] resumeFrom;
+
+    /** The consumers that started and did not run out of locations yet */
+    private final Set<Consumer> consumers = ConcurrentHashMap.newKeySet();
+
+    /** The consumer of each thread calling {@link #nextMetaGridLocation(long[])} */
+    private final ThreadLocal<Consumer> threadConsumers = new ThreadLocal<>();
 
     /** Note that the bounds of the tile range must already be expanded to the meta tile factors for this to work. */
     public TileRangeIterator(TileRange tr, int[] metaTilingFactors) {
+        this(tr, metaTilingFactors, null);
+    }
+
+    /**
+     * Creates an iterator resuming from a {@link #getCheckpoint() checkpoint} of a previous iteration over the same
+     * range.
+     *
+     * @param checkpoint the {z, y} row to start from, or {@code null} to start from the beginning of the range
+     */
+    public TileRangeIterator(TileRange tr, int[] metaTilingFactors, long[] checkpoint) {
         this.tr = tr;
         this.metaX = metaTilingFactors[0];
         this.metaY = metaTilingFactors[1];
+        this.resumeFrom = checkpoint == null ? null : checkpoint.clone();
 
         if (tr instanceof DiscontinuousTileRange range) {
             dtr = range;
         } else {
             dtr = null;
         }
+
+        this.zoomStart = tr.getZoomStart();
+        int levels = Math.max(0, tr.getZoomStop() - zoomStart + 1);
+        this.levelBounds = new long[levels][];
+        this.chunksPerRow = new long[levels];
+        this.firstChunk = new long[levels + 1];
+        for (int level = 0; level < levels; level++) {
+            long[] bounds = tr.rangeBounds(zoomStart + level);
+            long metaColumns = ceilDiv(bounds[2] - bounds[0] + 1, metaX);
+            long metaRows = ceilDiv(bounds[3] - bounds[1] + 1, metaY);
+            levelBounds[level] = bounds;
+            chunksPerRow[level] = ceilDiv(metaColumns, CHUNK_SIZE);
+            firstChunk[level + 1] = firstChunk[level] + metaRows * chunksPerRow[level];
+        }
+        this.startChunk = resumeFrom == null ? 0 : rowStartChunk(resumeFrom[0], resumeFrom[1]);
+        this.cursor = new AtomicLong(startChunk);
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return value <= 0 ? 0 : (value + divisor - 1) / divisor;
     }
 
     /** Returns the underlying tile range */
@@ -55,62 +128,154 @@ public TileRange getTileRange() {
      * <p>If the TileRange object provided is a DiscontinuousTileRange implementation, each location is checked against
      * the filter of that class.
      *
-     * @param gridLoc as an optimization, re-use the previous gridLoc. It will be changed and used as the return value.
-     *     The values passed in will not impact the result. For the first call, use a new 3 element array.
+     * <p>Each calling thread is a separate consumer, getting the next location of its own share of the range, see
+     * {@link Consumer#nextMetaGridLocation(long[])}.
+     *
+     * @param gridLoc the array to be changed and used as the return value. The values passed in will not impact the
+     *     result. Reusing the array returned by the previous call saves an allocation.
      * @return {@code null} if there're no more tiles to return, the next grid location in the iterator otherwise. The
      *     array has three elements: {x,y,z}
      */
-    public synchronized long[] nextMetaGridLocation(final long[] gridLoc) {
-        long[] levelBounds;
-        long x;
-        long y;
-        int z;
-
-        // Figure out the starting point
-        if (lastGridLoc == null) {
-            z = tr.getZoomStart();
-            levelBounds = tr.rangeBounds(z);
-            x = levelBounds[0];
-            y = levelBounds[1];
-
-        } else {
-            z = (int) lastGridLoc[2];
-            levelBounds = tr.rangeBounds(z);
-            x = lastGridLoc[0] + metaX;
-            y = lastGridLoc[1];
+    public long[] nextMetaGridLocation(final long[] gridLoc) {
+        Consumer consumer = threadConsumers.get();
+        if (consumer == null) {
+            consumer = new Consumer();
+            threadConsumers.set(consumer);
         }
+        long[] next = consumer.nextMetaGridLocation(gridLoc);
+        if (next == null) {
+            threadConsumers.remove();
+        }
+        return next;
+    }
 
-        // Loop over any remaining zoom levels
-        for (; z <= tr.getZoomStop(); z++) {
-            for (; y <= levelBounds[3]; y += metaY) {
-                for (; x <= levelBounds[2]; x += metaX) {
+    /**
+     * Creates a consumer getting its own share of the locations, independently of the thread it is used from. It must
+     * not be used by more than one thread at a time.
+     */
+    public Consumer newConsumer() {
+        return new Consumer();
+    }
 
+    private long[] next(Consumer consumer, final long[] gridLoc) {
+        if (!consumer.started) {
+            consumer.started = true;
+            consumer.published = cursor.get();
+            consumers.add(consumer);
+        }
+        Chunk chunk = consumer.chunk;
+        while (true) {
+            if (chunk != null) {
+                final long[] bounds = levelBounds[chunk.level];
+                for (long x = chunk.claim(); x <= chunk.maxX; x = chunk.claim()) {
                     gridLoc[0] = x;
-                    gridLoc[1] = y;
-                    gridLoc[2] = z;
+                    gridLoc[1] = chunk.y;
+                    gridLoc[2] = zoomStart + chunk.level;
 
-                    int tileCount = tilesForLocation(gridLoc, levelBounds);
+                    int tileCount = tilesForLocation(gridLoc, bounds);
 
                     if (checkGridLocation(gridLoc)) {
-                        tilesRenderedCount.addAndGet(tileCount);
-                        lastGridLoc = gridLoc.clone();
+                        tilesRenderedCount.add(tileCount);
                         return gridLoc;
                     }
 
-                    tilesSkippedCount.addAndGet(tileCount);
+                    tilesSkippedCount.add(tileCount);
                 }
-                x = levelBounds[0];
             }
+            chunk = nextChunk(consumer);
+            if (chunk == null) {
+                consumers.remove(consumer);
+                return null;
+            }
+        }
+    }
 
-            // Get ready for the next level
-            if (z < tr.getZoomStop()) { // but be careful not to go out of index
-                levelBounds = tr.rangeBounds(z + 1);
-                x = levelBounds[0];
-                y = levelBounds[1];
+    /** Claims the next chunk for a consumer, or helps with the chunk of another one once they are all claimed */
+    private Chunk nextChunk(Consumer consumer) {
+        // publish a lower bound of the chunk about to be claimed before claiming it, for getCheckpoint()
+        consumer.published = cursor.get();
+        long index = cursor.getAndIncrement();
+        if (index < firstChunk[firstChunk.length - 1]) {
+            Chunk chunk = chunk(index);
+            consumer.published = index;
+            consumer.chunk = chunk;
+            return chunk;
+        }
+        Chunk unfinished = null;
+        for (Consumer other : consumers) {
+            Chunk chunk = other.chunk;
+            if (chunk != null && chunk.hasRemaining() && (unfinished == null || chunk.index < unfinished.index)) {
+                unfinished = chunk;
             }
         }
+        if (unfinished != null) {
+            consumer.published = unfinished.index;
+        }
+        consumer.chunk = unfinished;
+        return unfinished;
+    }
 
-        return null;
+    private Chunk chunk(long index) {
+        int level = level(index);
+        long offset = index - firstChunk[level];
+        long row = offset / chunksPerRow[level];
+        long column = offset % chunksPerRow[level];
+        long[] bounds = levelBounds[level];
+        long minX = bounds[0] + column * CHUNK_SIZE * metaX;
+        long maxX = Math.min(bounds[2], minX + (CHUNK_SIZE - 1L) * metaX);
+        return new Chunk(index, level, bounds[1] + row * metaY, minX, maxX, metaX);
+    }
+
+    /** @return the zoom level, relative to {@link #zoomStart}, of the given chunk */
+    private int level(long index) {
+        int level = 0;
+        while (level < levelBounds.length - 1 && firstChunk[level + 1] <= index) {
+            level++;
+        }
+        return level;
+    }
+
+    /** @return the index of the first chunk of the given row, clamped to the range */
+    private long rowStartChunk(long z, long y) {
+        if (levelBounds.length == 0 || z < zoomStart) {
+            return 0;
+        }
+        if (z >= zoomStart + levelBounds.length) {
+            return firstChunk[levelBounds.length];
+        }
+        int level = (int) (z - zoomStart);
+        long rows = (firstChunk[level + 1] - firstChunk[level]) / Math.max(1, chunksPerRow[level]);
+        long row = Math.min(rows, Math.max(0, (y - levelBounds[level][1]) / metaY));
+        return firstChunk[level] + row * chunksPerRow[level];
+    }
+
+    /**
+     * Returns the point an interrupted iteration can be resumed from without missing any location: the start of the
+     * lowest row, in iteration order, that has a location not completed yet. The locations before that row in the same
+     * zoom level, and all the ones in the previous zoom levels, have been completed.
+     *
+     * @return the {z, y} row to resume from, to be passed to {@link #TileRangeIterator(TileRange, int[], long[])}, or
+     *     {@code null} if the iteration has not started yet
+     */
+    public long[] getCheckpoint() {
+        long index = Long.MAX_VALUE;
+        for (Consumer consumer : consumers) {
+            index = Math.min(index, consumer.published);
+        }
+        if (index == Long.MAX_VALUE) {
+            // no consumer working, all the claimed chunks are done
+            index = cursor.get();
+            if (index == startChunk) {
+                return resumeFrom == null ? null : resumeFrom.clone();
+            }
+        }
+        long total = firstChunk[firstChunk.length - 1];
+        if (total == 0) {
+            return null;
+        }
+        int level = level(Math.min(index, total - 1));
+        long row = (Math.min(index, total - 1) - firstChunk[level]) / chunksPerRow[level];
+        return new long[] {zoomStart + level, levelBounds[level][1] + row * metaY};
     }
 
     /** Calculates the number of tiles covered by the meta tile for this grid location. */
@@ -147,4 +312,67 @@ private boolean checkGridLocation(long[] gridLoc) {
 
         return false;
     }
+
+    /**
+     * A consumer of the locations of the iterator, and the lowest chunk it might be working on. It is tracked from its
+     * first call until it runs out of locations.
+     */
+    public final class Consumer {
+
+        private boolean started;
+
+        private volatile long published;
+
+        private volatile Chunk chunk;
+
+        private Consumer() {}
+
+        /**
+         * Returns the next location of the share of this consumer. Asking for the next location marks the previous one
+         * as completed, which is what {@link TileRangeIterator#getCheckpoint()} relies on. A single consumer gets the
+         * locations in row order, concurrent consumers get interleaved chunks of rows.
+         *
+         * @param gridLoc the array to be changed and used as the return value. The values passed in will not impact the
+         *     result.
+         * @return {@code null} if there're no more tiles to return, the next grid location in the iterator otherwise.
+         *     The array has three elements: {x,y,z}
+         */
+        public long[] nextMetaGridLocation(final long[] gridLoc) {
+            return next(this, gridLoc);
+        }
+    }
+
+    /** Up to {@link #CHUNK_SIZE} meta tiles of a row, whose locations can be claimed by several consumers at once */
+    private static final class Chunk {
+
+        final long index;
+
+        final int level;
+
+        final long y;
+
+        final long maxX;
+
+        final int step;
+
+        final AtomicLong nextX;
+
+        Chunk(long index, int level, long y, long minX, long maxX, int step) {
+            this.index = index;
+            this.level = level;
+            this.y = y;
+            this.maxX = maxX;
+            this.step = step;
+            this.nextX = new AtomicLong(minX);
+        }
+
+        /** @return the x of the claimed location, greater than {@link #maxX} if there are none left */
+        long claim() {
+            return nextX.getAndAdd(step);
+        }
+
+        boolean hasRemaining() {
+            return nextX.get() <= maxX;
+        }
+    }
 }
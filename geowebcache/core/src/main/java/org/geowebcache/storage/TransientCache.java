@@ -16,10 +16,15 @@
 import com.google.common.base.Preconditions;
 import com.google.common.base.Ticker;
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.io.InputStream;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.io.Resource;
 import org.geowebcache.mime.MimeType;
@@ -27,7 +32,17 @@
 import org.geowebcache.storage.blobstore.file.FilePathGenerator;
 
 /**
- * Non-thread safe Resource cache. Currently in-memory only.
+ * Thread safe Resource cache. Currently in-memory only.
+ *
+ * <p>Resources are kept in a {@link ConcurrentHashMap}, whose bins are locked independently, so concurrent puts and
+ * gets of different tiles do not contend with each other and callers need no external synchronization. The number of
+ * cached resources and their size in bytes are tracked with atomic counters.
+ *
+ * <p>All the resources share the same time to live, so insertion order is also expiration order: a lock free FIFO queue
+ * of the keys and insertion times of the cached entries doubles as the expiration wheel. Each put drains the head of
+ * the queue while it holds expired entries, entries already consumed by a get or replaced by a newer put, or while the
+ * cache is over budget, so the oldest resources are always the first to go. The queue does not reference the cached
+ * content, which is released as soon as its entry leaves the map.
  *
  * @author Ian Schneider <ischneider@opengeo.org>
  * @author Kevin Smith, Boundless
@@ -36,13 +51,15 @@ public class TransientCache {
 
     private final int maxTiles;
 
-    private final int maxStorage;
+    private final long maxStorage;
 
     private final long expireDelay;
 
-    private long currentStorage;
+    private final AtomicLong currentStorage = new AtomicLong();
+
+    private final AtomicInteger currentTiles = new AtomicInteger();
 
-    private Ticker ticker = Ticker.systemTicker();
+    private volatile Ticker ticker = Ticker.systemTicker();
 
     /**
      * A path generator that uses the key set as its key to build keys suitable for usage in the in memory transient
@@ -50,16 +67,12 @@ public class TransientCache {
      */
     private static FilePathGenerator keyGenerator = new DefaultFilePathGenerator("");
 
-    private Map<String, CachedResource> cache = new LinkedHashMap<>() {
+    private final Map<String, CachedResource> cache = new ConcurrentHashMap<>();
 
-        /** serialVersionUID */
-        private static final long serialVersionUID = -4106644240603796847L;
+    /** Expirations of the cached entries in insertion order, may contain entries already removed from {@link #cache} */
+    private final Queue<Expiration> expirationQueue = new ConcurrentLinkedQueue<>();
 
-        @Override
-        protected boolean removeEldestEntry(Entry<String, CachedResource> eldest) {
-            return removeEntries(eldest);
-        }
-    };
+    private final AtomicBoolean draining = new AtomicBoolean();
 
     /**
      * @param maxTiles Maximum number of tiles in cache
@@ -68,18 +81,18 @@ protected boolean removeEldestEntry(Entry<String, CachedResource> eldest) {
      */
     public TransientCache(int maxTiles, int maxStorageKB, long expireDelay) {
         this.maxTiles = maxTiles;
-        this.maxStorage = maxStorageKB * 1024;
+        this.maxStorage = maxStorageKB * 1024L;
         this.expireDelay = expireDelay;
     }
 
     /** Count of cached resources. May include expired resources not yet cleared. */
     public int size() {
-        return cache.size();
+        return currentTiles.get();
     }
 
     /** The currently used storage. May include expired resources not yet cleared. */
     public long storageSize() {
-        return currentStorage;
+        return currentStorage.get();
     }
 
     /**
@@ -89,15 +102,33 @@ public long storageSize() {
      * @param r the resource to cache
      */
     public void put(String key, Resource r) {
-        byte[] buf = new byte[(int) r.getSize()];
-        try {
-            r.getInputStream().read(buf);
+        ByteArrayResource content = new ByteArrayResource(readFully(r));
+        content.setLastModified(r.getLastModified());
+        CachedResource blob = new CachedResource(key, content, currentTime());
+
+        CachedResource previous = cache.put(key, blob);
+        if (previous != null) {
+            released(previous);
+        }
+        currentStorage.addAndGet(blob.size);
+        currentTiles.incrementAndGet();
+        expirationQueue.add(blob.expiration);
+
+        removeEntries(blob.expiration.time);
+    }
+
+    private static byte[] readFully(Resource r) {
+        final int size = (int) r.getSize();
+        byte[] buf = new byte[size];
+        try (InputStream in = r.getInputStream()) {
+            int read = in.readNBytes(buf, 0, size);
+            if (read != size) {
+                throw new IOException("Expected " + size + " bytes from resource but got " + read);
+            }
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
-        CachedResource blob = new CachedResource(new ByteArrayResource(buf));
-        currentStorage += r.getSize();
-        cache.put(key, blob);
+        return buf;
     }
 
     /**
@@ -106,12 +137,11 @@ public void put(String key, Resource r) {
      * @return The resource cached under the given key, or null if no resource is cached.
      */
     public Resource get(String key) {
-        CachedResource cached = cache.get(key);
+        CachedResource cached = cache.remove(key);
         if (cached != null) {
-            cache.remove(key);
-            currentStorage -= cached.content.getSize();
+            released(cached);
 
-            if (cached.time + expireDelay < currentTime()) {
+            if (cached.expiration.time + expireDelay < currentTime()) {
                 return null;
             } else {
                 return cached.content;
@@ -122,23 +152,51 @@ public Resource get(String key) {
 
     /** A timestamp in milliseconds */
     protected long currentTime() {
-        return ticker.read() / 1000;
+        return TimeUnit.NANOSECONDS.toMillis(ticker.read());
     }
 
-    // Gets called by overridden LinkedHashMap.removeEldestEntry
-    private boolean removeEntries(Entry<String, CachedResource> eldest) {
-        // iterator returns items in order added so oldest items are first
-        Iterator<CachedResource> items = cache.values().iterator();
-        while (items.hasNext() && (currentStorage > maxStorage || cache.size() > maxTiles)) {
-            CachedResource r = items.next();
-            currentStorage -= r.content.getSize();
-            items.remove();
-        }
-        assert currentStorage <= maxStorage;
-        assert currentStorage >= 0;
-        assert cache.size() <= maxStorage;
+    private void released(CachedResource r) {
+        currentStorage.addAndGet(-r.size);
+        currentTiles.decrementAndGet();
+    }
 
-        return false;
+    private boolean overBudget() {
+        return currentStorage.get() > maxStorage || currentTiles.get() > maxTiles;
+    }
+
+    /**
+     * Evicts from the head of the expiration queue, dropping the entries already removed by a get or a newer put, the
+     * expired ones, and the oldest live ones while the cache is over budget. Only one thread drains the queue at a
+     * time, the others leave the work to it instead of waiting. Stops once the queue is empty, whatever the budget
+     * says.
+     */
+    private void removeEntries(long now) {
+        do {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                Expiration head;
+                while ((head = expirationQueue.peek()) != null) {
+                    CachedResource cached = cache.get(head.key);
+                    boolean live = cached != null && cached.expiration == head;
+                    boolean expired = head.time + expireDelay < now;
+                    if (live && !expired && !overBudget()) {
+                        break;
+                    }
+                    if (expirationQueue.poll() == null) {
+                        break;
+                    }
+                    if (live && cache.remove(head.key, cached)) {
+                        released(cached);
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // a concurrent put may have gone over budget after the last check, without getting to drain. Going round
+            // again polls at least one entry, so an empty queue ends the loop even if the budget is still exceeded
+        } while (overBudget() && !expirationQueue.isEmpty());
     }
 
     public static String computeTransientKey(TileObject tile) {
@@ -150,18 +208,26 @@ public static String computeTransientKey(TileObject tile) {
         }
     }
 
-    private class CachedResource {
-        Resource content;
-        long time;
+    private static final class CachedResource {
+        final Resource content;
+        final long size;
+        final Expiration expiration;
 
-        public CachedResource(Resource content, long time) {
-            super();
+        CachedResource(String key, Resource content, long time) {
             this.content = content;
-            this.time = time;
+            this.size = content.getSize();
+            this.expiration = new Expiration(key, time);
         }
+    }
 
-        public CachedResource(Resource content) {
-            this(content, currentTime());
+    /** Entry of the expiration queue, identifying a cached resource without holding on to its content */
+    private static final class Expiration {
+        final String key;
+        final long time;
+
+        Expiration(String key, long time) {
+            this.key = key;
+            this.time = time;
         }
     }
 
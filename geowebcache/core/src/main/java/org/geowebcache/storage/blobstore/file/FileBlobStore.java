@@ -20,10 +20,12 @@
 import static org.geowebcache.util.TMSKeyBuilder.PARAMETERS_METADATA_OBJECT_SUFFIX;
 
 import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
@@ -31,16 +33,26 @@
 import java.nio.channels.FileChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -48,8 +60,10 @@
 import java.util.stream.StreamSupport;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.GeoWebCacheExtensions;
 import org.geowebcache.config.ConfigurationException;
 import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.io.FileChannelResource;
 import org.geowebcache.io.FileResource;
 import org.geowebcache.io.Resource;
 import org.geowebcache.mime.MimeException;
@@ -61,6 +75,7 @@
 import org.geowebcache.storage.DefaultStorageFinder;
 import org.geowebcache.storage.StorageException;
 import org.geowebcache.storage.StorageObject.Status;
+import org.geowebcache.storage.TileBatch;
 import org.geowebcache.storage.TileObject;
 import org.geowebcache.storage.TileRange;
 import org.geowebcache.util.FileUtils;
@@ -83,8 +98,42 @@ interface FileWriter {
 
     public static final int BUFFER_SIZE = 32768;
 
+    /**
+     * System property or environment variable that can be set to {@code true} to have {@link #get(TileObject)} open the
+     * tile right away, instead of checking for its existence and reading it lazily
+     */
+    public static final String SINGLE_OPEN_READS = "GWC_FILEBLOBSTORE_SINGLE_OPEN_READS";
+
+    /**
+     * Number of threads deleting the tiles of truncated tile ranges, set as a system property or environment variable,
+     * defaults to the number of available processors
+     */
+    public static final String TRUNCATE_THREADS = "GWC_FILEBLOBSTORE_TRUNCATE_THREADS";
+
+    /**
+     * Number of threads deleting the directories of deleted layers, grid sets and parameters in the background, set as
+     * a system property or environment variable, defaults to half the available processors
+     */
+    public static final String DELETE_THREADS = "GWC_FILEBLOBSTORE_DELETE_THREADS";
+
+    /**
+     * System property or environment variable that can be set to {@code true} to have {@link #put(TileObject)} hard
+     * link each {@link TileObject#isUniform() uniform} tile to a single shared copy, instead of writing it to its own
+     * file. Linked tiles report the modification time of the shared copy, layers don't mark the tiles that expire as
+     * uniform for this reason.
+     */
+    public static final String LINK_UNIFORM_TILES = "GWC_FILEBLOBSTORE_LINK_UNIFORM_TILES";
+
+    /**
+     * Age after which the shared copy of a uniform tile is replaced, linked tiles share its modification time, this
+     * bounds how much older than they are they look
+     */
+    static final long UNIFORM_TILE_MAX_AGE = TimeUnit.MINUTES.toMillis(10);
+
     private final File stagingArea;
 
+    private final File uniformTiles;
+
     private final String path;
 
     private int diskBlockSize = DEFAULT_DISK_BLOCK_SIZE;
@@ -95,12 +144,18 @@ interface FileWriter {
 
     private File tmp;
 
-    private ExecutorService deleteExecutorService;
+    private ParallelDirectoryDeleter deleter;
+
+    private ThreadPoolExecutor truncateExecutorService;
 
     private LayerMetadataStore layerMetadata;
 
     private TempFileNameGenerator tmpGenerator = new TempFileNameGenerator();
 
+    private boolean singleOpenReads = "true".equalsIgnoreCase(GeoWebCacheExtensions.getProperty(SINGLE_OPEN_READS));
+
+    private boolean linkUniformTiles = "true".equalsIgnoreCase(GeoWebCacheExtensions.getProperty(LINK_UNIFORM_TILES));
+
     public FileBlobStore(DefaultStorageFinder defStoreFinder) throws StorageException, ConfigurationException {
         this(defStoreFinder.getDefaultPath());
     }
@@ -152,8 +207,10 @@ public FileBlobStore(String rootPath, FilePathGenerator pathGenerator) throws St
         }
 
         stagingArea = new File(path, "_gwc_in_progress_deletes_");
+        uniformTiles = new File(path, "_gwc_uniform_tiles_");
         layerMetadata = new LayerMetadataStore(path, tmp);
-        createDeleteExecutorService();
+        createDeleter();
+        createTruncateExecutorService();
         issuePendingDeletes();
     }
 
@@ -174,72 +231,55 @@ private void issuePendingDeletes() {
     }
 
     private void deletePending(final File pendingDeleteDirectory) {
-        deleteExecutorService.submit(new DefferredDirectoryDeleteTask(pendingDeleteDirectory));
+        deleter.delete(pendingDeleteDirectory);
     }
 
-    private void createDeleteExecutorService() {
-        CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC FileStore delete " + "directory thread-");
-        tf.setDaemon(true);
-        tf.setThreadPriority(Thread.MIN_PRIORITY);
-        deleteExecutorService = Executors.newFixedThreadPool(1);
+    private void createDeleter() {
+        int threads =
+                threadsProperty(DELETE_THREADS, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        deleter = new ParallelDirectoryDeleter("GWC FileStore delete directory thread-", threads, Thread.MIN_PRIORITY);
     }
 
-    /** Destroy method for Spring */
-    @Override
-    public void destroy() {
-        if (deleteExecutorService != null) {
-            deleteExecutorService.shutdown();
-        }
+    private void createTruncateExecutorService() {
+        int threads = threadsProperty(TRUNCATE_THREADS, Runtime.getRuntime().availableProcessors());
+        CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC FileStore truncate thread-");
+        tf.setDaemon(true);
+        // idle threads go away, most blob stores are rarely truncated
+        truncateExecutorService =
+                new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), tf);
+        truncateExecutorService.allowCoreThreadTimeOut(true);
     }
 
-    private static class DefferredDirectoryDeleteTask implements Runnable {
-
-        private final File directory;
-
-        public DefferredDirectoryDeleteTask(final File directory) {
-            this.directory = directory;
-        }
-
-        @Override
-        public void run() {
+    private static int threadsProperty(String name, int defaultThreads) {
+        int threads = defaultThreads;
+        String value = GeoWebCacheExtensions.getProperty(name);
+        if (value != null) {
             try {
-                deleteDirectory(directory);
-            } catch (IOException e) {
-                log.log(Level.WARNING, "Exception occurred while deleting '" + directory.getAbsolutePath() + "'", e);
-            } catch (InterruptedException e) {
-                log.info("FileStore delete background service interrupted while deleting '"
-                        + directory.getAbsolutePath()
-                        + "'. Process will be resumed at next start up");
-                Thread.currentThread().interrupt();
+                threads = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                log.warning("Invalid value for " + name + ": " + value + ", using " + threads);
             }
         }
+        return Math.max(1, threads);
+    }
 
-        private void deleteDirectory(File directory) throws IOException, InterruptedException {
-            if (!directory.exists()) {
-                return;
-            }
-            if (Thread.interrupted()) {
-                throw new InterruptedException();
-            }
-            File[] files = listFilesNullSafe(directory);
-            for (File value : files) {
-                if (Thread.interrupted()) {
-                    throw new InterruptedException();
-                }
-                File file = value;
-                if (file.isDirectory()) {
-                    deleteDirectory(file);
-                } else {
-                    if (!file.delete() && file.exists()) {
-                        throw new IOException("Unable to delete " + file.getAbsolutePath());
-                    }
-                }
-            }
-            if (!directory.delete() && directory.exists()) {
-                String message = "Unable to delete directory " + directory + ".";
-                throw new IOException(message);
-            }
+    /** Destroy method for Spring */
+    @Override
+    public void destroy() {
+        if (deleter != null) {
+            deleter.shutdown();
         }
+        if (truncateExecutorService != null) {
+            truncateExecutorService.shutdown();
+        }
+    }
+
+    /**
+     * @return the progress of the deletes of layers, grid sets, parameters and truncated directories still running in
+     *     the background
+     */
+    public List<ParallelDirectoryDeleter.Progress> getPendingDeletes() {
+        return deleter.getProgress();
     }
 
     /** @see org.geowebcache.storage.BlobStore#delete(java.lang.String) */
@@ -255,10 +295,24 @@ public boolean delete(final String layerName) throws StorageException {
     }
 
     private boolean stageDelete(final File source, final String targetName) throws StorageException {
+        File staged = stage(source, targetName);
+        if (staged == null) {
+            return false;
+        }
+        deletePending(staged);
+        return true;
+    }
+
+    /**
+     * Moves a directory to the {@link #stagingArea}, without deleting it yet
+     *
+     * @return the staged directory, or {@code null} if the source does not exist or is not writable
+     */
+    private File stage(final File source, final String targetName) throws StorageException {
 
         if (!source.exists() || !source.canWrite()) {
             log.info(source + " does not exist or is not writable");
-            return false;
+            return null;
         }
 
         if (!stagingArea.exists() && !stagingArea.mkdirs()) {
@@ -280,8 +334,7 @@ private boolean stageDelete(final File source, final String targetName) throws S
                     + tmpFolder.getAbsolutePath()
                     + " for deletion");
         }
-        deletePending(tmpFolder);
-        return true;
+        return tmpFolder;
     }
 
     /** @see org.geowebcache.storage.BlobStore#deleteByGridsetId(java.lang.String, java.lang.String) */
@@ -411,29 +464,215 @@ public boolean delete(TileRange trObj) throws StorageException {
         final String blobFormat = trObj.getMimeType().getFormat();
         final String parametersId = trObj.getParametersId();
 
-        AtomicLong count = new AtomicLong();
-        pathGenerator.visitRange(layerPath, trObj, new TileFileVisitor() {
+        RangeTruncation truncation = new RangeTruncation(layerName, gridSetId, blobFormat, parametersId);
+        try {
+            pathGenerator.visitRange(layerPath, trObj, truncation);
+        } catch (TruncationInterruptedException e) {
+            // finish() below restores the interrupted status
+        } finally {
+            truncation.finish();
+        }
+
+        log.info("Truncated " + truncation.count + " tiles");
 
-            @Override
-            public void visitFile(File tile, long x, long y, int z) {
-                long length = tile.length();
-                boolean deleted = tile.delete();
-                if (deleted) {
-                    listeners.sendTileDeleted(layerName, gridSetId, blobFormat, parametersId, x, y, z, padSize(length));
-                    count.incrementAndGet();
+        return !truncation.aborted;
+    }
+
+    /** Thrown to stop visiting a tile range when the truncating thread gets interrupted */
+    private static class TruncationInterruptedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /** A tile found while visiting a tile range */
+    private record TileFile(File file, long x, long y) {}
+
+    /**
+     * Truncates a tile range in parallel: the calling thread visits the range and hands the tiles of each directory
+     * over to the {@link #truncateExecutorService}, which deletes them and notifies the listeners with a single
+     * {@link BlobStoreListener#tilesDeleted} event per directory.
+     *
+     * <p>Directories whose entries all belong to the range are renamed to the {@link #stagingArea} and deleted in the
+     * background, like {@link #delete(String) deleted layers} are. The files written to them after they were listed are
+     * moved back, so that no tile is deleted without the listeners knowing. Parent directories are pruned once the
+     * tiles are gone, if empty.
+     */
+    private class RangeTruncation implements TileFileVisitor {
+
+        private final String layerName;
+
+        private final String gridSetId;
+
+        private final String blobFormat;
+
+        private final String parametersId;
+
+        /** bounds the directories waiting for a truncate thread, so the visit doesn't get too far ahead */
+        private final int maxPending = 4 * truncateExecutorService.getMaximumPoolSize();
+
+        private final Semaphore pending = new Semaphore(maxPending);
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        /** the directories visited without tiles in them, children first */
+        private final List<File> parents = new ArrayList<>();
+
+        private volatile boolean aborted;
+
+        private File currentDir;
+
+        private int currentZ;
+
+        private List<TileFile> currentTiles = new ArrayList<>();
+
+        RangeTruncation(String layerName, String gridSetId, String blobFormat, String parametersId) {
+            this.layerName = layerName;
+            this.gridSetId = gridSetId;
+            this.blobFormat = blobFormat;
+            this.parametersId = parametersId;
+        }
+
+        @Override
+        public void visitFile(File tile, long x, long y, int z) {
+            File dir = tile.getParentFile();
+            if (!dir.equals(currentDir)) {
+                submitCurrent();
+                currentDir = dir;
+                currentZ = z;
+            }
+            currentTiles.add(new TileFile(tile, x, y));
+        }
+
+        @Override
+        public void postVisitDirectory(File dir) {
+            if (dir.equals(currentDir)) {
+                submitCurrent();
+            } else {
+                parents.add(dir);
+            }
+        }
+
+        private void submitCurrent() {
+            if (currentDir == null) {
+                return;
+            }
+            final File dir = currentDir;
+            final int z = currentZ;
+            final List<TileFile> tiles = currentTiles;
+            currentDir = null;
+            currentTiles = new ArrayList<>();
+            try {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
                 }
+                pending.acquire();
+            } catch (InterruptedException e) {
+                aborted = true;
+                Thread.currentThread().interrupt();
+                throw new TruncationInterruptedException();
+            }
+            try {
+                truncateExecutorService.execute(() -> {
+                    try {
+                        if (!aborted && failure.get() == null) {
+                            truncate(dir, z, tiles);
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        pending.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // shutting down, do it here
+                pending.release();
+                truncate(dir, z, tiles);
             }
+        }
 
-            @Override
-            public void postVisitDirectory(File dir) {
+        private void truncate(File dir, int z, List<TileFile> tiles) {
+            TileBatch batch = new TileBatch(z);
+            String[] entries = dir.list();
+            File staged = null;
+            if (entries != null && entries.length == tiles.size()) {
+                // all the directory contents go, no need to delete the tiles one by one
+                String target =
+                        filteredLayerName(layerName) + "_" + dir.getParentFile().getName() + "_" + dir.getName();
+                try {
+                    staged = stage(dir, target);
+                } catch (StorageException | IllegalStateException e) {
+                    log.log(Level.FINE, "Can't stage " + dir + " for deletion, deleting its tiles instead", e);
+                }
+                if (staged != null) {
+                    addStaged(staged, dir, tiles, batch);
+                    deletePending(staged);
+                }
+            }
+            if (staged == null) {
+                for (TileFile tile : tiles) {
+                    long length = tile.file().length();
+                    if (tile.file().delete()) {
+                        batch.add(tile.x(), tile.y(), padSize(length));
+                    }
+                }
                 // will delete only if empty
                 dir.delete();
             }
-        });
+            count.addAndGet(batch.size());
+            listeners.sendTilesDeleted(layerName, gridSetId, blobFormat, parametersId, batch);
+        }
 
-        log.info("Truncated " + count + " tiles");
+        /**
+         * Adds the listed tiles found in a staged directory to the batch, and moves the other files back to the
+         * original directory, as they were written after it was listed
+         */
+        private void addStaged(File staged, File dir, List<TileFile> tiles, TileBatch batch) {
+            File[] files = staged.listFiles();
+            if (files == null) {
+                return;
+            }
+            Map<String, TileFile> listed = new HashMap<>();
+            for (TileFile tile : tiles) {
+                listed.put(tile.file().getName(), tile);
+            }
+            for (File file : files) {
+                TileFile tile = listed.get(file.getName());
+                if (tile != null) {
+                    batch.add(tile.x(), tile.y(), padSize(file.length()));
+                } else if (!(dir.isDirectory() || dir.mkdirs())
+                        || !FileUtils.renameFile(file, new File(dir, file.getName()))) {
+                    log.warning("Can't move " + file + " written during the truncation back to " + dir);
+                }
+            }
+        }
 
-        return true;
+        /** Waits for the submitted directories to be truncated and prunes their parents */
+        void finish() throws StorageException {
+            if (!aborted) {
+                try {
+                    submitCurrent();
+                } catch (TruncationInterruptedException e) {
+                    // aborted, wait for the submitted ones anyways
+                }
+            }
+            boolean interrupted = Thread.interrupted();
+            pending.acquireUninterruptibly(maxPending);
+            pending.release(maxPending);
+            if (interrupted || aborted) {
+                aborted = true;
+                Thread.currentThread().interrupt();
+                log.info("Truncation of " + layerName + " interrupted");
+            }
+            RuntimeException e = failure.get();
+            if (e != null) {
+                throw new StorageException("Error truncating tiles of " + layerName, e);
+            }
+            for (File dir : parents) {
+                // will delete only if empty
+                dir.delete();
+            }
+        }
     }
 
     /**
@@ -445,11 +684,11 @@ public void postVisitDirectory(File dir) {
     @Override
     public boolean get(TileObject stObj) throws StorageException {
         File fh = getFileHandleTile(stObj, false);
-        if (!fh.exists()) {
+        Resource resource = singleOpenReads ? openFile(fh) : readFile(fh);
+        if (resource == null) {
             stObj.setStatus(Status.MISS);
             return false;
         } else {
-            Resource resource = readFile(fh);
             stObj.setBlob(resource);
             stObj.setCreated(resource.getLastModified());
             stObj.setBlobSize((int) resource.getSize());
@@ -464,11 +703,15 @@ public void put(TileObject stObj) throws StorageException {
         final long oldSize = fh.length();
         final boolean existed = oldSize > 0;
 
-        writeTile(fh, stObj, existed);
+        final boolean linked = stObj.isUniform() && linkUniformTiles && linkUniformTile(fh, stObj, existed);
+        if (!linked) {
+            writeTile(fh, stObj, existed);
+        }
 
         // mark the last modification as the tile creation time if set, otherwise
-        // we'll leave it to the writing time
-        if (stObj.getCreated() > 0) {
+        // we'll leave it to the writing time. Linked tiles keep the time of the shared copy,
+        // setting it would change it for all of them
+        if (!linked && stObj.getCreated() > 0) {
             try {
                 fh.setLastModified(stObj.getCreated());
             } catch (Exception e) {
@@ -546,6 +789,42 @@ private Resource readFile(File fh) throws StorageException {
         return new FileResource(fh);
     }
 
+    /**
+     * Opens the tile file once and reads its attributes while open, the resulting resource serves the tile from the
+     * open channel without touching the file system metadata again
+     *
+     * @return the tile resource, or {@code null} if the tile does not exist
+     */
+    private Resource openFile(File fh) throws StorageException {
+        final Path path = fh.toPath();
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new StorageException("Failed to open tile " + fh, e);
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (attributes.isRegularFile()) {
+                return new FileChannelResource(fh, channel, attributes);
+            }
+            channel.close();
+            return null;
+        } catch (IOException e) {
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            if (e instanceof NoSuchFileException) {
+                return null;
+            }
+            throw new StorageException("Failed to read attributes of tile " + fh, e);
+        }
+    }
+
     private void writeTile(File target, TileObject stObj, boolean existed) throws StorageException {
         writeFile(target, existed, file -> {
             try (FileOutputStream fos = new FileOutputStream(file);
@@ -555,6 +834,50 @@ private void writeTile(File target, TileObject stObj, boolean existed) throws St
         });
     }
 
+    /**
+     * Hard links the target file to the shared copy of a uniform tile, so that sparse layers don't store and write a
+     * copy of the same empty tile over and over, and the operating system caches it once for all the tiles.
+     *
+     * <p>The shared copy is named after the tile contents and replaced when older than {@link #UNIFORM_TILE_MAX_AGE},
+     * or when it can't take more links, the tiles linked to the old copy keep it alive.
+     *
+     * @return {@code false} if the tile could not be linked, for example because the file system does not support hard
+     *     links, and should be written as usual
+     */
+    private boolean linkUniformTile(File target, TileObject stObj, boolean existed) throws StorageException {
+        final byte[] contents;
+        try (InputStream in = stObj.getBlob().getInputStream()) {
+            contents = in.readAllBytes();
+        } catch (IOException e) {
+            return false;
+        }
+        final File shared =
+                new File(uniformTiles, Hashing.sha256().hashBytes(contents).toString() + "_" + contents.length);
+        tmp.mkdirs();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            long modified = shared.lastModified();
+            if (attempt > 0 || modified == 0 || System.currentTimeMillis() - modified > UNIFORM_TILE_MAX_AGE) {
+                uniformTiles.mkdirs();
+                writeFile(shared, modified != 0, file -> Files.write(file.toPath(), contents));
+            }
+            File temp = new File(tmp, tmpGenerator.newName());
+            try {
+                Files.createLink(temp.toPath(), shared.toPath());
+            } catch (IOException | UnsupportedOperationException e) {
+                log.log(Level.FINE, "Could not link " + target + " to " + shared, e);
+                continue;
+            }
+            if (FileUtils.renameFile(temp, target)
+                    || (existed && target.delete() && FileUtils.renameFile(temp, target))) {
+                return true;
+            }
+            log.warning("Tile " + target.getPath() + " was already written by another thread/process");
+            temp.delete();
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Writes into the target file by first creating a temporary file, filling it with the writer, and then renaming it
      * to the target file.
@@ -674,6 +997,29 @@ public boolean layerExists(String layerName) {
         return getLayerPath(layerName).exists();
     }
 
+    /**
+     * Whether {@link #get(TileObject)} opens the tile file once, returning a resource that keeps it open and knows its
+     * size and last modification time, or checks for its existence and leaves reading it to the returned resource. The
+     * former saves several file system metadata calls per tile, which matters on network file systems, but keeps the
+     * file open until the tile is read or garbage collected, including for the requests that don't read it, which also
+     * prevents deleting or renaming it on Windows. Off by default.
+     */
+    public void setSingleOpenReads(boolean singleOpenReads) {
+        this.singleOpenReads = singleOpenReads;
+    }
+
+    public boolean isSingleOpenReads() {
+        return singleOpenReads;
+    }
+
+    public void setLinkUniformTiles(boolean linkUniformTiles) {
+        this.linkUniformTiles = linkUniformTiles;
+    }
+
+    public boolean isLinkUniformTiles() {
+        return linkUniformTiles;
+    }
+
     /**
      * Specify the file system block size, used to pad out tile lenghts to whole blocks when reporting
      * {@link BlobStoreListener#tileDeleted tileDeleted}, {@link BlobStoreListener#tileStored tileStored}, or
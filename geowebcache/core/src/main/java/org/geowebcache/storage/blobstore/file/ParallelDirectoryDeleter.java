@@ -0,0 +1,229 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+
+/**
+ * Deletes directory trees in the background, splitting each tree by sub directory across a pool of low priority
+ * threads, so that a multi terabyte layer does not take days to go away on storage that can serve many concurrent
+ * requests.
+ *
+ * <p>Each tree is deleted bottom up right away, listing each directory once, and {@link #getProgress()} reports the
+ * files and bytes deleted so far. Deletes interrupted by a {@link #shutdown()} leave the remains of the tree in place,
+ * the owner is expected to submit it again on the next start up.
+ */
+public class ParallelDirectoryDeleter {
+
+    private static Logger log = Logging.getLogger(ParallelDirectoryDeleter.class.getName());
+
+    private final ForkJoinPool pool;
+
+    private final Map<File, Job> jobs = new ConcurrentHashMap<>();
+
+    private volatile boolean stopped;
+
+    /**
+     * @param threadNamePrefix prefix of the worker thread names
+     * @param threads the number of directories deleted in parallel
+     * @param threadPriority the priority of the worker threads, deletes usually go with {@link Thread#MIN_PRIORITY} to
+     *     leave the disks and processors to the requests being served
+     */
+    public ParallelDirectoryDeleter(String threadNamePrefix, int threads, int threadPriority) {
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ForkJoinPool(
+                threads,
+                p -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                    thread.setName(threadNamePrefix + count.incrementAndGet());
+                    thread.setPriority(threadPriority);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                null,
+                false);
+    }
+
+    /** Schedules the deletion of the given directory, unless it's already being deleted */
+    public void delete(File directory) {
+        Job job = new Job(directory);
+        if (jobs.putIfAbsent(directory, job) == null) {
+            pool.execute(job);
+        }
+    }
+
+    /** @return the progress of the deletes not yet complete, including the ones waiting for a thread */
+    public List<Progress> getProgress() {
+        List<Progress> progress = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            progress.add(job.progress());
+        }
+        return progress;
+    }
+
+    /** @return {@code true} if there are no deletes pending */
+    public boolean isIdle() {
+        return jobs.isEmpty();
+    }
+
+    /** Stops deleting, the directories being deleted are left partially deleted */
+    public void shutdown() {
+        stopped = true;
+        pool.shutdownNow();
+    }
+
+    /**
+     * The progress of a directory delete
+     *
+     * @param directory the directory being deleted
+     * @param deletedFiles the number of files deleted so far
+     * @param deletedBytes the size of the files deleted so far
+     */
+    public record Progress(File directory, long deletedFiles, long deletedBytes) {}
+
+    private void checkStopped() {
+        if (stopped || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+
+    private static DirectoryStream<Path> list(Path directory) throws IOException {
+        return Files.newDirectoryStream(directory);
+    }
+
+    /** @return the attributes of the given path, or {@code null} if it's gone in the meantime */
+    private static BasicFileAttributes attributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /** Deletes a directory tree, counting the deleted files */
+    private class Job extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final File directory;
+
+        private final AtomicLong deletedFiles = new AtomicLong();
+
+        private final AtomicLong deletedBytes = new AtomicLong();
+
+        Job(File directory) {
+            this.directory = directory;
+        }
+
+        Progress progress() {
+            return new Progress(directory, deletedFiles.get(), deletedBytes.get());
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (!directory.exists()) {
+                    return;
+                }
+                new Delete(this, directory.toPath()).invoke();
+                if (log.isLoggable(Level.FINE)) {
+                    log.fine("Deleted "
+                            + deletedFiles.get()
+                            + " files, "
+                            + deletedBytes.get()
+                            + " bytes, in "
+                            + directory.getAbsolutePath());
+                }
+            } catch (CancellationException e) {
+                log.info("FileStore delete background service interrupted while deleting '"
+                        + directory.getAbsolutePath()
+                        + "'. Process will be resumed at next start up");
+            } catch (UncheckedIOException e) {
+                log.log(
+                        Level.WARNING,
+                        "Exception occurred while deleting '" + directory.getAbsolutePath() + "'",
+                        e.getCause());
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Exception occurred while deleting '" + directory.getAbsolutePath() + "'", e);
+            } finally {
+                jobs.remove(directory);
+            }
+        }
+    }
+
+    /** Deletes a directory tree, forking a sub task for each sub directory */
+    private class Delete extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Job job;
+
+        private final Path directory;
+
+        Delete(Job job, Path directory) {
+            this.job = job;
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            checkStopped();
+            List<Delete> subdirs = new ArrayList<>();
+            try {
+                try (DirectoryStream<Path> entries = list(directory)) {
+                    for (Path entry : entries) {
+                        checkStopped();
+                        BasicFileAttributes attributes = attributes(entry);
+                        if (attributes == null) {
+                            continue;
+                        } else if (attributes.isDirectory()) {
+                            subdirs.add(new Delete(job, entry));
+                        } else if (Files.deleteIfExists(entry)) {
+                            job.deletedFiles.incrementAndGet();
+                            job.deletedBytes.addAndGet(attributes.size());
+                        }
+                    }
+                }
+                ForkJoinTask.invokeAll(subdirs);
+                Files.deleteIfExists(directory);
+            } catch (NoSuchFileException e) {
+                // deleted by someone else
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to delete " + directory, e);
+            }
+        }
+    }
+}
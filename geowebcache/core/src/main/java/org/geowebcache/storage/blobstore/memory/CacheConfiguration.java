@@ -0,0 +1,120 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.memory;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Configuration of a {@link CacheProvider}: the memory budget, the eviction policy, the concurrency level of the
+ * underlying map and the layers that must never be kept in memory.
+ */
+public class CacheConfiguration implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 3875121032331372267L;
+
+    /** Eviction policies supported by the in memory tile cache */
+    public enum EvictionPolicy {
+        /** Least recently used tiles are evicted first once the memory limit is reached */
+        LRU,
+        /** Tiles are evicted a fixed amount of time after they have been added to the cache */
+        EXPIRE_AFTER_WRITE,
+        /** Tiles are evicted a fixed amount of time after they have been last accessed */
+        EXPIRE_AFTER_ACCESS
+    }
+
+    /** Default memory limit, in MiB */
+    public static final long DEFAULT_HARD_MEMORY_LIMIT = 16;
+
+    /** Default eviction time, in seconds */
+    public static final long DEFAULT_EVICTION_TIME = 2 * 60;
+
+    /** Default number of concurrently updatable segments */
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 4;
+
+    private long hardMemoryLimit = DEFAULT_HARD_MEMORY_LIMIT;
+
+    private EvictionPolicy policy = EvictionPolicy.LRU;
+
+    private long evictionTime = DEFAULT_EVICTION_TIME;
+
+    private int concurrencyLevel = DEFAULT_CONCURRENCY_LEVEL;
+
+    private Set<String> uncachedLayers = new LinkedHashSet<>();
+
+    /** @return the maximum amount of memory the cached tiles may use, in MiB */
+    public long getHardMemoryLimit() {
+        return hardMemoryLimit;
+    }
+
+    /** @param hardMemoryLimit the maximum amount of memory the cached tiles may use, in MiB */
+    public void setHardMemoryLimit(long hardMemoryLimit) {
+        this.hardMemoryLimit = hardMemoryLimit;
+    }
+
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(EvictionPolicy policy) {
+        this.policy = policy;
+    }
+
+    /** @return the time, in seconds, used by the time based {@link EvictionPolicy eviction policies} */
+    public long getEvictionTime() {
+        return evictionTime;
+    }
+
+    /** @param evictionTime the time, in seconds, used by the time based {@link EvictionPolicy eviction policies} */
+    public void setEvictionTime(long evictionTime) {
+        this.evictionTime = evictionTime;
+    }
+
+    /** @return the number of segments the cache is split into, each one guarded by its own lock */
+    public int getConcurrencyLevel() {
+        return concurrencyLevel;
+    }
+
+    public void setConcurrencyLevel(int concurrencyLevel) {
+        this.concurrencyLevel = concurrencyLevel;
+    }
+
+    /** @return the names of the layers whose tiles are never kept in memory */
+    public Set<String> getUncachedLayers() {
+        return Collections.unmodifiableSet(uncachedLayers);
+    }
+
+    public void setUncachedLayers(Set<String> uncachedLayers) {
+        this.uncachedLayers = uncachedLayers == null ? new LinkedHashSet<>() : new LinkedHashSet<>(uncachedLayers);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheConfiguration [hardMemoryLimit="
+                + hardMemoryLimit
+                + ", policy="
+                + policy
+                + ", evictionTime="
+                + evictionTime
+                + ", concurrencyLevel="
+                + concurrencyLevel
+                + ", uncachedLayers="
+                + uncachedLayers
+                + "]";
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.memory;
+
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+
+/**
+ * In memory tile cache used by {@link MemoryBlobStore}. Implementations must be thread safe, and should avoid a single
+ * global lock as they sit on the hot path of every tile request.
+ */
+public interface CacheProvider {
+
+    /**
+     * Looks up a tile in memory, filling its blob, size and creation time if found.
+     *
+     * @return {@literal true} if the tile was found in memory, {@literal false} otherwise
+     */
+    boolean getTileObj(TileObject obj);
+
+    /** Stores a copy of the tile contents in memory. The tile blob must be fully readable. */
+    void putTileObj(TileObject obj);
+
+    /** Removes a single tile from memory */
+    void removeTileObj(TileObject obj);
+
+    /** Removes all the tiles of the given range from memory */
+    void removeTiles(TileRange range);
+
+    /** Removes all the tiles of a layer from memory */
+    void removeLayer(String layerName);
+
+    /** Removes all the tiles of a layer and gridset from memory */
+    void removeGridSet(String layerName, String gridSetId);
+
+    /** Removes all the tiles of a layer and parameters id from memory */
+    void removeParameters(String layerName, String parametersId);
+
+    /** Removes all the tiles from memory */
+    void clear();
+
+    /** Reconfigures the cache, dropping its current contents */
+    void configure(CacheConfiguration configuration);
+
+    /** Prevents the tiles of the given layer from being cached in memory */
+    void addUncachedLayer(String layerName);
+
+    /** Allows the tiles of the given layer to be cached in memory again */
+    void removeUncachedLayer(String layerName);
+
+    /** @return {@literal true} if the tiles of the given layer must not be cached in memory */
+    boolean containsUncachedLayer(String layerName);
+
+    /** @return a snapshot of the cache counters */
+    CacheStatistics getStatistics();
+}
@@ -0,0 +1,104 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.memory;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/** Immutable snapshot of the counters of a {@link CacheProvider} */
+public class CacheStatistics implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -1049287017217353112L;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final long actualSize;
+
+    private final long totalSize;
+
+    public CacheStatistics(long hitCount, long missCount, long evictionCount, long actualSize, long totalSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.actualSize = actualSize;
+        this.totalSize = totalSize;
+    }
+
+    /** @return the number of tile requests served from memory */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /** @return the number of tile requests that had to go to the backing blob store */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /** @return the number of tiles removed from memory due to the eviction policy */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /** @return the total number of tile requests */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /** @return the ratio of requests served from memory, between 0 and 1 */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /** @return the ratio of requests that had to go to the backing blob store, between 0 and 1 */
+    public double getMissRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 0.0 : (double) missCount / requests;
+    }
+
+    /** @return the number of bytes currently used by the cached tiles */
+    public long getActualSize() {
+        return actualSize;
+    }
+
+    /** @return the maximum number of bytes the cached tiles may use */
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    /** @return the percentage of the memory budget currently in use */
+    public double getCurrentMemoryOccupation() {
+        return totalSize == 0 ? 0.0 : 100.0 * actualSize / totalSize;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics [hitCount="
+                + hitCount
+                + ", missCount="
+                + missCount
+                + ", evictionCount="
+                + evictionCount
+                + ", actualSize="
+                + actualSize
+                + ", totalSize="
+                + totalSize
+                + "]";
+    }
+}
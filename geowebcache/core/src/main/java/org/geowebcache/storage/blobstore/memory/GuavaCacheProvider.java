@@ -0,0 +1,308 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.memory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.Resource;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+
+/**
+ * {@link CacheProvider} based on a Guava {@link Cache}. The cache is split in
+ * {@link CacheConfiguration#getConcurrencyLevel() concurrency level} segments, each guarded by its own lock, and is
+ * bounded by the number of bytes of the cached tiles rather than by their count.
+ */
+public class GuavaCacheProvider implements CacheProvider {
+
+    private static final Logger LOGGER = Logging.getLogger(GuavaCacheProvider.class.getName());
+
+    private static final long BYTES_PER_MIB = 1024 * 1024;
+
+    private final Set<String> uncachedLayers = ConcurrentHashMap.newKeySet();
+
+    private volatile Cache<TileKey, CachedTile> cache;
+
+    private volatile long maxSize;
+
+    /** Weight of the entries of the current cache, kept by its weigher and removal listener */
+    private volatile AtomicLong actualSize;
+
+    public GuavaCacheProvider() {
+        this(new CacheConfiguration());
+    }
+
+    public GuavaCacheProvider(CacheConfiguration configuration) {
+        configure(configuration);
+    }
+
+    @Override
+    public synchronized void configure(CacheConfiguration configuration) {
+        Preconditions.checkNotNull(configuration);
+        Preconditions.checkArgument(configuration.getHardMemoryLimit() > 0, "Memory limit must be positive");
+        Preconditions.checkArgument(configuration.getConcurrencyLevel() > 0, "Concurrency level must be positive");
+
+        long maxSize = configuration.getHardMemoryLimit() * BYTES_PER_MIB;
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .concurrencyLevel(configuration.getConcurrencyLevel())
+                .recordStats();
+        switch (configuration.getPolicy()) {
+            case EXPIRE_AFTER_WRITE:
+                builder.expireAfterWrite(configuration.getEvictionTime(), TimeUnit.SECONDS);
+                break;
+            case EXPIRE_AFTER_ACCESS:
+                builder.expireAfterAccess(configuration.getEvictionTime(), TimeUnit.SECONDS);
+                break;
+            case LRU:
+            default:
+                break;
+        }
+        // the weigher is called once for each value stored, and the removal listener once for each value leaving the
+        // cache, whether replaced, removed, evicted or expired
+        AtomicLong size = new AtomicLong();
+        Cache<TileKey, CachedTile> newCache = builder.weigher((TileKey k, CachedTile v) -> {
+                    int weight = v.weight();
+                    size.addAndGet(weight);
+                    return weight;
+                })
+                .removalListener((RemovalNotification<TileKey, CachedTile> n) ->
+                        size.addAndGet(-n.getValue().weight()))
+                .build();
+
+        Cache<TileKey, CachedTile> oldCache = this.cache;
+        this.actualSize = size;
+        this.cache = newCache;
+        this.maxSize = maxSize;
+        if (oldCache != null) {
+            oldCache.invalidateAll();
+        }
+        uncachedLayers.clear();
+        uncachedLayers.addAll(configuration.getUncachedLayers());
+        if (LOGGER.isLoggable(Level.CONFIG)) {
+            LOGGER.config("In memory tile cache configured: " + configuration);
+        }
+    }
+
+    @Override
+    public boolean getTileObj(TileObject obj) {
+        CachedTile cached = cache.getIfPresent(TileKey.of(obj));
+        if (cached == null) {
+            return false;
+        }
+        ByteArrayResource blob = new ByteArrayResource(cached.data);
+        blob.setLastModified(cached.created);
+        obj.setBlob(blob);
+        obj.setCreated(cached.created);
+        return true;
+    }
+
+    @Override
+    public void putTileObj(TileObject obj) {
+        Resource blob = obj.getBlob();
+        if (blob == null) {
+            return;
+        }
+        byte[] data;
+        if (blob instanceof ByteArrayResource resource) {
+            // copied, the caller may still be writing to the array it handed over
+            byte[] contents = resource.getContents();
+            data = contents == null ? null : contents.clone();
+        } else {
+            try (InputStream in = blob.getInputStream()) {
+                data = in.readAllBytes();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Unable to read tile " + obj + " into memory", e);
+                return;
+            }
+        }
+        if (data == null) {
+            return;
+        }
+        long created = obj.getCreated() > 0 ? obj.getCreated() : blob.getLastModified();
+        cache.put(TileKey.of(obj), new CachedTile(data, created));
+    }
+
+    @Override
+    public void removeTileObj(TileObject obj) {
+        cache.invalidate(TileKey.of(obj));
+    }
+
+    @Override
+    public void removeTiles(TileRange range) {
+        final String layerName = range.getLayerName();
+        final String gridSetId = range.getGridSetId();
+        final String format =
+                range.getMimeType() == null ? null : range.getMimeType().getFormat();
+        final String parametersId = range.getParametersId() != null
+                ? range.getParametersId()
+                : ParametersUtils.getId(range.getParameters());
+        removeIf(key -> key.layerName.equals(layerName)
+                && (gridSetId == null || gridSetId.equals(key.gridSetId))
+                && (format == null || format.equals(key.format))
+                && (parametersId == null || parametersId.equals(key.parametersId))
+                && range.contains(key.x, key.y, key.z));
+    }
+
+    @Override
+    public void removeLayer(String layerName) {
+        removeIf(key -> key.layerName.equals(layerName));
+    }
+
+    @Override
+    public void removeGridSet(String layerName, String gridSetId) {
+        removeIf(key -> key.layerName.equals(layerName) && Objects.equals(key.gridSetId, gridSetId));
+    }
+
+    @Override
+    public void removeParameters(String layerName, String parametersId) {
+        removeIf(key -> key.layerName.equals(layerName) && Objects.equals(key.parametersId, parametersId));
+    }
+
+    private void removeIf(Predicate<TileKey> filter) {
+        cache.asMap().keySet().removeIf(filter);
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void addUncachedLayer(String layerName) {
+        uncachedLayers.add(layerName);
+        removeLayer(layerName);
+    }
+
+    @Override
+    public void removeUncachedLayer(String layerName) {
+        uncachedLayers.remove(layerName);
+    }
+
+    @Override
+    public boolean containsUncachedLayer(String layerName) {
+        return uncachedLayers.contains(layerName);
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(
+                stats.hitCount(), stats.missCount(), stats.evictionCount(), actualSize.get(), maxSize);
+    }
+
+    /** Immutable identifier of a cached tile */
+    static final class TileKey {
+
+        final String layerName;
+
+        final String gridSetId;
+
+        final String format;
+
+        final String parametersId;
+
+        final long x;
+
+        final long y;
+
+        final int z;
+
+        private final int hash;
+
+        TileKey(String layerName, String gridSetId, String format, String parametersId, long x, long y, int z) {
+            this.layerName = layerName;
+            this.gridSetId = gridSetId;
+            this.format = format;
+            this.parametersId = parametersId;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.hash = Objects.hash(layerName, gridSetId, format, parametersId, x, y, z);
+        }
+
+        static TileKey of(TileObject obj) {
+            long[] xyz = obj.getXYZ();
+            String parametersId = obj.getParametersId();
+            if (parametersId == null) {
+                parametersId = ParametersUtils.getId(obj.getParameters());
+            }
+            return new TileKey(
+                    obj.getLayerName(), obj.getGridSetId(), obj.getBlobFormat(), parametersId, xyz[0], xyz[1], (int)
+                            xyz[2]);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof TileKey)) return false;
+            TileKey other = (TileKey) obj;
+            return x == other.x
+                    && y == other.y
+                    && z == other.z
+                    && layerName.equals(other.layerName)
+                    && Objects.equals(gridSetId, other.gridSetId)
+                    && Objects.equals(format, other.format)
+                    && Objects.equals(parametersId, other.parametersId);
+        }
+
+        @Override
+        public String toString() {
+            return layerName + "/" + gridSetId + "/" + format + "/" + parametersId
+                    + Arrays.toString(new long[] {x, y, z});
+        }
+    }
+
+    /** The cached contents of a tile */
+    static final class CachedTile {
+
+        /** Rough per entry overhead of the key, the value and the map entry */
+        private static final int ENTRY_OVERHEAD = 128;
+
+        final byte[] data;
+
+        final long created;
+
+        CachedTile(byte[] data, long created) {
+            this.data = data;
+            this.created = created;
+        }
+
+        int weight() {
+            return data.length + ENTRY_OVERHEAD;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.memory;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.storage.BlobStore;
+import org.geowebcache.storage.BlobStoreListener;
+import org.geowebcache.storage.CompositeBlobStore;
+import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+
+/**
+ * Read-through in memory tile cache sitting in front of another {@link BlobStore}.
+ *
+ * <p>Tiles are loaded in the {@link CacheProvider} the first time they are read from the wrapped store, and served from
+ * memory afterwards. Writes go straight to the wrapped store and invalidate the cached copy, so seeding does not flush
+ * the hot tiles out of memory. The cache is kept consistent by listening to the wrapped store events, and by explicitly
+ * invalidating the affected tiles after each delete, in case the store does not notify all of them.
+ *
+ * <p>A tile read from the wrapped store is only kept in memory if no invalidation hit it while it was being read, which
+ * is tracked with a small array of striped generation counters instead of a lock.
+ *
+ * @see CompositeBlobStore#setCacheProvider(CacheProvider)
+ */
+public class MemoryBlobStore implements BlobStore, BlobStoreListener {
+
+    private final BlobStore store;
+
+    private final CacheProvider cacheProvider;
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public MemoryBlobStore(BlobStore store, CacheProvider cacheProvider) {
+        Preconditions.checkNotNull(store);
+        Preconditions.checkNotNull(cacheProvider);
+        this.store = store;
+        this.cacheProvider = cacheProvider;
+        store.addListener(this);
+    }
+
+    /** @return the wrapped blob store */
+    public BlobStore getStore() {
+        return store;
+    }
+
+    public CacheProvider getCacheProvider() {
+        return cacheProvider;
+    }
+
+    @Override
+    public boolean get(TileObject obj) throws StorageException {
+        if (cacheProvider.containsUncachedLayer(obj.getLayerName())) {
+            return store.get(obj);
+        }
+        if (cacheProvider.getTileObj(obj)) {
+            return true;
+        }
+        final int stripe = stripe(obj.getLayerName(), obj.getXYZ());
+        final long generation = generations.get(stripe);
+        boolean found = store.get(obj);
+        if (found && generations.get(stripe) == generation) {
+            cacheProvider.putTileObj(obj);
+            // lost a race against an invalidation, don't keep a possibly stale copy around
+            if (generations.get(stripe) != generation) {
+                cacheProvider.removeTileObj(obj);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<TileObject> getAll(Collection<TileObject> objs) throws StorageException {
+        List<TileObject> misses = new ArrayList<>();
+        Set<TileObject> hits = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (TileObject obj : objs) {
+            if (!cacheProvider.containsUncachedLayer(obj.getLayerName()) && cacheProvider.getTileObj(obj)) {
+                hits.add(obj);
+            } else {
+                misses.add(obj);
+            }
+        }
+        if (!misses.isEmpty()) {
+            long[] before = new long[misses.size()];
+            for (int i = 0; i < before.length; i++) {
+                TileObject obj = misses.get(i);
+                before[i] = generations.get(stripe(obj.getLayerName(), obj.getXYZ()));
+            }
+            Set<TileObject> loaded = Collections.newSetFromMap(new IdentityHashMap<>());
+            loaded.addAll(store.getAll(misses));
+            for (int i = 0; i < before.length; i++) {
+                TileObject obj = misses.get(i);
+                if (!loaded.contains(obj)) {
+                    continue;
+                }
+                hits.add(obj);
+                if (cacheProvider.containsUncachedLayer(obj.getLayerName())) {
+                    continue;
+                }
+                final int stripe = stripe(obj.getLayerName(), obj.getXYZ());
+                if (generations.get(stripe) == before[i]) {
+                    cacheProvider.putTileObj(obj);
+                    if (generations.get(stripe) != before[i]) {
+                        cacheProvider.removeTileObj(obj);
+                    }
+                }
+            }
+        }
+        return objs.stream().filter(hits::contains).collect(Collectors.toList());
+    }
+
+    @Override
+    public void put(TileObject obj) throws StorageException {
+        store.put(obj);
+        invalidate(obj);
+    }
+
+    @Override
+    public void putAll(Collection<TileObject> objs) throws StorageException {
+        store.putAll(objs);
+        for (TileObject obj : objs) {
+            invalidate(obj);
+        }
+    }
+
+    @Override
+    public boolean delete(String layerName) throws StorageException {
+        boolean result = store.delete(layerName);
+        invalidateAll();
+        cacheProvider.removeLayer(layerName);
+        return result;
+    }
+
+    @Override
+    public boolean deleteByGridsetId(String layerName, String gridSetId) throws StorageException {
+        boolean result = store.deleteByGridsetId(layerName, gridSetId);
+        invalidateAll();
+        cacheProvider.removeGridSet(layerName, gridSetId);
+        return result;
+    }
+
+    @Override
+    public boolean deleteByParametersId(String layerName, String parametersId) throws StorageException {
+        boolean result = store.deleteByParametersId(layerName, parametersId);
+        invalidateAll();
+        cacheProvider.removeParameters(layerName, parametersId);
+        return result;
+    }
+
+    @Override
+    public boolean delete(TileObject obj) throws StorageException {
+        boolean result = store.delete(obj);
+        invalidate(obj);
+        return result;
+    }
+
+    @Override
+    public boolean delete(TileRange obj) throws StorageException {
+        boolean result = store.delete(obj);
+        invalidateAll();
+        cacheProvider.removeTiles(obj);
+        return result;
+    }
+
+    @Override
+    public boolean rename(String oldLayerName, String newLayerName) throws StorageException {
+        boolean result = store.rename(oldLayerName, newLayerName);
+        invalidateAll();
+        cacheProvider.removeLayer(oldLayerName);
+        return result;
+    }
+
+    @Override
+    public void clear() throws StorageException {
+        store.clear();
+        invalidateAll();
+        cacheProvider.clear();
+    }
+
+    private static int stripe(String layerName, long[] xyz) {
+        int hash = 31 * layerName.hashCode() + Long.hashCode(xyz[0]);
+        hash = 31 * hash + Long.hashCode(xyz[1]);
+        hash = 31 * hash + (int) xyz[2];
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private void invalidate(TileObject obj) {
+        generations.incrementAndGet(stripe(obj.getLayerName(), obj.getXYZ()));
+        cacheProvider.removeTileObj(obj);
+    }
+
+    private void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        store.removeListener(this);
+        store.destroy();
+    }
+
+    @Override
+    public void addListener(BlobStoreListener listener) {
+        store.addListener(listener);
+    }
+
+    @Override
+    public boolean removeListener(BlobStoreListener listener) {
+        return store.removeListener(listener);
+    }
+
+    @Override
+    public String getLayerMetadata(String layerName, String key) {
+        return store.getLayerMetadata(layerName, key);
+    }
+
+    @Override
+    public void putLayerMetadata(String layerName, String key, String value) {
+        store.putLayerMetadata(layerName, key, value);
+    }
+
+    @Override
+    public boolean layerExists(String layerName) {
+        return store.layerExists(layerName);
+    }
+
+    @Override
+    public Set<Map<String, String>> getParameters(String layerName) throws StorageException {
+        return store.getParameters(layerName);
+    }
+
+    @Override
+    public Set<String> getParameterIds(String layerName) throws StorageException {
+        return store.getParameterIds(layerName);
+    }
+
+    @Override
+    public Map<String, Optional<Map<String, String>>> getParametersMapping(String layerName) {
+        return store.getParametersMapping(layerName);
+    }
+
+    @Override
+    public boolean purgeOrphans(TileLayer layer) throws StorageException {
+        // the wrapped store calls its own deleteByParametersId, drop the layer from memory instead
+        boolean result = store.purgeOrphans(layer);
+        invalidateAll();
+        cacheProvider.removeLayer(layer.getName());
+        return result;
+    }
+
+    @Override
+    public void tileStored(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long x,
+            long y,
+            int z,
+            long blobSize) {
+        // nothing to do, new tiles get into memory when first read
+    }
+
+    @Override
+    public void tileDeleted(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long x,
+            long y,
+            int z,
+            long blobSize) {
+        removeTile(layerName, gridSetId, blobFormat, parametersId, x, y, z);
+    }
+
+    @Override
+    public void tileUpdated(
+            String layerName,
+            String gridSetId,
+            String blobFormat,
+            String parametersId,
+            long x,
+            long y,
+            int z,
+            long blobSize,
+            long oldSize) {
+        removeTile(layerName, gridSetId, blobFormat, parametersId, x, y, z);
+    }
+
+    private void removeTile(
+            String layerName, String gridSetId, String blobFormat, String parametersId, long x, long y, int z) {
+        TileObject tile =
+                TileObject.createQueryTileObject(layerName, new long[] {x, y, z}, gridSetId, blobFormat, null);
+        tile.setParametersId(parametersId);
+        invalidate(tile);
+    }
+
+    @Override
+    public void layerDeleted(String layerName) {
+        invalidateAll();
+        cacheProvider.removeLayer(layerName);
+    }
+
+    @Override
+    public void layerRenamed(String oldLayerName, String newLayerName) {
+        invalidateAll();
+        cacheProvider.removeLayer(oldLayerName);
+    }
+
+    @Override
+    public void gridSubsetDeleted(String layerName, String gridSetId) {
+        invalidateAll();
+        cacheProvider.removeGridSet(layerName, gridSetId);
+    }
+
+    @Override
+    public void parametersDeleted(String layerName, String parametersId) {
+        invalidateAll();
+        cacheProvider.removeParameters(layerName, parametersId);
+    }
+}
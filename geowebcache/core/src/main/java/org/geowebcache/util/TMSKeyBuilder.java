@@ -185,6 +185,20 @@ public String parametersMetadataPrefix(final String layerName) {
         return join(false, prefix, layerId, PARAMETERS_METADATA_OBJECT_PREFIX);
     }
 
+    /**
+     * @return the parameters id encoded in a {@link #parametersMetadata(String, String) parameters metadata} key, or
+     *     {@code null} if the key is not one
+     */
+    public static String parametersIdFromMetadataKey(final String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        if (!name.startsWith(PARAMETERS_METADATA_OBJECT_PREFIX) || !name.endsWith(PARAMETERS_METADATA_OBJECT_SUFFIX)) {
+            return null;
+        }
+        String id = name.substring(
+                PARAMETERS_METADATA_OBJECT_PREFIX.length(), name.length() - PARAMETERS_METADATA_OBJECT_SUFFIX.length());
+        return id.isEmpty() ? null : id;
+    }
+
     /**
      * @return the key prefix up to the coordinates (i.e. {@code "<prefix>/<layer>/<gridset>/<format>/<parametersId>"})
      */
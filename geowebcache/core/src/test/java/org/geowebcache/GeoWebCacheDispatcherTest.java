@@ -106,6 +106,60 @@ private String doTestHomePage(boolean isAdmin) throws Exception {
         return response.getContentAsString();
     }
 
+    @Test
+    public void testMetrics() throws Exception {
+        MockHttpServletResponse response = doTestMetrics(true, true);
+        assertThat(response, hasStatus(HttpStatus.OK));
+        assertThat(response.getContentType(), containsString("text/plain"));
+    }
+
+    @Test
+    public void testMetricsUser() throws Exception {
+        MockHttpServletResponse response = doTestMetrics(true, false);
+        assertThat(response, hasStatus(HttpStatus.FORBIDDEN));
+    }
+
+    @Test
+    public void testMetricsDisabled() throws Exception {
+        MockHttpServletResponse response = doTestMetrics(false, true);
+        assertThat(response, hasStatus(HttpStatus.NOT_FOUND));
+    }
+
+    private MockHttpServletResponse doTestMetrics(boolean statsEnabled, boolean isAdmin) throws Exception {
+        IMocksControl stubs = EasyMock.createControl(MockType.NICE);
+        TileLayerDispatcher tld = stubs.createMock("tld", TileLayerDispatcher.class);
+        GridSetBroker gsb = stubs.createMock("gsb", GridSetBroker.class);
+        StorageBroker sb = stubs.createMock("sb", StorageBroker.class);
+        BlobStoreAggregator bsa = stubs.createMock("bsa", BlobStoreAggregator.class);
+        ServerConfiguration config = stubs.createMock("config", ServerConfiguration.class);
+        RuntimeStats rts = stubs.createMock("rts", RuntimeStats.class);
+        SecurityDispatcher secDisp = stubs.createMock("secDisp", SecurityDispatcher.class);
+
+        EasyMock.expect(secDisp.isAdmin()).andStubReturn(isAdmin);
+        EasyMock.expect(config.isRuntimeStatsEnabled()).andStubReturn(statsEnabled);
+        EasyMock.expect(rts.isStarted()).andStubReturn(statsEnabled);
+        if (statsEnabled && isAdmin) {
+            rts.writePrometheusStats(EasyMock.anyObject());
+            EasyMock.expectLastCall().once();
+        }
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/geowebcache/metrics");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        request.setContextPath("/geowebcache");
+
+        stubs.replay();
+
+        GeoWebCacheDispatcher dispatcher = new GeoWebCacheDispatcher(tld, gsb, sb, bsa, config, rts);
+        dispatcher.setApplicationContext(extensions.getMockContext());
+        dispatcher.setSecurityDispatcher(secDisp);
+
+        dispatcher.handleRequest(request, response);
+
+        stubs.verify();
+        return response;
+    }
+
     @Test
     public void testRequestNoSecurity() throws Exception {
         IMocksControl stubs = EasyMock.createControl(MockType.NICE);
@@ -6,11 +6,13 @@
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.imageio.ImageIO;
+import org.easymock.EasyMock;
 import org.geowebcache.config.DefaultGridsets;
 import org.geowebcache.grid.BoundingBox;
 import org.geowebcache.grid.GridSetBroker;
@@ -19,6 +21,9 @@
 import org.geowebcache.layer.wms.WMSLayer;
 import org.geowebcache.seed.GWCTask;
 import org.geowebcache.seed.SeedRequest;
+import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileObject;
 import org.geowebcache.util.MockLockProvider;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
@@ -104,6 +109,23 @@ public static SeedRequest createRequest(WMSLayer tl, GWCTask.TYPE type, int zoom
         return req;
     }
 
+    /**
+     * Has a {@link StorageBroker} mock being recorded handle {@link StorageBroker#putAll(Collection)} by calling its
+     * own {@link StorageBroker#put(TileObject)} for each tile, so that the expectations set on single puts keep
+     * applying
+     */
+    public static void expectPutAllAsPuts(StorageBroker mockStorageBroker) throws StorageException {
+        EasyMock.expect(mockStorageBroker.putAll(EasyMock.anyObject()))
+                .andAnswer(() -> {
+                    Collection<TileObject> tiles = EasyMock.getCurrentArgument(0);
+                    for (TileObject tile : tiles) {
+                        mockStorageBroker.put(tile);
+                    }
+                    return true;
+                })
+                .anyTimes();
+    }
+
     /** Matcher for an {@link HttpServletResponse} that checks its status. */
     @SuppressWarnings("PMD.UseDiamondOperator")
     public static Matcher<HttpServletResponse> hasStatus(HttpStatus expected) {
@@ -13,20 +13,47 @@
  */
 package org.geowebcache.blobstore.file;
 
+import static org.easymock.EasyMock.eq;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.nullValue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.easymock.EasyMock;
 import org.geotools.util.logging.Logging;
+import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.grid.GridSet;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.FileChannelResource;
+import org.geowebcache.io.FileResource;
+import org.geowebcache.io.Resource;
+import org.geowebcache.mime.ImageMime;
 import org.geowebcache.storage.AbstractBlobStoreTest;
+import org.geowebcache.storage.BlobStoreListener;
 import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.StorageObject.Status;
+import org.geowebcache.storage.TileBatch;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+import org.geowebcache.storage.blobstore.file.DefaultFilePathGenerator;
 import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.geowebcache.storage.blobstore.file.FilePathGenerator;
 import org.geowebcache.storage.blobstore.file.LayerMetadataStore;
+import org.geowebcache.storage.blobstore.file.TileFileVisitor;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
@@ -192,4 +219,198 @@ public void testConcurrentMassiveMetadataKeys() throws InterruptedException {
                     equalTo("testValue" + String.valueOf(i)));
         }
     }
+
+    @Test
+    public void testSingleOpenReads() throws Exception {
+        assertThat(store.isSingleOpenReads(), equalTo(false));
+        store.setSingleOpenReads(true);
+        TileObject toCache = TileObject.createCompleteTileObject(
+                "testLayer",
+                new long[] {0L, 0L, 0L},
+                "testGridSet",
+                "image/png",
+                null,
+                new ByteArrayResource("1,2,4,5,6 test".getBytes(StandardCharsets.UTF_8)));
+        toCache.setCreated(1_000_000_000L);
+        store.put(toCache);
+
+        TileObject fromCache = TileObject.createQueryTileObject(
+                "testLayer", new long[] {0L, 0L, 0L}, "testGridSet", "image/png", null);
+        assertThat(store.get(fromCache), equalTo(true));
+        Resource blob = fromCache.getBlob();
+        assertThat(blob, instanceOf(FileChannelResource.class));
+        assertThat(fromCache.getCreated(), equalTo(1_000_000_000L));
+        assertThat(fromCache.getBlobSize(), equalTo(14));
+
+        // the open channel is consumed by the first read, later reads reopen the file
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(blob.transferTo(Channels.newChannel(out)), equalTo(14L));
+        assertThat(out.toString(StandardCharsets.UTF_8), equalTo("1,2,4,5,6 test"));
+        try (InputStream in = blob.getInputStream()) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8), equalTo("1,2,4,5,6 test"));
+        }
+
+        TileObject missing = TileObject.createQueryTileObject(
+                "testLayer", new long[] {1L, 0L, 0L}, "testGridSet", "image/png", null);
+        assertThat(store.get(missing), equalTo(false));
+        assertThat(missing.getStatus(), equalTo(Status.MISS));
+
+        store.setSingleOpenReads(false);
+        assertThat(store.get(fromCache), equalTo(true));
+        assertThat(fromCache.getBlob(), instanceOf(FileResource.class));
+        assertThat(fromCache.getCreated(), equalTo(1_000_000_000L));
+        assertThat(store.get(missing), equalTo(false));
+    }
+
+    @Test
+    public void testDeleteRangeNotifiesBatchesPerDirectory() throws Exception {
+        final String layerName = "testLayer";
+        GridSet gridSet = new DefaultGridsets(true, false).worldEpsg4326();
+        final String format = ImageMime.png.getFormat();
+        final String gridsetId = gridSet.getName();
+        // 8x4 tiles at zoom level 2, in two directories of 4x4 tiles
+        setupFullCoverage(layerName, gridSet, format, "sample", gridsetId, 2, 2);
+
+        List<TileBatch> batches = new CopyOnWriteArrayList<>();
+        BlobStoreListener listener = EasyMock.createNiceMock(BlobStoreListener.class);
+        listener.tilesDeleted(eq(layerName), eq(gridsetId), eq(format), EasyMock.isNull(), EasyMock.anyObject());
+        EasyMock.expectLastCall()
+                .andAnswer(() -> batches.add((TileBatch) EasyMock.getCurrentArguments()[4]))
+                .anyTimes();
+        EasyMock.replay(listener);
+        store.addListener(listener);
+
+        // the whole first directory and a column of the second one
+        TileRange range =
+                new TileRange(layerName, gridsetId, 2, 2, new long[][] {{0, 0, 4, 3, 2}}, ImageMime.png, null);
+        store.delete(range);
+
+        assertThat(batches.size(), equalTo(2));
+        assertThat(batches.stream().mapToInt(TileBatch::size).sum(), equalTo(20));
+        for (TileBatch batch : batches) {
+            assertThat(batch.getZoomLevel(), equalTo(2));
+            assertThat(batch.getTotalBlobSize(), greaterThan(0L));
+        }
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x <= 4; x++) {
+                assertNoTile(layerName, x, y, 2, gridsetId, format, null);
+            }
+            for (int x = 5; x < 8; x++) {
+                assertTile(layerName, x, y, 2, gridsetId, format, null, "sample");
+            }
+        }
+        // the first directory is gone, the second one is still there
+        File zoomDir = new File(temp.getRoot(), "testLayer/GlobalCRS84Geometric_02");
+        assertThat(new File(zoomDir, "0_0").exists(), equalTo(false));
+        assertThat(new File(zoomDir, "1_0").exists(), equalTo(true));
+    }
+
+    @Test
+    public void testDeleteRangeKeepsFilesWrittenAfterListing() throws Exception {
+        // replaces a tile of the first directory by another file once it has been listed
+        FilePathGenerator generator =
+                new DefaultFilePathGenerator(temp.getRoot().getAbsolutePath()) {
+                    @Override
+                    public void visitRange(File layerDirectory, TileRange range, TileFileVisitor visitor)
+                            throws StorageException {
+                        super.visitRange(layerDirectory, range, new TileFileVisitor() {
+                            @Override
+                            public void visitFile(File tile, long x, long y, int z) {
+                                visitor.visitFile(tile, x, y, z);
+                            }
+
+                            @Override
+                            public void postVisitDirectory(File dir) {
+                                if (dir.getName().equals("0_0")) {
+                                    File tile = new File(dir, "00_00.png");
+                                    assertThat(tile.renameTo(new File(dir, "written.png")), equalTo(true));
+                                }
+                                visitor.postVisitDirectory(dir);
+                            }
+                        });
+                    }
+                };
+        store.destroy();
+        store = new FileBlobStore(temp.getRoot().getAbsolutePath(), generator);
+
+        final String layerName = "testLayer";
+        GridSet gridSet = new DefaultGridsets(true, false).worldEpsg4326();
+        final String format = ImageMime.png.getFormat();
+        final String gridsetId = gridSet.getName();
+        setupFullCoverage(layerName, gridSet, format, "sample", gridsetId, 2, 2);
+
+        List<TileBatch> batches = new CopyOnWriteArrayList<>();
+        BlobStoreListener listener = EasyMock.createNiceMock(BlobStoreListener.class);
+        listener.tilesDeleted(eq(layerName), eq(gridsetId), eq(format), EasyMock.isNull(), EasyMock.anyObject());
+        EasyMock.expectLastCall()
+                .andAnswer(() -> batches.add((TileBatch) EasyMock.getCurrentArguments()[4]))
+                .anyTimes();
+        EasyMock.replay(listener);
+        store.addListener(listener);
+
+        // the whole first directory
+        TileRange range =
+                new TileRange(layerName, gridsetId, 2, 2, new long[][] {{0, 0, 3, 3, 2}}, ImageMime.png, null);
+        store.delete(range);
+
+        // the replaced tile was not deleted by the truncation, the other file is still there
+        assertThat(batches.size(), equalTo(1));
+        assertThat(batches.get(0).size(), equalTo(15));
+        File zoomDir = new File(temp.getRoot(), "testLayer/GlobalCRS84Geometric_02");
+        assertThat(new File(zoomDir, "0_0/written.png").exists(), equalTo(true));
+        assertThat(new File(zoomDir, "0_0").list().length, equalTo(1));
+    }
+
+    private TileObject tile(long x, String contents, boolean uniform) {
+        TileObject tile = TileObject.createCompleteTileObject(
+                "testLayer",
+                new long[] {x, 0, 2},
+                "EPSG:4326",
+                ImageMime.png.getFormat(),
+                null,
+                new ByteArrayResource(contents.getBytes(StandardCharsets.UTF_8)));
+        tile.setUniform(uniform);
+        return tile;
+    }
+
+    private File tileFile(long x) throws Exception {
+        return new File(temp.getRoot(), "testLayer/EPSG_4326_02/0_0/0" + x + "_00.png");
+    }
+
+    @Test
+    public void testUniformTilesAreLinked() throws Exception {
+        store.setLinkUniformTiles(true);
+        store.put(tile(0, "blank", true));
+        store.put(tile(1, "blank", true));
+        store.put(tile(2, "blank", false));
+        store.put(tile(3, "other", true));
+
+        assertThat(Files.isSameFile(tileFile(0).toPath(), tileFile(1).toPath()), equalTo(true));
+        assertThat(Files.isSameFile(tileFile(0).toPath(), tileFile(2).toPath()), equalTo(false));
+        assertThat(Files.isSameFile(tileFile(0).toPath(), tileFile(3).toPath()), equalTo(false));
+        for (long x = 0; x < 3; x++) {
+            assertTile("testLayer", x, 0, 2, "EPSG:4326", ImageMime.png.getFormat(), null, "blank");
+        }
+        assertTile("testLayer", 3, 0, 2, "EPSG:4326", ImageMime.png.getFormat(), null, "other");
+
+        // replacing a linked tile leaves the others alone
+        store.put(tile(1, "updated", false));
+        assertTile("testLayer", 0, 0, 2, "EPSG:4326", ImageMime.png.getFormat(), null, "blank");
+        assertTile("testLayer", 1, 0, 2, "EPSG:4326", ImageMime.png.getFormat(), null, "updated");
+
+        // deleting one does not delete the others
+        store.delete(tile(0, "blank", true));
+        assertNoTile("testLayer", 0, 0, 2, "EPSG:4326", ImageMime.png.getFormat(), null);
+        store.put(tile(4, "blank", true));
+        assertTile("testLayer", 4, 0, 2, "EPSG:4326", ImageMime.png.getFormat(), null, "blank");
+    }
+
+    @Test
+    public void testUniformTilesLinkingDisabled() throws Exception {
+        // off by default
+        assertThat(store.isLinkUniformTiles(), equalTo(false));
+        store.put(tile(0, "blank", true));
+        store.put(tile(1, "blank", true));
+        assertThat(Files.isSameFile(tileFile(0).toPath(), tileFile(1).toPath()), equalTo(false));
+    }
 }
@@ -0,0 +1,113 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.blobstore.file;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.io.File;
+import java.nio.file.Files;
+import org.geowebcache.storage.blobstore.file.ParallelDirectoryDeleter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParallelDirectoryDeleterTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private ParallelDirectoryDeleter deleter;
+
+    @Before
+    public void setUp() {
+        deleter = new ParallelDirectoryDeleter("test delete thread-", 4, Thread.MIN_PRIORITY);
+    }
+
+    @After
+    public void tearDown() {
+        deleter.shutdown();
+    }
+
+    private void file(File parent, String path, int size) throws Exception {
+        File file = new File(parent, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), new byte[size]);
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        for (int i = 0; i < 500 && !deleter.isIdle(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(deleter.isIdle(), equalTo(true));
+    }
+
+    @Test
+    public void testDeleteTree() throws Exception {
+        File root = temp.newFolder("staged");
+        for (int z = 0; z < 4; z++) {
+            for (int dir = 0; dir < 5; dir++) {
+                for (int tile = 0; tile < 10; tile++) {
+                    file(root, "EPSG_4326_0" + z + "/0" + dir + "_00/" + tile + ".png", 10);
+                }
+            }
+        }
+        File other = temp.newFolder("other");
+        file(other, "keep.png", 10);
+
+        deleter.delete(root);
+        awaitIdle();
+
+        assertThat(root.exists(), equalTo(false));
+        assertThat(new File(other, "keep.png").exists(), equalTo(true));
+        assertThat(deleter.getProgress(), empty());
+    }
+
+    @Test
+    public void testProgress() throws Exception {
+        File root = temp.newFolder("staged");
+        for (int dir = 0; dir < 20; dir++) {
+            for (int tile = 0; tile < 10; tile++) {
+                file(root, "EPSG_4326_00/0" + dir + "_00/" + tile + ".png", 10);
+            }
+        }
+
+        deleter.delete(root);
+        long deletedBytes = 0;
+        for (int i = 0; i < 500 && !deleter.isIdle(); i++) {
+            for (ParallelDirectoryDeleter.Progress progress : deleter.getProgress()) {
+                // deleting as it goes
+                assertThat(progress.deletedBytes(), greaterThanOrEqualTo(deletedBytes));
+                assertThat(progress.deletedBytes(), lessThanOrEqualTo(2000L));
+                assertThat(progress.deletedBytes(), equalTo(10 * progress.deletedFiles()));
+                deletedBytes = progress.deletedBytes();
+            }
+            Thread.sleep(1);
+        }
+        awaitIdle();
+        assertThat(root.exists(), equalTo(false));
+    }
+
+    @Test
+    public void testDeleteMissingDirectory() throws Exception {
+        deleter.delete(new File(temp.getRoot(), "missing"));
+        awaitIdle();
+        assertThat(deleter.getProgress(), empty());
+    }
+}
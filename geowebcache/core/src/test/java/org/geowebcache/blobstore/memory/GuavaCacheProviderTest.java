@@ -0,0 +1,133 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.blobstore.memory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+import org.geowebcache.storage.blobstore.memory.CacheConfiguration;
+import org.geowebcache.storage.blobstore.memory.CacheStatistics;
+import org.geowebcache.storage.blobstore.memory.GuavaCacheProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GuavaCacheProviderTest {
+
+    GuavaCacheProvider cache;
+
+    @Before
+    public void setUp() {
+        CacheConfiguration config = new CacheConfiguration();
+        config.setHardMemoryLimit(1);
+        config.setConcurrencyLevel(1);
+        cache = new GuavaCacheProvider(config);
+    }
+
+    private static TileObject tile(String layer, long x, long y, int z, int size) {
+        return TileObject.createCompleteTileObject(
+                layer, new long[] {x, y, z}, "EPSG:4326", "image/png", null, new ByteArrayResource(new byte[size]));
+    }
+
+    private static TileObject query(String layer, long x, long y, int z) {
+        return TileObject.createQueryTileObject(layer, new long[] {x, y, z}, "EPSG:4326", "image/png", null);
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        cache.putTileObj(tile("layer", 0, 0, 0, 100));
+
+        TileObject hit = query("layer", 0, 0, 0);
+        assertThat(cache.getTileObj(hit), is(true));
+        assertThat(hit.getBlobSize(), equalTo(100));
+        assertThat(cache.getTileObj(query("layer", 1, 0, 0)), is(false));
+
+        CacheStatistics stats = cache.getStatistics();
+        assertThat(stats.getHitCount(), equalTo(1L));
+        assertThat(stats.getMissCount(), equalTo(1L));
+        assertThat(stats.getActualSize(), greaterThan(100L));
+    }
+
+    @Test
+    public void testEvictionBySize() {
+        // 1MiB budget, 64KiB tiles
+        for (int i = 0; i < 64; i++) {
+            cache.putTileObj(tile("layer", i, 0, 5, 64 * 1024));
+        }
+        CacheStatistics stats = cache.getStatistics();
+        assertThat(stats.getEvictionCount(), greaterThan(0L));
+        assertThat(stats.getActualSize(), lessThanOrEqualTo(stats.getTotalSize()));
+    }
+
+    @Test
+    public void testRemoveLayer() {
+        cache.putTileObj(tile("layer1", 0, 0, 0, 10));
+        cache.putTileObj(tile("layer2", 0, 0, 0, 10));
+
+        cache.removeLayer("layer1");
+
+        assertThat(cache.getTileObj(query("layer1", 0, 0, 0)), is(false));
+        assertThat(cache.getTileObj(query("layer2", 0, 0, 0)), is(true));
+    }
+
+    @Test
+    public void testRemoveTiles() {
+        cache.putTileObj(tile("layer", 0, 0, 1, 10));
+        cache.putTileObj(tile("layer", 1, 1, 1, 10));
+        cache.putTileObj(tile("layer", 0, 0, 2, 10));
+
+        long[][] rangeBounds = {{0, 0, 0, 0, 1}};
+        TileRange range = new TileRange("layer", "EPSG:4326", 1, 1, rangeBounds, ImageMime.png, null);
+        cache.removeTiles(range);
+
+        assertThat(cache.getTileObj(query("layer", 0, 0, 1)), is(false));
+        assertThat(cache.getTileObj(query("layer", 1, 1, 1)), is(true));
+        assertThat(cache.getTileObj(query("layer", 0, 0, 2)), is(true));
+    }
+
+    @Test
+    public void testActualSizeFollowsReplacementsAndRemovals() {
+        cache.putTileObj(tile("layer", 0, 0, 0, 100));
+        long oneTile = cache.getStatistics().getActualSize();
+        assertThat(oneTile, greaterThan(100L));
+
+        cache.putTileObj(tile("layer", 0, 0, 0, 200));
+        cache.putTileObj(tile("layer", 1, 0, 0, 100));
+        assertThat(cache.getStatistics().getActualSize(), equalTo(oneTile * 2 + 100));
+
+        cache.removeTileObj(query("layer", 0, 0, 0));
+        assertThat(cache.getStatistics().getActualSize(), equalTo(oneTile));
+
+        cache.clear();
+        assertThat(cache.getStatistics().getActualSize(), equalTo(0L));
+    }
+
+    @Test
+    public void testPutCopiesContents() throws Exception {
+        byte[] data = {1, 2, 3};
+        cache.putTileObj(TileObject.createCompleteTileObject(
+                "layer", new long[] {0, 0, 0}, "EPSG:4326", "image/png", null, new ByteArrayResource(data)));
+        data[0] = 42;
+
+        TileObject hit = query("layer", 0, 0, 0);
+        assertThat(cache.getTileObj(hit), is(true));
+        assertThat(((ByteArrayResource) hit.getBlob()).getContents()[0], equalTo((byte) 1));
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.blobstore.memory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.Collections;
+import org.geowebcache.storage.AbstractBlobStoreTest;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.geowebcache.storage.blobstore.memory.CacheStatistics;
+import org.geowebcache.storage.blobstore.memory.GuavaCacheProvider;
+import org.geowebcache.storage.blobstore.memory.MemoryBlobStore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Runs the blob store conformance tests against a {@link MemoryBlobStore} wrapping a {@link FileBlobStore} */
+public class MemoryBlobStoreComformanceTest extends AbstractBlobStoreTest<MemoryBlobStore> {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Override
+    public void createTestUnit() throws Exception {
+        this.store = new MemoryBlobStore(new FileBlobStore(temp.getRoot().getAbsolutePath()), new GuavaCacheProvider());
+    }
+
+    @Test
+    public void testServedFromMemory() throws Exception {
+        cacheTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", null, "1,2,4,5,6 test");
+        assertTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", null, "1,2,4,5,6 test");
+        assertTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", null, "1,2,4,5,6 test");
+        assertTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", null, "1,2,4,5,6 test");
+
+        CacheStatistics stats = store.getCacheProvider().getStatistics();
+        assertThat(stats.getMissCount(), equalTo(1L));
+        assertThat(stats.getHitCount(), equalTo(2L));
+    }
+
+    @Test
+    public void testUpdateInvalidatesMemory() throws Exception {
+        cacheTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", null, "old");
+        assertTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", null, "old");
+        cacheTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", null, "new");
+        assertTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", null, "new");
+    }
+
+    @Test
+    public void testUncachedLayer() throws Exception {
+        store.getCacheProvider().addUncachedLayer("testLayer");
+        cacheTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", Collections.emptyMap(), "1,2,4,5,6 test");
+        assertTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", Collections.emptyMap(), "1,2,4,5,6 test");
+        assertTile("testLayer", 0L, 0L, 0, "testGridSet", "image/png", Collections.emptyMap(), "1,2,4,5,6 test");
+
+        CacheStatistics stats = store.getCacheProvider().getStatistics();
+        assertThat(stats.getRequestCount(), equalTo(0L));
+        assertThat(stats.getActualSize(), equalTo(0L));
+    }
+}
@@ -17,6 +17,8 @@
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThrows;
 
 import java.util.Collections;
 import java.util.Map;
@@ -31,6 +33,23 @@
 
 public class ParametersUtilsTest {
 
+    @Test
+    public void testIdentified() {
+        Map<String, String> parameters = new TreeMap<>();
+        parameters.put("STYLES", "blue");
+        parameters.put("TIME", "2020");
+        Map<String, String> identified = ParametersUtils.identified(parameters);
+        assertThat(identified, equalTo(parameters));
+        assertThat(ParametersUtils.getId(identified), equalTo(ParametersUtils.getId(parameters)));
+        assertThrows(UnsupportedOperationException.class, () -> identified.put("STYLES", "red"));
+        // changing the original doesn't affect the copy and its id
+        parameters.put("STYLES", "red");
+        assertThat(ParametersUtils.getId(identified), not(equalTo(ParametersUtils.getId(parameters))));
+        assertThat(
+                ParametersUtils.getId(identified),
+                equalTo(ParametersUtils.getId(Map.of("STYLES", "blue", "TIME", "2020"))));
+    }
+
     @Test
     public void testEmptyToKVP() {
         String result = ParametersUtils.getKvp(Collections.emptyMap());
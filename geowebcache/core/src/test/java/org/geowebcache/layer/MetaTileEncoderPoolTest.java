@@ -0,0 +1,260 @@
+package org.geowebcache.layer;
+
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.newCapture;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.easymock.Capture;
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.TestHelpers;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.io.Resource;
+import org.geowebcache.layer.wms.WMSLayer;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.storage.TileObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetaTileEncoderPoolTest {
+
+    private WMSLayer layer;
+
+    private GridSubset gridSubset;
+
+    private long[] requested;
+
+    private MetaTileEncoderPool pool;
+
+    @Before
+    public void setUp() {
+        layer = TestHelpers.createWMSLayer("image/png");
+        gridSubset = layer.getGridSubset(layer.getGridSubsets().iterator().next());
+        long[] coverage = gridSubset.getCoverage(8);
+        // well inside the coverage, so that the whole 3x3 meta tile is stored
+        requested = new long[] {coverage[0] + 4, coverage[1] + 4, 8};
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.destroy();
+        }
+    }
+
+    @Test
+    public void testParallelEncode() throws Exception {
+        pool = new MetaTileEncoderPool(4);
+        layer.setMetaTileEncoderPool(pool);
+        // four tiles are only encoded if four encoders run at the same time
+        CountDownLatch concurrent = new CountDownLatch(4);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        TestMetaTile metaTile = metaTile(tileIdx -> {
+            threads.add(Thread.currentThread().getName());
+            concurrent.countDown();
+            assertTrue(concurrent.await(10, TimeUnit.SECONDS));
+        });
+
+        Capture<Collection<TileObject>> stored = newCapture();
+        StorageBroker broker = createMock(StorageBroker.class);
+        expect(broker.putAll(capture(stored))).andReturn(true);
+        replay(broker);
+
+        layer.saveTiles(metaTile, conveyor(broker), 1000);
+
+        verify(broker);
+        assertThat(stored.getValue(), hasSize(9));
+        assertThat(metaTile.encoded.get(), is(9));
+        assertThat(threads, hasItem(Thread.currentThread().getName()));
+        assertThat(threads, hasItem(startsWith("GWC MetaTile encoder-")));
+    }
+
+    @Test
+    public void testSequentialEncodeOnceDestroyed() throws Exception {
+        pool = new MetaTileEncoderPool(4);
+        layer.setMetaTileEncoderPool(pool);
+        pool.destroy();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        TestMetaTile metaTile =
+                metaTile(tileIdx -> threads.add(Thread.currentThread().getName()));
+
+        Capture<Collection<TileObject>> stored = newCapture();
+        StorageBroker broker = createMock(StorageBroker.class);
+        expect(broker.putAll(capture(stored))).andReturn(true);
+        replay(broker);
+
+        layer.saveTiles(metaTile, conveyor(broker), 1000);
+
+        verify(broker);
+        assertThat(stored.getValue(), hasSize(9));
+        assertThat(threads, everyItem(is(Thread.currentThread().getName())));
+    }
+
+    @Test
+    public void testSequentialEncodeWithoutPool() throws Exception {
+        // no pool given, nor in an application context
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        TestMetaTile metaTile =
+                metaTile(tileIdx -> threads.add(Thread.currentThread().getName()));
+
+        Capture<Collection<TileObject>> stored = newCapture();
+        StorageBroker broker = createMock(StorageBroker.class);
+        expect(broker.putAll(capture(stored))).andReturn(true);
+        replay(broker);
+
+        layer.saveTiles(metaTile, conveyor(broker), 1000);
+
+        verify(broker);
+        assertThat(stored.getValue(), hasSize(9));
+        assertThat(threads, everyItem(is(Thread.currentThread().getName())));
+    }
+
+    @Test
+    public void testEncodeFailure() throws Exception {
+        pool = new MetaTileEncoderPool(4);
+        layer.setMetaTileEncoderPool(pool);
+        AtomicInteger encoding = new AtomicInteger();
+        // the first of the other tiles
+        int failing = requestedIndex() == 0 ? 1 : 0;
+        TestMetaTile metaTile = metaTile(tileIdx -> {
+            encoding.incrementAndGet();
+            try {
+                if (tileIdx == failing) {
+                    throw new IllegalStateException("encoding failed");
+                }
+                Thread.sleep(50);
+            } finally {
+                encoding.decrementAndGet();
+            }
+        });
+
+        // nothing gets stored
+        StorageBroker broker = createMock(StorageBroker.class);
+        replay(broker);
+
+        IllegalStateException e =
+                assertThrows(IllegalStateException.class, () -> layer.saveTiles(metaTile, conveyor(broker), 1000));
+        assertEquals("encoding failed", e.getMessage());
+
+        verify(broker);
+        // the meta tile can be disposed, no tile is being encoded anymore
+        assertEquals(0, encoding.get());
+    }
+
+    @Test
+    public void testInterrupted() throws Exception {
+        pool = new MetaTileEncoderPool(2);
+        layer.setMetaTileEncoderPool(pool);
+        CountDownLatch running = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger encoding = new AtomicInteger();
+        int requestedIdx = requestedIndex();
+        TestMetaTile metaTile = metaTile(tileIdx -> {
+            if (tileIdx == requestedIdx) {
+                // both encoders are busy, the other tiles are queued
+                assertTrue(running.await(10, TimeUnit.SECONDS));
+                Thread.currentThread().interrupt();
+                new Thread(() -> {
+                            try {
+                                Thread.sleep(200);
+                            } catch (InterruptedException ie) {
+                                // release anyway
+                            }
+                            release.countDown();
+                        })
+                        .start();
+                return;
+            }
+            encoding.incrementAndGet();
+            try {
+                running.countDown();
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } finally {
+                encoding.decrementAndGet();
+            }
+        });
+
+        StorageBroker broker = createMock(StorageBroker.class);
+        replay(broker);
+
+        assertThrows(GeoWebCacheException.class, () -> layer.saveTiles(metaTile, conveyor(broker), 1000));
+        assertTrue(Thread.interrupted());
+
+        verify(broker);
+        assertEquals(0, encoding.get());
+        // the requested tile and the two tiles being encoded, the queued ones are skipped
+        assertEquals(3, metaTile.encoded.get());
+    }
+
+    /** Index of the requested tile in the meta tile */
+    private int requestedIndex() {
+        long[][] positions = metaTile(tileIdx -> {}).getTilesGridPositions();
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i][0] == requested[0] && positions[i][1] == requested[1]) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Requested tile not in the meta tile");
+    }
+
+    private TestMetaTile metaTile(Encoding encoding) {
+        return new TestMetaTile(gridSubset, requested, encoding);
+    }
+
+    private ConveyorTile conveyor(StorageBroker broker) {
+        return new ConveyorTile(
+                broker, layer.getName(), gridSubset.getName(), requested, ImageMime.png, null, null, null);
+    }
+
+    private interface Encoding {
+        void encode(int tileIdx) throws Exception;
+    }
+
+    /** Meta tile writing a single byte per tile, once the given encoding step completes */
+    private static class TestMetaTile extends MetaTile {
+
+        final AtomicInteger encoded = new AtomicInteger();
+
+        private final Encoding encoding;
+
+        TestMetaTile(GridSubset gridSubset, long[] requested, Encoding encoding) {
+            super(gridSubset, ImageMime.png, null, requested, 3, 3, 0);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public boolean writeTileToStream(int tileIdx, Resource target) throws IOException {
+            encoded.incrementAndGet();
+            try {
+                encoding.encode(tileIdx);
+            } catch (RuntimeException | IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            target.getOutputStream().write(1);
+            return true;
+        }
+    }
+}
@@ -27,11 +27,13 @@
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.config.GWCConfigIntegrationTest;
 import org.geowebcache.config.GWCConfigIntegrationTestData;
+import org.geowebcache.config.TileLayerConfiguration;
 import org.geowebcache.grid.BoundingBox;
 import org.geowebcache.grid.GridSet;
 import org.geowebcache.grid.GridSetFactory;
 import org.geowebcache.grid.SRS;
 import org.geowebcache.layer.wms.WMSLayer;
+import org.geowebcache.stats.RenderCostStats;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -120,6 +122,90 @@ public void testRemoveLayer() {
         }
     }
 
+    @Test
+    public void testRemoveLayerClearsRenderCosts() {
+        String layerToRemove = GWCConfigIntegrationTestData.LAYER_TOPP_STATES;
+        RenderCostStats.getInstance().record(layerToRemove, 3, 1, 1000, 1_000_000);
+
+        tileLayerDispatcher.removeLayer(layerToRemove);
+
+        assertTrue(Double.isNaN(RenderCostStats.getInstance().getCostPerByte(layerToRemove, 3)));
+    }
+
+    @Test
+    public void testRenameLayerClearsRenderCosts() {
+        TileLayerConfiguration config = Mockito.mock(TileLayerConfiguration.class);
+        TileLayerDispatcher dispatcherSpy = Mockito.spy(tileLayerDispatcher);
+        Mockito.doReturn(config).when(dispatcherSpy).getConfiguration("oldName");
+        RenderCostStats.getInstance().record("oldName", 3, 1, 1000, 1_000_000);
+
+        dispatcherSpy.rename("oldName", "newName");
+
+        Mockito.verify(config).renameLayer("oldName", "newName");
+        assertTrue(Double.isNaN(RenderCostStats.getInstance().getCostPerByte("oldName", 3)));
+    }
+
+    @Test
+    public void testRemoveLookedUpLayer() throws GeoWebCacheException {
+        tileLayerDispatcher.setLayerIndexEnabled(true);
+        String layerToRemove = GWCConfigIntegrationTestData.LAYER_TOPP_STATES;
+        assertTrue(tileLayerDispatcher.layerExists(layerToRemove));
+        tileLayerDispatcher.getTileLayer(layerToRemove);
+
+        tileLayerDispatcher.removeLayer(layerToRemove);
+
+        assertFalse(tileLayerDispatcher.layerExists(layerToRemove));
+        try {
+            tileLayerDispatcher.getTileLayer(layerToRemove);
+            fail("Expected exception when trying to get removed layer");
+        } catch (GeoWebCacheException e) {
+
+        }
+    }
+
+    @Test
+    public void testNoLayerIndexByDefault() throws GeoWebCacheException {
+        assertFalse(tileLayerDispatcher.isLayerIndexEnabled());
+        String layerName = GWCConfigIntegrationTestData.LAYER_TOPP_STATES;
+        tileLayerDispatcher.getTileLayer(layerName);
+
+        // changed behind the dispatcher's back, the change is seen right away
+        tileLayerDispatcher.getConfiguration(layerName).removeLayer(layerName);
+        assertFalse(tileLayerDispatcher.layerExists(layerName));
+    }
+
+    @Test
+    public void testClearLayerIndex() throws GeoWebCacheException {
+        tileLayerDispatcher.setLayerIndexEnabled(true);
+        String layerName = GWCConfigIntegrationTestData.LAYER_TOPP_STATES;
+        TileLayer layer = tileLayerDispatcher.getTileLayer(layerName);
+
+        // changed behind the dispatcher's back, the indexed layer is still served
+        tileLayerDispatcher.getConfiguration(layerName).removeLayer(layerName);
+        assertEquals(layer, tileLayerDispatcher.getTileLayer(layerName));
+
+        tileLayerDispatcher.clearLayerIndex();
+        assertFalse(tileLayerDispatcher.layerExists(layerName));
+    }
+
+    @Test
+    public void testListener() throws GeoWebCacheException {
+        TileLayerDispatcherListener listener = Mockito.mock(TileLayerDispatcherListener.class);
+        tileLayerDispatcher.addListener(listener);
+
+        String layerName = GWCConfigIntegrationTestData.LAYER_TOPP_STATES;
+        tileLayerDispatcher.modify(tileLayerDispatcher.getTileLayer(layerName));
+        tileLayerDispatcher.removeLayer(layerName);
+        Mockito.verify(listener, Mockito.times(2)).layerChanged(layerName);
+
+        tileLayerDispatcher.clearLayerIndex();
+        Mockito.verify(listener).reset();
+
+        assertTrue(tileLayerDispatcher.removeListener(listener));
+        tileLayerDispatcher.clearLayerIndex();
+        Mockito.verifyNoMoreInteractions(listener);
+    }
+
     @Test
     public void testRemoveLayerException() {
         try {
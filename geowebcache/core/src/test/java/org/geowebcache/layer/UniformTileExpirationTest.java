@@ -0,0 +1,135 @@
+package org.geowebcache.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.geowebcache.TestHelpers;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.Resource;
+import org.geowebcache.layer.wms.WMSLayer;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.storage.DefaultStorageBroker;
+import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TransientCache;
+import org.geowebcache.storage.blobstore.file.DefaultFilePathGenerator;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class UniformTileExpirationTest {
+
+    private static final byte[] BLANK = "blank".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private WMSLayer layer;
+
+    private GridSubset gridSubset;
+
+    private long[] requested;
+
+    private FileBlobStore store;
+
+    private StorageBroker broker;
+
+    @Before
+    public void setUp() throws Exception {
+        layer = TestHelpers.createWMSLayer("image/png");
+        gridSubset = layer.getGridSubset(layer.getGridSubsets().iterator().next());
+        long[] coverage = gridSubset.getCoverage(8);
+        requested = new long[] {coverage[0] + 4, coverage[1] + 4, 8};
+
+        store = new FileBlobStore(temp.getRoot().getAbsolutePath());
+        store.setLinkUniformTiles(true);
+        broker = new DefaultStorageBroker(store, new TransientCache(100, 1024, 2000));
+
+        // a shared copy of the blank tile written five minutes ago
+        TileObject old = TileObject.createCompleteTileObject(
+                layer.getName(),
+                new long[] {requested[0], requested[1] + 10, 8},
+                gridSubset.getName(),
+                ImageMime.png.getFormat(),
+                null,
+                new ByteArrayResource(BLANK));
+        old.setUniform(true);
+        store.put(old);
+        assertTrue(oldTile().setLastModified(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(5)));
+    }
+
+    @Test
+    public void testExpiringTilesNotLinked() throws Exception {
+        layer.expireCacheList = new ArrayList<>(List.of(new ExpirationRule(0, 60)));
+
+        layer.saveTiles(new BlankMetaTile(gridSubset, requested), conveyor(), System.currentTimeMillis());
+
+        ConveyorTile tile = conveyor();
+        assertTrue(tile.retrieve(layer.getExpireCache(8) * 1000L));
+        assertFalse(Files.isSameFile(oldTile().toPath(), tileFile(tile).toPath()));
+    }
+
+    @Test
+    public void testTilesLinkedWithoutExpiration() throws Exception {
+        layer.saveTiles(new BlankMetaTile(gridSubset, requested), conveyor(), System.currentTimeMillis());
+
+        ConveyorTile tile = conveyor();
+        assertEquals(-2, layer.getExpireCache(8));
+        assertTrue(tile.retrieve(layer.getExpireCache(8) * 1000L));
+        assertTrue(Files.isSameFile(oldTile().toPath(), tileFile(tile).toPath()));
+    }
+
+    private File oldTile() throws Exception {
+        ConveyorTile tile = new ConveyorTile(
+                broker,
+                layer.getName(),
+                gridSubset.getName(),
+                new long[] {requested[0], requested[1] + 10, 8},
+                ImageMime.png,
+                null,
+                null,
+                null);
+        return tileFile(tile);
+    }
+
+    private File tileFile(ConveyorTile tile) throws Exception {
+        return new DefaultFilePathGenerator(temp.getRoot().getAbsolutePath())
+                .tilePath(tile.getStorageObject(), ImageMime.png);
+    }
+
+    private ConveyorTile conveyor() {
+        return new ConveyorTile(
+                broker, layer.getName(), gridSubset.getName(), requested, ImageMime.png, null, null, null);
+    }
+
+    /** Meta tile whose tiles are all blank */
+    private static class BlankMetaTile extends MetaTile {
+
+        BlankMetaTile(GridSubset gridSubset, long[] requested) {
+            super(gridSubset, ImageMime.png, null, requested, 3, 3, 0);
+        }
+
+        @Override
+        public boolean writeTileToStream(int tileIdx, Resource target) throws IOException {
+            target.getOutputStream().write(BLANK);
+            return true;
+        }
+
+        @Override
+        public boolean isUniform(int tileIdx) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.geowebcache.layer.wms.BackendRequestScheduler.Priority;
+import org.junit.After;
+import org.junit.Test;
+
+public class BackendRequestSchedulerTest {
+
+    private static final String BACKEND = "http://localhost:8080";
+
+    private final BackendRequestScheduler scheduler = new BackendRequestScheduler(0.5);
+
+    @After
+    public void clearPriority() {
+        BackendRequestScheduler.setPriority(null);
+    }
+
+    private Thread request(Priority priority, List<Priority> served) {
+        Thread thread = new Thread(() -> {
+            BackendRequestScheduler.setPriority(priority);
+            try {
+                scheduler.acquire(BACKEND, 2);
+                served.add(priority);
+                scheduler.release(BACKEND);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void awaitWaiting(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getWaiting(BACKEND) < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(scheduler.getWaiting(BACKEND), equalTo(count));
+    }
+
+    @Test
+    public void testInteractiveOvertakesQueuedSeeding() throws Exception {
+        // fill the backend
+        scheduler.acquire(BACKEND, 2);
+        scheduler.acquire(BACKEND, 2);
+        assertThat(scheduler.getActive(BACKEND), equalTo(2));
+
+        List<Priority> served = new CopyOnWriteArrayList<>();
+        Thread reseed = request(Priority.RESEED, served);
+        awaitWaiting(1);
+        Thread seed = request(Priority.SEED, served);
+        awaitWaiting(2);
+        Thread interactive = request(Priority.INTERACTIVE, served);
+        awaitWaiting(3);
+
+        scheduler.release(BACKEND);
+        interactive.join(5000);
+        assertThat(served, contains(Priority.INTERACTIVE));
+
+        scheduler.release(BACKEND);
+        seed.join(5000);
+        reseed.join(5000);
+        assertThat(served, contains(Priority.INTERACTIVE, Priority.SEED, Priority.RESEED));
+        assertThat(scheduler.getActive(BACKEND), equalTo(0));
+    }
+
+    @Test
+    public void testSeedingLeavesSlotsToInteractive() throws Exception {
+        BackendRequestScheduler.setPriority(Priority.SEED);
+        scheduler.acquire(BACKEND, 2);
+
+        // the second slot is reserved
+        List<Priority> served = new CopyOnWriteArrayList<>();
+        Thread seed = request(Priority.SEED, served);
+        awaitWaiting(1);
+        Thread interactive = request(Priority.INTERACTIVE, served);
+        interactive.join(5000);
+        assertThat(served, contains(Priority.INTERACTIVE));
+
+        scheduler.release(BACKEND);
+        seed.join(5000);
+        assertThat(served, contains(Priority.INTERACTIVE, Priority.SEED));
+    }
+
+    @Test
+    public void testInterruptedWaiterLeavesQueue() throws Exception {
+        scheduler.acquire(BACKEND, 2);
+        scheduler.acquire(BACKEND, 2);
+
+        List<Priority> served = new CopyOnWriteArrayList<>();
+        Thread seed = request(Priority.SEED, served);
+        awaitWaiting(1);
+        seed.interrupt();
+        seed.join(5000);
+        assertThat(scheduler.getWaiting(BACKEND), equalTo(0));
+        assertThat(served.isEmpty(), equalTo(true));
+
+        scheduler.release(BACKEND);
+        scheduler.release(BACKEND);
+        assertThat(scheduler.getActive(BACKEND), equalTo(0));
+    }
+
+    @Test
+    public void testLayersLimitedSeparatelyByDefault() throws Exception {
+        String first = scheduler.backend("first", BACKEND);
+        String second = scheduler.backend("second", BACKEND);
+        scheduler.acquire(first, scheduler.limit(1));
+        // the other layer has its own slot
+        scheduler.acquire(second, scheduler.limit(1));
+        assertThat(scheduler.getActive(first), equalTo(1));
+        assertThat(scheduler.getActive(second), equalTo(1));
+        scheduler.release(first);
+        scheduler.release(second);
+    }
+
+    @Test
+    public void testHostConcurrencySharedByLayers() throws Exception {
+        BackendRequestScheduler shared = new BackendRequestScheduler(0.5, 3);
+        String first = shared.backend("first", BACKEND);
+        String second = shared.backend("second", BACKEND);
+        assertThat(first, equalTo(second));
+        assertThat(shared.limit(32), equalTo(3));
+        shared.acquire(first, shared.limit(32));
+        shared.acquire(second, shared.limit(1));
+        assertThat(shared.getActive(BACKEND), equalTo(2));
+        shared.release(first);
+        shared.release(second);
+    }
+}
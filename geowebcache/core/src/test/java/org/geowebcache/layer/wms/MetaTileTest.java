@@ -17,6 +17,7 @@
 import org.geowebcache.grid.GridSetBroker;
 import org.geowebcache.grid.GridSubset;
 import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.layer.MetaTile;
 import org.geowebcache.mime.ApplicationMime;
 import org.geowebcache.mime.ImageMime;
@@ -275,6 +276,47 @@ public void testCreateTileFromMetaTilePlanarImage() throws Exception {
         commonCreateTileFromMetaTileTest(colors, PlanarImage.wrapRenderedImage(image));
     }
 
+    @Test
+    public void testUniformTiles() throws Exception {
+        BoundingBox boundingBox = new BoundingBox(0, 0, 180, 90);
+        GridSubset grid = GridSubsetFactory.createGridSubSet(gridSetBroker.getWorldEpsg4326(), boundingBox, 0, 21);
+        long[] gridPos = {0, 0, 2};
+        MetaTile metaTile = new MetaTile(grid, ImageMime.png, null, gridPos, 2, 2, null);
+        int tiles = metaTile.getTilesGridPositions().length;
+
+        // all transparent, all uniform, and encoded the same
+        BufferedImage blank = new BufferedImage(
+                metaTile.getMetaTileWidth(), metaTile.getMetaTileHeight(), BufferedImage.TYPE_INT_ARGB);
+        metaTile.setImage(blank);
+        ByteArrayResource first = new ByteArrayResource();
+        Assert.assertTrue(metaTile.writeTileToStream(0, first));
+        Assert.assertTrue(metaTile.isUniform(0));
+        for (int i = 1; i < tiles; i++) {
+            ByteArrayResource other = new ByteArrayResource();
+            Assert.assertTrue(metaTile.writeTileToStream(i, other));
+            Assert.assertTrue(metaTile.isUniform(i));
+            Assert.assertArrayEquals(first.getContents(), other.getContents());
+        }
+        metaTile.dispose();
+
+        // noise, no uniform tile
+        metaTile = new MetaTile(grid, ImageMime.png, null, gridPos, 2, 2, null);
+        BufferedImage noise = new BufferedImage(
+                metaTile.getMetaTileWidth(), metaTile.getMetaTileHeight(), BufferedImage.TYPE_INT_ARGB);
+        Random random = new Random(0);
+        for (int y = 0; y < noise.getHeight(); y++) {
+            for (int x = 0; x < noise.getWidth(); x++) {
+                noise.setRGB(x, y, random.nextInt());
+            }
+        }
+        metaTile.setImage(noise);
+        for (int i = 0; i < tiles; i++) {
+            Assert.assertTrue(metaTile.writeTileToStream(i, new ByteArrayResource()));
+            Assert.assertFalse(metaTile.isUniform(i));
+        }
+        metaTile.dispose();
+    }
+
     // Helper class that given a meta tile image will extract the tiles and check that extracted
     // tiles are correct
     private void commonCreateTileFromMetaTileTest(Color[][] colors, RenderedImage metaTileImage) throws Exception {
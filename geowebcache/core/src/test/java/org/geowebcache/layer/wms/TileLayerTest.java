@@ -1,11 +1,14 @@
 package org.geowebcache.layer.wms;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.equalToIgnoringCase;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThrows;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -13,13 +16,22 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import org.geowebcache.filter.parameters.ParameterException;
 import org.geowebcache.filter.parameters.ParameterFilter;
+import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.filter.parameters.RegexParameterFilter;
 import org.geowebcache.filter.parameters.StringParameterFilter;
 import org.geowebcache.layer.TileLayer;
+import org.geowebcache.util.PropertyRule;
+import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 public abstract class TileLayerTest {
 
+    @Rule
+    public PropertyRule parametersCache = PropertyRule.system(TileLayer.PARAMETERS_CACHE);
+
     @Test
     public void testGetModifiableParameters() throws Exception {
         List<ParameterFilter> filters = new LinkedList<>();
@@ -60,5 +72,73 @@ public void testGetModifiableParameters() throws Exception {
         assertThat(result, not(hasEntry(equalToIgnoringCase("FILTER4"), notNullValue())));
     }
 
+    @Test
+    public void testGetFilteredParametersNotCachedByDefault() throws Exception {
+        TileLayer layer = getLayerWithFilters(List.of(stylesFilter()));
+
+        Map<String, String> first = layer.getFilteredParameters(Map.of("STYLES", "blue"), "UTF-8");
+        Map<String, String> second = layer.getFilteredParameters(Map.of("STYLES", "blue"), "UTF-8");
+        assertThat(second, equalTo(first));
+        assertThat(second, not(sameInstance(first)));
+        first.put("STYLES", "red");
+        assertThat(first, hasEntry("STYLES", "red"));
+        assertThat(second, hasEntry("STYLES", "blue"));
+
+        Map<String, String> modifiable = layer.getModifiableParameters(Map.of("STYLES", "blue"), "UTF-8");
+        modifiable.put("STYLES", "red");
+        assertThat(modifiable, hasEntry("STYLES", "red"));
+    }
+
+    @Test
+    public void testGetFilteredParametersHonoursOverrides() throws Exception {
+        TileLayer layer = Mockito.spy(getLayerWithFilters(List.of(stylesFilter())));
+        Map<String, String> custom = new HashMap<>(Map.of("STYLES", "custom"));
+        Mockito.doReturn(custom).when(layer).getModifiableParameters(Mockito.any(), Mockito.any());
+
+        assertThat(layer.getFilteredParameters(Map.of("STYLES", "blue"), "UTF-8"), sameInstance(custom));
+    }
+
+    @Test
+    public void testGetFilteredParametersCached() throws Exception {
+        parametersCache.setValue("true");
+        RegexParameterFilter filter = stylesFilter();
+        TileLayer layer = getLayerWithFilters(List.of(filter));
+
+        Map<String, String> first = layer.getFilteredParameters(Map.of("styles", new String[] {"blue"}), "UTF-8");
+        Map<String, String> second = layer.getFilteredParameters(Map.of("STYLES", "blue"), "UTF-8");
+        assertThat(first, hasEntry("STYLES", "blue"));
+        assertThat(second, sameInstance(first));
+        assertThrows(UnsupportedOperationException.class, () -> first.put("STYLES", "red"));
+        assertThat(ParametersUtils.getId(first), equalTo(ParametersUtils.getId(Map.of("STYLES", "blue"))));
+
+        // still a modifiable copy
+        Map<String, String> modifiable = layer.getModifiableParameters(Map.of("STYLES", "blue"), "UTF-8");
+        assertThat(modifiable, not(sameInstance(first)));
+        modifiable.put("STYLES", "red");
+        assertThat(first, hasEntry("STYLES", "blue"));
+
+        // invalid values fail every time
+        for (int i = 0; i < 2; i++) {
+            assertThrows(
+                    ParameterException.class, () -> layer.getFilteredParameters(Map.of("STYLES", "BLUE1"), "UTF-8"));
+        }
+        assertThat(layer.getFilteredParameters(Map.of("STYLES", "default"), "UTF-8"), anEmptyMap());
+
+        // filters modified in place are noticed, default values included
+        filter.setRegex("[a-z]+[0-9]?");
+        filter.setDefaultValue("plain");
+        assertThat(layer.getFilteredParameters(Map.of("STYLES", "blue1"), "UTF-8"), hasEntry("STYLES", "blue1"));
+        assertThat(layer.getFilteredParameters(Map.of("STYLES", "plain"), "UTF-8"), anEmptyMap());
+        assertThat(layer.getFilteredParameters(Map.of("STYLES", "default"), "UTF-8"), hasEntry("STYLES", "default"));
+    }
+
+    private static RegexParameterFilter stylesFilter() {
+        RegexParameterFilter filter = new RegexParameterFilter();
+        filter.setKey("STYLES");
+        filter.setDefaultValue("default");
+        filter.setRegex("[a-z]+");
+        return filter;
+    }
+
     protected abstract TileLayer getLayerWithFilters(Collection<ParameterFilter> filters) throws Exception;
 }
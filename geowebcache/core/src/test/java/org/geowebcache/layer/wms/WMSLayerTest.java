@@ -20,6 +20,7 @@
 import static org.geowebcache.TestHelpers.createFakeSourceImage;
 import static org.geowebcache.TestHelpers.createRequest;
 import static org.geowebcache.TestHelpers.createWMSLayer;
+import static org.geowebcache.TestHelpers.expectPutAllAsPuts;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
@@ -89,6 +90,7 @@
 import org.geowebcache.seed.GWCTask;
 import org.geowebcache.seed.SeedRequest;
 import org.geowebcache.seed.TileBreeder;
+import org.geowebcache.stats.RenderCostStats;
 import org.geowebcache.storage.StorageBroker;
 import org.geowebcache.storage.TileObject;
 import org.geowebcache.storage.TileRange;
@@ -120,6 +122,47 @@ public void tearDown() throws Exception {
         TestHelpers.mockProvider.clear();
     }
 
+    @Test
+    public void testRenderCostLeavesOutTheWait() throws Exception {
+        WMSLayer layer = createWMSLayer("image/png");
+        layer.setSourceHelper(new WMSSourceHelper() {
+            @Override
+            protected void makeRequest(
+                    TileResponseReceiver tileRespRecv,
+                    WMSLayer layer,
+                    Map<String, String> wmsParams,
+                    MimeType expectedMime,
+                    Resource target)
+                    throws GeoWebCacheException {
+                try {
+                    // waiting for a free slot
+                    Thread.sleep(200);
+                    requestStarted();
+                    target.getOutputStream().write(new byte[1000]);
+                } catch (InterruptedException | IOException e) {
+                    throw new GeoWebCacheException(e);
+                }
+            }
+        });
+        RenderCostStats.getInstance().clear(layer.getName());
+
+        ConveyorTile tile = new ConveyorTile(
+                null,
+                layer.getName(),
+                gridSetBroker.getWorldEpsg4326().getName(),
+                new long[] {0, 0, 0},
+                ImageMime.png,
+                null,
+                new MockHttpServletRequest(),
+                new MockHttpServletResponse());
+        layer.doNonMetatilingRequest(tile);
+
+        // 200ms over 1000 bytes would be 200k nanoseconds per byte
+        double costPerByte = RenderCostStats.getInstance().getCostPerByte(layer.getName(), 0);
+        assertTrue(String.valueOf(costPerByte), costPerByte < 100_000);
+        RenderCostStats.getInstance().clear(layer.getName());
+    }
+
     @Test
     public void testSeedMetaTiled() throws Exception {
         WMSLayer layer = createWMSLayer("image/png");
@@ -134,6 +177,7 @@ public void testSeedMetaTiled() throws Exception {
         expect(mockStorageBroker.put(EasyMock.capture(captured)))
                 .andReturn(true)
                 .anyTimes();
+        expectPutAllAsPuts(mockStorageBroker);
         replay(mockStorageBroker);
 
         String layerId = layer.getName();
@@ -264,6 +308,7 @@ public void checkJpegPng(String format, IAnswer<Boolean> tileVerifier, WMSSource
         expect(mockStorageBroker.put(EasyMock.capture(captured)))
                 .andAnswer(tileVerifier)
                 .anyTimes();
+        expectPutAllAsPuts(mockStorageBroker);
         replay(mockStorageBroker);
 
         String layerId = layer.getName();
@@ -702,10 +747,7 @@ private void installMockBroker() throws Exception {
                     .andAnswer(() -> {
                         TileObject tile = (TileObject) EasyMock.getCurrentArguments()[0];
                         String key = TransientCache.computeTransientKey(tile);
-                        Resource resource;
-                        synchronized (transientCache) {
-                            resource = transientCache.get(key);
-                        }
+                        Resource resource = transientCache.get(key);
                         if (resource != null) {
                             cacheHits.incrementAndGet();
                         } else {
@@ -722,9 +764,7 @@ private void installMockBroker() throws Exception {
                     .andAnswer(() -> {
                         TileObject tile = tileCapturer.getValue();
                         String key = TransientCache.computeTransientKey(tile);
-                        synchronized (transientCache) {
-                            transientCache.put(key, tile.getBlob());
-                        }
+                        transientCache.put(key, tile.getBlob());
                         return null;
                     })
                     .anyTimes();
@@ -751,6 +791,7 @@ private void installMockBroker() throws Exception {
                         }
                     })
                     .anyTimes();
+            expectPutAllAsPuts(storageBroker);
             replay(storageBroker);
         }
     }
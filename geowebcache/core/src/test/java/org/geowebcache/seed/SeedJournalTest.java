@@ -0,0 +1,165 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import org.easymock.EasyMock;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.seed.GWCTask.TYPE;
+import org.geowebcache.storage.TileRange;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SeedJournalTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private SeedJournal journal;
+
+    @Before
+    public void setUp() throws Exception {
+        journal = new SeedJournal(temp.newFolder("journal"));
+    }
+
+    private TileRange tileRange(Map<String, String> parameters) {
+        long[][] bounds = {{0, 0, 1, 1, 2}, {0, 0, 3, 3, 3}};
+        return new TileRange("layer", "EPSG:4326", 2, 3, bounds, ImageMime.png, parameters);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        SeedJournal.Job job = new SeedJournal.Job(
+                TYPE.RESEED, 4, true, 3, 200, 50, tileRange(Collections.singletonMap("STYLES", "a")));
+        job.setCheckpoint(new long[] {3, 2});
+        journal.save(job);
+
+        List<SeedJournal.Job> jobs = journal.list();
+        assertThat(jobs, hasSize(1));
+        SeedJournal.Job loaded = jobs.get(0);
+        assertThat(loaded.getId(), equalTo(job.getId()));
+        assertThat(loaded.getType(), equalTo(TYPE.RESEED));
+        assertThat(loaded.getThreadCount(), equalTo(4));
+        assertThat(loaded.isFilterUpdate(), equalTo(true));
+        assertThat(loaded.getTileFailureRetryCount(), equalTo(3));
+        assertThat(loaded.getTileFailureRetryWaitTime(), equalTo(200L));
+        assertThat(loaded.getTotalFailuresBeforeAborting(), equalTo(50L));
+        assertArrayEquals(new long[] {3, 2}, loaded.getCheckpoint());
+
+        TileRange tr = loaded.getTileRange();
+        assertThat(tr.getLayerName(), equalTo("layer"));
+        assertThat(tr.getGridSetId(), equalTo("EPSG:4326"));
+        assertThat(tr.getMimeType(), equalTo(ImageMime.png));
+        assertThat(tr.getParameters(), equalTo(Collections.singletonMap("STYLES", "a")));
+        assertThat(
+                tr.getParametersId(),
+                equalTo(tileRange(Collections.singletonMap("STYLES", "a")).getParametersId()));
+        assertArrayEquals(new long[] {0, 0, 1, 1, 2}, tr.rangeBounds(2));
+        assertArrayEquals(new long[] {0, 0, 3, 3, 3}, tr.rangeBounds(3));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        SeedJournal.Job job1 = new SeedJournal.Job(TYPE.SEED, 1, false, 0, 100, 1000, tileRange(null));
+        SeedJournal.Job job2 = new SeedJournal.Job(TYPE.TRUNCATE, 1, false, 0, 100, 1000, tileRange(null));
+        journal.save(job1);
+        journal.save(job2);
+        assertThat(journal.list(), hasSize(2));
+
+        journal.remove(job1.getId());
+        List<SeedJournal.Job> jobs = journal.list();
+        assertThat(jobs, hasSize(1));
+        assertThat(jobs.get(0).getId(), equalTo(job2.getId()));
+        assertThat(jobs.get(0).getCheckpoint(), nullValue());
+        assertThat(jobs.get(0).getTileRange().getParameters(), nullValue());
+
+        journal.remove(job2.getId());
+        assertThat(journal.list(), empty());
+    }
+
+    @Test
+    public void testSkipUnreadableEntries() throws Exception {
+        SeedJournal.Job job = new SeedJournal.Job(TYPE.SEED, 1, false, 0, 100, 1000, tileRange(null));
+        journal.save(job);
+        File dir = temp.getRoot().toPath().resolve("journal").toFile();
+        Files.writeString(new File(dir, "broken.properties").toPath(), "type=SEED\n");
+
+        List<SeedJournal.Job> jobs = journal.list();
+        assertThat(jobs, hasSize(1));
+        assertThat(jobs.get(0).getId(), equalTo(job.getId()));
+    }
+
+    @Test
+    public void testBreederResumesFromCheckpoint() throws Exception {
+        SeedJournal.Job job = new SeedJournal.Job(TYPE.SEED, 2, false, 0, 100, 1000, tileRange(null));
+        job.setCheckpoint(new long[] {3, 2});
+        journal.save(job);
+        SeedJournal.Job missingLayer = new SeedJournal.Job(
+                TYPE.SEED,
+                1,
+                false,
+                0,
+                100,
+                1000,
+                new TileRange("missing", "EPSG:4326", 2, 2, new long[][] {{0, 0, 1, 1, 2}}, ImageMime.png, null));
+        journal.save(missingLayer);
+
+        TileLayer layer = EasyMock.createNiceMock(TileLayer.class);
+        EasyMock.expect(layer.getName()).andStubReturn("layer");
+        EasyMock.expect(layer.getMetaTilingFactors()).andStubReturn(new int[] {1, 1});
+        TileLayerDispatcher dispatcher = EasyMock.createMock(TileLayerDispatcher.class);
+        EasyMock.expect(dispatcher.getTileLayer("layer")).andStubReturn(layer);
+        EasyMock.expect(dispatcher.getTileLayer("missing")).andStubReturn(null);
+        SeederThreadPoolExecutor pool = EasyMock.createNiceMock(SeederThreadPoolExecutor.class);
+        EasyMock.expect(pool.submit(EasyMock.<MTSeeder>anyObject()))
+                .andStubReturn(EasyMock.createNiceMock(Future.class));
+        EasyMock.replay(layer, dispatcher, pool);
+
+        TileBreeder breeder = new TileBreeder();
+        breeder.setTileLayerDispatcher(dispatcher);
+        breeder.setThreadPoolExecutor(pool);
+        breeder.setSeedJournal(journal);
+        try {
+            List<GWCTask> tasks = breeder.resumeJobs(null);
+            assertThat(tasks, hasSize(2));
+            for (GWCTask task : tasks) {
+                assertThat(task.getType(), equalTo(TYPE.SEED));
+                assertArrayEquals(
+                        new long[] {3, 2},
+                        ((SeedTask) task).getTileRangeIterator().getCheckpoint());
+            }
+            // running jobs are not resumed twice, and the one on a missing layer is kept
+            assertThat(breeder.resumeJobs(null), empty());
+            assertThat(journal.list(), hasSize(2));
+        } finally {
+            breeder.destroy();
+        }
+    }
+}
@@ -23,6 +23,7 @@
 import static org.geowebcache.TestHelpers.createFakeSourceImage;
 import static org.geowebcache.TestHelpers.createRequest;
 import static org.geowebcache.TestHelpers.createWMSLayer;
+import static org.geowebcache.TestHelpers.expectPutAllAsPuts;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -123,6 +124,7 @@ public Void answer() throws Throwable {
         final StorageBroker mockStorageBroker = EasyMock.createMock(StorageBroker.class);
         expect(mockStorageBroker.put(anyObject())).andReturn(true).anyTimes();
         expect(mockStorageBroker.get(anyObject())).andReturn(false).anyTimes();
+        expectPutAllAsPuts(mockStorageBroker);
         replay(mockStorageBroker);
 
         boolean reseed = false;
@@ -206,6 +208,7 @@ protected void makeRequest(
         final StorageBroker mockStorageBroker = EasyMock.createMock(StorageBroker.class);
         expect(mockStorageBroker.put(anyObject())).andReturn(true).anyTimes();
         expect(mockStorageBroker.get(anyObject())).andReturn(false).anyTimes();
+        expectPutAllAsPuts(mockStorageBroker);
         replay(mockStorageBroker);
 
         long tileFailureRetryWaitTime = 10;
@@ -265,6 +268,7 @@ public void testSeedStoredTiles() throws Exception {
         expect(mockStorageBroker.put(capture(storedObjects))).andReturn(true).anyTimes();
 
         expect(mockStorageBroker.get(anyObject())).andReturn(false).anyTimes();
+        expectPutAllAsPuts(mockStorageBroker);
         replay(mockStorageBroker);
 
         TileRange tr = TileBreeder.createTileRange(req, tl);
@@ -0,0 +1,137 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class SeedThrottleTest {
+
+    private static final String BACKEND = "http://localhost/wms";
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** Fails as many requests in a row as needed to go over the tolerated failure rate */
+    private static void failRequests(SeedThrottle throttle, long elapsedNanos) {
+        for (int i = 0;
+                i <= SeedThrottle.BackendStatistics.FAILURE_WINDOW * SeedThrottle.BackendStatistics.MAX_FAILURE_RATE;
+                i++) {
+            throttle.requestCompleted(BACKEND, elapsedNanos, false);
+        }
+    }
+
+    @Test
+    public void testIgnoresIsolatedFailures() {
+        SeedThrottle throttle = new SeedThrottle(8);
+        for (int i = 0; i < 100; i++) {
+            throttle.requestCompleted(BACKEND, 10 * MS, i % 10 != 0);
+        }
+        assertThat(throttle.getConcurrency(), equalTo(8));
+
+        SeedThrottle.BackendStatistics stats = throttle.getBackendStatistics().get(BACKEND);
+        assertThat(stats.getRequests(), equalTo(100L));
+        assertThat(stats.getFailures(), equalTo(10L));
+    }
+
+    @Test
+    public void testBacksOffOnFailureRateOncePerRoundTrip() {
+        SeedThrottle throttle = new SeedThrottle(8);
+        assertThat(throttle.getConcurrency(), equalTo(8));
+
+        for (int i = 0; i < 4; i++) {
+            throttle.requestCompleted(BACKEND, 10 * MS, false);
+        }
+        assertThat(throttle.getConcurrency(), equalTo(8));
+        throttle.requestCompleted(BACKEND, 10 * MS, false);
+        assertThat(throttle.getConcurrency(), equalTo(4));
+
+        // requests in flight when the limit was lowered don't lower it again
+        failRequests(throttle, TimeUnit.HOURS.toNanos(1));
+        assertThat(throttle.getConcurrency(), equalTo(4));
+    }
+
+    @Test
+    public void testNeverBelowOne() {
+        SeedThrottle throttle = new SeedThrottle(2);
+        for (int i = 0; i < 5; i++) {
+            failRequests(throttle, 0);
+        }
+        assertThat(throttle.getConcurrency(), equalTo(1));
+    }
+
+    @Test
+    public void testAdditiveIncrease() {
+        SeedThrottle throttle = new SeedThrottle(4);
+        failRequests(throttle, 0);
+        failRequests(throttle, 0);
+        assertThat(throttle.getConcurrency(), equalTo(1));
+
+        // roughly one more task allowed each time as many requests as allowed tasks complete
+        throttle.requestCompleted(BACKEND, 10 * MS, true);
+        assertThat(throttle.getConcurrency(), equalTo(2));
+        throttle.requestCompleted(BACKEND, 10 * MS, true);
+        throttle.requestCompleted(BACKEND, 10 * MS, true);
+        assertThat(throttle.getConcurrency(), equalTo(2));
+        throttle.requestCompleted(BACKEND, 10 * MS, true);
+        assertThat(throttle.getConcurrency(), equalTo(3));
+        for (int i = 0; i < 20; i++) {
+            throttle.requestCompleted(BACKEND, 10 * MS, true);
+        }
+        assertThat(throttle.getConcurrency(), equalTo(4));
+    }
+
+    @Test
+    public void testBacksOffWhenLatencyGrows() {
+        SeedThrottle throttle = new SeedThrottle(4);
+        for (int i = 0; i < 50; i++) {
+            throttle.requestCompleted(BACKEND, 10 * MS, true);
+        }
+        assertThat(throttle.getConcurrency(), equalTo(4));
+
+        for (int i = 0; i < 10 && throttle.getConcurrency() == 4; i++) {
+            throttle.requestCompleted(BACKEND, 100 * MS, true);
+        }
+        assertThat(throttle.getConcurrency(), equalTo(2));
+    }
+
+    @Test
+    public void testAcquireWaitsForAllowedConcurrency() throws Exception {
+        SeedThrottle throttle = new SeedThrottle(2);
+        failRequests(throttle, 0);
+        assertThat(throttle.getConcurrency(), equalTo(1));
+        throttle.acquire();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread other = new Thread(() -> {
+            try {
+                throttle.acquire();
+                acquired.countDown();
+                throttle.release();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        other.start();
+        assertThat(acquired.await(100, TimeUnit.MILLISECONDS), is(false));
+
+        throttle.release();
+        assertThat(acquired.await(5, TimeUnit.SECONDS), is(true));
+        other.join();
+    }
+}
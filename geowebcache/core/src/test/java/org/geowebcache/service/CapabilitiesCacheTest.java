@@ -0,0 +1,156 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.service.CapabilitiesCache.Document;
+import org.geowebcache.service.CapabilitiesCache.Key;
+import org.geowebcache.util.PropertyRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class CapabilitiesCacheTest {
+
+    @Rule
+    public PropertyRule cacheSize = PropertyRule.system(CapabilitiesCache.CACHE_SIZE);
+
+    private final AtomicInteger generated = new AtomicInteger();
+
+    private String generate(String content) {
+        generated.incrementAndGet();
+        return content;
+    }
+
+    @Test
+    public void testDocumentCachedByKey() {
+        CapabilitiesCache cache = new CapabilitiesCache(4);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        Key key = CapabilitiesCache.key(request, "wmts", "http://localhost/gwc");
+
+        Document first = cache.document(key, StandardCharsets.UTF_8, () -> generate("<a/>"));
+        Document second = cache.document(key, StandardCharsets.UTF_8, () -> generate("<a/>"));
+        assertSame(first, second);
+        assertEquals(1, generated.get());
+
+        // another base URL, or another user, gets its own document
+        cache.document(
+                CapabilitiesCache.key(request, "wmts", "http://example.com/gwc"),
+                StandardCharsets.UTF_8,
+                () -> generate("<b/>"));
+        request.setUserPrincipal(() -> "alice");
+        Key userKey = CapabilitiesCache.key(request, "wmts", "http://localhost/gwc");
+        assertNotEquals(key, userKey);
+        cache.document(userKey, StandardCharsets.UTF_8, () -> generate("<c/>"));
+        assertEquals(3, generated.get());
+    }
+
+    @Test
+    public void testLayerChangeInvalidatesItsFragments() {
+        CapabilitiesCache cache = new CapabilitiesCache(4);
+        Key key = CapabilitiesCache.key(new MockHttpServletRequest(), "wmts", "http://localhost/gwc");
+        cache.document(key, StandardCharsets.UTF_8, () -> generate("<a/>"));
+        cache.fragment(key, "layer1", "layer", () -> generate("<l1/>"));
+        cache.fragment(key, "layer2", "layer", () -> generate("<l2/>"));
+        assertEquals(3, generated.get());
+
+        cache.layerChanged("layer1");
+
+        assertEquals("<l1/>", cache.fragment(key, "layer1", "layer", () -> generate("<l1/>")));
+        assertEquals("<l2/>", cache.fragment(key, "layer2", "layer", () -> generate("<l2/>")));
+        cache.document(key, StandardCharsets.UTF_8, () -> generate("<a/>"));
+        // the layer1 fragment and the document only
+        assertEquals(5, generated.get());
+
+        cache.reset();
+        cache.fragment(key, "layer2", "layer", () -> generate("<l2/>"));
+        assertEquals(6, generated.get());
+    }
+
+    @Test
+    public void testDisabled() {
+        CapabilitiesCache cache = new CapabilitiesCache(0);
+        Key key = CapabilitiesCache.key(new MockHttpServletRequest(), "wms");
+        cache.document(key, StandardCharsets.UTF_8, () -> generate("<a/>"));
+        cache.document(key, StandardCharsets.UTF_8, () -> generate("<a/>"));
+        cache.fragment(key, "layer1", "layer", () -> generate("<l1/>"));
+        cache.fragment(key, "layer1", "layer", () -> generate("<l1/>"));
+        assertEquals(4, generated.get());
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        TileLayerDispatcher layers = mock(TileLayerDispatcher.class);
+        assertFalse(new CapabilitiesCache(layers).isEnabled());
+
+        cacheSize.setValue("4");
+        assertTrue(new CapabilitiesCache(layers).isEnabled());
+        // documents filtered per request can't be shared
+        when(layers.isLayerListFiltered()).thenReturn(true);
+        assertFalse(new CapabilitiesCache(layers).isEnabled());
+    }
+
+    @Test
+    public void testWriteDocument() throws Exception {
+        CapabilitiesCache cache = new CapabilitiesCache(4);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        Document document = cache.document(
+                CapabilitiesCache.key(request, "tms"), StandardCharsets.UTF_8, () -> "<TileMapService/>");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertEquals(document.getBytes().length, document.write(request, response));
+        assertArrayEquals(document.getBytes(), response.getContentAsByteArray());
+        String etag = response.getHeader("ETag");
+        assertEquals(document.getETag(), etag);
+
+        // gzipped when accepted
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        response = new MockHttpServletResponse();
+        document.write(request, response);
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertArrayEquals(document.getBytes(), in.readAllBytes());
+        }
+        // with an ETag of its own, as a different representation
+        String gzipTag = response.getHeader("ETag");
+        assertEquals(document.getGzipETag(), gzipTag);
+        assertNotEquals(etag, gzipTag);
+
+        // not sent again to clients having it already, in either encoding
+        for (String tag : List.of(etag, gzipTag)) {
+            request.removeHeader("If-None-Match");
+            request.addHeader("If-None-Match", tag);
+            response = new MockHttpServletResponse();
+            assertEquals(0, document.write(request, response));
+            assertEquals(304, response.getStatus());
+            assertEquals(gzipTag, response.getHeader("ETag"));
+            assertEquals(0, response.getContentAsByteArray().length);
+        }
+    }
+}
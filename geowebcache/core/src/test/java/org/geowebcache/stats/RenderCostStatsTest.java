@@ -0,0 +1,65 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.stats;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notANumber;
+
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+public class RenderCostStatsTest {
+
+    @Test
+    public void testCostPerByte() {
+        RenderCostStats stats = new RenderCostStats();
+        assertThat(stats.getCostPerByte("layer", 3), notANumber());
+
+        // a 4x4 meta tile, 16000 bytes in 1.6ms, 10 nanoseconds per byte
+        stats.record("layer", 3, 16, 16000, 160_000);
+        assertThat(stats.getCostPerByte("layer", 3), closeTo(10, 1e-9));
+
+        // moves towards the new samples
+        stats.record("layer", 3, 1, 1000, 30_000);
+        double expected = (10_000 + RenderCostStats.SMOOTHING * (30_000 - 10_000)) / 1000;
+        assertThat(stats.getCostPerByte("layer", 3), closeTo(expected, 1e-9));
+
+        // failed or empty requests are ignored
+        stats.record("layer", 4, 1, 0, 30_000);
+        assertThat(stats.getCostPerByte("layer", 4), notANumber());
+    }
+
+    @Test
+    public void testSnapshot() {
+        RenderCostStats stats = new RenderCostStats();
+        stats.record("layer", 1, 1, 100, 1000);
+        stats.record("layer", 3, 1, 100, 3000);
+        stats.record("other", 0, 1, 100, 500);
+
+        Map<String, double[]> costs = stats.getCostsPerByte();
+        assertThat(costs.size(), equalTo(2));
+        double[] levels = costs.get("layer");
+        assertThat(levels.length, equalTo(4));
+        assertThat(levels[0], notANumber());
+        assertThat(levels[1], closeTo(10, 1e-9));
+        assertThat(levels[2], notANumber());
+        assertThat(levels[3], closeTo(30, 1e-9));
+
+        stats.clear("layer");
+        assertThat(stats.getCostsPerByte().keySet(), equalTo(Set.of("other")));
+    }
+}
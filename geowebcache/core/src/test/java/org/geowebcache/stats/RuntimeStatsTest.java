@@ -13,9 +13,20 @@
  */
 package org.geowebcache.stats;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.StringWriter;
 import java.time.Clock;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import org.easymock.EasyMock;
+import org.geowebcache.conveyor.Conveyor.CacheResult;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.mime.ImageMime;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -38,4 +49,114 @@ public void test() {
         // Shouldn't get a divide by zero
         EasyMock.verify(clock);
     }
+
+    private ConveyorTile tile(String layer, int zoom, CacheResult cacheResult, int size) {
+        ConveyorTile tile =
+                new ConveyorTile(null, layer, "EPSG:4326", new long[] {0, 0, zoom}, ImageMime.png, null, null, null);
+        tile.setCacheResult(cacheResult);
+        tile.setBlob(new ByteArrayResource(new byte[size]));
+        return tile;
+    }
+
+    private String prometheus(RuntimeStats stats) throws Exception {
+        StringWriter out = new StringWriter();
+        stats.writePrometheusStats(out);
+        return out.toString();
+    }
+
+    @Test
+    public void testPrometheusStats() throws Exception {
+        RuntimeStats stats = new RuntimeStats(1, Arrays.asList(60), Arrays.asList("Minutes"));
+        stats.start();
+        try {
+            stats.log(100, CacheResult.HIT);
+            stats.log(200, CacheResult.HIT);
+            stats.log(300, CacheResult.MISS);
+            stats.logTile("wmts", tile("topp:states", 3, CacheResult.HIT, 100), TimeUnit.MILLISECONDS.toNanos(2));
+            stats.logTile("wmts", tile("topp:states", 3, CacheResult.HIT, 200), TimeUnit.MILLISECONDS.toNanos(20));
+            stats.logTile("wmts", tile("topp:states", 3, CacheResult.MISS, 5000), TimeUnit.SECONDS.toNanos(20));
+
+            String text = prometheus(stats);
+            assertThat(text, containsString("gwc_requests_total{cache_result=\"HIT\"} 2\n"));
+            assertThat(text, containsString("gwc_requests_total{cache_result=\"MISS\"} 1\n"));
+            assertThat(text, containsString("gwc_response_bytes_total 600\n"));
+
+            String hits =
+                    "service=\"wmts\",layer=\"topp:states\",gridset=\"EPSG:4326\",zoom=\"3\",cache_result=\"HIT\"";
+            assertThat(text, containsString("gwc_tile_request_duration_seconds_bucket{" + hits + ",le=\"0.001\"} 0\n"));
+            assertThat(
+                    text, containsString("gwc_tile_request_duration_seconds_bucket{" + hits + ",le=\"0.0025\"} 1\n"));
+            assertThat(text, containsString("gwc_tile_request_duration_seconds_bucket{" + hits + ",le=\"0.025\"} 2\n"));
+            assertThat(text, containsString("gwc_tile_request_duration_seconds_bucket{" + hits + ",le=\"+Inf\"} 2\n"));
+            assertThat(text, containsString("gwc_tile_request_duration_seconds_count{" + hits + "} 2\n"));
+            assertThat(text, containsString("gwc_tile_response_size_bytes_bucket{" + hits + ",le=\"256.0\"} 2\n"));
+            assertThat(text, containsString("gwc_tile_response_size_bytes_sum{" + hits + "} 300.0\n"));
+
+            String misses =
+                    "service=\"wmts\",layer=\"topp:states\",gridset=\"EPSG:4326\",zoom=\"3\",cache_result=\"MISS\"";
+            assertThat(
+                    text, containsString("gwc_tile_request_duration_seconds_bucket{" + misses + ",le=\"10.0\"} 0\n"));
+            assertThat(
+                    text, containsString("gwc_tile_request_duration_seconds_bucket{" + misses + ",le=\"+Inf\"} 1\n"));
+            assertThat(text, containsString("gwc_tile_response_size_bytes_bucket{" + misses + ",le=\"4096.0\"} 0\n"));
+            assertThat(text, containsString("gwc_tile_response_size_bytes_bucket{" + misses + ",le=\"16384.0\"} 1\n"));
+        } finally {
+            stats.destroy();
+        }
+    }
+
+    @Test
+    public void testPrometheusLabelsEscaped() throws Exception {
+        RuntimeStats stats = new RuntimeStats(1, Arrays.asList(60), Arrays.asList("Minutes"));
+        stats.start();
+        try {
+            stats.logTile("wms", tile("a\"b\\c", 0, CacheResult.MISS, 10), 1000);
+            assertThat(prometheus(stats), containsString("layer=\"a\\\"b\\\\c\""));
+        } finally {
+            stats.destroy();
+        }
+    }
+
+    @Test
+    public void testSeriesAreCapped() throws Exception {
+        RuntimeStats stats = new RuntimeStats(1, Arrays.asList(60), Arrays.asList("Minutes"));
+        stats.start();
+        try {
+            for (int i = 0; i < RuntimeStats.MAX_SERIES + 10; i++) {
+                stats.logTile("wmts", tile("layer" + i, 0, CacheResult.HIT, 10), 1000);
+            }
+            assertThat(stats.tileStats.size(), equalTo(RuntimeStats.MAX_SERIES + 1));
+            String text = prometheus(stats);
+            assertThat(text, not(containsString("layer=\"layer" + (RuntimeStats.MAX_SERIES + 5) + "\"")));
+            assertThat(
+                    text,
+                    containsString("gwc_tile_request_duration_seconds_count{service=\"wmts\",layer=\"\",gridset=\"\","
+                            + "zoom=\"\",cache_result=\"HIT\"} 10\n"));
+        } finally {
+            stats.destroy();
+        }
+    }
+
+    @Test
+    public void testHTMLStatsCounters() throws Exception {
+        Clock clock = EasyMock.createMock("Clock", Clock.class);
+        EasyMock.expect(clock.millis()).andStubAnswer(() -> time);
+        EasyMock.replay(clock);
+        time = 0;
+        RuntimeStats stats = new RuntimeStats(1, Arrays.asList(60), Arrays.asList("Minutes"), clock);
+        stats.start();
+        try {
+            stats.log(100, CacheResult.HIT);
+            stats.log(300, CacheResult.MISS);
+            stats.log(50, CacheResult.WMS);
+            time += 2000;
+            String html = stats.getHTMLStats();
+            assertThat(html, containsString("Total number of requests:</th><td colspan=\"3\">3"));
+            assertThat(html, containsString("Total number of untiled WMS requests:</th><td colspan=\"3\">1"));
+            assertThat(html, containsString("Total number of bytes:</th><td colspan=\"3\">450"));
+            assertThat(html, containsString("50.0% of requests"));
+        } finally {
+            stats.destroy();
+        }
+    }
 }
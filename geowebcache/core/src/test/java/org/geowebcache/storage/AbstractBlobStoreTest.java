@@ -34,8 +34,10 @@
 import static org.hamcrest.Matchers.nullValue;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import org.easymock.Capture;
@@ -124,6 +126,40 @@ public void testStoreTile() throws Exception {
                         "blob", resource(new ByteArrayResource("1,2,4,5,6 test".getBytes(StandardCharsets.UTF_8)))));
     }
 
+    @Test
+    public void testStoreTilesInBatch() throws Exception {
+        Map<String, String> params = Collections.singletonMap("testKey", "testValue");
+        String paramID = ParametersUtils.getId(params);
+        List<TileObject> toCache = new ArrayList<>();
+        for (long x = 0; x < 4; x++) {
+            toCache.add(TileObject.createCompleteTileObject(
+                    "testLayer",
+                    new long[] {x, 0L, 2L},
+                    "testGridSet",
+                    "image/png",
+                    params,
+                    new ByteArrayResource(("tile " + x).getBytes(StandardCharsets.UTF_8))));
+        }
+        store.putAll(toCache);
+
+        List<TileObject> fromCache = new ArrayList<>();
+        for (long x = 0; x < 5; x++) {
+            fromCache.add(TileObject.createQueryTileObject(
+                    "testLayer", new long[] {x, 0L, 2L}, "testGridSet", "image/png", params));
+        }
+        List<TileObject> found = store.getAll(fromCache);
+
+        assertThat(found, equalTo(fromCache.subList(0, 4)));
+        for (int x = 0; x < 4; x++) {
+            assertThat(
+                    found.get(x),
+                    hasProperty(
+                            "blob", resource(new ByteArrayResource(("tile " + x).getBytes(StandardCharsets.UTF_8)))));
+        }
+        assertThat(store.getParameters("testLayer"), containsInAnyOrder(params));
+        assertThat(store.getParameterIds("testLayer"), containsInAnyOrder(paramID));
+    }
+
     @Test
     public void testStoreTilesInMultipleLayers() throws Exception {
         BlobStoreListener listener = EasyMock.createNiceMock(BlobStoreListener.class);
@@ -27,9 +27,11 @@
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -38,11 +40,15 @@
 import org.geowebcache.config.ConfigurationException;
 import org.geowebcache.config.FileBlobStoreInfo;
 import org.geowebcache.config.XMLConfiguration;
+import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.mime.MimeException;
 import org.geowebcache.mime.MimeType;
 import org.geowebcache.storage.CompositeBlobStore.LiveStore;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.geowebcache.storage.blobstore.memory.GuavaCacheProvider;
+import org.geowebcache.storage.blobstore.memory.MemoryBlobStore;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -246,6 +252,75 @@ public void getTileDefaultsToDefaultBlobStore() throws Exception {
         verify(liveStore.liveInstance).get(tile);
     }
 
+    @Test
+    public void putAllDelegatesBatchToLayerBlobStore() throws Exception {
+        store = create();
+
+        LiveStore liveStore = store.blobStores.get(CompositeBlobStore.DEFAULT_STORE_DEFAULT_ID);
+        liveStore.liveInstance = spy(liveStore.liveInstance);
+
+        when(defaultLayer.getBlobStoreId()).thenReturn(null);
+        List<TileObject> tiles = new ArrayList<>();
+        for (int x = 0; x < 4; x++) {
+            TileObject tile = queryTile(x, 0, 2);
+            tile.setBlob(new ByteArrayResource(new byte[] {(byte) x}));
+            tiles.add(tile);
+        }
+        store.putAll(tiles);
+        verify(liveStore.liveInstance).putAll(tiles);
+
+        for (int x = 0; x < 4; x++) {
+            assertTrue(store.get(queryTile(x, 0, 2)));
+        }
+    }
+
+    @Test
+    public void getAllDelegatesBatchToLayerBlobStore() throws Exception {
+        store = create();
+
+        LiveStore liveStore = store.blobStores.get(CompositeBlobStore.DEFAULT_STORE_DEFAULT_ID);
+        liveStore.liveInstance = spy(liveStore.liveInstance);
+
+        when(defaultLayer.getBlobStoreId()).thenReturn(null);
+        TileObject stored = queryTile(0, 0, 2);
+        stored.setBlob(new ByteArrayResource(new byte[] {1}));
+        store.put(stored);
+
+        List<TileObject> tiles = List.of(queryTile(1, 0, 2), queryTile(0, 0, 2));
+        List<TileObject> found = store.getAll(tiles);
+        verify(liveStore.liveInstance).getAll(tiles);
+        assertEquals(List.of(tiles.get(1)), found);
+    }
+
+    @Test
+    public void getTileFollowsLayerAndStoreChanges() throws Exception {
+        BlobStoreInfo store1 =
+                config("store1", false, true, tmpFolder.newFolder().getAbsolutePath(), 1024);
+        configs.add(store1);
+        store = create();
+
+        LiveStore defaultLive = store.blobStores.get(CompositeBlobStore.DEFAULT_STORE_DEFAULT_ID);
+        defaultLive.liveInstance = spy(defaultLive.liveInstance);
+        LiveStore live1 = store.blobStores.get("store1");
+        live1.liveInstance = spy(live1.liveInstance);
+
+        when(defaultLayer.getBlobStoreId()).thenReturn(null);
+        TileObject tile = queryTile(0, 0, 0);
+        store.get(tile);
+        store.get(tile);
+        verify(defaultLive.liveInstance, times(2)).get(tile);
+
+        // the layer moves to another store
+        when(defaultLayer.getBlobStoreId()).thenReturn("store1");
+        store.get(tile);
+        verify(live1.liveInstance).get(tile);
+
+        // and the store goes away
+        store.handleRemoveBlobStore(store1);
+        Exception ex = assertThrows(StorageException.class, () -> store.get(tile));
+        assertThat(ex.getMessage(), containsString("No BlobStore with id 'store1' found"));
+    }
+
     @Test
     public void getTileInvalidLayer() throws Exception {
         store = create();
@@ -371,6 +446,31 @@ public void testNonDefaultSuitabilityOnAdd() throws Exception {
         verify(info).createInstance(Mockito.any(), Mockito.any());
     }
 
+    @Test
+    public void testCacheProviderWrapsLiveStores() throws Exception {
+        configs.add(config("store1", true, true, tmpFolder.newFolder().getAbsolutePath(), 1024));
+        configs.add(config("store2", false, true, tmpFolder.newFolder().getAbsolutePath(), 1024));
+        store = create();
+
+        GuavaCacheProvider cacheProvider = new GuavaCacheProvider();
+        store.setCacheProvider(cacheProvider);
+
+        LiveStore defaultStore = store.blobStores.get(CompositeBlobStore.DEFAULT_STORE_DEFAULT_ID);
+        assertSame(defaultStore, store.blobStores.get("store1"));
+        assertTrue(defaultStore.liveInstance instanceof MemoryBlobStore);
+        assertTrue(((MemoryBlobStore) defaultStore.liveInstance).getStore() instanceof FileBlobStore);
+        assertTrue(store.blobStores.get("store2").liveInstance instanceof MemoryBlobStore);
+
+        // stores added afterwards are wrapped too
+        store.handleAddBlobStore(
+                config("store3", false, true, tmpFolder.newFolder().getAbsolutePath(), 1024));
+        assertTrue(store.blobStores.get("store3").liveInstance instanceof MemoryBlobStore);
+
+        store.setCacheProvider(null);
+        assertTrue(defaultStore.liveInstance instanceof FileBlobStore);
+        assertTrue(store.blobStores.get("store3").liveInstance instanceof FileBlobStore);
+    }
+
     private FileBlobStoreInfo config(
             String id, boolean isDefault, boolean isEnabled, String baseDirectory, int fileSystemBlockSize) {
         FileBlobStoreInfo c = new FileBlobStoreInfo(id);
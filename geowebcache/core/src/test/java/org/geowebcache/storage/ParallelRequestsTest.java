@@ -0,0 +1,79 @@
+package org.geowebcache.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelRequestsTest {
+
+    private ParallelRequests requests = new ParallelRequests("test-%d", "bucket test", 4);
+
+    @After
+    public void tearDown() {
+        requests.shutdown();
+    }
+
+    @Test
+    public void testResultsInRequestOrder() throws Exception {
+        // the requests only complete once all of them are running, and in reverse order
+        CountDownLatch running = new CountDownLatch(4);
+        List<Callable<Integer>> batch = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final int n = i;
+            batch.add(() -> {
+                running.countDown();
+                assertTrue(running.await(10, TimeUnit.SECONDS));
+                Thread.sleep(10L * (4 - n));
+                return n;
+            });
+        }
+        assertEquals(List.of(0, 1, 2, 3), requests.execute(batch));
+    }
+
+    @Test
+    public void testFirstFailureWithOthersSuppressed() throws Exception {
+        StorageException first = new StorageException("first");
+        IOException second = new IOException("second");
+        List<Callable<String>> batch = List.of(
+                () -> "ok",
+                () -> {
+                    throw first;
+                },
+                () -> {
+                    throw second;
+                });
+        try {
+            requests.execute(batch);
+            fail("Expected a StorageException");
+        } catch (StorageException e) {
+            assertSame(first, e);
+            assertEquals(1, e.getSuppressed().length);
+            assertSame(second, e.getSuppressed()[0]);
+        }
+    }
+
+    @Test
+    public void testOtherFailuresWrapped() throws Exception {
+        IOException cause = new IOException("failed");
+        List<Callable<String>> batch = List.of(() -> {
+            throw cause;
+        });
+        try {
+            requests.execute(batch);
+            fail("Expected a StorageException");
+        } catch (StorageException e) {
+            assertSame(cause, e.getCause());
+            assertTrue(e.getMessage(), e.getMessage().contains("bucket test"));
+        }
+    }
+}
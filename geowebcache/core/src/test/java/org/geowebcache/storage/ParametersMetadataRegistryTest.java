@@ -0,0 +1,156 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geowebcache.util.TMSKeyBuilder;
+import org.junit.Test;
+
+public class ParametersMetadataRegistryTest {
+
+    private final List<String> listed = new ArrayList<>();
+
+    @Test
+    public void testWarmedFromListingOncePerLayer() {
+        ParametersMetadataRegistry registry = new ParametersMetadataRegistry(layer -> {
+            listed.add(layer);
+            return Set.of("abc");
+        });
+
+        assertTrue(registry.isPersisted("layer1", "abc"));
+        assertFalse(registry.isPersisted("layer1", "def"));
+        assertTrue(registry.isPersisted("layer2", "abc"));
+        assertEquals(List.of("layer1", "layer2"), listed);
+
+        registry.persisted("layer1", "def");
+        assertTrue(registry.isPersisted("layer1", "def"));
+        assertEquals(List.of("layer1", "layer2"), listed);
+    }
+
+    @Test
+    public void testInvalidate() {
+        ParametersMetadataRegistry registry = new ParametersMetadataRegistry(layer -> {
+            listed.add(layer);
+            return Set.of();
+        });
+        registry.persisted("layer1", "abc");
+        registry.persisted("layer1", "def");
+        registry.persisted("layer2", "abc");
+
+        registry.invalidate("layer1", "abc");
+        assertFalse(registry.isPersisted("layer1", "abc"));
+        assertTrue(registry.isPersisted("layer1", "def"));
+
+        registry.invalidateLayer("layer1");
+        assertFalse(registry.isPersisted("layer1", "def"));
+        assertTrue(registry.isPersisted("layer2", "abc"));
+        // the invalidated layer is listed again
+        assertEquals(List.of("layer1", "layer1", "layer2"), listed);
+    }
+
+    private ParametersMetadataRegistry.ParametersLister failingOnce() {
+        return layer -> {
+            listed.add(layer);
+            if (listed.size() == 1) {
+                throw new IOException("failed");
+            }
+            return Set.of("abc");
+        };
+    }
+
+    @Test
+    public void testListingFailureIsNotRetriedRightAway() {
+        ParametersMetadataRegistry registry = new ParametersMetadataRegistry(failingOnce());
+        assertFalse(registry.isPersisted("layer1", "abc"));
+        assertFalse(registry.isPersisted("layer1", "abc"));
+        registry.persisted("layer1", "def");
+        assertTrue(registry.isPersisted("layer1", "def"));
+        assertEquals(1, listed.size());
+    }
+
+    @Test
+    public void testListingFailureIsRetriedLater() {
+        ParametersMetadataRegistry registry =
+                new ParametersMetadataRegistry(failingOnce(), ParametersMetadataRegistry.DEFAULT_MAX_SIZE, 0);
+        assertFalse(registry.isPersisted("layer1", "abc"));
+        assertTrue(registry.isPersisted("layer1", "abc"));
+        assertTrue(registry.isPersisted("layer1", "abc"));
+        assertEquals(2, listed.size());
+    }
+
+    @Test
+    public void testConcurrentLookupsShareTheListing() throws Exception {
+        CountDownLatch listing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger listings = new AtomicInteger();
+        ParametersMetadataRegistry registry = new ParametersMetadataRegistry(layer -> {
+            listings.incrementAndGet();
+            listing.countDown();
+            release.await();
+            return Set.of("abc");
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> lookups = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lookups.add(executor.submit(() -> registry.isPersisted("layer1", "abc")));
+            }
+            assertTrue(listing.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            for (Future<Boolean> lookup : lookups) {
+                assertTrue(lookup.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, listings.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBounded() {
+        ParametersMetadataRegistry registry = new ParametersMetadataRegistry(layer -> Set.of(), 10);
+        for (int i = 0; i < 100; i++) {
+            registry.persisted("layer", "id" + i);
+        }
+        int tracked = 0;
+        for (int i = 0; i < 100; i++) {
+            if (registry.isPersisted("layer", "id" + i)) {
+                tracked++;
+            }
+        }
+        assertTrue(tracked <= 10);
+    }
+
+    @Test
+    public void testParametersIdFromMetadataKey() {
+        assertEquals("abc", TMSKeyBuilder.parametersIdFromMetadataKey("prefix/layer/parameters-abc.properties"));
+        assertEquals("abc", TMSKeyBuilder.parametersIdFromMetadataKey("parameters-abc.properties"));
+        assertNull(TMSKeyBuilder.parametersIdFromMetadataKey("prefix/layer/metadata.properties"));
+        assertNull(TMSKeyBuilder.parametersIdFromMetadataKey("prefix/layer/parameters-.properties"));
+    }
+}
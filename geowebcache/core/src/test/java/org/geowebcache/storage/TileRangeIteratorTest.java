@@ -10,12 +10,15 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.config.DefaultGridsets;
@@ -179,6 +182,104 @@ public void testDiscontinuousTileRange() throws Exception {
         verify(rasterMask);
     }
 
+    @Test
+    public void testCheckpointAndResume() throws Exception {
+        long[][] bounds = {{0, 0, 3, 3, 0}, {0, 0, 7, 7, 1}};
+        TileRange tileRange = new TileRange("layer", "gridset", 0, 1, bounds, mimeType, null);
+        int[] metaTilingFactors = {1, 1};
+        TileRangeIterator tri = new TileRangeIterator(tileRange, metaTilingFactors);
+        Assert.assertNull(tri.getCheckpoint());
+
+        // two consumers working on different rows, the first one stuck on its first location
+        TileRangeIterator.Consumer slowConsumer = tri.newConsumer();
+        TileRangeIterator.Consumer fastConsumer = tri.newConsumer();
+        long[] slow = slowConsumer.nextMetaGridLocation(new long[3]);
+        long[] fast = fastConsumer.nextMetaGridLocation(new long[3]);
+        Assert.assertArrayEquals(new long[] {0, 0, 0}, slow);
+        Assert.assertArrayEquals(new long[] {0, 1, 0}, fast);
+        for (int i = 0; i < 8; i++) {
+            fast = fastConsumer.nextMetaGridLocation(fast);
+        }
+        Assert.assertArrayEquals(new long[] {0, 3, 0}, fast);
+        Assert.assertArrayEquals(new long[] {0, 0}, tri.getCheckpoint());
+
+        // once it completes its row, the rows before the one the fast consumer is working on are done
+        for (int i = 0; i < 3; i++) {
+            slow = slowConsumer.nextMetaGridLocation(slow);
+        }
+        Assert.assertArrayEquals(new long[] {3, 0, 0}, slow);
+        Assert.assertArrayEquals(new long[] {0, 0}, tri.getCheckpoint());
+        slow = slowConsumer.nextMetaGridLocation(slow);
+        Assert.assertArrayEquals(new long[] {0, 0, 1}, slow);
+        Assert.assertArrayEquals(new long[] {0, 3}, tri.getCheckpoint());
+
+        TileRangeIterator resumed = new TileRangeIterator(tileRange, metaTilingFactors, tri.getCheckpoint());
+        Assert.assertArrayEquals(new long[] {0, 3}, resumed.getCheckpoint());
+        long[] gridLoc = resumed.nextMetaGridLocation(new long[3]);
+        Assert.assertArrayEquals(new long[] {0, 3, 0}, gridLoc);
+        long count = 0;
+        while (gridLoc != null) {
+            count++;
+            gridLoc = resumed.nextMetaGridLocation(gridLoc);
+        }
+        // the last row of level 0, and the whole level 1
+        Assert.assertEquals(4 + 64, count);
+    }
+
+    @Test
+    public void testNewArrayOnEachCall() throws Exception {
+        long[][] bounds = {{0, 0, 99, 1, 0}};
+        TileRange tileRange = new TileRange("layer", "gridset", 0, 0, bounds, mimeType, null);
+        TileRangeIterator tri = new TileRangeIterator(tileRange, new int[] {1, 1});
+
+        // a single consumer gets all the locations in row order, whatever array it passes
+        List<List<Long>> locations = new ArrayList<>();
+        long[] gridLoc;
+        while (null != (gridLoc = tri.nextMetaGridLocation(new long[3]))) {
+            locations.add(List.of(gridLoc[0], gridLoc[1], gridLoc[2]));
+        }
+        Assert.assertEquals(200, locations.size());
+        Assert.assertEquals(List.of(0L, 0L, 0L), locations.get(0));
+        Assert.assertEquals(List.of(99L, 0L, 0L), locations.get(99));
+        Assert.assertEquals(List.of(0L, 1L, 0L), locations.get(100));
+        Assert.assertNull(tri.nextMetaGridLocation(new long[3]));
+    }
+
+    @Test
+    public void testEachLocationHandedOutOnce() throws Exception {
+        // wide rows split in several chunks, and a few narrow levels with less chunks than threads
+        long[][] bounds = {{0, 0, 0, 0, 0}, {0, 0, 1, 1, 1}, {0, 0, 299, 20, 2}, {5, 3, 1000, 3, 3}};
+        TileRange tileRange = new TileRange("layer", "gridset", 0, 3, bounds, mimeType, null);
+        int[] metaTilingFactors = {2, 3};
+        TileRangeIterator tri = new TileRangeIterator(tileRange, metaTilingFactors);
+
+        Set<List<Long>> seen = ConcurrentHashMap.newKeySet();
+        AtomicLong duplicates = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Callable<Void>> consumers = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                consumers.add(() -> {
+                    long[] gridLoc = new long[3];
+                    while (null != (gridLoc = tri.nextMetaGridLocation(gridLoc))) {
+                        if (!seen.add(List.of(gridLoc[0], gridLoc[1], gridLoc[2]))) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(consumers)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(0, duplicates.get());
+        long expected = 1 + 1 + 150 * 7 + 498;
+        Assert.assertEquals(expected, seen.size());
+    }
+
     /** @return */
     private long traverseTileRangeIter(
             final int nThreads,
@@ -22,7 +22,17 @@
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import com.google.common.base.Ticker;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.easymock.EasyMock;
 import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.io.Resource;
 import org.junit.Before;
@@ -143,6 +153,83 @@ public void testRemoveWhenMaxSpace() throws Exception {
         assertThat(result2, notNullValue()); // Should still be cached
     }
 
+    @Test
+    public void testPutReadsWholeResource() throws Exception {
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        // a resource whose stream hands out a single byte per read call
+        ByteArrayResource source = new ByteArrayResource(data);
+        source.setLastModified(1234);
+        Resource r = EasyMock.createMock(Resource.class);
+        EasyMock.expect(r.getSize()).andStubReturn((long) data.length);
+        EasyMock.expect(r.getLastModified()).andStubReturn(1234L);
+        EasyMock.expect(r.getInputStream()).andStubAnswer(() -> new FilterInputStream(source.getInputStream()) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        });
+        EasyMock.replay(r);
+
+        transCache.put("foo", r);
+
+        Resource result = transCache.get("foo");
+        assertThat(result, notNullValue());
+        assertThat(result.getLastModified(), equalTo(1234L));
+        try (InputStream is = result.getInputStream()) {
+            assertThat(is.readAllBytes(), equalTo(data));
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final int threads = 8;
+        final int iterations = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    for (int i = 0; i < iterations; i++) {
+                        String key = "foo" + thread + "_" + (i % 7);
+                        transCache.put(key, new ByteArrayResource(new byte[i % 3 + 1]));
+                        if (i % 2 == 0) {
+                            transCache.get(key);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(transCache.size() <= MAX_TILES, is(true));
+        assertThat(transCache.storageSize() <= MAX_SPACE_KiB * 1024, is(true));
+
+        // counters must match the actual contents
+        long storage = 0;
+        int count = 0;
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < 7; i++) {
+                Resource r = transCache.get("foo" + t + "_" + i);
+                if (r != null) {
+                    storage += r.getSize();
+                    count++;
+                }
+            }
+        }
+        assertThat(count <= MAX_TILES, is(true));
+        assertThat(transCache.size(), is(0));
+        assertThat(transCache.storageSize(), is(0L));
+        assertThat(storage <= MAX_SPACE_KiB * 1024, is(true));
+    }
+
     private static class TestTicker extends Ticker {
         long time;
 
@@ -158,7 +245,7 @@ public long read() {
         }
 
         public void advanceMilli(long millis) {
-            advanceNano(millis * 1000);
+            advanceNano(TimeUnit.MILLISECONDS.toNanos(millis));
         }
 
         public void advanceNano(long nanos) {
@@ -29,11 +29,13 @@
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -47,6 +49,7 @@
 import org.apache.commons.io.FileUtils;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.config.ConfigurationException;
+import org.geowebcache.diskquota.PageCosts;
 import org.geowebcache.diskquota.QuotaStore;
 import org.geowebcache.diskquota.storage.PageStats;
 import org.geowebcache.diskquota.storage.PageStatsPayload;
@@ -773,35 +776,56 @@ public List<PageStats> call() throws Exception {
     /** @see org.geowebcache.diskquota.QuotaStore#getLeastFrequentlyUsedPage(java.util.Set) */
     @Override
     public TilePage getLeastFrequentlyUsedPage(final Set<String> layerNames) throws InterruptedException {
-
-        SecondaryIndex<Float, Long, PageStats> expirationPolicyIndex = pageStatsByLFU;
-        TilePage nextToExpire = issueSync(new FindPageToExpireByLayer(expirationPolicyIndex, layerNames));
-
-        return nextToExpire;
+        return first(getLeastFrequentlyUsedPages(layerNames, 1));
     }
 
     /** @see org.geowebcache.diskquota.QuotaStore#getLeastRecentlyUsedPage(java.util.Set) */
     @Override
     public TilePage getLeastRecentlyUsedPage(final Set<String> layerNames) throws InterruptedException {
-        SecondaryIndex<Float, Long, PageStats> expirationPolicyIndex = pageStatsByLRU;
-        TilePage nextToExpire = issueSync(new FindPageToExpireByLayer(expirationPolicyIndex, layerNames));
+        return first(getLeastRecentlyUsedPages(layerNames, 1));
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getLeastFrequentlyUsedPages(java.util.Set, int) */
+    @Override
+    public List<TilePage> getLeastFrequentlyUsedPages(final Set<String> layerNames, int maxPages)
+            throws InterruptedException {
+        return issueSync(new FindPagesToExpireByLayer(pageStatsByLFU, layerNames, maxPages));
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getLeastRecentlyUsedPages(java.util.Set, int) */
+    @Override
+    public List<TilePage> getLeastRecentlyUsedPages(final Set<String> layerNames, int maxPages)
+            throws InterruptedException {
+        return issueSync(new FindPagesToExpireByLayer(pageStatsByLRU, layerNames, maxPages));
+    }
+
+    /** @see org.geowebcache.diskquota.QuotaStore#getLeastValuablePages(java.util.Set, int, PageCosts) */
+    @Override
+    public List<TilePage> getLeastValuablePages(final Set<String> layerNames, int maxPages, final PageCosts costs)
+            throws InterruptedException {
+        return issueSync(new FindLeastValuablePages(layerNames, maxPages, costs));
+    }
 
-        return nextToExpire;
+    private static TilePage first(List<TilePage> pages) {
+        return pages.isEmpty() ? null : pages.get(0);
     }
 
-    private class FindPageToExpireByLayer implements Callable<TilePage> {
+    private class FindPagesToExpireByLayer implements Callable<List<TilePage>> {
         private final SecondaryIndex<Float, Long, PageStats> expirationPolicyIndex;
 
         private final Set<String> layerNames;
 
-        public FindPageToExpireByLayer(
-                SecondaryIndex<Float, Long, PageStats> expirationPolicyIndex, Set<String> layerNames) {
+        private final int maxPages;
+
+        public FindPagesToExpireByLayer(
+                SecondaryIndex<Float, Long, PageStats> expirationPolicyIndex, Set<String> layerNames, int maxPages) {
             this.expirationPolicyIndex = expirationPolicyIndex;
             this.layerNames = layerNames;
+            this.maxPages = maxPages;
         }
 
         @Override
-        public TilePage call() throws Exception {
+        public List<TilePage> call() throws Exception {
 
             // find out the tilesets for the requested layers
             final Set<String> tileSetIds = new HashSet<>();
@@ -817,22 +841,21 @@ public TilePage call() throws Exception {
                 }
             }
 
-            TilePage nextToExpire = null;
-            // find out the LRU page that matches a requested tileset
+            List<TilePage> nextToExpire = new ArrayList<>();
+            // find out the first pages in expiration order that match a requested tileset
             final EntityCursor<PageStats> pageStatsCursor = expirationPolicyIndex.entities();
 
             try {
                 String tileSetId;
                 long pageId;
                 PageStats pageStats;
-                while ((pageStats = pageStatsCursor.next()) != null) {
+                while (nextToExpire.size() < maxPages && (pageStats = pageStatsCursor.next()) != null) {
                     if (pageStats.getFillFactor() > 0) {
                         pageId = pageStats.getPageId();
                         TilePage tilePage = pageById.get(pageId);
                         tileSetId = tilePage.getTileSetId();
                         if (tileSetIds.contains(tileSetId)) {
-                            nextToExpire = tilePage;
-                            break;
+                            nextToExpire.add(tilePage);
                         }
                     }
                 }
@@ -844,6 +867,90 @@ public TilePage call() throws Exception {
         }
     }
 
+    /**
+     * Walks the pages in {@link #pageStatsByLFU LFU} order keeping the ones with the lowest score, until no page left
+     * can score lower than the ones kept, as no page can score lower than its frequency of use times the
+     * {@link PageCosts#getMinCostPerByte() lowest cost}
+     */
+    private class FindLeastValuablePages implements Callable<List<TilePage>> {
+
+        private final Set<String> layerNames;
+
+        private final int maxPages;
+
+        private final PageCosts costs;
+
+        public FindLeastValuablePages(Set<String> layerNames, int maxPages, PageCosts costs) {
+            this.layerNames = layerNames;
+            this.maxPages = maxPages;
+            this.costs = costs;
+        }
+
+        @Override
+        public List<TilePage> call() throws Exception {
+            if (maxPages <= 0) {
+                return new ArrayList<>();
+            }
+            // find out the tilesets for the requested layers
+            final Map<String, String> layerByTileSetId = new HashMap<>();
+            for (String layerName : layerNames) {
+                EntityCursor<TileSet> keys = tileSetsByLayer.entities(layerName, true, layerName, true);
+                try {
+                    TileSet tileSet;
+                    while ((tileSet = keys.next()) != null) {
+                        layerByTileSetId.put(tileSet.getId(), layerName);
+                    }
+                } finally {
+                    keys.close();
+                }
+            }
+
+            final double minCost = costs.getMinCostPerByte();
+            // the best candidates so far, topped by the one with the highest score
+            PriorityQueue<ScoredPage> candidates = new PriorityQueue<>(
+                    maxPages, Comparator.comparingDouble(ScoredPage::score).reversed());
+            final EntityCursor<PageStats> pageStatsCursor = pageStatsByLFU.entities();
+            try {
+                PageStats pageStats;
+                while ((pageStats = pageStatsCursor.next()) != null) {
+                    double frequency = pageStats.getFrequencyOfUsePerMinute();
+                    if (candidates.size() == maxPages
+                            && (frequency + PageCosts.MIN_FREQUENCY) * minCost
+                                    >= candidates.peek().score()) {
+                        break;
+                    }
+                    if (pageStats.getFillFactor() <= 0) {
+                        continue;
+                    }
+                    TilePage tilePage = pageById.get(pageStats.getPageId());
+                    String layerName = layerByTileSetId.get(tilePage.getTileSetId());
+                    if (layerName == null) {
+                        continue;
+                    }
+                    double score = costs.score(layerName, tilePage.getZoomLevel(), frequency);
+                    if (candidates.size() < maxPages) {
+                        candidates.add(new ScoredPage(tilePage, score));
+                    } else if (score < candidates.peek().score()) {
+                        candidates.poll();
+                        candidates.add(new ScoredPage(tilePage, score));
+                    }
+                }
+            } finally {
+                pageStatsCursor.close();
+            }
+
+            List<ScoredPage> sorted = new ArrayList<>(candidates);
+            sorted.sort(Comparator.comparingDouble(ScoredPage::score));
+            List<TilePage> nextToExpire = new ArrayList<>(sorted.size());
+            for (ScoredPage scored : sorted) {
+                nextToExpire.add(scored.page());
+            }
+            return nextToExpire;
+        }
+    }
+
+    private record ScoredPage(TilePage page, double score) {}
+
     /** @see org.geowebcache.diskquota.QuotaStore#setTruncated(org.geowebcache.diskquota.storage.TilePage) */
     @Override
     public PageStats setTruncated(final TilePage tilePage) throws InterruptedException {
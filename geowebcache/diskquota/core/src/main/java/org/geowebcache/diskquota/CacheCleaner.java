@@ -14,7 +14,17 @@
 package org.geowebcache.diskquota;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
@@ -38,9 +48,12 @@ public class CacheCleaner implements DisposableBean {
 
     private static final Logger log = Logging.getLogger(CacheCleaner.class.getName());
 
+    /** Maximum number of pages fetched from the quota store and expired at once */
+    static final int MAX_BATCH_SIZE = 1024;
+
     private final TileBreeder tileBreeder;
 
-    private boolean shutDown;
+    private volatile boolean shutDown;
 
     public static interface QuotaResolver {
         ExpirationPolicy getExpirationPolicy();
@@ -48,6 +61,11 @@ public static interface QuotaResolver {
         Quota getLimit();
 
         Quota getUsed() throws InterruptedException;
+
+        /** @return the used quota a clean up stops at, defaults to the {@link #getLimit() limit} */
+        default Quota getLowWaterMark() {
+            return getLimit();
+        }
     }
 
     public static class GlobalQuotaResolver implements QuotaResolver {
@@ -71,6 +89,11 @@ public Quota getUsed() throws InterruptedException {
             return store.getGloballyUsedQuota();
         }
 
+        @Override
+        public Quota getLowWaterMark() {
+            return config.lowWaterMark(getLimit());
+        }
+
         @Override
         public ExpirationPolicy getExpirationPolicy() {
             return config.getGlobalExpirationPolicyName();
@@ -82,9 +105,17 @@ public static class LayerQuotaResolver implements QuotaResolver {
 
         private final QuotaStore store;
 
+        private final DiskQuotaConfig config;
+
         public LayerQuotaResolver(LayerQuota layerQuota, QuotaStore store) {
+            this(layerQuota, store, null);
+        }
+
+        /** @param config the configuration providing the low water mark, may be {@code null} */
+        public LayerQuotaResolver(LayerQuota layerQuota, QuotaStore store, DiskQuotaConfig config) {
             this.layerQuota = layerQuota;
             this.store = store;
+            this.config = config;
         }
 
         @Override
@@ -104,6 +135,11 @@ public Quota getUsed() throws InterruptedException {
             return usedQuotaByLayerName;
         }
 
+        @Override
+        public Quota getLowWaterMark() {
+            return config == null ? getLimit() : config.lowWaterMark(getLimit());
+        }
+
         @Override
         public ExpirationPolicy getExpirationPolicy() {
             ExpirationPolicy expirationPolicy = layerQuota.getExpirationPolicyName();
@@ -127,14 +163,44 @@ public void destroy() throws Exception {
      * {@link #destroy() shutdown hook} has been called to signal the calling code of premature termination.
      *
      * @param layerNames the layers to expire tile pages from
-     * @param quotaResolver live limit and used quota to monitor until it reaches its limit
+     * @param quotaResolver live limit and used quota to monitor until it reaches its low water mark
      * @see {@link org.geowebcache.diskquota.ExpirationPolicy#expireByLayerNames}
      */
     public void expireByLayerNames(
             final Set<String> layerNames, final QuotaResolver quotaResolver, final QuotaStore pageStore)
             throws InterruptedException {
+        expireByLayerNames(layerNames, quotaResolver, pageStore, null, 1);
+    }
+
+    /**
+     * Same as {@link #expireByLayerNames(Set, QuotaResolver, QuotaStore)}, truncating the pages of each batch on up to
+     * {@code parallelism} threads: the calling one and, if available, those of the given executor.
+     *
+     * <p>Pages are expired in batches fetched from the {@link QuotaStore} in expiration order. The first batch has as
+     * many pages as threads, and the next ones as many as the remaining excess needs, according to the bytes freed so
+     * far by the expired pages (see {@link #nextBatchSize(int, BigInteger, BigInteger, long)}), so a small excess only
+     * expires a few pages while a large one doesn't need a store query per page.
+     *
+     * @param executor the executor to run helper truncation tasks on, may be {@code null}. Helper tasks that don't get
+     *     to start before the calling thread is done with the batch do nothing, so a busy executor only slows things
+     *     down
+     * @param parallelism the maximum number of threads truncating pages at the same time
+     */
+    public void expireByLayerNames(
+            final Set<String> layerNames,
+            final QuotaResolver quotaResolver,
+            final QuotaStore pageStore,
+            final ExecutorService executor,
+            final int parallelism)
+            throws InterruptedException {
+
+        final int threads = executor == null ? 1 : Math.max(1, parallelism);
+        int batchSize = threads;
+        BigInteger initiallyUsed = null;
+        long expiredPages = 0;
 
         Quota limit;
+        Quota target;
         Quota used;
         Quota excess;
 
@@ -144,17 +210,27 @@ public void expireByLayerNames(
             }
             // get it everytime in case the admin changed it while we're processsing
             limit = quotaResolver.getLimit();
+            target = quotaResolver.getLowWaterMark();
             used = quotaResolver.getUsed();
-            excess = used.difference(limit);
+            excess = used.difference(target);
             if (excess.getBytes().compareTo(BigInteger.ZERO) <= 0) {
                 log.info("Reached back Quota: "
                         + limit.toNiceString()
+                        + (target.getBytes().equals(limit.getBytes())
+                                ? ""
+                                : ", low water mark: " + target.toNiceString())
                         + " ("
                         + used.toNiceString()
                         + ") for layers "
                         + layerNames);
                 return;
             }
+            if (initiallyUsed == null) {
+                initiallyUsed = used.getBytes();
+            } else {
+                BigInteger freed = initiallyUsed.subtract(used.getBytes());
+                batchSize = nextBatchSize(batchSize, excess.getBytes(), freed, expiredPages);
+            }
             // same thing, check it every time
             ExpirationPolicy expirationPolicy = quotaResolver.getExpirationPolicy();
             if (null == expirationPolicy) {
@@ -163,16 +239,18 @@ public void expireByLayerNames(
                 return;
             }
 
-            TilePage tilePage = null;
+            List<TilePage> tilePages;
             if (ExpirationPolicy.LFU.equals(expirationPolicy)) {
-                tilePage = pageStore.getLeastFrequentlyUsedPage(layerNames);
+                tilePages = pageStore.getLeastFrequentlyUsedPages(layerNames, batchSize);
             } else if (ExpirationPolicy.LRU.equals(expirationPolicy)) {
-                tilePage = pageStore.getLeastRecentlyUsedPage(layerNames);
+                tilePages = pageStore.getLeastRecentlyUsedPages(layerNames, batchSize);
+            } else if (ExpirationPolicy.GDSF.equals(expirationPolicy)) {
+                tilePages = pageStore.getLeastValuablePages(layerNames, batchSize, PageCosts.measured());
             } else {
                 throw new IllegalStateException("Unrecognized expiration policy: " + expirationPolicy);
             }
 
-            if (tilePage == null) {
+            if (tilePages.isEmpty()) {
                 limit = quotaResolver.getLimit();
                 Quota usedQuota = quotaResolver.getUsed();
                 if (excess.getBytes().compareTo(BigInteger.ZERO) > 0) {
@@ -185,17 +263,101 @@ public void expireByLayerNames(
                 return;
             }
             if (log.isLoggable(Level.FINE)) {
-                log.fine("Expiring tile page "
-                        + tilePage
-                        + " based on the global "
+                log.fine("Expiring "
+                        + tilePages.size()
+                        + " tile pages based on the "
                         + expirationPolicy
-                        + " expiration policy");
+                        + " expiration policy, starting with "
+                        + tilePages.get(0));
             }
             if (shutDown || Thread.currentThread().isInterrupted()) {
                 throw new InterruptedException();
             }
 
-            expirePage(pageStore, tilePage);
+            expirePages(pageStore, tilePages, executor, threads);
+            expiredPages += tilePages.size();
+        }
+    }
+
+    /**
+     * Sizes the next batch of pages to expire for the remaining {@code excess} bytes, assuming the next pages are as
+     * big as the {@code expiredPages} that freed {@code freed} bytes. The used quota is updated a little after the
+     * tiles are deleted, so the batch keeps its size until the quota reflects some of the expired pages, and then grows
+     * to at most twice the previous one and {@link #MAX_BATCH_SIZE}.
+     */
+    static int nextBatchSize(int previous, BigInteger excess, BigInteger freed, long expiredPages) {
+        if (freed.signum() <= 0 || expiredPages == 0) {
+            return previous;
+        }
+        BigInteger[] pages = excess.multiply(BigInteger.valueOf(expiredPages)).divideAndRemainder(freed);
+        BigInteger needed = pages[1].signum() == 0 ? pages[0] : pages[0].add(BigInteger.ONE);
+        BigInteger max = BigInteger.valueOf(Math.min(MAX_BATCH_SIZE, previous * 2));
+        return needed.min(max).max(BigInteger.ONE).intValue();
+    }
+
+    /** Truncates the given pages on the calling thread and up to {@code threads - 1} helper tasks */
+    private void expirePages(
+            final QuotaStore pageStore, final List<TilePage> tilePages, ExecutorService executor, final int threads)
+            throws InterruptedException {
+        final Queue<TilePage> pending = new ConcurrentLinkedQueue<>(tilePages);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final Runnable worker = () -> {
+            TilePage tilePage;
+            while (failure.get() == null
+                    && !shutDown
+                    && !Thread.currentThread().isInterrupted()
+                    && (tilePage = pending.poll()) != null) {
+                if (log.isLoggable(Level.FINE)) {
+                    log.fine("Expiring tile page " + tilePage);
+                }
+                try {
+                    expirePage(pageStore, tilePage);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        // helpers run the worker only if they start before the calling thread is done with the batch
+        List<AtomicBoolean> helperStarts = new ArrayList<>();
+        List<Future<?>> helpers = new ArrayList<>();
+        final int numHelpers = Math.min(threads, tilePages.size()) - 1;
+        for (int i = 0; i < numHelpers; i++) {
+            AtomicBoolean started = new AtomicBoolean();
+            try {
+                helpers.add(executor.submit(() -> {
+                    if (started.compareAndSet(false, true)) {
+                        worker.run();
+                    }
+                }));
+                helperStarts.add(started);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        worker.run();
+        try {
+            for (int i = 0; i < helpers.size(); i++) {
+                if (!helperStarts.get(i).compareAndSet(false, true)) {
+                    helpers.get(i).get();
+                }
+            }
+        } catch (ExecutionException e) {
+            // the worker catches its own exceptions
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            for (Future<?> helper : helpers) {
+                helper.cancel(true);
+            }
+            throw e;
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        if (shutDown || Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
         }
     }
 
@@ -16,21 +16,30 @@
 import java.math.BigInteger;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.diskquota.CacheCleaner.QuotaResolver;
 import org.geowebcache.diskquota.storage.LayerQuota;
 import org.geowebcache.diskquota.storage.Quota;
+import org.geowebcache.diskquota.storage.TileSet;
 
-class CacheCleanerTask implements Runnable {
+/**
+ * Launches the quota enforcement tasks of the layers exceeding their quota, both periodically, when {@link #run() run}
+ * by the clean up executor, and as soon as a committed quota update reaches the
+ * {@link DiskQuotaConfig#getHighWaterMark() high water mark} of a quota. When the mark is reached while a clean up of
+ * the quota is still running, or while the cache information of the layer is being gathered, the clean up is left
+ * pending and launched by the first update committed afterwards that finds the quota still over the mark.
+ */
+class CacheCleanerTask implements Runnable, QueuedQuotaUpdatesConsumer.CommitListener {
 
     static final Logger LOG = Logging.getLogger(CacheCleanerTask.class.getName());
 
@@ -41,7 +50,22 @@ class CacheCleanerTask implements Runnable {
     private final Map<String, Future<?>> perLayerRunningCleanUps;
 
     /** Caches the currently running {@link LayerQuotaEnforcementTask} so that not two are launched at the same time */
-    private Future<?> globalCleanUpTask;
+    private volatile Future<?> globalCleanUpTask;
+
+    /**
+     * Used quota of the explicitly configured layers, as last read from the store plus the updates committed since.
+     * Resynchronized with the store at each periodic run.
+     */
+    private final Map<String, AtomicLong> usedQuotas = new ConcurrentHashMap<>();
+
+    /** Layers that reached their high water mark while their clean up could not be launched */
+    private final Set<String> pendingLayerCleanUps = ConcurrentHashMap.newKeySet();
+
+    /** Whether the global quota reached its high water mark while its clean up could not be launched */
+    private volatile boolean pendingGlobalCleanUp;
+
+    /** Globally used quota, as last read from the store plus the updates committed since, {@code null} until read */
+    private volatile AtomicLong globallyUsedQuota;
 
     private ExecutorService cleanUpExecutorService;
 
@@ -51,7 +75,7 @@ class CacheCleanerTask implements Runnable {
     public CacheCleanerTask(final DiskQuotaMonitor monitor, final ExecutorService executor) {
         this.monitor = monitor;
         this.cleanUpExecutorService = executor;
-        this.perLayerRunningCleanUps = new HashMap<>();
+        this.perLayerRunningCleanUps = new ConcurrentHashMap<>();
     }
 
     /**
@@ -119,6 +143,9 @@ private void innerRun() throws InterruptedException {
             final ExpirationPolicy policy = definedQuotaForLayer.getExpirationPolicyName();
             final Quota quota = definedQuotaForLayer.getQuota();
             final Quota usedQuota = monitor.getUsedQuotaByLayerName(layerName);
+            usedQuotas
+                    .computeIfAbsent(layerName, k -> new AtomicLong())
+                    .set(usedQuota.getBytes().longValue());
 
             Quota excedent = usedQuota.difference(quota);
             if (excedent.getBytes().compareTo(BigInteger.ZERO) > 0) {
@@ -135,12 +162,7 @@ private void innerRun() throws InterruptedException {
                             + policy);
                 }
 
-                Set<String> layerNames = Collections.singleton(layerName);
-                QuotaResolver quotaResolver = monitor.newLayerQuotaResolver(layerName);
-
-                LayerQuotaEnforcementTask task = new LayerQuotaEnforcementTask(layerNames, quotaResolver, monitor);
-                Future<Object> future = this.cleanUpExecutorService.submit(task);
-                perLayerRunningCleanUps.put(layerName, future);
+                submitLayerCleanUp(layerName);
             }
         }
 
@@ -163,15 +185,12 @@ private void innerRun() throws InterruptedException {
             }
 
             Quota globalUsedQuota = monitor.getGloballyUsedQuota();
+            setGloballyUsedQuota(globalUsedQuota.getBytes().longValue());
             Quota excedent = globalUsedQuota.difference(globalQuota);
 
             if (excedent.getBytes().compareTo(BigInteger.ZERO) > 0) {
 
-                LOG.fine("Submitting global cache quota enforcement task");
-                QuotaResolver quotaResolver = monitor.newGlobalQuotaResolver();
-                LayerQuotaEnforcementTask task =
-                        new LayerQuotaEnforcementTask(globallyManagedLayerNames, quotaResolver, monitor);
-                this.globalCleanUpTask = this.cleanUpExecutorService.submit(task);
+                submitGlobalCleanUp(globallyManagedLayerNames);
             } else {
                 if (LOG.isLoggable(Level.FINER)) {
                     LOG.finer("Won't launch global quota enforcement task, "
@@ -184,6 +203,154 @@ private void innerRun() throws InterruptedException {
         }
     }
 
+    /**
+     * Checks the quotas affected by the committed update against the in memory used quotas, launching their enforcement
+     * right away when the update makes them reach their high water mark, or their low water mark if higher. Does
+     * nothing unless a {@link DiskQuotaConfig#getHighWaterMark() high water mark} is configured.
+     */
+    @Override
+    public void committed(TileSet tileSet, Quota quotaDiff) {
+        final DiskQuotaConfig quotaConfig = monitor.getConfig();
+        if (!Boolean.TRUE.equals(quotaConfig.isEnabled()) || quotaConfig.getHighWaterMark() == null) {
+            return;
+        }
+        final long diff = quotaDiff.getBytes().longValue();
+        try {
+            final String layerName = tileSet.getLayerName();
+            final LayerQuota layerQuota = quotaConfig.layerQuota(layerName);
+            if (layerQuota != null && layerQuota.getQuota() != null) {
+                long used = addUsedQuota(layerName, diff);
+                Quota threshold = threshold(quotaConfig, layerQuota.getQuota());
+                if (reached(used - diff, used, threshold, pendingLayerCleanUps.contains(layerName))) {
+                    if (monitor.isCacheInfoBuilderRunning(layerName) || !submitLayerCleanUp(layerName)) {
+                        pendingLayerCleanUps.add(layerName);
+                    } else if (LOG.isLoggable(Level.INFO)) {
+                        LOG.info("Layer '"
+                                + layerName
+                                + "' reached "
+                                + threshold.toNiceString()
+                                + " out of its quota of "
+                                + layerQuota.getQuota().toNiceString()
+                                + ". Launched its clean up task right away");
+                    }
+                }
+            }
+
+            long globallyUsed = addGloballyUsedQuota(diff);
+            Quota globalQuota = quotaConfig.getGlobalQuota();
+            if (globalQuota != null && quotaConfig.getGlobalExpirationPolicyName() != null) {
+                Quota threshold = threshold(quotaConfig, globalQuota);
+                if (reached(globallyUsed - diff, globallyUsed, threshold, pendingGlobalCleanUp)) {
+                    Set<String> globallyManagedLayerNames = new HashSet<>(monitor.getLayerNames());
+                    globallyManagedLayerNames.removeAll(quotaConfig.layerNames());
+                    if (!globallyManagedLayerNames.isEmpty()) {
+                        if (!submitGlobalCleanUp(globallyManagedLayerNames)) {
+                            pendingGlobalCleanUp = true;
+                        } else {
+                            LOG.info("Global cache usage reached "
+                                    + threshold.toNiceString()
+                                    + " out of the global quota of "
+                                    + globalQuota.toNiceString()
+                                    + ". Launched the global clean up task right away");
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The used quota that triggers a clean up on update, the high water mark unless lower than the low water mark, at
+     * which the clean up would stop right away
+     */
+    private static Quota threshold(DiskQuotaConfig quotaConfig, Quota limit) {
+        BigInteger highWaterMark = quotaConfig.highWaterMark(limit).getBytes();
+        return new Quota(highWaterMark.max(quotaConfig.lowWaterMark(limit).getBytes()));
+    }
+
+    /**
+     * @return whether the update crossed the threshold upwards, or left the quota over it while a clean up is pending
+     */
+    private static boolean reached(long before, long after, Quota threshold, boolean pending) {
+        long bytes = threshold.getBytes().longValue();
+        return after >= bytes && (before < bytes || pending);
+    }
+
+    /** @return the used quota of the layer once the committed update is added */
+    private long addUsedQuota(String layerName, long diff) throws InterruptedException {
+        AtomicLong used = usedQuotas.get(layerName);
+        if (used == null) {
+            // the store already accounts for the committed update
+            long stored = monitor.getUsedQuotaByLayerName(layerName).getBytes().longValue();
+            used = usedQuotas.computeIfAbsent(layerName, k -> new AtomicLong(stored - diff));
+        }
+        return used.addAndGet(diff);
+    }
+
+    /** @return the globally used quota once the committed update is added */
+    private long addGloballyUsedQuota(long diff) throws InterruptedException {
+        AtomicLong used = globallyUsedQuota;
+        if (used == null) {
+            // the store already accounts for the committed update
+            long stored = monitor.getGloballyUsedQuota().getBytes().longValue();
+            synchronized (this) {
+                if (globallyUsedQuota == null) {
+                    globallyUsedQuota = new AtomicLong(stored - diff);
+                }
+                used = globallyUsedQuota;
+            }
+        }
+        return used.addAndGet(diff);
+    }
+
+    private synchronized void setGloballyUsedQuota(long bytes) {
+        if (globallyUsedQuota == null) {
+            globallyUsedQuota = new AtomicLong(bytes);
+        } else {
+            globallyUsedQuota.set(bytes);
+        }
+    }
+
+    /**
+     * Submits the enforcement task of the layer quota, unless one is running already
+     *
+     * @return whether the task was submitted
+     */
+    private synchronized boolean submitLayerCleanUp(String layerName) {
+        Future<?> runningCleanup = perLayerRunningCleanUps.get(layerName);
+        if (runningCleanup != null && !runningCleanup.isDone()) {
+            return false;
+        }
+        pendingLayerCleanUps.remove(layerName);
+        Set<String> layerNames = Collections.singleton(layerName);
+        QuotaResolver quotaResolver = monitor.newLayerQuotaResolver(layerName);
+
+        LayerQuotaEnforcementTask task = new LayerQuotaEnforcementTask(layerNames, quotaResolver, monitor);
+        Future<Object> future = this.cleanUpExecutorService.submit(task);
+        perLayerRunningCleanUps.put(layerName, future);
+        return true;
+    }
+
+    /**
+     * Submits the enforcement task of the global quota, unless one is running already
+     *
+     * @return whether the task was submitted
+     */
+    private synchronized boolean submitGlobalCleanUp(Set<String> globallyManagedLayerNames) {
+        if (globalCleanUpTask != null && !globalCleanUpTask.isDone()) {
+            return false;
+        }
+        pendingGlobalCleanUp = false;
+        LOG.fine("Submitting global cache quota enforcement task");
+        QuotaResolver quotaResolver = monitor.newGlobalQuotaResolver();
+        LayerQuotaEnforcementTask task =
+                new LayerQuotaEnforcementTask(globallyManagedLayerNames, quotaResolver, monitor);
+        this.globalCleanUpTask = this.cleanUpExecutorService.submit(task);
+        return true;
+    }
+
     /** @author Gabriel Roldan */
     private static class LayerQuotaEnforcementTask implements Callable<Object> {
 
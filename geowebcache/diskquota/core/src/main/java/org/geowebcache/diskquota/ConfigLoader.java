@@ -181,6 +181,14 @@ private void validateConfig(DiskQuotaConfig quotaConfig) throws ConfigurationExc
         if (maxConcurrentCleanUps <= 0) {
             throw new ConfigurationException("maxConcurrentCleanUps shall be specified as a positive integer");
         }
+        Integer highWaterMark = quotaConfig.getHighWaterMark();
+        if (highWaterMark != null && highWaterMark <= 0) {
+            throw new ConfigurationException("highWaterMark shall be a positive percentage");
+        }
+        Integer lowWaterMark = quotaConfig.getLowWaterMark();
+        if (lowWaterMark != null && (lowWaterMark <= 0 || lowWaterMark > 100)) {
+            throw new ConfigurationException("lowWaterMark shall be a percentage between 1 and 100");
+        }
 
         if (null != quotaConfig.getLayerQuotas()) {
             for (LayerQuota lq : new ArrayList<>(quotaConfig.getLayerQuotas())) {
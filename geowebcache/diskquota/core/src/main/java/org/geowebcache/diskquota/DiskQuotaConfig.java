@@ -15,6 +15,7 @@
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
@@ -57,6 +58,15 @@ public class DiskQuotaConfig implements Cloneable, Serializable {
 
     private Integer maxConcurrentCleanUps;
 
+    /**
+     * Percentage of a quota that, once reached by a committed quota update, triggers its enforcement right away instead
+     * of waiting for the next periodic clean up. {@code null} to only enforce quotas periodically.
+     */
+    private Integer highWaterMark;
+
+    /** Percentage of a quota its enforcement brings the used quota back to, {@code null} for the quota itself. */
+    private Integer lowWaterMark;
+
     private ExpirationPolicy globalExpirationPolicyName;
 
     private Quota globalQuota;
@@ -97,6 +107,8 @@ void setFrom(DiskQuotaConfig other) {
         this.globalQuota = other.globalQuota;
         this.layerQuotas = other.layerQuotas == null ? null : new ArrayList<>(other.layerQuotas);
         this.maxConcurrentCleanUps = other.maxConcurrentCleanUps;
+        this.highWaterMark = other.highWaterMark;
+        this.lowWaterMark = other.lowWaterMark;
         this.quotaStore = other.quotaStore;
     }
 
@@ -195,6 +207,50 @@ public void setMaxConcurrentCleanUps(int nThreads) {
         this.maxConcurrentCleanUps = nThreads;
     }
 
+    /** @return the percentage of a quota that triggers its enforcement right away, or {@code null} if not set */
+    public Integer getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /** @param highWaterMark a positive percentage, or {@code null} to only enforce quotas periodically */
+    public void setHighWaterMark(Integer highWaterMark) {
+        if (highWaterMark != null && highWaterMark <= 0) {
+            throw new IllegalArgumentException("highWaterMark shall be a positive percentage: " + highWaterMark);
+        }
+        this.highWaterMark = highWaterMark;
+    }
+
+    /** @return the percentage of a quota its enforcement brings the used quota back to, or {@code null} if not set */
+    public Integer getLowWaterMark() {
+        return lowWaterMark;
+    }
+
+    /** @param lowWaterMark a percentage between 1 and 100, or {@code null} to clean up down to the quota itself */
+    public void setLowWaterMark(Integer lowWaterMark) {
+        if (lowWaterMark != null && (lowWaterMark <= 0 || lowWaterMark > 100)) {
+            throw new IllegalArgumentException("lowWaterMark shall be a percentage between 1 and 100: " + lowWaterMark);
+        }
+        this.lowWaterMark = lowWaterMark;
+    }
+
+    /**
+     * @return the used quota that triggers the enforcement of {@code limit} as soon as it is reached, or {@code null}
+     *     if quotas are only enforced periodically
+     */
+    public Quota highWaterMark(Quota limit) {
+        return highWaterMark == null ? null : percentage(limit, highWaterMark);
+    }
+
+    /** @return the used quota the enforcement of {@code limit} stops at */
+    public Quota lowWaterMark(Quota limit) {
+        return lowWaterMark == null ? limit : percentage(limit, lowWaterMark);
+    }
+
+    private static Quota percentage(Quota quota, int percentage) {
+        return new Quota(
+                quota.getBytes().multiply(BigInteger.valueOf(percentage)).divide(BigInteger.valueOf(100)));
+    }
+
     /** @return the global quota, or {@code null} if not set */
     public Quota getGlobalQuota() {
         return this.globalQuota;
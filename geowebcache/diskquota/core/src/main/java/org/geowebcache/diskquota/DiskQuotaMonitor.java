@@ -86,6 +86,9 @@ public class DiskQuotaMonitor implements DisposableBean, ApplicationListener<Con
      */
     private ScheduledExecutorService cleanUpExecutorService;
 
+    /** Enforces the quotas periodically, and as soon as they reach their high water mark */
+    private CacheCleanerTask cacheCleanerTask;
+
     private QuotaUpdatesMonitor quotaUsageMonitor;
 
     private UsageStatsMonitor usageStatsMonitor;
@@ -237,9 +240,12 @@ private void startUpInternal() throws InterruptedException, ConfigurationExcepti
         }
 
         this.cleanUpExecutorService = createCleanUpExecutor();
+        this.cacheCleanerTask = new CacheCleanerTask(this, cleanUpExecutorService);
 
         attachConfiguredLayers();
 
+        // enforces the quotas reaching their high water mark right away
+        quotaUsageMonitor.setCommitListener(cacheCleanerTask);
         quotaUsageMonitor.startUp();
 
         usageStatsMonitor.startUp();
@@ -347,7 +353,7 @@ public void saveConfig() {
 
     /**
      * Launches a background task to traverse the cache and compute the disk usage of each layer that has no
-     * {@link LayerQuota#getUsedQuota() used quota} already loaded.
+     * {@link LayerQuota#getUsedQuota() used quota} already loaded, or whose traversal was interrupted.
      */
     private LayerCacheInfoBuilder launchCacheInfoGatheringThreads() throws InterruptedException {
 
@@ -358,26 +364,29 @@ private LayerCacheInfoBuilder launchCacheInfoGatheringThreads() throws Interrupt
             throw new RuntimeException(e);
         }
         LayerCacheInfoBuilder cacheInfoBuilder =
-                new LayerCacheInfoBuilder(cacheRoot, cleanUpExecutorService, quotaUsageMonitor);
+                new LayerCacheInfoBuilder(cacheRoot, quotaConfig.getMaxConcurrentCleanUps(), quotaUsageMonitor);
 
         for (String layerName : tileLayerDispatcher.getLayerNames()) {
 
             Quota usedQuota = quotaStore.getUsedQuotaByLayerName(layerName);
-            if (usedQuota.getBytes().compareTo(BigInteger.ZERO) > 0) {
+            if (cacheInfoBuilder.isScanPending(layerName)) {
+                log.fine("Resuming the traversal of the " + layerName + " layer cache to compute its disk usage.");
+            } else if (usedQuota.getBytes().compareTo(BigInteger.ZERO) > 0) {
                 log.fine("Using saved quota information for layer " + layerName + ": " + usedQuota.toNiceString());
+                continue;
             } else {
                 log.fine(layerName
                         + " has no saved used quota information,"
                         + "traversing layer cache to compute its disk usage.");
-                TileLayer tileLayer;
-                try {
-                    tileLayer = tileLayerDispatcher.getTileLayer(layerName);
-                } catch (GeoWebCacheException e) {
-                    log.log(Level.FINE, e.getMessage(), e);
-                    continue;
-                }
-                cacheInfoBuilder.buildCacheInfo(tileLayer);
             }
+            TileLayer tileLayer;
+            try {
+                tileLayer = tileLayerDispatcher.getTileLayer(layerName);
+            } catch (GeoWebCacheException e) {
+                log.log(Level.FINE, e.getMessage(), e);
+                continue;
+            }
+            cacheInfoBuilder.buildCacheInfo(tileLayer);
         }
         return cacheInfoBuilder;
     }
@@ -396,12 +405,10 @@ private ScheduledExecutorService createCleanUpExecutor() {
 
     private void setUpScheduledCleanUp() {
 
-        Runnable scheduledCleaningTask = new CacheCleanerTask(this, cleanUpExecutorService);
-
         long delay = quotaConfig.getCacheCleanUpFrequency();
         long period = quotaConfig.getCacheCleanUpFrequency();
         TimeUnit unit = quotaConfig.getCacheCleanUpUnits();
-        cleanUpExecutorService.scheduleAtFixedRate(scheduledCleaningTask, delay, period, unit);
+        cleanUpExecutorService.scheduleAtFixedRate(cacheCleanerTask, delay, period, unit);
 
         log.config("Disk quota periodic enforcement task set up every " + period + " " + unit);
     }
@@ -444,7 +451,7 @@ private void attachConfiguredLayers() throws ConfigurationException {
 
     public QuotaResolver newLayerQuotaResolver(final String layerName) {
         LayerQuota layerQuota = quotaConfig.layerQuota(layerName);
-        return new LayerQuotaResolver(layerQuota, quotaStore);
+        return new LayerQuotaResolver(layerQuota, quotaStore, quotaConfig);
     }
 
     public QuotaResolver newGlobalQuotaResolver() {
@@ -478,9 +485,13 @@ public Quota getGloballyUsedQuota() throws InterruptedException {
      *   <li>{@link #isRunning() == true}
      * </ul>
      *
-     * @see CacheCleaner#expireByLayerNames(Set, QuotaResolver, QuotaStore)
+     * <p>Pages are truncated in parallel on up to {@link DiskQuotaConfig#getMaxConcurrentCleanUps()} threads of the
+     * clean up executor.
+     *
+     * @see CacheCleaner#expireByLayerNames(Set, QuotaResolver, QuotaStore, java.util.concurrent.ExecutorService, int)
      */
     public void expireByLayerNames(Set<String> layerNames, QuotaResolver quotaResolver) throws InterruptedException {
-        cacheCleaner.expireByLayerNames(layerNames, quotaResolver, quotaStore);
+        cacheCleaner.expireByLayerNames(
+                layerNames, quotaResolver, quotaStore, cleanUpExecutorService, quotaConfig.getMaxConcurrentCleanUps());
     }
 }
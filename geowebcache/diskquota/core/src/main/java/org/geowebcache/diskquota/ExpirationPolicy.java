@@ -15,5 +15,12 @@
 
 public enum ExpirationPolicy {
     LRU,
-    LFU
+    LFU,
+    /**
+     * Greedy-Dual-Size-Frequency: expires first the pages whose tiles are the least used and the cheapest to re-render
+     * per byte of storage they take, as measured by {@link org.geowebcache.stats.RenderCostStats}
+     *
+     * @see PageCosts
+     */
+    GDSF
 }
@@ -15,22 +15,31 @@
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.commons.io.FilenameUtils;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.diskquota.storage.LayerQuota;
-import org.geowebcache.diskquota.storage.Quota;
 import org.geowebcache.diskquota.storage.TilePage;
 import org.geowebcache.diskquota.storage.TileSet;
 import org.geowebcache.grid.GridSubset;
@@ -43,36 +52,49 @@
 /**
  * Gathers information about the cache of a layer, such as its size and available {@link TilePage}s.
  *
+ * <p>The cache of a layer is scanned by a fork-join pool, with a task per zoom level directory that forks a task per
+ * tile range subdirectory. The tiles of each subdirectory are added to the quota store at once, through the
+ * {@link QuotaUpdatesMonitor}, once it has been fully walked, and only then the subdirectory is recorded in a
+ * {@link #PROGRESS_FILE progress file} in the layer directory, deleted when the scan completes. A scan interrupted by a
+ * shutdown is resumed on the next start up, skipping the subdirectories already scanned.
+ *
  * @author groldan
  */
 final class LayerCacheInfoBuilder {
 
     private static final Logger log = Logging.getLogger(LayerCacheInfoBuilder.class.getName());
 
+    /** Lists the directories already scanned, exists while the scan of the layer is not complete */
+    static final String PROGRESS_FILE = "diskquota_scan.progress";
+
     private final File rootCacheDir;
 
-    private final ExecutorService threadPool;
+    private final ForkJoinPool pool;
 
-    private final Map<String, List<Future<?>>> perLayerRunningTasks;
+    private final Map<String, Future<?>> perLayerRunningTasks;
 
     private final QuotaUpdatesMonitor quotaUsageMonitor;
 
-    private boolean closed = false;
+    /** Blob format by file extension, {@code null} values being stored as an empty string */
+    private final Map<String, String> blobFormats = new ConcurrentHashMap<>();
+
+    private volatile boolean closed = false;
 
     public LayerCacheInfoBuilder(
-            final File rootCacheDir, final ExecutorService threadPool, QuotaUpdatesMonitor quotaUsageMonitor) {
+            final File rootCacheDir, final int parallelism, QuotaUpdatesMonitor quotaUsageMonitor) {
         this.rootCacheDir = rootCacheDir;
-        this.threadPool = threadPool;
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
         this.quotaUsageMonitor = quotaUsageMonitor;
-        this.perLayerRunningTasks = new HashMap<>();
+        this.perLayerRunningTasks = new ConcurrentHashMap<>();
     }
 
     /**
      * Asynchronously collects cache usage information for the given {@code tileLayer} into the given {@code layerQuota}
-     * by using the provided {@link ExecutorService} at construction time.
+     * by using the fork-join pool created at construction time.
      *
      * <p>This method discards any {@link LayerQuota#getQuota()} used quota} information available for
-     * {@code layerQuota} and updates it by collecting the usage information for the layer.
+     * {@code layerQuota} and updates it by collecting the usage information for the layer, unless a
+     * {@link #isScanPending(String) previous scan} is being resumed.
      *
      * <p>Note the cache information gathering is performed asynchronously and hence this method returns immediately. To
      * check whether the information collect for a given layer has finished use the {@link #isRunning(String)
@@ -81,58 +103,22 @@ public LayerCacheInfoBuilder(
     public void buildCacheInfo(final TileLayer tileLayer) {
 
         final String layerName = tileLayer.getName();
-        final String layerDirName = FilePathUtils.filteredLayerName(layerName);
-
-        final File layerDir = new File(rootCacheDir, layerDirName);
+        final File layerDir = layerDir(layerName);
 
         if (!layerDir.exists()) {
             return;
         }
 
-        perLayerRunningTasks.put(layerName, new ArrayList<>());
-
-        // gathering the on disk tilesets can take a very long time, in case there are
-        // many parameters (e.g., long list of times), so moving this task also on background exec
-        Future<?> tilesetCollector = threadPool.submit(() -> gatherStatsByTileset(tileLayer, layerName, layerDir));
-        // make sure the list has at this task too, so early calls to #isRunning find
-        // that something is executing, even if the stats collectors have not been created yet
-        perLayerRunningTasks.get(layerName).add(tilesetCollector);
+        perLayerRunningTasks.put(layerName, pool.submit(new LayerScan(tileLayer, layerDir)));
     }
 
-    private void gatherStatsByTileset(TileLayer tileLayer, String layerName, File layerDir) {
-        final Set<TileSet> onDiskTileSets = findOnDiskTileSets(tileLayer, layerDir);
-
-        for (TileSet tileSet : onDiskTileSets) {
-            final String gridSetId = tileSet.getGridsetId();
-            // final String blobFormat = tileSet.getBlobFormat();
-            final String parametersId = tileSet.getParametersId();
-            final GridSubset gs = tileLayer.getGridSubset(gridSetId);
-            final int zoomStart = gs.getZoomStart();
-            final int zoomStop = gs.getZoomStop();
-
-            for (int zoomLevel = zoomStart; zoomLevel <= zoomStop && !closed; zoomLevel++) {
-                String gridsetZLevelParamsDirName = FilePathUtils.gridsetZoomLevelDir(gridSetId, zoomLevel);
-                if (parametersId != null) {
-                    gridsetZLevelParamsDirName += "_" + parametersId;
-                }
-                final File gridsetZLevelDir = new File(layerDir, gridsetZLevelParamsDirName);
-
-                if (gridsetZLevelDir.exists()) {
-                    ZoomLevelVisitor cacheInfoBuilder = new ZoomLevelVisitor(
-                            layerName, gridsetZLevelDir, gridSetId, zoomLevel, parametersId, quotaUsageMonitor);
-
-                    Future<ZoomLevelVisitor.Stats> cacheTask = threadPool.submit(cacheInfoBuilder);
+    /** @return whether a scan of the layer cache was interrupted, and should be resumed */
+    public boolean isScanPending(String layerName) {
+        return new File(layerDir(layerName), PROGRESS_FILE).exists();
+    }
 
-                    perLayerRunningTasks.get(layerName).add(cacheTask);
-                    log.fine("Submitted background task to gather cache info for '"
-                            + layerName
-                            + "'/"
-                            + gridSetId
-                            + "/"
-                            + zoomLevel);
-                }
-            }
-        }
+    private File layerDir(String layerName) {
+        return new File(rootCacheDir, FilePathUtils.filteredLayerName(layerName));
     }
 
     private Set<TileSet> findOnDiskTileSets(final TileLayer tileLayer, final File layerDir) {
@@ -169,54 +155,119 @@ private Set<TileSet> findOnDiskTileSets(final TileLayer tileLayer, final File la
         return foundTileSets;
     }
 
+    /** @return the format of the tiles with the given extension, or {@code null} if not a tile extension */
+    private String blobFormat(String extension) {
+        String format = blobFormats.computeIfAbsent(extension, ext -> {
+            try {
+                MimeType mimeType = MimeType.createFromExtension(ext);
+                return mimeType == null ? "" : mimeType.getFormat();
+            } catch (MimeException e) {
+                return "";
+            }
+        });
+        return format.isEmpty() ? null : format;
+    }
+
+    /** Scans the zoom level directories of a layer, and deletes the progress file once all have been scanned */
+    private final class LayerScan extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TileLayer tileLayer;
+
+        private final File layerDir;
+
+        LayerScan(TileLayer tileLayer, File layerDir) {
+            this.tileLayer = tileLayer;
+            this.layerDir = layerDir;
+        }
+
+        @Override
+        protected void compute() {
+            final String layerName = tileLayer.getName();
+            ScanProgress progress = new ScanProgress(new File(layerDir, PROGRESS_FILE));
+            boolean complete = false;
+            try {
+                // gathering the on disk tilesets can take a very long time, in case there are
+                // many parameters (e.g., long list of times), so it's done in the background too
+                List<ZoomLevelScan> scans = new ArrayList<>();
+                for (TileSet tileSet : findOnDiskTileSets(tileLayer, layerDir)) {
+                    final String gridSetId = tileSet.getGridsetId();
+                    final String parametersId = tileSet.getParametersId();
+                    final GridSubset gs = tileLayer.getGridSubset(gridSetId);
+                    final int zoomStart = gs.getZoomStart();
+                    final int zoomStop = gs.getZoomStop();
+
+                    for (int zoomLevel = zoomStart; zoomLevel <= zoomStop && !closed; zoomLevel++) {
+                        String gridsetZLevelParamsDirName = FilePathUtils.gridsetZoomLevelDir(gridSetId, zoomLevel);
+                        if (parametersId != null) {
+                            gridsetZLevelParamsDirName += "_" + parametersId;
+                        }
+                        final File gridsetZLevelDir = new File(layerDir, gridsetZLevelParamsDirName);
+
+                        if (gridsetZLevelDir.exists()) {
+                            scans.add(new ZoomLevelScan(
+                                    layerName, gridsetZLevelDir, gridSetId, zoomLevel, parametersId, progress));
+                        }
+                    }
+                }
+                log.fine("Gathering cache information for '" + layerName + "' in " + scans.size() + " zoom levels");
+                invokeAll(scans);
+                complete = !closed;
+            } finally {
+                progress.close(complete);
+            }
+            if (complete) {
+                log.fine("Cache information for '" + layerName + "' collected");
+            } else {
+                log.fine("Gathering cache information for '" + layerName + "' was canceled.");
+            }
+        }
+    }
+
     /**
-     * Builds the cache information for a single layer/gridsetId/parametersId/zoomLevel combo
+     * Builds the cache information for a single layer/gridsetId/parametersId/zoomLevel combo, forking a task per tile
+     * range subdirectory not scanned yet
      *
      * @author groldan
      */
-    private final class ZoomLevelVisitor implements FileFilter, Callable<ZoomLevelVisitor.Stats> {
+    private final class ZoomLevelScan extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
 
         private final String gridSetId;
 
-        private int tileZ;
+        private final int tileZ;
 
         private final File zoomLevelPath;
 
-        private Stats stats;
-
-        private final QuotaUpdatesMonitor quotaUsageMonitor;
-
         private final String layerName;
 
         private final String parametersId;
 
-        private static class Stats {
-            long runTimeMillis;
+        private final ScanProgress progress;
 
-            long numTiles;
+        private final LongAdder numTiles = new LongAdder();
 
-            Quota collectedQuota = new Quota();
-        }
+        private final LongAdder numBytes = new LongAdder();
 
-        public ZoomLevelVisitor(
+        public ZoomLevelScan(
                 final String layerName,
                 final File zoomLevelPath,
                 final String gridsetId,
                 final int zoomLevel,
                 String parametersId,
-                final QuotaUpdatesMonitor quotaUsageMonitor) {
+                ScanProgress progress) {
             this.layerName = layerName;
             this.zoomLevelPath = zoomLevelPath;
             this.gridSetId = gridsetId;
             this.parametersId = parametersId;
-            this.quotaUsageMonitor = quotaUsageMonitor;
             this.tileZ = zoomLevel;
-            this.stats = new Stats();
+            this.progress = progress;
         }
 
-        /** @see java.util.concurrent.Callable#call() */
         @Override
-        public Stats call() throws Exception {
+        protected void compute() {
             final String zLevelKey = layerName
                     + "'/"
                     + gridSetId
@@ -224,75 +275,212 @@ public Stats call() throws Exception {
                     + (parametersId == null ? "default" : parametersId)
                     + "/zlevel:"
                     + tileZ;
-            try {
-                log.fine("Gathering cache information for '" + zLevelKey);
-                stats.numTiles = 0L;
-                stats.runTimeMillis = 0L;
-                long runTime = System.currentTimeMillis();
-                FileUtils.traverseDepth(zoomLevelPath, this);
-                runTime = System.currentTimeMillis() - runTime;
-                stats.runTimeMillis = runTime;
-            } catch (TraversalCanceledException cancel) {
-                log.fine("Gathering cache information for " + zLevelKey + " was canceled.");
-                return null;
-            } catch (Exception e) {
-                throw e;
+            log.fine("Gathering cache information for '" + zLevelKey);
+            long runTime = System.currentTimeMillis();
+
+            List<TileRangeScan> scans = new ArrayList<>();
+            // the tiles right in the zoom level directory, if any, are recorded under its own name
+            final String filesKey = zoomLevelPath.getName();
+            final boolean filesDone = progress.isDone(filesKey);
+            List<QuotaUpdate> tiles = new ArrayList<>();
+            boolean listed = false;
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(zoomLevelPath.toPath())) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    if (attributes.isDirectory()) {
+                        String key = zoomLevelPath.getName() + "/" + entry.getFileName();
+                        if (!progress.isDone(key)) {
+                            scans.add(new TileRangeScan(this, entry, key));
+                        }
+                    } else if (attributes.isRegularFile() && !filesDone) {
+                        tileFound(entry, attributes.size(), tiles);
+                    }
+                }
+                listed = true;
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Error gathering cache information for '" + zLevelKey, e);
             }
+            if (listed && !filesDone) {
+                commit(filesKey, tiles);
+            }
+            invokeAll(scans);
+
+            runTime = System.currentTimeMillis() - runTime;
             log.fine("Cache information for "
                     + zLevelKey
                     + " collected in "
-                    + stats.runTimeMillis / 1000D
+                    + runTime / 1000D
                     + "s. Counted "
-                    + stats.numTiles
+                    + numTiles.sum()
                     + " tiles for a storage space of "
-                    + stats.collectedQuota.toNiceString());
-            return stats;
+                    + numBytes.sum()
+                    + " bytes");
         }
 
-        /** @see java.io.FileFilter#accept(java.io.File) */
-        @Override
-        public boolean accept(final File file) {
+        /** Adds the tile the file holds, if it is one, to the given tiles */
+        void tileFound(Path file, long length, List<QuotaUpdate> tiles) {
+            // <x>_<y>.<extension>
+            final String name = file.getFileName().toString();
+            final int coordSepIdx = name.lastIndexOf('_');
+            final int dotIdx = name.lastIndexOf('.');
+            final String blobFormat = blobFormat(FilenameUtils.getExtension(name));
+            if (coordSepIdx < 1 || dotIdx < coordSepIdx || blobFormat == null) {
+                log.finer("Ignoring non tile file " + file);
+                return;
+            }
+            final long x;
+            final long y;
+            try {
+                x = Long.parseLong(name.substring(0, coordSepIdx));
+                y = Long.parseLong(name.substring(1 + coordSepIdx, dotIdx));
+            } catch (NumberFormatException e) {
+                log.finer("Ignoring non tile file " + file);
+                return;
+            }
+
+            if (length > 0) {
+                tiles.add(new QuotaUpdate(
+                        layerName, gridSetId, blobFormat, parametersId, length, new long[] {x, y, tileZ}));
+            }
+        }
+
+        /**
+         * Adds the tiles found in a directory to the quota store, then records the directory as scanned, unless
+         * canceled. A directory not recorded is scanned again, from scratch, when the scan is resumed.
+         */
+        void commit(String key, List<QuotaUpdate> tiles) {
             if (closed) {
-                throw new TraversalCanceledException();
+                return;
+            }
+            try {
+                if (!tiles.isEmpty()) {
+                    quotaUsageMonitor.tilesFound(tiles);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Error recording the cache information of " + zoomLevelPath + "/" + key, e);
+                return;
             }
-            if (file.isDirectory()) {
-                log.finer("Processing files in " + file.getAbsolutePath());
-                return true;
+            progress.done(key);
+            for (QuotaUpdate tile : tiles) {
+                numTiles.increment();
+                numBytes.add(tile.getSize());
             }
+        }
+    }
+
+    /**
+     * Walks a tile range directory, using the file attributes read along with the directory entries, and adds the tiles
+     * found to the quota store at once when done, unless canceled
+     */
+    private final class TileRangeScan extends RecursiveAction {
 
-            final long length = file.length();
+        private static final long serialVersionUID = 1L;
 
-            // we know path is a direct child of processingDir and represents a tile file...
-            final String path = file.getPath();
+        private final ZoomLevelScan zoomLevel;
 
-            final int fileNameIdx = 1 + path.lastIndexOf(File.separatorChar);
-            final int coordSepIdx = path.lastIndexOf('_');
-            final int dotIdx = path.lastIndexOf('.');
-            final String extension = FilenameUtils.getExtension(file.getName());
-            String blobFormat;
+        private final Path directory;
+
+        private final String key;
+
+        TileRangeScan(ZoomLevelScan zoomLevel, Path directory, String key) {
+            this.zoomLevel = zoomLevel;
+            this.directory = directory;
+            this.key = key;
+        }
+
+        @Override
+        protected void compute() {
+            List<QuotaUpdate> tiles = new ArrayList<>();
             try {
-                blobFormat = MimeType.createFromExtension(extension).getFormat();
-            } catch (MimeException e) {
-                throw new RuntimeException(e);
+                Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        return closed ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (closed) {
+                            return FileVisitResult.TERMINATE;
+                        }
+                        if (attrs.isRegularFile()) {
+                            zoomLevel.tileFound(file, attrs.size(), tiles);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        log.log(Level.FINE, "Can't read " + file, exc);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Error gathering cache information in " + directory, e);
+                return;
             }
-            final long x = Long.valueOf(path.substring(fileNameIdx, coordSepIdx));
-            final long y = Long.valueOf(path.substring(1 + coordSepIdx, dotIdx));
+            zoomLevel.commit(key, tiles);
+        }
+    }
+
+    /** Tracks the directories of a layer scanned so far in the progress file */
+    private static final class ScanProgress {
+
+        private final File file;
+
+        private final Set<String> done = new HashSet<>();
 
-            this.quotaUsageMonitor.tileStored(layerName, gridSetId, blobFormat, parametersId, x, y, tileZ, length);
-            stats.numTiles++;
-            stats.collectedQuota.addBytes(length);
-            return true;
+        // guarded by this
+        private Writer writer;
+
+        ScanProgress(File file) {
+            this.file = file;
+            try {
+                if (file.exists()) {
+                    done.addAll(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+                    log.info("Resuming the scan of " + file.getParentFile() + ", " + done.size() + " directories done");
+                }
+                writer = Files.newBufferedWriter(
+                        file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Can't record the progress of the cache scan in " + file, e);
+            }
         }
 
-        /**
-         * Used to brute-force cancel a cache inspection (as InterruptedException is checked and hence can't use it in
-         * accept(File) above
-         *
-         * @author groldan
-         */
-        private static class TraversalCanceledException extends RuntimeException {
-            private static final long serialVersionUID = 1L;
-            // doesn't need a body
+        boolean isDone(String directory) {
+            return done.contains(directory);
+        }
+
+        synchronized void done(String directory) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.write(directory);
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Can't record the progress of the cache scan in " + file, e);
+                close(false);
+            }
+        }
+
+        /** Closes the progress file, deleting it if the scan is complete */
+        synchronized void close(boolean complete) {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    log.log(Level.FINE, e.getMessage(), e);
+                }
+                writer = null;
+            }
+            if (complete && file.exists() && !file.delete()) {
+                log.warning("Could not delete " + file);
+            }
         }
     }
 
@@ -302,31 +490,19 @@ private static class TraversalCanceledException extends RuntimeException {
      * @return {@code true} if the cache information gathering for {@code layerName} is not finished
      */
     public boolean isRunning(String layerName) {
-        try {
-            List<Future<?>> layerTasks = perLayerRunningTasks.get(layerName);
-            if (layerTasks == null) {
-                return false;
-            }
-
-            int numRunning = 0;
-            Future<?> future;
-            for (Iterator<Future<?>> it = layerTasks.iterator(); it.hasNext(); ) {
-                future = it.next();
-                if (future.isDone()) {
-                    it.remove();
-                } else {
-                    numRunning++;
-                }
-            }
-            return numRunning > 0;
-        } catch (Exception e) {
-            log.log(Level.FINE, e.getMessage(), e);
+        Future<?> layerTask = perLayerRunningTasks.get(layerName);
+        if (layerTask == null) {
+            return false;
+        }
+        if (layerTask.isDone()) {
+            perLayerRunningTasks.remove(layerName, layerTask);
             return false;
         }
+        return true;
     }
 
     public void shutDown() {
         this.closed = true;
-        this.threadPool.shutdownNow();
+        this.pool.shutdownNow();
     }
 }
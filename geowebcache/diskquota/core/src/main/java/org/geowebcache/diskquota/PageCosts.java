@@ -0,0 +1,115 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.geowebcache.stats.RenderCostStats;
+
+/**
+ * The scores the {@link ExpirationPolicy#GDSF GDSF} expiration policy ranks tile pages by: the page
+ * {@link org.geowebcache.diskquota.storage.PageStats#getFrequencyOfUsePerMinute() frequency of use} times the cost of
+ * re-rendering a byte of its tiles, pages with the lowest score being expired first.
+ *
+ * <p>The frequency of use already decays with the page age, so it stands in for the inflation value of the original
+ * algorithm, and all the pages of a layer and zoom level share the same cost per byte, as it is measured per layer and
+ * zoom level. Pages of zoom levels without measured cost get the average cost of their layer, or of all the layers if
+ * none of its levels has been measured, and a minimum frequency of use is added so that pages never hit are still
+ * ranked by cost.
+ */
+public class PageCosts {
+
+    /** Frequency of use, in hits per minute, added to all the pages: one hit a day */
+    public static final double MIN_FREQUENCY = 1d / (24 * 60);
+
+    private final Map<String, double[]> costsPerByte;
+
+    private final Map<String, Double> layerCosts = new HashMap<>();
+
+    private final double defaultCost;
+
+    private final double minCost;
+
+    /**
+     * @param costsPerByte the costs per byte by layer name, each array indexed by zoom level, with {@link Double#NaN}
+     *     for unknown costs
+     */
+    public PageCosts(Map<String, double[]> costsPerByte) {
+        this.costsPerByte = new HashMap<>(costsPerByte);
+        double sum = 0;
+        int count = 0;
+        double min = Double.MAX_VALUE;
+        for (Map.Entry<String, double[]> e : this.costsPerByte.entrySet()) {
+            double[] known = Arrays.stream(e.getValue())
+                    .filter(c -> c > 0 && Double.isFinite(c))
+                    .toArray();
+            if (known.length > 0) {
+                layerCosts.put(e.getKey(), Arrays.stream(known).average().getAsDouble());
+                sum += Arrays.stream(known).sum();
+                count += known.length;
+                min = Math.min(min, Arrays.stream(known).min().getAsDouble());
+            }
+        }
+        this.defaultCost = count == 0 ? 1 : sum / count;
+        this.minCost = count == 0 ? 1 : min;
+    }
+
+    /** @return the costs measured so far by {@link RenderCostStats} */
+    public static PageCosts measured() {
+        return new PageCosts(RenderCostStats.getInstance().getCostsPerByte());
+    }
+
+    /** @return the cost of re-rendering a byte of tiles of the given layer and zoom level */
+    public double getCostPerByte(String layerName, int zoomLevel) {
+        double[] levels = costsPerByte.get(layerName);
+        if (levels != null && zoomLevel >= 0 && zoomLevel < levels.length) {
+            double cost = levels[zoomLevel];
+            if (cost > 0 && Double.isFinite(cost)) {
+                return cost;
+            }
+        }
+        return getLayerCostPerByte(layerName);
+    }
+
+    /** @return the cost per byte of the zoom levels of the given layer without a measured cost */
+    public double getLayerCostPerByte(String layerName) {
+        Double cost = layerCosts.get(layerName);
+        return cost == null ? defaultCost : cost;
+    }
+
+    /** @return the cost per byte of the layers without a measured cost */
+    public double getDefaultCostPerByte() {
+        return defaultCost;
+    }
+
+    /**
+     * @return the zoom levels of the given layer with a measured cost per byte, indexed by zoom level, with
+     *     {@link Double#NaN} for the others, or an empty array if none
+     */
+    public double[] getMeasuredCostsPerByte(String layerName) {
+        double[] levels = costsPerByte.get(layerName);
+        return levels == null || !layerCosts.containsKey(layerName) ? new double[0] : levels.clone();
+    }
+
+    /** @return the lowest cost per byte any page can have */
+    public double getMinCostPerByte() {
+        return minCost;
+    }
+
+    /** @return the score of a page of the given layer and zoom level, lowest scores are expired first */
+    public double score(String layerName, int zoomLevel, double frequencyOfUse) {
+        return (frequencyOfUse + MIN_FREQUENCY) * getCostPerByte(layerName, zoomLevel);
+    }
+}
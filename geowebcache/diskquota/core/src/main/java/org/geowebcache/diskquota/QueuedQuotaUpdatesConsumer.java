@@ -53,6 +53,9 @@ public class QueuedQuotaUpdatesConsumer implements Callable<Long> {
 
     private final BlockingQueue<QuotaUpdate> queue;
 
+    /** Notified of each committed update, may be {@code null} */
+    private final CommitListener commitListener;
+
     /**
      * Tracks aggregated quota size diffs per TileSet until committed by {@link #commit(TimedQuotaUpdate)} as the result
      * of {@link #checkAggregatedTimeouts()} or {@link #checkAggregatedTimeout(TimedQuotaUpdate)} at {@link #call()}
@@ -61,6 +64,13 @@ public class QueuedQuotaUpdatesConsumer implements Callable<Long> {
 
     boolean terminate = false;
 
+    /** Notified by the consumer thread of the quota updates committed to the {@link QuotaStore} */
+    public static interface CommitListener {
+
+        /** Called right after the quota of {@code tileSet} changed by {@code quotaDiff} in the store */
+        void committed(TileSet tileSet, Quota quotaDiff);
+    }
+
     /**
      * Tracks accumulated quota difference for a single TileSet and accumulated number of tiles difference for pages in
      * the same TileSet
@@ -102,7 +112,6 @@ public TimedQuotaUpdate(TileSet tileSet, TilePageCalculator tpc) {
         public void add(QuotaUpdate quotaUpdate) {
             final String tileSetId = tileSet.getId();
 
-            long size = quotaUpdate.getSize();
             this.accumQuotaDiff.addBytes(quotaUpdate.getSize());
 
             long[] tileIndex = quotaUpdate.getTileIndex();
@@ -114,7 +123,7 @@ public void add(QuotaUpdate quotaUpdate) {
             TilePage.computeId(tileSetId, pageX, pageY, pageZ, pageIdTarget);
             String pageIdForTile = pageIdTarget.toString();
 
-            final int tileCountDiff = size > 0 ? 1 : -1;
+            final int tileCountDiff = quotaUpdate.getTileCount();
             PageStatsPayload payload = tilePages.get(pageIdForTile);
             if (payload == null) {
                 TilePage page = new TilePage(tileSetId, pageX, pageY, pageZ);
@@ -155,12 +164,19 @@ public String toString() {
     }
 
     public QueuedQuotaUpdatesConsumer(QuotaStore quotaStore, BlockingQueue<QuotaUpdate> queue) {
+        this(quotaStore, queue, null);
+    }
+
+    /** @param commitListener notified of each update committed to the store, may be {@code null} */
+    public QueuedQuotaUpdatesConsumer(
+            QuotaStore quotaStore, BlockingQueue<QuotaUpdate> queue, CommitListener commitListener) {
         Assert.notNull(quotaStore, "quotaStore can't be null");
         Assert.notNull(queue, "queue can't be null");
 
         this.quotaStore = quotaStore;
         this.tilePageCalculator = quotaStore.getTilePageCalculator();
         this.queue = queue;
+        this.commitListener = commitListener;
         aggregatedDelayedUpdates = new HashMap<>();
     }
 
@@ -293,6 +309,31 @@ private void commit(final TimedQuotaUpdate aggregatedUpadte) throws InterruptedE
         }
 
         quotaStore.addToQuotaAndTileCounts(tileSet, quotaDiff, tileCountDiffs);
+
+        if (commitListener != null) {
+            // the update is committed already, a failure here must not have it committed again
+            try {
+                commitListener.committed(tileSet, quotaDiff);
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Error notifying the commit of " + aggregatedUpadte, e);
+            }
+        }
+    }
+
+    /**
+     * Commits the given updates to the store right away from the calling thread, bypassing the queue, aggregated per
+     * tile set
+     */
+    void commit(Collection<QuotaUpdate> updates) throws InterruptedException {
+        Map<TileSet, TimedQuotaUpdate> aggregated = new HashMap<>();
+        for (QuotaUpdate update : updates) {
+            aggregated
+                    .computeIfAbsent(update.getTileSet(), tileSet -> new TimedQuotaUpdate(tileSet, tilePageCalculator))
+                    .add(update);
+        }
+        for (TimedQuotaUpdate update : aggregated.values()) {
+            commit(update);
+        }
     }
 
     public void shutdown() {
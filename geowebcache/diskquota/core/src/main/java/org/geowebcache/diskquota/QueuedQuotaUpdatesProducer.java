@@ -13,14 +13,19 @@
  */
 package org.geowebcache.diskquota;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.diskquota.storage.TilePageCalculator;
+import org.geowebcache.diskquota.storage.TileSet;
 import org.geowebcache.storage.BlobStoreListener;
 import org.geowebcache.storage.DefaultStorageBroker;
+import org.geowebcache.storage.TileBatch;
 import org.springframework.util.Assert;
 
 /**
@@ -102,6 +107,43 @@ public void tileDeleted(
         quotaUpdate(layerName, gridSetId, blobFormat, parametersId, actualSizeFreed, new long[] {x, y, z});
     }
 
+    /**
+     * Aggregates the deleted tiles by tile page, submitting a single {@link QuotaUpdate} per page
+     *
+     * @see org.geowebcache.storage.BlobStoreListener#tilesDeleted
+     */
+    @Override
+    public void tilesDeleted(
+            String layerName, String gridSetId, String blobFormat, String parametersId, TileBatch tiles) {
+        if (tiles.isEmpty() || cancelled(layerName)) {
+            return;
+        }
+        final TileSet tileSet = new TileSet(layerName, gridSetId, blobFormat, parametersId);
+        final TilePageCalculator pageCalculator = quotaStore.getTilePageCalculator();
+        final int z = tiles.getZoomLevel();
+        // page index -> {bytes, tiles, x, y of a tile in the page}
+        Map<Long, long[]> pages = new LinkedHashMap<>();
+        int[] pageIndex = new int[3];
+        try {
+            for (int i = 0; i < tiles.size(); i++) {
+                long x = tiles.getX(i);
+                long y = tiles.getY(i);
+                pageCalculator.pageIndexForTile(tileSet, new long[] {x, y, z}, pageIndex);
+                long key = ((long) pageIndex[0] << 32) | (pageIndex[1] & 0xFFFFFFFFL);
+                long[] page = pages.computeIfAbsent(key, k -> new long[] {0, 0, x, y});
+                page[0] += tiles.getBlobSize(i);
+                page[1]++;
+            }
+        } catch (RuntimeException e) {
+            log.log(Level.FINE, "Can't aggregate deleted tiles of " + tileSet + " by page", e);
+            BlobStoreListener.super.tilesDeleted(layerName, gridSetId, blobFormat, parametersId, tiles);
+            return;
+        }
+        for (long[] page : pages.values()) {
+            quotaUpdate(new QuotaUpdate(tileSet, -page[0], new long[] {page[2], page[3], z}, (int) -page[1]));
+        }
+    }
+
     /** @see org.geowebcache.storage.BlobStoreListener#tileUpdated */
     @Override
     public void tileUpdated(
@@ -167,7 +209,11 @@ private void quotaUpdate(
         if (cancelled(layerName)) {
             return;
         }
-        QuotaUpdate payload = new QuotaUpdate(layerName, gridSetId, blobFormat, parametersId, amount, tileIndex);
+        quotaUpdate(new QuotaUpdate(layerName, gridSetId, blobFormat, parametersId, amount, tileIndex));
+    }
+
+    private void quotaUpdate(QuotaUpdate payload) {
+        final String layerName = payload.getTileSet().getLayerName();
         try {
             if (updateOfferTimeoutSeconds <= 0) {
                 this.queuedUpdates.put(payload);
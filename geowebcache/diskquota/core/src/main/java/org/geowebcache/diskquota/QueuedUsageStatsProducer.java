@@ -13,7 +13,7 @@
  */
 package org.geowebcache.diskquota;
 
-import java.util.concurrent.BlockingQueue;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.conveyor.ConveyorTile;
@@ -24,21 +24,21 @@
 
 /**
  * This {@link TileLayerListener} is thread safe and can be called by any thread requesting a tile from a
- * {@link TileLayer}
+ * {@link TileLayer}. It records the hits on the {@link UsageStatsAggregator} without ever blocking the calling thread.
  *
  * @author groldan
  */
 public class QueuedUsageStatsProducer implements TileLayerListener {
 
-    private static final Logger log = Logging.getLogger(QueuedQuotaUpdatesProducer.class.getName());
+    private static final Logger log = Logging.getLogger(QueuedUsageStatsProducer.class.getName());
 
-    private final BlockingQueue<UsageStats> usageStatsQueue;
+    private final UsageStatsAggregator aggregator;
 
     private volatile boolean cancelled;
 
-    public QueuedUsageStatsProducer(BlockingQueue<UsageStats> usageStatsQueue) {
-        Assert.notNull(usageStatsQueue, "usageStatsQueue can't be null");
-        this.usageStatsQueue = usageStatsQueue;
+    public QueuedUsageStatsProducer(UsageStatsAggregator aggregator) {
+        Assert.notNull(aggregator, "aggregator can't be null");
+        this.aggregator = aggregator;
     }
 
     /** @see org.geowebcache.layer.TileLayerListener#tileRequested */
@@ -52,19 +52,11 @@ public void tileRequested(TileLayer layer, ConveyorTile tile) {
         String blobFormat = tile.getMimeType().getFormat();
         String parametersId = tile.getParametersId();
         TileSet tileSet = new TileSet(layerName, gridsetId, blobFormat, parametersId);
-        long[] tileIndex = tile.getTileIndex().clone();
-        UsageStats usageLog = new UsageStats(tileSet, tileIndex);
         try {
-            usageStatsQueue.put(usageLog);
-        } catch (InterruptedException e) {
-            if (cancelled(layerName)) {
-                return;
-            }
-            log.info("Quota usage stats gathering for "
-                    + layerName
-                    + " abruptly interrupted on thread "
-                    + Thread.currentThread().getName());
-            Thread.currentThread().interrupt();
+            aggregator.tileRequested(tileSet, tile.getTileIndex());
+        } catch (RuntimeException e) {
+            // usage stats are best effort, never fail the tile request
+            log.log(Level.FINE, "Unable to record usage stats for tile on layer " + layerName, e);
         }
     }
 
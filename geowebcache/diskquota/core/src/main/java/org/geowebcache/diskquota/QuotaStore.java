@@ -14,6 +14,7 @@
 package org.geowebcache.diskquota;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Future;
@@ -82,6 +83,47 @@ public abstract void addToQuotaAndTileCounts(
     /** */
     public abstract TilePage getLeastRecentlyUsedPage(final Set<String> layerNames) throws InterruptedException;
 
+    /**
+     * Returns the pages with tiles of the given layers that would be expired first by the {@link ExpirationPolicy#LFU
+     * LFU} policy, so that they can be truncated in one go
+     *
+     * @param maxPages the maximum number of pages to return
+     * @return up to {@code maxPages} pages, least frequently used first
+     */
+    public default List<TilePage> getLeastFrequentlyUsedPages(final Set<String> layerNames, int maxPages)
+            throws InterruptedException {
+        TilePage page = getLeastFrequentlyUsedPage(layerNames);
+        return page == null ? Collections.emptyList() : Collections.singletonList(page);
+    }
+
+    /**
+     * Returns the pages with tiles of the given layers that would be expired first by the {@link ExpirationPolicy#LRU
+     * LRU} policy, so that they can be truncated in one go
+     *
+     * @param maxPages the maximum number of pages to return
+     * @return up to {@code maxPages} pages, least recently used first
+     */
+    public default List<TilePage> getLeastRecentlyUsedPages(final Set<String> layerNames, int maxPages)
+            throws InterruptedException {
+        TilePage page = getLeastRecentlyUsedPage(layerNames);
+        return page == null ? Collections.emptyList() : Collections.singletonList(page);
+    }
+
+    /**
+     * Returns the pages with tiles of the given layers that would be expired first by the {@link ExpirationPolicy#GDSF
+     * GDSF} policy, so that they can be truncated in one go.
+     *
+     * <p>Stores that don't rank pages by cost fall back to the {@link ExpirationPolicy#LFU LFU} order.
+     *
+     * @param maxPages the maximum number of pages to return
+     * @param costs the costs of re-rendering the tiles of the pages
+     * @return up to {@code maxPages} pages, lowest {@link PageCosts#score(String, int, double) score} first
+     */
+    public default List<TilePage> getLeastValuablePages(
+            final Set<String> layerNames, int maxPages, final PageCosts costs) throws InterruptedException {
+        return getLeastFrequentlyUsedPages(layerNames, maxPages);
+    }
+
     public abstract PageStats setTruncated(final TilePage tilePage) throws InterruptedException;
 
     public abstract void deleteGridSubset(String layerName, String gridSetId);
@@ -23,6 +23,8 @@ public class QuotaUpdate {
 
     private long[] tileIndex;
 
+    private int tileCount;
+
     /** @param size bytes to add or subtract from a quota: positive value increase quota, negative value decreases it */
     public QuotaUpdate(
             String layerName, String gridsetId, String blobFormat, String parametersId, long size, long[] tileIndex) {
@@ -30,9 +32,20 @@ public QuotaUpdate(
     }
 
     public QuotaUpdate(TileSet tileset, long quotaUpdateSize, long[] tileIndex) {
+        this(tileset, quotaUpdateSize, tileIndex, quotaUpdateSize > 0 ? 1 : -1);
+    }
+
+    /**
+     * Creates an update for several tiles of the same tile page
+     *
+     * @param tileIndex the index of any of the tiles, to locate their page
+     * @param tileCount the number of tiles added to the page, negative if removed
+     */
+    public QuotaUpdate(TileSet tileset, long quotaUpdateSize, long[] tileIndex, int tileCount) {
         this.tileSet = tileset;
         this.size = quotaUpdateSize;
         this.tileIndex = tileIndex;
+        this.tileCount = tileCount;
     }
 
     public TileSet getTileSet() {
@@ -51,6 +64,11 @@ public long[] getTileIndex() {
         return tileIndex;
     }
 
+    /** @return the number of tiles added to the tile page, negative if removed */
+    public int getTileCount() {
+        return tileCount;
+    }
+
     @Override
     public String toString() {
         return new StringBuilder("[")
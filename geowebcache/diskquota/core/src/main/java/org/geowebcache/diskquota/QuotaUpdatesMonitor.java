@@ -13,6 +13,7 @@
  */
 package org.geowebcache.diskquota;
 
+import java.util.Collection;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
@@ -39,6 +40,8 @@ public class QuotaUpdatesMonitor extends AbstractMonitor {
 
     private QueuedQuotaUpdatesConsumer quotaUsageUpdatesConsumer;
 
+    private QueuedQuotaUpdatesConsumer.CommitListener commitListener;
+
     public QuotaUpdatesMonitor(final StorageBroker storageBroker, final QuotaStore quotaStore) {
         Assert.notNull(storageBroker, "storageBroker is null");
         Assert.notNull(quotaStore, "quotaStore is null");
@@ -58,6 +61,13 @@ public QuotaUpdatesMonitor(final StorageBroker storageBroker, final QuotaStore q
         }
     }
 
+    /**
+     * Sets the listener notified of the updates committed to the quota store, to be called before {@link #startUp()}
+     */
+    public void setCommitListener(QueuedQuotaUpdatesConsumer.CommitListener commitListener) {
+        this.commitListener = commitListener;
+    }
+
     @Override
     public void startUp() {
         super.startUp();
@@ -65,7 +75,7 @@ public void startUp() {
         quotaDiffsProducer = new QueuedQuotaUpdatesProducer(sharedQueue, quotaStore);
 
         // the task that takes quota updates from the queue and saves them to the store
-        quotaUsageUpdatesConsumer = new QueuedQuotaUpdatesConsumer(quotaStore, sharedQueue);
+        quotaUsageUpdatesConsumer = new QueuedQuotaUpdatesConsumer(quotaStore, sharedQueue, commitListener);
 
         // the listener that puts quota updates on the queue
         storageBroker.addBlobStoreListener(quotaDiffsProducer);
@@ -114,6 +124,14 @@ public void tileStored(
         this.quotaDiffsProducer.tileStored(layerName, gridSetId, blobFormat, parametersId, x, y, z, blobSize);
     }
 
+    /**
+     * Adds the given tiles, already on disk, to the quota store right away, bypassing the updates queue, so that they
+     * are accounted for once this method returns
+     */
+    public void tilesFound(Collection<QuotaUpdate> tiles) throws InterruptedException {
+        quotaUsageUpdatesConsumer.commit(tiles);
+    }
+
     @Override
     protected CustomizableThreadFactory getThreadFactory() {
         return tf;
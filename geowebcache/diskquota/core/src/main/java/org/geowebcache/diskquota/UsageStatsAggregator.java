@@ -0,0 +1,119 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.geowebcache.diskquota.storage.PageStatsPayload;
+import org.geowebcache.diskquota.storage.TilePage;
+import org.geowebcache.diskquota.storage.TilePageCalculator;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.springframework.util.Assert;
+
+/**
+ * Accumulates tile hits per {@link TilePage tile page} as tiles are requested, until {@link #drain() drained} to the
+ * quota store.
+ *
+ * <p>Recording a hit never blocks: it looks up the page counters and increments them. When as many pages as the
+ * configured maximum have pending hits, hits on other pages are dropped and {@link #getDroppedHits() counted} instead,
+ * so a quota store that can't keep up loses usage statistics rather than slowing down tile requests. A hit recorded
+ * while its page is being drained for being idle may be lost as well.
+ */
+public class UsageStatsAggregator {
+
+    /** Default maximum number of pages with pending hits */
+    public static final int DEFAULT_MAX_PENDING_PAGES = 10_000;
+
+    private final TilePageCalculator tilePageCalculator;
+
+    private final int maxPendingPages;
+
+    private final Map<PageKey, PageHits> pages = new ConcurrentHashMap<>();
+
+    private final LongAdder droppedHits = new LongAdder();
+
+    public UsageStatsAggregator(TilePageCalculator tilePageCalculator, int maxPendingPages) {
+        Assert.notNull(tilePageCalculator, "tilePageCalculator can't be null");
+        Assert.isTrue(maxPendingPages > 0, "maxPendingPages must be positive");
+        this.tilePageCalculator = tilePageCalculator;
+        this.maxPendingPages = maxPendingPages;
+    }
+
+    /**
+     * Records a hit on the page of the given tile
+     *
+     * @return {@literal false} if the hit was dropped
+     */
+    public boolean tileRequested(TileSet tileSet, long[] tileIndex) {
+        int[] pageIndex = tilePageCalculator.pageIndexForTile(tileSet, tileIndex, new int[3]);
+        PageKey key = new PageKey(tileSet, pageIndex[0], pageIndex[1], pageIndex[2]);
+        PageHits hits = pages.get(key);
+        if (hits == null) {
+            if (pages.size() >= maxPendingPages) {
+                droppedHits.increment();
+                return false;
+            }
+            hits = pages.computeIfAbsent(key, k -> new PageHits());
+        }
+        hits.hits.increment();
+        hits.lastAccessTime = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Collects the hits recorded since the last call, and forgets the pages that got none in the meantime
+     *
+     * @return the pages hit since the last call, with their number of hits and last access time
+     */
+    public List<PageStatsPayload> drain() {
+        List<PageStatsPayload> payloads = new ArrayList<>();
+        for (Map.Entry<PageKey, PageHits> entry : pages.entrySet()) {
+            PageKey key = entry.getKey();
+            PageHits hits = entry.getValue();
+            long count = hits.hits.sumThenReset();
+            if (count == 0) {
+                pages.remove(key, hits);
+                continue;
+            }
+            TilePage page = new TilePage(key.tileSet.getId(), key.x, key.y, key.z);
+            PageStatsPayload payload = new PageStatsPayload(page, key.tileSet);
+            payload.setNumHits((int) Math.min(Integer.MAX_VALUE, count));
+            payload.setLastAccessTime(hits.lastAccessTime);
+            payloads.add(payload);
+        }
+        return payloads;
+    }
+
+    /** @return the number of pages with recent hits */
+    public int getPendingPages() {
+        return pages.size();
+    }
+
+    /** @return the number of hits dropped so far because too many pages had pending hits */
+    public long getDroppedHits() {
+        return droppedHits.sum();
+    }
+
+    private record PageKey(TileSet tileSet, int x, int y, int z) {}
+
+    private static final class PageHits {
+
+        final LongAdder hits = new LongAdder();
+
+        volatile long lastAccessTime;
+    }
+}
@@ -13,11 +13,10 @@
  */
 package org.geowebcache.diskquota;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
 import org.geowebcache.diskquota.storage.TilePageCalculator;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileLayerDispatcher;
@@ -38,19 +37,25 @@ public class UsageStatsMonitor extends AbstractMonitor {
 
     private final TilePageCalculator tilePageCalculator;
 
-    /** Queue shared by the stats producer and the consumer */
-    private BlockingQueue<UsageStats> sharedQueue;
+    /**
+     * Maximum number of tile pages with usage stats pending to be saved, further hits are dropped until the quota store
+     * catches up
+     */
+    public static final String MAX_PENDING_PAGES = "GWC_DISKQUOTA_MAX_PENDING_USAGE_PAGES";
+
+    /** Hits aggregator shared by the stats producer and the consumer */
+    private UsageStatsAggregator aggregator;
 
     /**
      * Listens to all {@link TileLayer layers} {@link TileLayerListener#tileRequested(TileLayer,
-     * org.geowebcache.conveyor.ConveyorTile) tileRequested} events and puts usage statistics on the
-     * {@link #sharedQueue} for the consumer to save them to the {@link #quotaStore}
+     * org.geowebcache.conveyor.ConveyorTile) tileRequested} events and records usage statistics on the
+     * {@link #aggregator} for the consumer to save them to the {@link #quotaStore}
      */
     private QueuedUsageStatsProducer usageStatsProducer;
 
     /**
-     * Task that constantly polls the {@link #sharedQueue} for usage statistics payload objects and aggregates them to
-     * be saved to the {@link #quotaStore} for the LRU and LFU {@link ExpirationPolicy expiration policies}
+     * Task that periodically drains the {@link #aggregator} to save the usage statistics to the {@link #quotaStore} for
+     * the LRU and LFU {@link ExpirationPolicy expiration policies}
      */
     private QueuedUsageStatsConsumer usageStatsConsumer;
 
@@ -68,12 +73,12 @@ public UsageStatsMonitor(final QuotaStore quotaStore, final TileLayerDispatcher
     public void startUp() {
         super.startUp();
 
-        sharedQueue = new LinkedBlockingQueue<>(1000);
+        aggregator = new UsageStatsAggregator(tilePageCalculator, getMaxPendingPages());
 
-        usageStatsConsumer = new QueuedUsageStatsConsumer(quotaStore, sharedQueue, tilePageCalculator);
+        usageStatsConsumer = new QueuedUsageStatsConsumer(quotaStore, aggregator);
         getExecutorService().submit(usageStatsConsumer);
 
-        usageStatsProducer = new QueuedUsageStatsProducer(sharedQueue);
+        usageStatsProducer = new QueuedUsageStatsProducer(aggregator);
         Iterable<TileLayer> allLayers = tileLayerDispatcher.getLayerList();
         for (TileLayer layer : allLayers) {
             layer.addLayerListener(usageStatsProducer);
@@ -105,7 +110,28 @@ protected void shutDown(final boolean cancel) {
         } else {
             getExecutorService().shutdown();
         }
-        sharedQueue = null;
+        aggregator = null;
+    }
+
+    private static int getMaxPendingPages() {
+        String configured = GeoWebCacheExtensions.getProperty(MAX_PENDING_PAGES);
+        if (configured != null) {
+            try {
+                int value = Integer.parseInt(configured.trim());
+                if (value > 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // fall back to the default
+            }
+            log.warning("Invalid value for "
+                    + MAX_PENDING_PAGES
+                    + ": "
+                    + configured
+                    + ", using "
+                    + UsageStatsAggregator.DEFAULT_MAX_PENDING_PAGES);
+        }
+        return UsageStatsAggregator.DEFAULT_MAX_PENDING_PAGES;
     }
 
     @Override
@@ -0,0 +1,828 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota.memory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.diskquota.PageCosts;
+import org.geowebcache.diskquota.QuotaStore;
+import org.geowebcache.diskquota.storage.PageStats;
+import org.geowebcache.diskquota.storage.PageStatsPayload;
+import org.geowebcache.diskquota.storage.Quota;
+import org.geowebcache.diskquota.storage.TilePage;
+import org.geowebcache.diskquota.storage.TilePageCalculator;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.geowebcache.diskquota.storage.TileSetVisitor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link QuotaStore} keeping the page statistics in memory, for when the disk quota updates are too many for a
+ * transactional store to keep up with.
+ *
+ * <p>The statistics of the pages of each tile set zoom level are kept in an off-heap buffer, laid out as the page grid
+ * of the level, and updated in place with atomic operations, so no lock is taken and no object is allocated to record
+ * tile counts and hits. The pages to expire are found scanning the pages of the requested layers, keeping the best
+ * candidates in a bounded heap.
+ *
+ * <p>A snapshot of the statistics is appended to a file every {@link #SNAPSHOT_INTERVAL} seconds (30 by default) when
+ * they changed, and on {@link #close()}. Snapshots are taken while updates go on, and the file is rewritten with the
+ * last snapshot only once older ones take most of its space. On start up the last complete snapshot is loaded, so a
+ * crash loses at most the updates of a snapshot interval.
+ */
+public class MemoryQuotaStore implements QuotaStore {
+
+    private static final Logger log = Logging.getLogger(MemoryQuotaStore.class.getName());
+
+    /** Seconds between snapshots of the page statistics */
+    public static final String SNAPSHOT_INTERVAL = "GWC_DISKQUOTA_MEMORY_SNAPSHOT_INTERVAL";
+
+    static final int DEFAULT_SNAPSHOT_INTERVAL = 30;
+
+    /** Name of the store directory, in the cache directory */
+    public static final String STORE_DIRECTORY = "diskquota_memory_store";
+
+    static final String SNAPSHOT_FILE = "pages.snapshot";
+
+    private static final int SNAPSHOT_MAGIC = 0x47574351;
+
+    /** The snapshot file is rewritten when larger than this many times the last snapshot */
+    private static final int COMPACTION_FACTOR = 4;
+
+    /** TilePage stores the zoom level as a byte */
+    private static final int MAX_ZOOM_LEVELS = Byte.MAX_VALUE + 1;
+
+    private final TilePageCalculator tilePageCalculator;
+
+    private final File storeDirectory;
+
+    private final File snapshotFile;
+
+    private final Map<String, TileSetCounters> tileSets = new ConcurrentHashMap<>();
+
+    private volatile boolean dirty;
+
+    private volatile boolean open;
+
+    private ScheduledExecutorService snapshotWriter;
+
+    public MemoryQuotaStore(File storeDirectory, TilePageCalculator tilePageCalculator) {
+        Assert.notNull(storeDirectory, "storeDirectory can't be null");
+        Assert.notNull(tilePageCalculator, "tilePageCalculator can't be null");
+        this.storeDirectory = storeDirectory;
+        this.snapshotFile = new File(storeDirectory, SNAPSHOT_FILE);
+        this.tilePageCalculator = tilePageCalculator;
+    }
+
+    /** Loads the last snapshot, syncs the tile sets with the configured layers, and schedules the next snapshots */
+    public void startUp() throws IOException {
+        if (!storeDirectory.isDirectory() && !storeDirectory.mkdirs()) {
+            throw new IOException("Could not create the disk quota store directory " + storeDirectory);
+        }
+        readSnapshot();
+
+        final Set<String> layerNames = tilePageCalculator.getLayerNames();
+        Set<String> layersToDelete = new HashSet<>();
+        for (TileSetCounters counters : tileSets.values()) {
+            layersToDelete.add(counters.tileSet.getLayerName());
+        }
+        layersToDelete.removeAll(layerNames);
+        for (String layerName : layersToDelete) {
+            log.info("Deleting disk quota information for layer '" + layerName + "' as it does not exist anymore...");
+            deleteLayer(layerName);
+        }
+        for (String layerName : layerNames) {
+            createLayer(layerName);
+        }
+
+        int interval = getSnapshotInterval();
+        snapshotWriter =
+                Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("GWC DiskQuota Snapshots-"));
+        snapshotWriter.scheduleWithFixedDelay(this::scheduledSnapshot, interval, interval, TimeUnit.SECONDS);
+        open = true;
+        log.config("Memory disk quota store initialized at "
+                + storeDirectory.getAbsolutePath()
+                + ". Global quota: "
+                + getGloballyUsedQuota().toNiceString());
+    }
+
+    private static int getSnapshotInterval() {
+        String configured = GeoWebCacheExtensions.getProperty(SNAPSHOT_INTERVAL);
+        if (configured != null) {
+            try {
+                int interval = Integer.parseInt(configured.trim());
+                if (interval > 0) {
+                    return interval;
+                }
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+            log.warning("Invalid value for "
+                    + SNAPSHOT_INTERVAL
+                    + ": "
+                    + configured
+                    + ", using "
+                    + DEFAULT_SNAPSHOT_INTERVAL);
+        }
+        return DEFAULT_SNAPSHOT_INTERVAL;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (!open) {
+            return;
+        }
+        open = false;
+        log.config("Requesting to close quota store...");
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeSnapshot();
+        log.config("Quota store closed.");
+    }
+
+    @Override
+    public void createLayer(final String layerName) {
+        for (TileSet tileSet : tilePageCalculator.getTileSetsFor(layerName)) {
+            getOrCreate(tileSet);
+        }
+    }
+
+    private TileSetCounters getOrCreate(TileSet tileSet) {
+        TileSetCounters counters = tileSets.get(tileSet.getId());
+        if (counters == null) {
+            counters = tileSets.computeIfAbsent(tileSet.getId(), id -> {
+                log.fine("Creating TileSet for quota tracking: " + tileSet);
+                dirty = true;
+                return new TileSetCounters(tileSet, new AtomicLong(), new AtomicReferenceArray<>(MAX_ZOOM_LEVELS));
+            });
+        }
+        return counters;
+    }
+
+    @Override
+    public Quota getGloballyUsedQuota() {
+        return sumQuota(counters -> true);
+    }
+
+    @Override
+    public Quota getUsedQuotaByTileSetId(final String tileSetId) {
+        TileSetCounters counters = tileSets.get(tileSetId);
+        return counters == null ? new Quota() : new Quota(BigInteger.valueOf(counters.bytes.get()));
+    }
+
+    @Override
+    public Quota getUsedQuotaByLayerName(final String layerName) {
+        return sumQuota(counters -> layerName.equals(counters.tileSet.getLayerName()));
+    }
+
+    private Quota sumQuota(Predicate<TileSetCounters> filter) {
+        long bytes = 0;
+        for (TileSetCounters counters : tileSets.values()) {
+            if (filter.test(counters)) {
+                bytes += counters.bytes.get();
+            }
+        }
+        return new Quota(BigInteger.valueOf(bytes));
+    }
+
+    @Override
+    public void deleteLayer(final String layerName) {
+        Assert.notNull(layerName, "LayerName must be non null");
+        delete(layerName, ts -> true);
+    }
+
+    @Override
+    public void deleteGridSubset(String layerName, String gridSetId) {
+        delete(layerName, ts -> Objects.equals(ts.getGridsetId(), gridSetId));
+    }
+
+    @Override
+    public void deleteParameters(String layerName, String parametersId) {
+        delete(layerName, ts -> Objects.equals(ts.getParametersId(), parametersId));
+    }
+
+    private void delete(String layerName, Predicate<TileSet> shouldDelete) {
+        boolean deleted = tileSets.values()
+                .removeIf(counters ->
+                        layerName.equals(counters.tileSet.getLayerName()) && shouldDelete.test(counters.tileSet));
+        if (deleted) {
+            dirty = true;
+        }
+    }
+
+    /** Moves the statistics of the old layer tile sets to the new layer ones, the page grids being the same */
+    @Override
+    public void renameLayer(String oldLayerName, String newLayerName) {
+        Assert.notNull(oldLayerName, "Old layer name must be non null");
+        Assert.notNull(newLayerName, "New layer name must be non null");
+        for (TileSetCounters old : new ArrayList<>(tileSets.values())) {
+            TileSet oldTileSet = old.tileSet;
+            if (oldLayerName.equals(oldTileSet.getLayerName()) && tileSets.remove(oldTileSet.getId(), old)) {
+                TileSet newTileSet = new TileSet(
+                        newLayerName,
+                        oldTileSet.getGridsetId(),
+                        oldTileSet.getBlobFormat(),
+                        oldTileSet.getParametersId());
+                tileSets.put(newTileSet.getId(), new TileSetCounters(newTileSet, old.bytes, old.levels));
+            }
+        }
+        dirty = true;
+    }
+
+    @Override
+    public long[][] getTilesForPage(TilePage page) {
+        TileSet tileSet = getTileSetById(page.getTileSetId());
+        return tilePageCalculator.toGridCoverage(tileSet, page);
+    }
+
+    @Override
+    public Set<TileSet> getTileSets() {
+        Set<TileSet> set = new HashSet<>();
+        for (TileSetCounters counters : tileSets.values()) {
+            set.add(counters.tileSet);
+        }
+        return set;
+    }
+
+    @Override
+    public TileSet getTileSetById(final String tileSetId) {
+        TileSetCounters counters = tileSets.get(tileSetId);
+        if (counters == null) {
+            throw new IllegalArgumentException("TileSet does not exist: " + tileSetId);
+        }
+        return counters.tileSet;
+    }
+
+    @Override
+    public void accept(TileSetVisitor visitor) {
+        for (TileSetCounters counters : tileSets.values()) {
+            visitor.visit(counters.tileSet, this);
+        }
+    }
+
+    @Override
+    public TilePageCalculator getTilePageCalculator() {
+        return tilePageCalculator;
+    }
+
+    @Override
+    public void addToQuotaAndTileCounts(
+            final TileSet tileSet, final Quota quotaDiff, final Collection<PageStatsPayload> tileCountDiffs) {
+        TileSetCounters counters = getOrCreate(tileSet);
+        counters.bytes.addAndGet(quotaDiff.getBytes().longValue());
+        for (PageStatsPayload payload : tileCountDiffs) {
+            TilePage page = payload.getPage();
+            PageLevel level = counters.level(page.getZoomLevel());
+            int offset = level.offset(page.getPageX(), page.getPageY());
+            if (offset < 0) {
+                continue;
+            }
+            level.touch(offset, page.getCreationTimeMinutes());
+            level.addTiles(offset, payload.getNumTiles());
+        }
+        dirty = true;
+    }
+
+    @Override
+    public Future<List<PageStats>> addHitsAndSetAccesTime(final Collection<PageStatsPayload> statsUpdates) {
+        Assert.notNull(statsUpdates, "Stats update must be non null");
+        List<PageStats> allStats = new ArrayList<>(statsUpdates.size());
+        for (PageStatsPayload payload : statsUpdates) {
+            TilePage page = payload.getPage();
+            TileSetCounters counters = tileSets.get(page.getTileSetId());
+            if (counters == null) {
+                log.info("Can't add usage stats. TileSet does not exist. Was it deleted? " + page.getTileSetId());
+                continue;
+            }
+            PageLevel level = counters.level(page.getZoomLevel());
+            int offset = level.offset(page.getPageX(), page.getPageY());
+            if (offset < 0) {
+                continue;
+            }
+            level.touch(offset, page.getCreationTimeMinutes());
+            final int lastAccessTimeMinutes = (int) (payload.getLastAccessTime() / 1000 / 60);
+            level.addHits(offset, payload.getNumHits(), lastAccessTimeMinutes);
+            allStats.add(level.getPageStats(offset));
+        }
+        dirty = true;
+        return CompletableFuture.completedFuture(allStats);
+    }
+
+    @Override
+    public TilePage getLeastFrequentlyUsedPage(final Set<String> layerNames) {
+        List<TilePage> pages = getLeastFrequentlyUsedPages(layerNames, 1);
+        return pages.isEmpty() ? null : pages.get(0);
+    }
+
+    @Override
+    public TilePage getLeastRecentlyUsedPage(final Set<String> layerNames) {
+        List<TilePage> pages = getLeastRecentlyUsedPages(layerNames, 1);
+        return pages.isEmpty() ? null : pages.get(0);
+    }
+
+    @Override
+    public List<TilePage> getLeastFrequentlyUsedPages(final Set<String> layerNames, int maxPages) {
+        return findPagesToExpire(layerNames, maxPages, (tileSet, level, offset) -> level.getFrequencyOfUse(offset));
+    }
+
+    @Override
+    public List<TilePage> getLeastRecentlyUsedPages(final Set<String> layerNames, int maxPages) {
+        return findPagesToExpire(
+                layerNames, maxPages, (tileSet, level, offset) -> level.getLastAccessTimeMinutes(offset));
+    }
+
+    @Override
+    public List<TilePage> getLeastValuablePages(final Set<String> layerNames, int maxPages, final PageCosts costs) {
+        return findPagesToExpire(
+                layerNames,
+                maxPages,
+                (tileSet, level, offset) ->
+                        costs.score(tileSet.getLayerName(), level.zoomLevel, level.getFrequencyOfUse(offset)));
+    }
+
+    /**
+     * Finds the non empty pages of the given layers with the lowest expiration key, keeping the {@code maxPages} best
+     * candidates found so far in a heap topped by the one to expire last
+     */
+    private List<TilePage> findPagesToExpire(Set<String> layerNames, int maxPages, ExpirationKey expirationKey) {
+        if (maxPages <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(
+                maxPages, Comparator.comparingDouble(Candidate::key).reversed());
+        for (TileSetCounters counters : tileSets.values()) {
+            if (!layerNames.contains(counters.tileSet.getLayerName())) {
+                continue;
+            }
+            for (int z = 0; z < MAX_ZOOM_LEVELS; z++) {
+                PageLevel level = counters.levels.get(z);
+                if (level == null) {
+                    continue;
+                }
+                for (int index = 0; index < level.pageCount; index++) {
+                    int offset = index * PageLevel.RECORD_SIZE;
+                    if (level.getCreationTimeMinutes(offset) == 0 || level.getFillFactor(offset) <= 0) {
+                        continue;
+                    }
+                    double key = expirationKey.get(counters.tileSet, level, offset);
+                    if (candidates.size() < maxPages) {
+                        candidates.add(new Candidate(counters.tileSet, level, index, key));
+                    } else if (key < candidates.peek().key()) {
+                        candidates.poll();
+                        candidates.add(new Candidate(counters.tileSet, level, index, key));
+                    }
+                }
+            }
+        }
+        List<Candidate> sorted = new ArrayList<>(candidates);
+        sorted.sort(Comparator.comparingDouble(Candidate::key));
+        List<TilePage> pages = new ArrayList<>(sorted.size());
+        for (Candidate candidate : sorted) {
+            pages.add(candidate.toTilePage());
+        }
+        return pages;
+    }
+
+    @Override
+    public PageStats setTruncated(final TilePage tilePage) {
+        TileSetCounters counters = tileSets.get(tilePage.getTileSetId());
+        if (counters == null) {
+            return null;
+        }
+        PageLevel level = counters.levels.get(tilePage.getZoomLevel());
+        int offset = level == null ? -1 : level.offset(tilePage.getPageX(), tilePage.getPageY());
+        if (offset < 0 || level.getCreationTimeMinutes(offset) == 0) {
+            return null;
+        }
+        level.setFillFactor(offset, 0f);
+        dirty = true;
+        return level.getPageStats(offset);
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.log(Level.WARNING, "Failed to write the disk quota snapshot to " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Appends a snapshot of the statistics to the snapshot file, if they changed since the previous one
+     *
+     * <p>Each snapshot is written as a magic number, the payload length and CRC32, followed by the payload: the number
+     * of tile sets, and for each the tile set identifiers and used bytes, followed by its zoom levels and their pages.
+     * Zoom levels are written as the level, the page grid size and the touched pages, ended by -1, the list of levels
+     * is ended by -1 as well.
+     */
+    synchronized void writeSnapshot() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        List<TileSetCounters> snapshot = new ArrayList<>(tileSets.values());
+        out.writeInt(snapshot.size());
+        for (TileSetCounters counters : snapshot) {
+            TileSet tileSet = counters.tileSet;
+            out.writeUTF(tileSet.getLayerName());
+            out.writeUTF(tileSet.getGridsetId());
+            out.writeUTF(tileSet.getBlobFormat());
+            out.writeBoolean(tileSet.getParametersId() != null);
+            if (tileSet.getParametersId() != null) {
+                out.writeUTF(tileSet.getParametersId());
+            }
+            out.writeLong(counters.bytes.get());
+            for (int z = 0; z < MAX_ZOOM_LEVELS; z++) {
+                PageLevel level = counters.levels.get(z);
+                if (level != null) {
+                    out.writeByte(z);
+                    out.writeInt(level.pagesX);
+                    out.writeInt(level.pagesY);
+                    level.write(out);
+                    out.writeInt(-1);
+                }
+            }
+            out.writeByte(-1);
+        }
+        out.flush();
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer block = ByteBuffer.allocate(16 + payload.length);
+        block.putInt(SNAPSHOT_MAGIC)
+                .putInt(payload.length)
+                .putLong(crc.getValue())
+                .put(payload);
+        block.flip();
+
+        if (snapshotFile.length() + block.remaining() > (long) COMPACTION_FACTOR * block.remaining()) {
+            Path tmp = new File(storeDirectory, SNAPSHOT_FILE + ".tmp").toPath();
+            try (FileChannel channel = FileChannel.open(
+                    tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(channel, block);
+            }
+            Files.move(tmp, snapshotFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            try (FileChannel channel =
+                    FileChannel.open(snapshotFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writeFully(channel, block);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer block) throws IOException {
+        while (block.hasRemaining()) {
+            channel.write(block);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Loads the last complete snapshot, and truncates the file after it if a crash left an incomplete or corrupt one
+     * behind, so that the next snapshots are appended where they can be read back
+     */
+    private void readSnapshot() throws IOException {
+        if (!snapshotFile.isFile()) {
+            return;
+        }
+        byte[] last = null;
+        // end of the last valid snapshot in the file
+        long validLength = 0;
+        try (InputStream fileIn = new BufferedInputStream(new FileInputStream(snapshotFile));
+                DataInputStream in = new DataInputStream(fileIn)) {
+            while (in.readInt() == SNAPSHOT_MAGIC) {
+                int length = in.readInt();
+                long checksum = in.readLong();
+                if (length < 0 || length > snapshotFile.length()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if (crc.getValue() != checksum) {
+                    break;
+                }
+                last = payload;
+                validLength += 16 + length;
+            }
+        } catch (EOFException e) {
+            // end of file, or the last snapshot is incomplete
+        }
+        if (validLength < snapshotFile.length()) {
+            log.warning("Discarding an incomplete disk quota snapshot at the end of " + snapshotFile);
+            try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+                channel.force(false);
+            }
+        }
+        if (last == null) {
+            log.warning("No valid disk quota snapshot found in " + snapshotFile + ", starting from scratch");
+            return;
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(last));
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String layerName = in.readUTF();
+            String gridsetId = in.readUTF();
+            String blobFormat = in.readUTF();
+            String parametersId = in.readBoolean() ? in.readUTF() : null;
+            TileSet tileSet = new TileSet(layerName, gridsetId, blobFormat, parametersId);
+            TileSetCounters counters = new TileSetCounters(
+                    tileSet, new AtomicLong(in.readLong()), new AtomicReferenceArray<>(MAX_ZOOM_LEVELS));
+            int z;
+            while ((z = in.readByte()) >= 0) {
+                int pagesX = in.readInt();
+                int pagesY = in.readInt();
+                PageLevel level = counters.compatibleLevel(z, pagesX, pagesY);
+                int index;
+                while ((index = in.readInt()) >= 0) {
+                    PageLevel.read(in, level, index);
+                }
+            }
+            tileSets.put(tileSet.getId(), counters);
+        }
+    }
+
+    private interface ExpirationKey {
+        double get(TileSet tileSet, PageLevel level, int offset);
+    }
+
+    private record Candidate(TileSet tileSet, PageLevel level, int index, double key) {
+
+        TilePage toTilePage() {
+            int offset = index * PageLevel.RECORD_SIZE;
+            return new TilePage(
+                    tileSet.getId(),
+                    index % level.pagesX,
+                    index / level.pagesX,
+                    level.zoomLevel,
+                    level.getCreationTimeMinutes(offset));
+        }
+    }
+
+    /** The used bytes and per zoom level page statistics of a tile set, levels being allocated when first used */
+    private final class TileSetCounters {
+
+        final TileSet tileSet;
+
+        final AtomicLong bytes;
+
+        final AtomicReferenceArray<PageLevel> levels;
+
+        TileSetCounters(TileSet tileSet, AtomicLong bytes, AtomicReferenceArray<PageLevel> levels) {
+            this.tileSet = tileSet;
+            this.bytes = bytes;
+            this.levels = levels;
+        }
+
+        PageLevel level(int zoomLevel) {
+            PageLevel level = levels.get(zoomLevel);
+            if (level == null) {
+                PageLevel created = new PageLevel(
+                        zoomLevel,
+                        tilePageCalculator.getPagesPerLevelX(tileSet, zoomLevel),
+                        tilePageCalculator.getPagesPerLevelY(tileSet, zoomLevel),
+                        tilePageCalculator.getTilesPerPage(tileSet, zoomLevel).doubleValue());
+                level = levels.compareAndSet(zoomLevel, null, created) ? created : levels.get(zoomLevel);
+            }
+            return level;
+        }
+
+        /** @return the zoom level if its page grid is still the given one, {@code null} otherwise */
+        PageLevel compatibleLevel(int zoomLevel, int pagesX, int pagesY) {
+            try {
+                PageLevel level = level(zoomLevel);
+                if (level.pagesX == pagesX && level.pagesY == pagesY) {
+                    return level;
+                }
+            } catch (RuntimeException e) {
+                log.log(Level.FINE, "Can't restore zoom level " + zoomLevel + " of " + tileSet, e);
+            }
+            log.fine("Discarding the page statistics of zoom level " + zoomLevel + " of " + tileSet);
+            return null;
+        }
+    }
+
+    /**
+     * The statistics of the pages of a zoom level, in an off-heap buffer with a fixed size record per page, in row
+     * major order. A record holds the number of hits, the fill factor, the frequency of use, the last access time and
+     * the creation time, the latter being zero until the page is first used.
+     */
+    static final class PageLevel {
+
+        static final int RECORD_SIZE = 24;
+
+        private static final int HITS = 0;
+
+        private static final int FILL_FACTOR = 8;
+
+        private static final int FREQUENCY = 12;
+
+        private static final int LAST_ACCESS = 16;
+
+        private static final int CREATION = 20;
+
+        private static final VarHandle LONGS =
+                MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+        private static final VarHandle INTS =
+                MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+        final int zoomLevel;
+
+        final int pagesX;
+
+        final int pagesY;
+
+        final int pageCount;
+
+        private final double tilesPerPage;
+
+        private final ByteBuffer records;
+
+        PageLevel(int zoomLevel, int pagesX, int pagesY, double tilesPerPage) {
+            this.zoomLevel = zoomLevel;
+            this.pagesX = pagesX;
+            this.pagesY = pagesY;
+            this.pageCount = pagesX * pagesY;
+            this.tilesPerPage = tilesPerPage;
+            // atomic access needs aligned longs
+            this.records = ByteBuffer.allocateDirect(pageCount * RECORD_SIZE + 7)
+                    .alignedSlice(8)
+                    .order(ByteOrder.nativeOrder());
+        }
+
+        /** @return the offset of the page record, or -1 if the page is out of the grid */
+        int offset(int pageX, int pageY) {
+            if (pageX < 0 || pageY < 0 || pageX >= pagesX || pageY >= pagesY) {
+                return -1;
+            }
+            return (pageY * pagesX + pageX) * RECORD_SIZE;
+        }
+
+        void touch(int offset, int creationTimeMinutes) {
+            if ((int) INTS.getVolatile(records, offset + CREATION) == 0) {
+                INTS.compareAndSet(records, offset + CREATION, 0, Math.max(1, creationTimeMinutes));
+            }
+        }
+
+        void addTiles(int offset, int numTiles) {
+            int bits;
+            float fillFactor;
+            do {
+                bits = (int) INTS.getVolatile(records, offset + FILL_FACTOR);
+                fillFactor = (float) (Float.intBitsToFloat(bits) + numTiles / tilesPerPage);
+                fillFactor = Math.max(0f, Math.min(1f, fillFactor));
+            } while (!INTS.compareAndSet(records, offset + FILL_FACTOR, bits, Float.floatToRawIntBits(fillFactor)));
+        }
+
+        /** Same as {@link PageStats#addHitsAndAccessTime}, each field being updated atomically */
+        void addHits(int offset, long hits, int lastAccessTimeMinutes) {
+            int creation = getCreationTimeMinutes(offset);
+            long numHits = (long) LONGS.getAndAdd(records, offset + HITS, hits) + hits;
+            int last;
+            do {
+                last = (int) INTS.getVolatile(records, offset + LAST_ACCESS);
+            } while (last < lastAccessTimeMinutes
+                    && !INTS.compareAndSet(records, offset + LAST_ACCESS, last, lastAccessTimeMinutes));
+            last = Math.max(creation, Math.max(last, lastAccessTimeMinutes));
+
+            int bits;
+            float fillFactor;
+            do {
+                // hits recorded before the quota increase
+                bits = (int) INTS.getVolatile(records, offset + FILL_FACTOR);
+                fillFactor = Float.intBitsToFloat(bits);
+            } while (fillFactor <= 0f
+                    && !INTS.compareAndSet(
+                            records, offset + FILL_FACTOR, bits, Float.floatToRawIntBits(Float.MIN_VALUE)));
+            fillFactor = Math.max(fillFactor, Float.MIN_VALUE);
+
+            float frequency = (float) ((double) numHits / (1 + last - creation) * fillFactor);
+            INTS.setVolatile(records, offset + FREQUENCY, Float.floatToRawIntBits(frequency));
+        }
+
+        void setFillFactor(int offset, float fillFactor) {
+            INTS.setVolatile(records, offset + FILL_FACTOR, Float.floatToRawIntBits(fillFactor));
+        }
+
+        float getFillFactor(int offset) {
+            return Float.intBitsToFloat((int) INTS.getVolatile(records, offset + FILL_FACTOR));
+        }
+
+        double getFrequencyOfUse(int offset) {
+            return Float.intBitsToFloat((int) INTS.getVolatile(records, offset + FREQUENCY));
+        }
+
+        int getLastAccessTimeMinutes(int offset) {
+            return (int) INTS.getVolatile(records, offset + LAST_ACCESS);
+        }
+
+        int getCreationTimeMinutes(int offset) {
+            return (int) INTS.getVolatile(records, offset + CREATION);
+        }
+
+        PageStats getPageStats(int offset) {
+            PageStats stats = new PageStats(0);
+            stats.setNumHits(BigInteger.valueOf((long) LONGS.getVolatile(records, offset + HITS)));
+            stats.setFillFactor(getFillFactor(offset));
+            stats.setFrequencyOfUsePerMinute((float) getFrequencyOfUse(offset));
+            stats.setLastAccessMinutes(getLastAccessTimeMinutes(offset));
+            return stats;
+        }
+
+        /** Writes the index and record of the used pages */
+        void write(DataOutputStream out) throws IOException {
+            for (int index = 0; index < pageCount; index++) {
+                int offset = index * RECORD_SIZE;
+                if (getCreationTimeMinutes(offset) != 0) {
+                    out.writeInt(index);
+                    out.writeLong((long) LONGS.getVolatile(records, offset + HITS));
+                    out.writeInt((int) INTS.getVolatile(records, offset + FILL_FACTOR));
+                    out.writeInt((int) INTS.getVolatile(records, offset + FREQUENCY));
+                    out.writeInt((int) INTS.getVolatile(records, offset + LAST_ACCESS));
+                    out.writeInt(getCreationTimeMinutes(offset));
+                }
+            }
+        }
+
+        /** Reads a page record written by {@link #write}, discarding it if the level is {@code null} */
+        static void read(DataInputStream in, PageLevel level, int index) throws IOException {
+            long hits = in.readLong();
+            int fillFactor = in.readInt();
+            int frequency = in.readInt();
+            int lastAccess = in.readInt();
+            int creation = in.readInt();
+            if (level == null || index >= level.pageCount) {
+                return;
+            }
+            int offset = index * RECORD_SIZE;
+            LONGS.setVolatile(level.records, offset + HITS, hits);
+            INTS.setVolatile(level.records, offset + FILL_FACTOR, fillFactor);
+            INTS.setVolatile(level.records, offset + FREQUENCY, frequency);
+            INTS.setVolatile(level.records, offset + LAST_ACCESS, lastAccess);
+            INTS.setVolatile(level.records, offset + CREATION, creation);
+        }
+    }
+}
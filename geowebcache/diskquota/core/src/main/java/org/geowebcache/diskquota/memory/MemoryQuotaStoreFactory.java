@@ -0,0 +1,50 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota.memory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.geowebcache.config.ConfigurationException;
+import org.geowebcache.diskquota.QuotaStore;
+import org.geowebcache.diskquota.QuotaStoreFactory;
+import org.geowebcache.diskquota.storage.TilePageCalculator;
+import org.geowebcache.storage.DefaultStorageFinder;
+import org.springframework.context.ApplicationContext;
+
+public class MemoryQuotaStoreFactory implements QuotaStoreFactory {
+
+    public static final String STORE_NAME = "MEMORY";
+
+    @Override
+    public List<String> getSupportedStoreNames() {
+        return Arrays.asList(STORE_NAME);
+    }
+
+    @Override
+    public QuotaStore getQuotaStore(ApplicationContext ctx, String quotaStoreName)
+            throws IOException, ConfigurationException {
+        if (!STORE_NAME.equals(quotaStoreName)) {
+            return null;
+        }
+
+        DefaultStorageFinder cacheDirFinder = (DefaultStorageFinder) ctx.getBean("gwcDefaultStorageFinder");
+        TilePageCalculator tilePageCalculator = (TilePageCalculator) ctx.getBean("gwcTilePageCalculator");
+        File storeDirectory = new File(cacheDirFinder.getDefaultPath(), MemoryQuotaStore.STORE_DIRECTORY);
+        MemoryQuotaStore store = new MemoryQuotaStore(storeDirectory, tilePageCalculator);
+        store.startUp();
+        return store;
+    }
+}
@@ -13,6 +13,8 @@
  */
 package org.geowebcache.diskquota.storage;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Collections;
@@ -20,6 +22,7 @@
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -44,6 +47,13 @@ public class TilePageCalculator {
 
     private StorageBroker sb;
 
+    /**
+     * Page pyramids by grid subset, as grid subsets are immutable and replaced when the layer configuration changes,
+     * compared by identity and released with them
+     */
+    private final Cache<GridSubset, PagePyramid> pyramids =
+            CacheBuilder.newBuilder().weakKeys().build();
+
     public TilePageCalculator(final TileLayerDispatcher tld, final StorageBroker sb) {
         this.tld = tld;
         this.sb = sb;
@@ -73,7 +83,7 @@ public int[] pageIndexForTile(final TileSet tileSet, final long[] tileIndex, int
     }
 
     private PagePyramid getPagePyramid(TileSet tileSet) {
-        PagePyramid pagePyramid = newPagePyramid(tileSet);
+        PagePyramid pagePyramid = cachedPagePyramid(tileSet);
         return pagePyramid;
     }
 
@@ -84,6 +94,16 @@ public BigInteger getTilesPerPage(TileSet tileSet, int zoomLevel) {
         return tilesPerPage;
     }
 
+    /** @return the number of pages along the x axis of the given zoom level */
+    public int getPagesPerLevelX(TileSet tileSet, int zoomLevel) {
+        return getPagePyramid(tileSet).getPagesPerLevelX(zoomLevel);
+    }
+
+    /** @return the number of pages along the y axis of the given zoom level */
+    public int getPagesPerLevelY(TileSet tileSet, int zoomLevel) {
+        return getPagePyramid(tileSet).getPagesPerLevelY(zoomLevel);
+    }
+
     /**
      * Returns a grid subset coverage range suitable for {@link TileRange}
      *
@@ -176,7 +196,7 @@ private Collection<String> getParameterIds(String layerName, Optional<Collection
         });
     }
 
-    private PagePyramid newPagePyramid(final TileSet tileSet) {
+    private PagePyramid cachedPagePyramid(final TileSet tileSet) {
         final String layerName = tileSet.getLayerName();
         final TileLayer tileLayer;
         try {
@@ -187,7 +207,11 @@ private PagePyramid newPagePyramid(final TileSet tileSet) {
 
         final String gridsetId = tileSet.getGridsetId();
         final GridSubset gridSubset = tileLayer.getGridSubset(gridsetId);
-        return newPagePyramid(gridSubset);
+        try {
+            return pyramids.get(gridSubset, () -> newPagePyramid(gridSubset));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
     }
 
     PagePyramid newPagePyramid(final GridSubset gridSubset) {
@@ -0,0 +1,157 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.easymock.EasyMock;
+import org.geowebcache.diskquota.CacheCleaner.QuotaResolver;
+import org.geowebcache.diskquota.storage.LayerQuota;
+import org.geowebcache.diskquota.storage.Quota;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheCleanerTaskTest {
+
+    private final TileSet tileSet = new TileSet("layer", "EPSG:4326", "image/png", null);
+
+    private final Set<String> layerNames = Collections.singleton("layer");
+
+    private final AtomicInteger cleanUps = new AtomicInteger();
+
+    private DiskQuotaConfig config;
+
+    private ExecutorService executor;
+
+    private CacheCleanerTask task;
+
+    @Before
+    public void setUp() throws Exception {
+        config = new DiskQuotaConfig();
+        config.setDefaults();
+        config.setEnabled(true);
+        config.setGlobalQuota(null);
+        config.addLayerQuota(new LayerQuota("layer", ExpirationPolicy.LFU, new Quota(BigInteger.valueOf(1000))));
+
+        QuotaResolver resolver = EasyMock.createNiceMock(QuotaResolver.class);
+        EasyMock.replay(resolver);
+
+        DiskQuotaMonitor monitor = EasyMock.createNiceMock(DiskQuotaMonitor.class);
+        EasyMock.expect(monitor.getConfig()).andStubReturn(config);
+        EasyMock.expect(monitor.getLayerNames()).andStubReturn(layerNames);
+        // the store accounts for the first commit already
+        EasyMock.expect(monitor.getUsedQuotaByLayerName("layer")).andStubReturn(new Quota(BigInteger.valueOf(850)));
+        EasyMock.expect(monitor.getGloballyUsedQuota()).andStubReturn(new Quota(BigInteger.valueOf(850)));
+        EasyMock.expect(monitor.newLayerQuotaResolver("layer")).andStubReturn(resolver);
+        monitor.expireByLayerNames(layerNames, resolver);
+        EasyMock.expectLastCall().andStubAnswer(() -> {
+            cleanUps.incrementAndGet();
+            return null;
+        });
+        EasyMock.replay(monitor);
+
+        executor = Executors.newSingleThreadExecutor();
+        task = new CacheCleanerTask(monitor, executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private void commit(long bytes) {
+        task.committed(tileSet, new Quota(BigInteger.valueOf(bytes)));
+    }
+
+    private int awaitCleanUps() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return cleanUps.get();
+    }
+
+    @Test
+    public void testCleanUpOnHighWaterMarkCrossing() throws Exception {
+        config.setHighWaterMark(90);
+        config.setLowWaterMark(50);
+
+        commit(50);
+        commit(-100);
+        // crosses 900 bytes, then stays above
+        commit(200);
+        commit(10);
+
+        assertThat(awaitCleanUps(), equalTo(1));
+    }
+
+    @Test
+    public void testCleanUpPendingWhileRunning() throws Exception {
+        config.setHighWaterMark(90);
+        config.setLowWaterMark(50);
+        // keeps the clean ups from completing until released
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> {
+            release.await();
+            return null;
+        });
+
+        commit(50);
+        // crosses 900 bytes, launching a clean up
+        commit(100);
+        commit(-200);
+        // crosses again while the clean up is not done
+        commit(200);
+
+        release.countDown();
+        // the single thread executor is done with the clean up once it runs the next task
+        executor.submit(() -> {}).get(10, TimeUnit.SECONDS);
+        assertThat(cleanUps.get(), equalTo(1));
+
+        // still above the mark, the pending clean up is launched
+        commit(10);
+        commit(10);
+
+        assertThat(awaitCleanUps(), equalTo(2));
+    }
+
+    @Test
+    public void testLowWaterMarkAboveHighWaterMark() throws Exception {
+        config.setHighWaterMark(80);
+        config.setLowWaterMark(95);
+
+        // 900 bytes are above the high water mark, but a clean up would stop right away
+        commit(50);
+        commit(50);
+
+        assertThat(awaitCleanUps(), equalTo(0));
+    }
+
+    @Test
+    public void testPeriodicOnlyWithoutHighWaterMark() throws Exception {
+        commit(50);
+        commit(200);
+
+        assertThat(awaitCleanUps(), equalTo(0));
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.easymock.EasyMock;
+import org.geowebcache.diskquota.CacheCleaner.QuotaResolver;
+import org.geowebcache.diskquota.storage.Quota;
+import org.geowebcache.diskquota.storage.TilePage;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.geowebcache.seed.GWCTask;
+import org.geowebcache.seed.TileBreeder;
+import org.geowebcache.storage.TileRange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheCleanerTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final TileSet tileSet = new TileSet("layer", "EPSG:4326", "image/png", null);
+
+    private final Set<String> layerNames = Collections.singleton("layer");
+
+    /** pages in expiration order, removed once truncated */
+    private final List<TilePage> pages = Collections.synchronizedList(new ArrayList<>());
+
+    private final Set<String> truncatingThreads = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger batches = new AtomicInteger();
+
+    private QuotaStore store;
+
+    private CacheCleaner cleaner;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            pages.add(new TilePage(tileSet.getId(), i, 0, 5));
+        }
+
+        store = EasyMock.createNiceMock(QuotaStore.class);
+        EasyMock.expect(store.getLeastFrequentlyUsedPages(EasyMock.eq(layerNames), EasyMock.anyInt()))
+                .andStubAnswer(() -> {
+                    batches.incrementAndGet();
+                    int max = (Integer) EasyMock.getCurrentArguments()[1];
+                    synchronized (pages) {
+                        return new ArrayList<>(pages.subList(0, Math.min(max, pages.size())));
+                    }
+                });
+        EasyMock.expect(store.getTileSetById(tileSet.getId())).andStubReturn(tileSet);
+        EasyMock.expect(store.getTilesForPage(EasyMock.anyObject()))
+                .andStubAnswer(() -> new long[][] {{0, 0, 0, 0, 5}});
+        EasyMock.expect(store.setTruncated(EasyMock.anyObject())).andStubAnswer(() -> {
+            pages.remove((TilePage) EasyMock.getCurrentArguments()[0]);
+            return null;
+        });
+        EasyMock.replay(store);
+
+        TileBreeder breeder = EasyMock.createNiceMock(TileBreeder.class);
+        EasyMock.expect(breeder.createTasks(
+                        EasyMock.anyObject(TileRange.class),
+                        EasyMock.eq(GWCTask.TYPE.TRUNCATE),
+                        EasyMock.eq(1),
+                        EasyMock.eq(false)))
+                .andStubAnswer(() -> new GWCTask[] {
+                    new GWCTask() {
+                        @Override
+                        protected void doActionInternal() throws InterruptedException {
+                            truncatingThreads.add(Thread.currentThread().getName());
+                            Thread.sleep(10);
+                        }
+
+                        @Override
+                        protected void dispose() {}
+                    }
+                });
+        EasyMock.replay(breeder);
+
+        cleaner = new CacheCleaner(breeder);
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private QuotaResolver resolver(long limit) {
+        return resolver(limit, limit);
+    }
+
+    private QuotaResolver resolver(long limit, long lowWaterMark) {
+        QuotaResolver resolver = EasyMock.createMock(QuotaResolver.class);
+        EasyMock.expect(resolver.getLimit()).andStubReturn(new Quota(BigInteger.valueOf(limit)));
+        EasyMock.expect(resolver.getLowWaterMark()).andStubReturn(new Quota(BigInteger.valueOf(lowWaterMark)));
+        try {
+            EasyMock.expect(resolver.getUsed())
+                    .andStubAnswer(() -> new Quota(BigInteger.valueOf((long) PAGE_SIZE * pages.size())));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        EasyMock.expect(resolver.getExpirationPolicy()).andStubReturn(ExpirationPolicy.LFU);
+        EasyMock.replay(resolver);
+        return resolver;
+    }
+
+    @Test
+    public void testExpiresPagesInGrowingBatches() throws Exception {
+        // 200 bytes used, 135 allowed, 7 pages to expire
+        cleaner.expireByLayerNames(layerNames, resolver(135), store, executor, 4);
+
+        // a batch of 4 pages, then the 3 still needed
+        assertThat(pages.size(), equalTo(13));
+        assertThat(batches.get(), equalTo(2));
+        assertThat(truncatingThreads.size(), greaterThan(1));
+    }
+
+    @Test
+    public void testSequentialWithoutExecutor() throws Exception {
+        cleaner.expireByLayerNames(layerNames, resolver(185), store);
+
+        // one page, then the one still needed
+        assertThat(pages.size(), equalTo(18));
+        assertThat(batches.get(), equalTo(2));
+        assertThat(truncatingThreads.size(), equalTo(1));
+    }
+
+    @Test
+    public void testStopsAtLowWaterMark() throws Exception {
+        // 200 bytes used, 185 allowed, but cleaned up down to 150
+        cleaner.expireByLayerNames(layerNames, resolver(185, 150), store);
+
+        // one page, then two, then the two still needed
+        assertThat(pages.size(), equalTo(15));
+        assertThat(batches.get(), equalTo(3));
+    }
+
+    @Test
+    public void testBatchesDoNotGrowWhileUsageLags() throws Exception {
+        // the used quota reports the pages left before the previous batch
+        AtomicInteger reported = new AtomicInteger(pages.size());
+        QuotaResolver resolver = EasyMock.createMock(QuotaResolver.class);
+        EasyMock.expect(resolver.getLimit()).andStubReturn(new Quota(BigInteger.valueOf(185)));
+        EasyMock.expect(resolver.getLowWaterMark()).andStubReturn(new Quota(BigInteger.valueOf(185)));
+        EasyMock.expect(resolver.getUsed())
+                .andStubAnswer(
+                        () -> new Quota(BigInteger.valueOf((long) PAGE_SIZE * reported.getAndSet(pages.size()))));
+        EasyMock.expect(resolver.getExpirationPolicy()).andStubReturn(ExpirationPolicy.LFU);
+        EasyMock.replay(resolver);
+
+        cleaner.expireByLayerNames(layerNames, resolver, store);
+
+        // one page, another one while the first isn't reported, then one for the 5 bytes left
+        assertThat(pages.size(), equalTo(17));
+        assertThat(batches.get(), equalTo(3));
+    }
+
+    @Test
+    public void testNextBatchSize() {
+        BigInteger excess = BigInteger.valueOf(1000);
+        // nothing freed yet
+        assertThat(CacheCleaner.nextBatchSize(4, excess, BigInteger.ZERO, 4), equalTo(4));
+        assertThat(CacheCleaner.nextBatchSize(4, excess, BigInteger.valueOf(-10), 4), equalTo(4));
+        // 10 bytes per page, rounded up
+        assertThat(CacheCleaner.nextBatchSize(4, BigInteger.valueOf(25), BigInteger.valueOf(40), 4), equalTo(3));
+        assertThat(CacheCleaner.nextBatchSize(4, BigInteger.ONE, BigInteger.valueOf(40), 4), equalTo(1));
+        // at most twice the previous batch
+        assertThat(CacheCleaner.nextBatchSize(4, excess, BigInteger.valueOf(40), 4), equalTo(8));
+        assertThat(
+                CacheCleaner.nextBatchSize(
+                        CacheCleaner.MAX_BATCH_SIZE, excess, BigInteger.ONE, CacheCleaner.MAX_BATCH_SIZE),
+                equalTo(CacheCleaner.MAX_BATCH_SIZE));
+    }
+
+    @Test
+    public void testStopsWhenNoPagesLeft() throws Exception {
+        cleaner.expireByLayerNames(layerNames, resolver(0), store, executor, 4);
+
+        assertThat(pages.size(), equalTo(0));
+    }
+}
@@ -13,6 +13,7 @@
  */
 package org.geowebcache.diskquota;
 
+import java.math.BigInteger;
 import java.util.concurrent.TimeUnit;
 import org.geowebcache.diskquota.storage.LayerQuota;
 import org.geowebcache.diskquota.storage.Quota;
@@ -108,4 +109,19 @@ public void testSetMaxConcurrentCleanUps() {
         config.setMaxConcurrentCleanUps(10);
         Assert.assertEquals(10, config.getMaxConcurrentCleanUps().intValue());
     }
+
+    @Test
+    public void testWaterMarks() {
+        Quota limit = new Quota(BigInteger.valueOf(1000));
+        Assert.assertNull(config.highWaterMark(limit));
+        Assert.assertEquals(1000, config.lowWaterMark(limit).getBytes().intValue());
+
+        config.setHighWaterMark(90);
+        config.setLowWaterMark(75);
+        Assert.assertEquals(900, config.highWaterMark(limit).getBytes().intValue());
+        Assert.assertEquals(750, config.lowWaterMark(limit).getBytes().intValue());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> config.setHighWaterMark(0));
+        Assert.assertThrows(IllegalArgumentException.class, () -> config.setLowWaterMark(101));
+    }
 }
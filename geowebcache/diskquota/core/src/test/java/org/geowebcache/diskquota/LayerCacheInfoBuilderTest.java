@@ -0,0 +1,140 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.easymock.EasyMock;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.layer.TileLayer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LayerCacheInfoBuilderTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    /** the tiles reported, as x_y_z:size */
+    private final List<String> stored = new CopyOnWriteArrayList<>();
+
+    /** the tiles reported at once, per directory */
+    private final List<List<String>> directories = new CopyOnWriteArrayList<>();
+
+    private File layerDir;
+
+    private TileLayer layer;
+
+    private LayerCacheInfoBuilder builder;
+
+    @Before
+    public void setUp() throws Exception {
+        layerDir = temp.newFolder("layer");
+        tile("EPSG_4326_03/00_00/0000_0001.png", 10);
+        tile("EPSG_4326_03/00_00/0001_0001.png", 20);
+        tile("EPSG_4326_03/01_00/0002_0001.png", 30);
+        tile("EPSG_4326_04/00_00/0004_0003.png", 40);
+
+        GridSubset gridSubset = EasyMock.createNiceMock(GridSubset.class);
+        EasyMock.expect(gridSubset.getZoomStart()).andStubReturn(0);
+        EasyMock.expect(gridSubset.getZoomStop()).andStubReturn(5);
+        EasyMock.replay(gridSubset);
+
+        layer = EasyMock.createNiceMock(TileLayer.class);
+        EasyMock.expect(layer.getName()).andStubReturn("layer");
+        EasyMock.expect(layer.getGridSubsets()).andStubReturn(Collections.singleton("EPSG:4326"));
+        EasyMock.expect(layer.getGridSubset("EPSG:4326")).andStubReturn(gridSubset);
+        EasyMock.replay(layer);
+
+        QuotaUpdatesMonitor monitor = EasyMock.createNiceMock(QuotaUpdatesMonitor.class);
+        monitor.tilesFound(EasyMock.anyObject());
+        EasyMock.expectLastCall().andStubAnswer(() -> {
+            @SuppressWarnings("unchecked")
+            Collection<QuotaUpdate> tiles = (Collection<QuotaUpdate>) EasyMock.getCurrentArguments()[0];
+            List<String> directory = new ArrayList<>();
+            for (QuotaUpdate tile : tiles) {
+                assertThat(tile.getTileSet(), equalTo(new TileSet("layer", "EPSG:4326", "image/png", null)));
+                long[] index = tile.getTileIndex();
+                directory.add(index[0] + "_" + index[1] + "_" + index[2] + ":" + tile.getSize());
+            }
+            Collections.sort(directory);
+            directories.add(directory);
+            stored.addAll(directory);
+            return null;
+        });
+        EasyMock.replay(monitor);
+
+        builder = new LayerCacheInfoBuilder(temp.getRoot(), 2, monitor);
+    }
+
+    @After
+    public void tearDown() {
+        builder.shutDown();
+    }
+
+    private void tile(String path, int size) throws Exception {
+        File file = new File(layerDir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), new byte[size]);
+    }
+
+    private void awaitScan() throws InterruptedException {
+        for (int i = 0; i < 500 && builder.isRunning("layer"); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(builder.isRunning("layer"), equalTo(false));
+    }
+
+    @Test
+    public void testScanReportsAllTiles() throws Exception {
+        builder.buildCacheInfo(layer);
+        awaitScan();
+
+        assertThat(stored, containsInAnyOrder("0_1_3:10", "1_1_3:20", "2_1_3:30", "4_3_4:40"));
+        // each directory is reported once fully walked
+        assertThat(
+                directories,
+                containsInAnyOrder(List.of("0_1_3:10", "1_1_3:20"), List.of("2_1_3:30"), List.of("4_3_4:40")));
+        assertThat(builder.isScanPending("layer"), equalTo(false));
+    }
+
+    @Test
+    public void testScanResumesFromProgressFile() throws Exception {
+        Files.write(
+                new File(layerDir, LayerCacheInfoBuilder.PROGRESS_FILE).toPath(),
+                List.of("EPSG_4326_03/00_00", "EPSG_4326_04/00_00"),
+                StandardCharsets.UTF_8);
+        assertThat(builder.isScanPending("layer"), equalTo(true));
+
+        builder.buildCacheInfo(layer);
+        awaitScan();
+
+        assertThat(stored, containsInAnyOrder("2_1_3:30"));
+        assertThat(builder.isScanPending("layer"), equalTo(false));
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.Map;
+import org.junit.Test;
+
+public class PageCostsTest {
+
+    @Test
+    public void testUnmeasuredCosts() {
+        PageCosts costs = new PageCosts(Map.of());
+        assertThat(costs.getCostPerByte("layer", 3), equalTo(1d));
+        assertThat(costs.getMinCostPerByte(), equalTo(1d));
+        assertThat(costs.getMeasuredCostsPerByte("layer").length, equalTo(0));
+        // never hit pages still score by cost
+        assertThat(costs.score("layer", 3, 0), equalTo(PageCosts.MIN_FREQUENCY));
+    }
+
+    @Test
+    public void testMeasuredCosts() {
+        PageCosts costs = new PageCosts(Map.of(
+                "cheap", new double[] {2, Double.NaN, 4},
+                "expensive", new double[] {Double.NaN, 12},
+                "unknown", new double[] {Double.NaN}));
+
+        assertThat(costs.getCostPerByte("cheap", 0), equalTo(2d));
+        assertThat(costs.getCostPerByte("cheap", 2), equalTo(4d));
+        // levels without measures get the average of the layer
+        assertThat(costs.getCostPerByte("cheap", 1), equalTo(3d));
+        assertThat(costs.getCostPerByte("cheap", 10), equalTo(3d));
+        assertThat(costs.getCostPerByte("expensive", 0), equalTo(12d));
+        // layers without measures get the average of all levels
+        assertThat(costs.getCostPerByte("unknown", 0), equalTo(6d));
+        assertThat(costs.getCostPerByte("other", 0), equalTo(6d));
+        assertThat(costs.getDefaultCostPerByte(), equalTo(6d));
+        assertThat(costs.getMinCostPerByte(), equalTo(2d));
+        assertThat(costs.getMeasuredCostsPerByte("unknown").length, equalTo(0));
+
+        assertThat(costs.score("expensive", 1, 1), closeTo(12 * (1 + PageCosts.MIN_FREQUENCY), 1e-9));
+        assertThat(costs.score("expensive", 1, 1), lessThan(costs.score("cheap", 0, 10)));
+    }
+}
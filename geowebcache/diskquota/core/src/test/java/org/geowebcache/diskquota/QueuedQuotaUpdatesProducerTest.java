@@ -0,0 +1,68 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.easymock.EasyMock;
+import org.geowebcache.diskquota.storage.TilePageCalculator;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.geowebcache.storage.TileBatch;
+import org.junit.Test;
+
+public class QueuedQuotaUpdatesProducerTest {
+
+    @Test
+    public void testTilesDeletedAggregatedByPage() throws Exception {
+        // 2x2 tiles per page
+        TilePageCalculator calculator = EasyMock.createNiceMock(TilePageCalculator.class);
+        EasyMock.expect(calculator.pageIndexForTile(
+                        EasyMock.anyObject(TileSet.class), EasyMock.anyObject(long[].class), EasyMock.anyObject()))
+                .andStubAnswer(() -> {
+                    long[] tile = (long[]) EasyMock.getCurrentArguments()[1];
+                    int[] page = (int[]) EasyMock.getCurrentArguments()[2];
+                    page[0] = (int) tile[0] / 2;
+                    page[1] = (int) tile[1] / 2;
+                    page[2] = (int) tile[2];
+                    return page;
+                });
+        QuotaStore store = EasyMock.createNiceMock(QuotaStore.class);
+        EasyMock.expect(store.getTilePageCalculator()).andStubReturn(calculator);
+        EasyMock.replay(calculator, store);
+
+        LinkedBlockingQueue<QuotaUpdate> queue = new LinkedBlockingQueue<>();
+        QueuedQuotaUpdatesProducer producer = new QueuedQuotaUpdatesProducer(queue, store);
+
+        TileBatch tiles = new TileBatch(5);
+        tiles.add(0, 0, 10);
+        tiles.add(1, 1, 20);
+        tiles.add(2, 0, 30);
+        tiles.add(0, 1, 40);
+        producer.tilesDeleted("layer", "EPSG:4326", "image/png", null, tiles);
+
+        List<QuotaUpdate> updates = new ArrayList<>(queue);
+        assertThat(updates.size(), equalTo(2));
+        TileSet tileSet = new TileSet("layer", "EPSG:4326", "image/png", null);
+        assertThat(updates.get(0).getTileSet(), equalTo(tileSet));
+        assertThat(updates.get(0).getSize(), equalTo(-70L));
+        assertThat(updates.get(0).getTileCount(), equalTo(-3));
+        assertThat(updates.get(0).getTileIndex()[2], equalTo(5L));
+        assertThat(updates.get(1).getSize(), equalTo(-30L));
+        assertThat(updates.get(1).getTileCount(), equalTo(-1));
+    }
+}
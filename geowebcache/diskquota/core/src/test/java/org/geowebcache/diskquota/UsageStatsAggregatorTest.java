@@ -0,0 +1,89 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+import java.util.List;
+import org.easymock.EasyMock;
+import org.geowebcache.diskquota.storage.PageStatsPayload;
+import org.geowebcache.diskquota.storage.TilePage;
+import org.geowebcache.diskquota.storage.TilePageCalculator;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UsageStatsAggregatorTest {
+
+    private final TileSet tileSet = new TileSet("layer", "EPSG:4326", "image/png", null);
+
+    private TilePageCalculator calculator;
+
+    @Before
+    public void setUp() {
+        // one page per tile, to keep things simple
+        calculator = EasyMock.createMock(TilePageCalculator.class);
+        EasyMock.expect(calculator.pageIndexForTile(
+                        EasyMock.eq(tileSet), EasyMock.anyObject(long[].class), EasyMock.anyObject(int[].class)))
+                .andStubAnswer(() -> {
+                    long[] tile = (long[]) EasyMock.getCurrentArguments()[1];
+                    int[] page = (int[]) EasyMock.getCurrentArguments()[2];
+                    page[0] = (int) tile[0];
+                    page[1] = (int) tile[1];
+                    page[2] = (int) tile[2];
+                    return page;
+                });
+        EasyMock.replay(calculator);
+    }
+
+    @Test
+    public void testAggregatesHitsPerPage() {
+        UsageStatsAggregator aggregator = new UsageStatsAggregator(calculator, 10);
+        for (int i = 0; i < 5; i++) {
+            aggregator.tileRequested(tileSet, new long[] {1, 2, 3});
+        }
+        aggregator.tileRequested(tileSet, new long[] {0, 0, 3});
+
+        List<PageStatsPayload> payloads = aggregator.drain();
+        assertThat(payloads, hasSize(2));
+        for (PageStatsPayload payload : payloads) {
+            TilePage page = payload.getPage();
+            assertThat(payload.getTileSet(), equalTo(tileSet));
+            assertThat(page.getTileSetId(), equalTo(tileSet.getId()));
+            assertThat(payload.getNumHits(), equalTo(page.getPageX() == 1 ? 5 : 1));
+        }
+
+        // counters are reset, and idle pages forgotten
+        assertThat(aggregator.drain(), empty());
+        assertThat(aggregator.getPendingPages(), equalTo(0));
+    }
+
+    @Test
+    public void testDropsHitsOverPendingPagesLimit() {
+        UsageStatsAggregator aggregator = new UsageStatsAggregator(calculator, 2);
+        assertThat(aggregator.tileRequested(tileSet, new long[] {0, 0, 1}), equalTo(true));
+        assertThat(aggregator.tileRequested(tileSet, new long[] {1, 0, 1}), equalTo(true));
+        assertThat(aggregator.tileRequested(tileSet, new long[] {2, 0, 1}), equalTo(false));
+        // already pending pages keep counting
+        assertThat(aggregator.tileRequested(tileSet, new long[] {0, 0, 1}), equalTo(true));
+        assertThat(aggregator.getDroppedHits(), equalTo(1L));
+
+        assertThat(aggregator.drain(), hasSize(2));
+        aggregator.drain();
+        assertThat(aggregator.tileRequested(tileSet, new long[] {2, 0, 1}), equalTo(true));
+    }
+}
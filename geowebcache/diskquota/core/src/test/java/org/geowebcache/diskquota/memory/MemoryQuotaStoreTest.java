@@ -0,0 +1,208 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this program. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.diskquota.memory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.easymock.EasyMock;
+import org.geowebcache.diskquota.PageCosts;
+import org.geowebcache.diskquota.storage.PageStats;
+import org.geowebcache.diskquota.storage.PageStatsPayload;
+import org.geowebcache.diskquota.storage.Quota;
+import org.geowebcache.diskquota.storage.TilePage;
+import org.geowebcache.diskquota.storage.TilePageCalculator;
+import org.geowebcache.diskquota.storage.TileSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MemoryQuotaStoreTest {
+
+    private static final int MINUTE = 60 * 1000;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final TileSet tileSet = new TileSet("layer", "EPSG:4326", "image/png", null);
+
+    private final Set<String> layerNames = Collections.singleton("layer");
+
+    private TilePageCalculator calculator;
+
+    private MemoryQuotaStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        // a 4x4 page grid with 10 tiles per page on every level
+        calculator = EasyMock.createNiceMock(TilePageCalculator.class);
+        EasyMock.expect(calculator.getLayerNames()).andStubReturn(layerNames);
+        EasyMock.expect(calculator.getTileSetsFor("layer")).andStubReturn(Collections.singleton(tileSet));
+        EasyMock.expect(calculator.getPagesPerLevelX(EasyMock.eq(tileSet), EasyMock.anyInt()))
+                .andStubReturn(4);
+        EasyMock.expect(calculator.getPagesPerLevelY(EasyMock.eq(tileSet), EasyMock.anyInt()))
+                .andStubReturn(4);
+        EasyMock.expect(calculator.getTilesPerPage(EasyMock.eq(tileSet), EasyMock.anyInt()))
+                .andStubReturn(BigInteger.TEN);
+        EasyMock.replay(calculator);
+
+        store = newStore();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        store.close();
+    }
+
+    private MemoryQuotaStore newStore() throws Exception {
+        MemoryQuotaStore store = new MemoryQuotaStore(temp.getRoot(), calculator);
+        store.startUp();
+        return store;
+    }
+
+    private TilePage page(int x, int y, int z) {
+        return new TilePage(tileSet.getId(), x, y, z, 1000);
+    }
+
+    private void addTiles(TilePage page, int numTiles, long bytes) {
+        PageStatsPayload payload = new PageStatsPayload(page, tileSet);
+        payload.setNumTiles(numTiles);
+        store.addToQuotaAndTileCounts(tileSet, new Quota(BigInteger.valueOf(bytes)), List.of(payload));
+    }
+
+    private List<PageStats> addHits(TilePage page, int hits, int accessTimeMinutes) throws Exception {
+        PageStatsPayload payload = new PageStatsPayload(page, tileSet);
+        payload.setNumHits(hits);
+        payload.setLastAccessTime((long) accessTimeMinutes * MINUTE);
+        return store.addHitsAndSetAccesTime(List.of(payload)).get();
+    }
+
+    @Test
+    public void testQuotaAndPageStats() throws Exception {
+        TilePage page = page(1, 2, 3);
+        addTiles(page, 5, 1000);
+        addTiles(page, -2, -200);
+        assertThat(store.getUsedQuotaByLayerName("layer").getBytes(), equalTo(BigInteger.valueOf(800)));
+        assertThat(store.getGloballyUsedQuota().getBytes(), equalTo(BigInteger.valueOf(800)));
+        assertThat(store.getUsedQuotaByTileSetId(tileSet.getId()).getBytes(), equalTo(BigInteger.valueOf(800)));
+
+        // same as PageStats would compute
+        List<PageStats> stats = addHits(page, 10, 1009);
+        PageStats expected = new PageStats(0);
+        expected.addTiles(3, BigInteger.TEN);
+        expected.addHitsAndAccessTime(10, 1009, 1000);
+        assertThat(stats.get(0).getFillFactor(), equalTo(expected.getFillFactor()));
+        assertThat(stats.get(0).getNumHits(), equalTo(BigInteger.TEN));
+        assertThat(stats.get(0).getLastAccessTimeMinutes(), equalTo(1009));
+        assertThat(
+                (double) stats.get(0).getFrequencyOfUsePerMinute(),
+                closeTo(expected.getFrequencyOfUsePerMinute(), 1e-6));
+
+        assertThat(store.getLeastFrequentlyUsedPage(layerNames), equalTo(page));
+        PageStats truncated = store.setTruncated(page);
+        assertThat(truncated.getFillFactor(), equalTo(0f));
+        assertThat(store.getLeastFrequentlyUsedPage(layerNames), equalTo(null));
+    }
+
+    @Test
+    public void testPagesToExpire() throws Exception {
+        TilePage rare = page(0, 0, 1);
+        TilePage often = page(1, 0, 1);
+        TilePage hot = page(2, 0, 2);
+        for (TilePage page : List.of(rare, often, hot)) {
+            addTiles(page, 10, 100);
+        }
+        addHits(rare, 1, 1030);
+        addHits(often, 10, 1020);
+        addHits(hot, 100, 1010);
+
+        assertThat(store.getLeastFrequentlyUsedPages(layerNames, 2), contains(rare, often));
+        assertThat(store.getLeastFrequentlyUsedPages(layerNames, 10), contains(rare, often, hot));
+        assertThat(store.getLeastRecentlyUsedPages(layerNames, 2), contains(hot, often));
+        assertThat(store.getLeastRecentlyUsedPages(Collections.singleton("other"), 2), empty());
+    }
+
+    @Test
+    public void testLeastValuablePages() throws Exception {
+        TilePage rare = page(0, 0, 1);
+        TilePage often = page(1, 0, 1);
+        TilePage hot = page(2, 0, 2);
+        for (TilePage page : List.of(rare, often, hot)) {
+            addTiles(page, 10, 100);
+        }
+        addHits(rare, 1, 1030);
+        addHits(often, 10, 1020);
+        addHits(hot, 100, 1010);
+
+        // without measured costs it's LFU
+        PageCosts unknown = new PageCosts(Map.of());
+        assertThat(store.getLeastValuablePages(layerNames, 10, unknown), contains(rare, often, hot));
+
+        // level 2 is much cheaper to render again than level 1
+        PageCosts measured = new PageCosts(Map.of("layer", new double[] {Double.NaN, 1000, 0.001}));
+        assertThat(store.getLeastValuablePages(layerNames, 2, measured), contains(hot, rare));
+        assertThat(store.getLeastValuablePages(layerNames, 10, measured), contains(hot, rare, often));
+    }
+
+    @Test
+    public void testSnapshotSurvivesRestart() throws Exception {
+        TilePage page = page(1, 1, 4);
+        addTiles(page, 10, 1000);
+        addHits(page, 5, 1010);
+        store.close();
+
+        // a torn snapshot at the end is ignored
+        try (FileOutputStream out =
+                new FileOutputStream(new File(temp.getRoot(), MemoryQuotaStore.SNAPSHOT_FILE), true)) {
+            out.write(new byte[] {0x47, 0x57, 0x43, 0x51, 0, 0, 1});
+        }
+
+        store = newStore();
+        assertThat(store.getUsedQuotaByLayerName("layer").getBytes(), equalTo(BigInteger.valueOf(1000)));
+        assertThat(store.getLeastRecentlyUsedPage(layerNames), equalTo(page));
+        assertThat(store.getLeastRecentlyUsedPage(layerNames).getCreationTimeMinutes(), equalTo(1000));
+
+        // and the snapshots written after it can be read back
+        addTiles(page(2, 2, 4), 10, 500);
+        store.close();
+        store = newStore();
+        assertThat(store.getUsedQuotaByLayerName("layer").getBytes(), equalTo(BigInteger.valueOf(1500)));
+    }
+
+    @Test
+    public void testRenameAndDeleteLayer() throws Exception {
+        addTiles(page(0, 0, 0), 10, 1000);
+        store.renameLayer("layer", "renamed");
+        assertThat(store.getUsedQuotaByLayerName("layer").getBytes(), equalTo(BigInteger.ZERO));
+        assertThat(store.getUsedQuotaByLayerName("renamed").getBytes(), equalTo(BigInteger.valueOf(1000)));
+        TilePage renamed = store.getLeastFrequentlyUsedPage(Collections.singleton("renamed"));
+        assertThat(renamed.getTileSetId(), equalTo(new TileSet("renamed", "EPSG:4326", "image/png", null).getId()));
+
+        store.deleteLayer("renamed");
+        assertThat(store.getGloballyUsedQuota().getBytes(), equalTo(BigInteger.ZERO));
+        assertThat(store.getTileSets(), empty());
+    }
+}
@@ -18,7 +18,9 @@
 import java.math.BigInteger;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -30,12 +32,14 @@
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.sql.DataSource;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.geotools.util.logging.Logging;
+import org.geowebcache.diskquota.PageCosts;
 import org.geowebcache.diskquota.QuotaStore;
 import org.geowebcache.diskquota.storage.PageStats;
 import org.geowebcache.diskquota.storage.PageStatsPayload;
@@ -51,6 +55,7 @@
 import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.NestedTransactionNotSupportedException;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
@@ -89,6 +94,19 @@ public class JDBCQuotaStore implements QuotaStore {
     /** Max number of attempts we do to insert/update page stats in race-free mode */
     int maxLoops = 100;
 
+    /**
+     * Max number of page stats read and written by a single round of batched statements, also bounds the number of
+     * pages updated by each {@link #addHitsAndSetAccesTime(Collection)} transaction. Kept below the 1000 elements
+     * Oracle accepts in an IN list.
+     */
+    int batchSize = 500;
+
+    /**
+     * Whether the page stats statements are run one at a time, as the driver does not report the rows modified by
+     * batched statements
+     */
+    private volatile boolean rowByRowUpdates;
+
     /** Max attempts in {@link #executeWithRetry(TransactionCallback)} before propagating the abort. */
     int maxTransactionAttempts = 10;
 
@@ -451,14 +469,37 @@ public void addToQuotaAndTileCounts(
             updateQuotas(tileSet, quotaDiff);
 
             if (tileCountDiffs != null) {
-                List<PageStatsPayload> sorted = sortPayloads(tileCountDiffs);
-                for (PageStatsPayload payload : sorted) {
-                    upsertTilePageFillFactor(tileSet, payload);
+                for (List<PageStatsPayload> batch : toBatches(sortPayloads(tileCountDiffs))) {
+                    upsertTilePageFillFactors(status, tileSet, batch);
                 }
             }
         });
     }
 
+    /**
+     * Splits the sorted payloads in batches of at most {@link #batchSize} elements, none of them containing the same
+     * page twice, so that the page stats of a batch can be computed from a single read
+     */
+    private List<List<PageStatsPayload>> toBatches(List<PageStatsPayload> sorted) {
+        List<List<PageStatsPayload>> batches = new ArrayList<>();
+        List<PageStatsPayload> batch = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (PageStatsPayload payload : sorted) {
+            String key = payload.getPage().getKey();
+            if (batch.size() >= batchSize || !keys.add(key)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                keys.clear();
+                keys.add(key);
+            }
+            batch.add(payload);
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
     /** Sorts the payloads by page key */
     protected List<PageStatsPayload> sortPayloads(Collection<PageStatsPayload> tileCountDiffs) {
         List<PageStatsPayload> result = new ArrayList<>(tileCountDiffs);
@@ -484,6 +525,125 @@ private void updateQuotas(final TileSet tileSet, final Quota quotaDiff) {
         jt.update(updateQuota, params);
     }
 
+    /**
+     * Applies the tile count changes of a batch of distinct pages with a handful of statements: one query reads the
+     * current stats, then the missing pages are inserted and the changed ones updated with a JDBC batch each. The
+     * statements keep their race-free conditions, the pages another instance modified in the meantime are handed over
+     * to {@link #upsertTilePageFillFactor(TileSet, PageStatsPayload)}
+     */
+    private void upsertTilePageFillFactors(
+            TransactionStatus status, final TileSet tileSet, List<PageStatsPayload> batch) {
+        Map<String, PageStats> existing = getPageStats(batch);
+
+        List<PageStatsPayload> inserted = new ArrayList<>();
+        List<Map<String, Object>> insertParams = new ArrayList<>();
+        List<PageStatsPayload> updated = new ArrayList<>();
+        List<Map<String, Object>> updateParams = new ArrayList<>();
+        for (PageStatsPayload payload : batch) {
+            TilePage page = payload.getPage();
+            BigInteger tilesPerPage = calculator.getTilesPerPage(tileSet, page.getZoomLevel());
+            PageStats stats = existing.get(page.getKey());
+            if (stats != null) {
+                float oldFillFactor = stats.getFillFactor();
+                stats.addTiles(payload.getNumTiles(), tilesPerPage);
+                if (oldFillFactor != stats.getFillFactor()) {
+                    updated.add(payload);
+                    updateParams.add(pageFillFactorParams(page, stats, oldFillFactor));
+                }
+            } else {
+                stats = new PageStats(0);
+                stats.addTiles(payload.getNumTiles(), tilesPerPage);
+                inserted.add(payload);
+                insertParams.add(newPageStatsParams(stats, page));
+            }
+        }
+
+        List<PageStatsPayload> conflicts = new ArrayList<>();
+        conflicts.addAll(batchUpdate(status, getNewPageStatsStatement(), insertParams, inserted));
+        conflicts.addAll(batchUpdate(status, getUpdatePageFillFactorStatement(), updateParams, updated));
+        for (PageStatsPayload payload : conflicts) {
+            upsertTilePageFillFactor(tileSet, payload);
+        }
+    }
+
+    /** Reads the stats of the pages in the batch, keyed by page key */
+    private Map<String, PageStats> getPageStats(List<PageStatsPayload> batch) {
+        List<String> keys = new ArrayList<>(batch.size());
+        for (PageStatsPayload payload : batch) {
+            keys.add(payload.getPage().getKey());
+        }
+        Map<String, PageStats> result = new HashMap<>();
+        jt.query(dialect.getPagesStats(schema, "keys"), Collections.singletonMap("keys", keys), rs -> {
+            PageStats ps = new PageStats(0);
+            ps.setFrequencyOfUsePerMinute(rs.getFloat(2));
+            ps.setLastAccessMinutes(rs.getInt(3));
+            ps.setFillFactor(rs.getFloat(4));
+            ps.setNumHits(rs.getBigDecimal(5).toBigInteger());
+            result.put(rs.getString(1), ps);
+        });
+        return result;
+    }
+
+    /**
+     * Runs the statement once per parameter map as a single JDBC batch. Drivers that don't tell the rows modified by
+     * each statement of a batch report {@link Statement#SUCCESS_NO_INFO}, the batch is then rolled back to a savepoint
+     * and run again one statement at a time, as are all the following ones.
+     *
+     * @return the items whose statement did not modify any row
+     */
+    private <T> List<T> batchUpdate(
+            TransactionStatus status, String sql, List<Map<String, Object>> params, List<T> items) {
+        if (params.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int[] counts = null;
+        if (!rowByRowUpdates) {
+            counts = runBatch(status, sql, params);
+        }
+        if (counts == null) {
+            counts = new int[params.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = jt.update(sql, params.get(i));
+            }
+        }
+        List<T> unmodified = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                unmodified.add(items.get(i));
+            }
+        }
+        return unmodified;
+    }
+
+    /** @return the rows modified by each statement, or {@code null} if the driver does not tell */
+    private int[] runBatch(TransactionStatus status, String sql, List<Map<String, Object>> params) {
+        Object savepoint;
+        try {
+            savepoint = status.createSavepoint();
+        } catch (NestedTransactionNotSupportedException e) {
+            log.log(Level.WARNING, "Savepoints not supported, page stats will be updated one by one", e);
+            rowByRowUpdates = true;
+            return null;
+        }
+        if (log.isLoggable(Level.FINE)) {
+            log.fine("Running a batch of " + params.size() + " statements: " + sql);
+        }
+        @SuppressWarnings("unchecked")
+        int[] counts = jt.batchUpdate(sql, params.toArray(new Map[params.size()]));
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                // the modified rows are needed to tell the conflicting updates apart
+                log.info("The database driver does not report the rows modified by batched statements, "
+                        + "page stats will be updated one by one");
+                rowByRowUpdates = true;
+                status.rollbackToSavepoint(savepoint);
+                return null;
+            }
+        }
+        status.releaseSavepoint(savepoint);
+        return counts;
+    }
+
     private void upsertTilePageFillFactor(final TileSet tileSet, PageStatsPayload payload) {
         if (log.isLoggable(Level.FINE)) {
             log.info("Applying page stats payload " + payload);
@@ -551,12 +711,19 @@ private int updatePageFillFactor(TilePage page, PageStats stats, float oldFillFa
             log.info("Updating page " + page + " fill factor from  " + oldFillFactor + " to " + stats.getFillFactor());
         }
 
-        String update = dialect.conditionalUpdatePageStatsFillFactor(schema, "key", "fillFactor", "oldFillFactor");
+        return jt.update(getUpdatePageFillFactorStatement(), pageFillFactorParams(page, stats, oldFillFactor));
+    }
+
+    private String getUpdatePageFillFactorStatement() {
+        return dialect.conditionalUpdatePageStatsFillFactor(schema, "key", "fillFactor", "oldFillFactor");
+    }
+
+    private Map<String, Object> pageFillFactorParams(TilePage page, PageStats stats, float oldFillFactor) {
         Map<String, Object> params = new HashMap<>();
         params.put("key", page.getKey());
         params.put("fillFactor", stats.getFillFactor());
         params.put("oldFillFactor", oldFillFactor);
-        return jt.update(update, params);
+        return params;
     }
 
     private int setPageFillFactor(TilePage page, PageStats stats) {
@@ -577,7 +744,13 @@ private int createNewPageStats(PageStats stats, TilePage page) {
         }
 
         // for the moment we don't have the page in the db, we have to create it
-        String insert = dialect.contionalTilePageInsertStatement(
+        // try the insert, mind, someone else might have done it as well, in such
+        // case the insert will fail and return 0 record modified
+        return jt.update(getNewPageStatsStatement(), newPageStatsParams(stats, page));
+    }
+
+    private String getNewPageStatsStatement() {
+        return dialect.contionalTilePageInsertStatement(
                 schema,
                 "key",
                 "tileSetId",
@@ -589,6 +762,9 @@ private int createNewPageStats(PageStats stats, TilePage page) {
                 "lastAccessTime",
                 "fillFactor",
                 "numHits");
+    }
+
+    private Map<String, Object> newPageStatsParams(PageStats stats, TilePage page) {
         Map<String, Object> params = new HashMap<>();
         params.put("key", page.getKey());
         params.put("tileSetId", page.getTileSetId());
@@ -600,10 +776,7 @@ private int createNewPageStats(PageStats stats, TilePage page) {
         params.put("lastAccessTime", stats.getLastAccessTimeMinutes());
         params.put("fillFactor", stats.getFillFactor());
         params.put("numHits", new BigDecimal(stats.getNumHits()));
-
-        // try the insert, mind, someone else might have done it as well, in such
-        // case the insert will fail and return 0 record modified
-        return jt.update(insert, params);
+        return params;
     }
 
     private PageStats getPageStats(String pageStatsKey) {
@@ -623,10 +796,23 @@ private PageStats getPageStats(String pageStatsKey) {
                 Collections.singletonMap("key", pageStatsKey));
     }
 
+    /**
+     * Each batch of pages is updated in its own transaction, so that a large flush neither holds locks on thousands of
+     * pages nor gets entirely rolled back and retried on a serialization failure
+     */
     @Override
-    @SuppressWarnings("unchecked")
     public Future<List<PageStats>> addHitsAndSetAccesTime(final Collection<PageStatsPayload> statsUpdates) {
-        return executor.submit(() -> (List<PageStats>) executeWithRetry(new QuotaStoreCallback(statsUpdates)));
+        return executor.submit(() -> {
+            List<PageStats> result = new ArrayList<>();
+            if (statsUpdates != null) {
+                // sort the payloads by page id as a deadlock avoidance measure, out of order
+                // updates may result in deadlock with the addToQuotaAndTileCounts method
+                for (List<PageStatsPayload> batch : toBatches(sortPayloads(statsUpdates))) {
+                    result.addAll(executeWithRetry(new QuotaStoreCallback(batch)));
+                }
+            }
+            return result;
+        });
     }
 
     @Override
@@ -646,24 +832,63 @@ public TilePage getLeastRecentlyUsedPage(Set<String> layerNames) throws Interrup
         return getSinglePage(layerNames, false);
     }
 
+    @Override
+    public List<TilePage> getLeastFrequentlyUsedPages(Set<String> layerNames, int maxPages)
+            throws InterruptedException {
+        return getPages(layerNames, maxPages, true);
+    }
+
+    @Override
+    public List<TilePage> getLeastRecentlyUsedPages(Set<String> layerNames, int maxPages) throws InterruptedException {
+        return getPages(layerNames, maxPages, false);
+    }
+
+    @Override
+    public List<TilePage> getLeastValuablePages(Set<String> layerNames, int maxPages, PageCosts costs)
+            throws InterruptedException {
+        return getPages(
+                layerNames,
+                (layerParamNames, layers) ->
+                        dialect.getLeastValuablePages(schema, layerParamNames, layers, costs, maxPages));
+    }
+
     private TilePage getSinglePage(Set<String> layerNames, boolean leastFrequentlyUsed) {
+        List<TilePage> pages = getPages(layerNames, 1, leastFrequentlyUsed);
+        return pages.isEmpty() ? null : pages.get(0);
+    }
+
+    private List<TilePage> getPages(Set<String> layerNames, int maxPages, boolean leastFrequentlyUsed) {
+        return getPages(
+                layerNames,
+                (layerParamNames, layers) -> leastFrequentlyUsed
+                        ? dialect.getLeastFrequentlyUsedPages(schema, layerParamNames, maxPages)
+                        : dialect.getLeastRecentlyUsedPages(schema, layerParamNames, maxPages));
+    }
+
+    /**
+     * Runs the select of pages to expire built by the given function out of the names of the layer parameters and the
+     * layer names they are bound to
+     */
+    private List<TilePage> getPages(
+            Set<String> layerNames, BiFunction<List<String>, List<String>, String> selectBuilder) {
         Map<String, Object> params = new HashMap<>();
         List<String> layerParamNames = new ArrayList<>();
+        List<String> layers = new ArrayList<>();
         int i = 0;
         for (String layer : layerNames) {
             i++;
             String param = "Layer" + i;
             params.put(param, layer);
             layerParamNames.add(param);
+            layers.add(layer);
         }
-        String select;
-        if (leastFrequentlyUsed) {
-            select = dialect.getLeastFrequentlyUsedPage(schema, layerParamNames);
-        } else {
-            select = dialect.getLeastRecentlyUsedPage(schema, layerParamNames);
-        }
+        String select = selectBuilder.apply(layerParamNames, layers);
         TilePageRowMapper mapper = new TilePageRowMapper();
-        return jt.queryForOptionalObject(select, mapper, params);
+        try {
+            return jt.query(select, params, mapper);
+        } catch (DataAccessException e) {
+            throw new ParametricDataAccessException(select, params, e);
+        }
     }
 
     @Override
@@ -871,47 +1096,102 @@ public void deleteParameters(final String layerName, final String parametersId)
         });
     }
 
-    private class QuotaStoreCallback implements TransactionCallback<Object> {
+    /** Applies the hits of a batch of distinct pages, sorted by page key */
+    private class QuotaStoreCallback implements TransactionCallback<List<PageStats>> {
 
-        private final Collection<PageStatsPayload> statsUpdates;
+        private final List<PageStatsPayload> statsUpdates;
 
-        public QuotaStoreCallback(Collection<PageStatsPayload> statsUpdates) {
+        public QuotaStoreCallback(List<PageStatsPayload> statsUpdates) {
             this.statsUpdates = statsUpdates;
         }
 
         @Override
-        public Object doInTransaction(TransactionStatus status) {
-            List<PageStats> result = new ArrayList<>();
-            if (statsUpdates != null) {
-                // sort the payloads by page id as a deadlock
-                // avoidance measure, out
-                // of order updates may result in deadlock with
-                // the addHitsAndSetAccessTime method
-                List<PageStatsPayload> sorted = sortPayloads(statsUpdates);
-                for (PageStatsPayload payload : sorted) {
-                    // verify the stats are referring to an
-                    // existing tile set id
-                    TileSet tset = payload.getTileSet();
+        public List<PageStats> doInTransaction(TransactionStatus status) {
+            // verify the stats are referring to an existing tile set id, once per tile set
+            Set<String> checkedTileSets = new HashSet<>();
+            for (PageStatsPayload payload : statsUpdates) {
+                TileSet tset = payload.getTileSet();
+                String tileSetId = payload.getPage().getTileSetId();
+                if (!checkedTileSets.add(tset == null ? tileSetId : tset.getId())) {
+                    continue;
+                }
+                if (tset == null) {
+                    tset = getTileSetByIdInternal(tileSetId);
                     if (tset == null) {
-                        String tileSetId = payload.getPage().getTileSetId();
-                        tset = getTileSetByIdInternal(tileSetId);
-                        if (tset == null) {
-                            log.warning("Could not locate tileset with id "
-                                    + tileSetId
-                                    + ", skipping page stats update: "
-                                    + payload);
-                        }
-                    } else {
-                        getOrCreateTileSet(tset);
+                        log.warning("Could not locate tileset with id "
+                                + tileSetId
+                                + ", skipping page stats update: "
+                                + payload);
                     }
+                } else {
+                    getOrCreateTileSet(tset);
+                }
+            }
 
-                    // update the stats
-                    PageStats stats = upsertTilePageHitAccessTime(payload);
-                    result.add(stats);
+            // compute the new stats out of the current ones, and write them back in two batches
+            Map<String, PageStats> existing = getPageStats(statsUpdates);
+            PageStats[] result = new PageStats[statsUpdates.size()];
+            List<Integer> inserted = new ArrayList<>();
+            List<Map<String, Object>> insertParams = new ArrayList<>();
+            List<Integer> updated = new ArrayList<>();
+            List<Map<String, Object>> updateParams = new ArrayList<>();
+            for (int i = 0; i < result.length; i++) {
+                PageStatsPayload payload = statsUpdates.get(i);
+                TilePage page = payload.getPage();
+                PageStats stats = existing.get(page.getKey());
+                if (stats != null) {
+                    Map<String, Object> params = oldPageStatsParams(stats);
+                    updatePageStats(payload, page, stats);
+                    params.putAll(updatedPageStatsParams(page, stats));
+                    updated.add(i);
+                    updateParams.add(params);
+                } else {
+                    stats = new PageStats(0);
+                    updatePageStats(payload, page, stats);
+                    inserted.add(i);
+                    insertParams.add(newPageStatsParams(stats, page));
                 }
+                result[i] = stats;
             }
 
-            return result;
+            List<Integer> conflicts = new ArrayList<>();
+            conflicts.addAll(batchUpdate(status, getNewPageStatsStatement(), insertParams, inserted));
+            conflicts.addAll(batchUpdate(status, getUpdatePageStatsStatement(), updateParams, updated));
+            for (int i : conflicts) {
+                result[i] = upsertTilePageHitAccessTime(statsUpdates.get(i));
+            }
+
+            return Arrays.asList(result);
+        }
+
+        private String getUpdatePageStatsStatement() {
+            return dialect.updatePageStats(
+                    schema,
+                    "key",
+                    "newHits",
+                    "oldHits",
+                    "newFrequency",
+                    "oldFrequency",
+                    "newAccessTime",
+                    "oldAccessTime");
+        }
+
+        /** The values used for the optimistic locking, to be gathered before updating the stats */
+        private Map<String, Object> oldPageStatsParams(PageStats stats) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("oldHits", new BigDecimal(stats.getNumHits()));
+            params.put("oldFrequency", stats.getFrequencyOfUsePerMinute());
+            params.put("oldAccessTime", stats.getLastAccessTimeMinutes());
+            return params;
+        }
+
+        private Map<String, Object> updatedPageStatsParams(TilePage page, PageStats stats) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("key", page.getKey());
+            params.put("newHits", new BigDecimal(stats.getNumHits()));
+            params.put("newFrequency", stats.getFrequencyOfUsePerMinute());
+            params.put("newAccessTime", stats.getLastAccessTimeMinutes());
+            return params;
         }
 
         private PageStats upsertTilePageHitAccessTime(PageStatsPayload payload) {
@@ -931,32 +1211,14 @@ private PageStats upsertTilePageHitAccessTime(PageStatsPayload payload) {
                     if (stats != null) {
                         // gather the old values, we'll use them
                         // for the optimistic locking
-                        final BigInteger oldHits = stats.getNumHits();
-                        final float oldFrequency = stats.getFrequencyOfUsePerMinute();
-                        final int oldAccessTime = stats.getLastAccessTimeMinutes();
+                        Map<String, Object> params = oldPageStatsParams(stats);
                         // update the page so that it computes
                         // the new stats
                         updatePageStats(payload, page, stats);
 
                         // update the record in the db
-                        String update = dialect.updatePageStats(
-                                schema,
-                                "key",
-                                "newHits",
-                                "oldHits",
-                                "newFrequency",
-                                "oldFrequency",
-                                "newAccessTime",
-                                "oldAccessTime");
-                        Map<String, Object> params = new HashMap<>();
-                        params.put("key", page.getKey());
-                        params.put("newHits", new BigDecimal(stats.getNumHits()));
-                        params.put("oldHits", new BigDecimal(oldHits));
-                        params.put("newFrequency", stats.getFrequencyOfUsePerMinute());
-                        params.put("oldFrequency", oldFrequency);
-                        params.put("newAccessTime", stats.getLastAccessTimeMinutes());
-                        params.put("oldAccessTime", oldAccessTime);
-                        modified = jt.update(update, params);
+                        params.putAll(updatedPageStatsParams(page, stats));
+                        modified = jt.update(getUpdatePageStatsStatement(), params);
                     } else {
                         // create the new stats and insert it
                         stats = new PageStats(0);
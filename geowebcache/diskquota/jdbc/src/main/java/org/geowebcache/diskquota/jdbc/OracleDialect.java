@@ -131,53 +131,10 @@ public String getRenameLayerStatement(String schema, String oldLayerName, String
     }
 
     @Override
-    public String getLeastFrequentlyUsedPage(String schema, List<String> layerParamNames) {
+    protected String getPagesToExpire(String schema, List<String> layerParamNames, String orderBy, int maxPages) {
         StringBuilder sb = new StringBuilder("SELECT * FROM (");
-        sb.append("SELECT TILESET_ID, PAGE_X, PAGE_Y, PAGE_Z, CREATION_TIME_MINUTES FROM ");
-        if (schema != null) {
-            sb.append(schema).append(".");
-        }
-        sb.append("TILEPAGE WHERE FILL_FACTOR > 0 ");
-        sb.append("AND TILESET_ID IN (");
-        sb.append("SELECT KEY FROM ");
-        if (schema != null) {
-            sb.append(schema).append(".");
-        }
-        sb.append("TILESET WHERE LAYER_NAME IN (");
-        for (int i = 0; i < layerParamNames.size(); i++) {
-            sb.append(":" + layerParamNames.get(i));
-            if (i < layerParamNames.size() - 1) {
-                sb.append(", ");
-            }
-        }
-        sb.append(")) ORDER BY FREQUENCY_OF_USE ASC");
-        sb.append(") WHERE ROWNUM <= 1");
-
-        return sb.toString();
-    }
-
-    @Override
-    public String getLeastRecentlyUsedPage(String schema, List<String> layerParamNames) {
-        StringBuilder sb = new StringBuilder("SELECT * FROM (");
-        sb.append("SELECT TILESET_ID, PAGE_X, PAGE_Y, PAGE_Z, CREATION_TIME_MINUTES FROM ");
-        if (schema != null) {
-            sb.append(schema).append(".");
-        }
-        sb.append("TILEPAGE WHERE FILL_FACTOR > 0 ");
-        sb.append("AND TILESET_ID IN (");
-        sb.append("SELECT KEY FROM ");
-        if (schema != null) {
-            sb.append(schema).append(".");
-        }
-        sb.append("TILESET WHERE LAYER_NAME IN (");
-        for (int i = 0; i < layerParamNames.size(); i++) {
-            sb.append(":" + layerParamNames.get(i));
-            if (i < layerParamNames.size() - 1) {
-                sb.append(", ");
-            }
-        }
-        sb.append(")) ORDER BY LAST_ACCESS_TIME_MINUTES ASC");
-        sb.append(") WHERE ROWNUM <= 1");
+        appendPagesToExpire(sb, schema, layerParamNames, orderBy);
+        sb.append(") WHERE ROWNUM <= ").append(maxPages);
 
         return sb.toString();
     }
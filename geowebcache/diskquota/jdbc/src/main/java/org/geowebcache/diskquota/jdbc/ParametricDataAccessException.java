@@ -13,6 +13,7 @@
  */
 package org.geowebcache.diskquota.jdbc;
 
+import java.util.Arrays;
 import java.util.Map;
 import org.springframework.dao.DataAccessException;
 
@@ -32,6 +33,18 @@ public ParametricDataAccessException(String sql, Map<String, ?> params, Throwabl
         super(buildMessage(sql, params), cause);
     }
 
+    public ParametricDataAccessException(String sql, Map<String, ?>[] batchParams, Throwable cause) {
+        super(buildMessage(sql, batchParams), cause);
+    }
+
+    private static String buildMessage(String sql, Map<String, ?>[] batchParams) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Failed to execute batch statement " + sql);
+        sb.append(" with params: " + Arrays.toString(batchParams));
+
+        return sb.toString();
+    }
+
     private static String buildMessage(String sql, Map<String, ?> params) {
         StringBuilder sb = new StringBuilder();
         sb.append("Failed to execute statement " + sql);
@@ -13,6 +13,7 @@
  */
 package org.geowebcache.diskquota.jdbc;
 
+import java.math.BigDecimal;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -20,6 +21,7 @@
 import java.util.List;
 import java.util.Map;
 import javax.sql.DataSource;
+import org.geowebcache.diskquota.PageCosts;
 import org.springframework.jdbc.support.JdbcAccessor;
 import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.MetaDataAccessException;
@@ -366,6 +368,18 @@ public String getPageStats(String schema, String keyParam) {
         return sb.toString();
     }
 
+    /** Selects the stats of all the pages whose key is in the given collection parameter, along with the key */
+    public String getPagesStats(String schema, String keysParam) {
+        StringBuilder sb = new StringBuilder(
+                "SELECT KEY, FREQUENCY_OF_USE, LAST_ACCESS_TIME_MINUTES, FILL_FACTOR, NUM_HITS FROM ");
+        if (schema != null) {
+            sb.append(schema).append(".");
+        }
+        sb.append("TILEPAGE WHERE KEY IN (:").append(keysParam).append(")");
+
+        return sb.toString();
+    }
+
     public String contionalTilePageInsertStatement(
             String schema,
             String keyParam,
@@ -463,31 +477,90 @@ public String updatePageStats(
     }
 
     public String getLeastFrequentlyUsedPage(String schema, List<String> layerParamNames) {
-        StringBuilder sb = new StringBuilder("SELECT TILESET_ID, PAGE_X, PAGE_Y, PAGE_Z, CREATION_TIME_MINUTES FROM ");
-        if (schema != null) {
-            sb.append(schema).append(".");
-        }
-        sb.append("TILEPAGE WHERE FILL_FACTOR > 0 ");
-        sb.append("AND TILESET_ID IN (");
-        sb.append("SELECT KEY FROM ");
-        if (schema != null) {
-            sb.append(schema).append(".");
-        }
-        sb.append("TILESET WHERE LAYER_NAME IN (");
-        for (int i = 0; i < layerParamNames.size(); i++) {
-            sb.append(":" + layerParamNames.get(i));
-            if (i < layerParamNames.size() - 1) {
-                sb.append(", ");
+        return getLeastFrequentlyUsedPages(schema, layerParamNames, 1);
+    }
+
+    public String getLeastRecentlyUsedPage(String schema, List<String> layerParamNames) {
+        return getLeastRecentlyUsedPages(schema, layerParamNames, 1);
+    }
+
+    /** Selects up to {@code maxPages} pages with tiles of the given layers, least frequently used first */
+    public String getLeastFrequentlyUsedPages(String schema, List<String> layerParamNames, int maxPages) {
+        return getPagesToExpire(schema, layerParamNames, "FREQUENCY_OF_USE", maxPages);
+    }
+
+    /** Selects up to {@code maxPages} pages with tiles of the given layers, least recently used first */
+    public String getLeastRecentlyUsedPages(String schema, List<String> layerParamNames, int maxPages) {
+        return getPagesToExpire(schema, layerParamNames, "LAST_ACCESS_TIME_MINUTES", maxPages);
+    }
+
+    /**
+     * Selects up to {@code maxPages} pages with tiles of the given layers, lowest {@link PageCosts#score(String, int,
+     * double) GDSF score} first
+     *
+     * @param layerNames the names of the layers, in the same order as the parameters they are bound to
+     */
+    public String getLeastValuablePages(
+            String schema, List<String> layerParamNames, List<String> layerNames, PageCosts costs, int maxPages) {
+        return getPagesToExpire(
+                schema, layerParamNames, getPageScore(schema, layerParamNames, layerNames, costs), maxPages);
+    }
+
+    /**
+     * Builds the expression computing the GDSF score of a page, the cost per byte of the layers and zoom levels with a
+     * measured cost being inlined as literals
+     */
+    protected String getPageScore(
+            String schema, List<String> layerParamNames, List<String> layerNames, PageCosts costs) {
+        StringBuilder cases = new StringBuilder();
+        for (int i = 0; i < layerNames.size(); i++) {
+            double[] measured = costs.getMeasuredCostsPerByte(layerNames.get(i));
+            if (measured.length == 0) {
+                continue;
             }
+            cases.append(" WHEN TILESET_ID IN (SELECT KEY FROM ");
+            if (schema != null) {
+                cases.append(schema).append(".");
+            }
+            cases.append("TILESET WHERE LAYER_NAME = :").append(layerParamNames.get(i));
+            cases.append(") THEN CASE PAGE_Z");
+            for (int z = 0; z < measured.length; z++) {
+                if (measured[z] > 0 && Double.isFinite(measured[z])) {
+                    cases.append(" WHEN ").append(z).append(" THEN ").append(toLiteral(measured[z]));
+                }
+            }
+            cases.append(" ELSE ")
+                    .append(toLiteral(costs.getLayerCostPerByte(layerNames.get(i))))
+                    .append(" END");
         }
-        sb.append(")) ");
-        sb.append("ORDER BY FREQUENCY_OF_USE ASC LIMIT 1");
+        if (cases.length() == 0) {
+            // all the pages cost the same, it boils down to LFU
+            return "FREQUENCY_OF_USE";
+        }
+        return "(FREQUENCY_OF_USE + "
+                + toLiteral(PageCosts.MIN_FREQUENCY)
+                + ") * CASE"
+                + cases
+                + " ELSE "
+                + toLiteral(costs.getDefaultCostPerByte())
+                + " END";
+    }
+
+    private static String toLiteral(double value) {
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+
+    protected String getPagesToExpire(String schema, List<String> layerParamNames, String orderBy, int maxPages) {
+        StringBuilder sb = new StringBuilder();
+        appendPagesToExpire(sb, schema, layerParamNames, orderBy);
+        sb.append(" LIMIT ").append(maxPages);
 
         return sb.toString();
     }
 
-    public String getLeastRecentlyUsedPage(String schema, List<String> layerParamNames) {
-        StringBuilder sb = new StringBuilder("SELECT TILESET_ID, PAGE_X, PAGE_Y, PAGE_Z, CREATION_TIME_MINUTES FROM ");
+    /** Appends the select of the pages with tiles of the given layers, ordered by the given column */
+    protected void appendPagesToExpire(StringBuilder sb, String schema, List<String> layerParamNames, String orderBy) {
+        sb.append("SELECT TILESET_ID, PAGE_X, PAGE_Y, PAGE_Z, CREATION_TIME_MINUTES FROM ");
         if (schema != null) {
             sb.append(schema).append(".");
         }
@@ -505,8 +578,6 @@ public String getLeastRecentlyUsedPage(String schema, List<String> layerParamNam
             }
         }
         sb.append(")) ");
-        sb.append("ORDER BY LAST_ACCESS_TIME_MINUTES ASC LIMIT 1");
-
-        return sb.toString();
+        sb.append("ORDER BY ").append(orderBy).append(" ASC");
     }
 }
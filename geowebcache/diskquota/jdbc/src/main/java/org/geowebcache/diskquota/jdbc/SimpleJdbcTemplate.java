@@ -59,4 +59,13 @@ public int update(String sql, Map<String, ?> params) throws DataAccessException
             throw new ParametricDataAccessException(sql, params, e);
         }
     }
+
+    @Override
+    public int[] batchUpdate(String sql, Map<String, ?>[] batchValues) throws DataAccessException {
+        try {
+            return super.batchUpdate(sql, batchValues);
+        } catch (DataAccessException e) {
+            throw new ParametricDataAccessException(sql, batchValues, e);
+        }
+    }
 }
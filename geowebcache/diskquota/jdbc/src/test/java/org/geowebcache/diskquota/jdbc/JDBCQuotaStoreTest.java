@@ -30,6 +30,7 @@
 import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.sql.DataSource;
@@ -47,6 +48,7 @@
 import org.geowebcache.config.XMLConfiguration;
 import org.geowebcache.config.XMLConfigurationBackwardsCompatibilityTest;
 import org.geowebcache.diskquota.DiskQuotaMonitor;
+import org.geowebcache.diskquota.PageCosts;
 import org.geowebcache.diskquota.storage.PageStats;
 import org.geowebcache.diskquota.storage.PageStatsPayload;
 import org.geowebcache.diskquota.storage.Quota;
@@ -692,6 +694,90 @@ public void testPageStatsGathering() throws Exception {
         assertEquals(expected, frequencyOfUsePerMinute, 1e-6f);
     }
 
+    /** Page stats updates spanning several batches, and hitting the same page twice */
+    @Test
+    public void testPageStatsGatheringBatches() throws Exception {
+        store.batchSize = 2;
+
+        List<PageStatsPayload> payloads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            PageStatsPayload payload = new PageStatsPayload(new TilePage(testTileSet.getId(), i, 0, 3), testTileSet);
+            payload.setNumTiles(1);
+            payload.setNumHits(10 * (i + 1));
+            payloads.add(payload);
+        }
+        PageStatsPayload again = new PageStatsPayload(payloads.get(0).getPage(), testTileSet);
+        again.setNumTiles(1);
+        again.setNumHits(1);
+        payloads.add(again);
+
+        store.addToQuotaAndTileCounts(testTileSet, new Quota(1, StorageUnit.MiB), payloads);
+        List<PageStats> stats = store.addHitsAndSetAccesTime(payloads).get();
+
+        assertEquals(6, stats.size());
+        List<BigInteger> hits = stats.stream().map(PageStats::getNumHits).collect(Collectors.toList());
+        assertThat(
+                hits,
+                Matchers.containsInAnyOrder(Stream.of(10, 11, 20, 30, 40, 50)
+                        .map(BigInteger::valueOf)
+                        .toArray()));
+
+        float tilesPerPage = tilePageCalculator.getTilesPerPage(testTileSet, 3).floatValue();
+        for (PageStats pageStats : stats) {
+            // the first page, with 10 and 11 hits, got two tiles
+            int tiles = pageStats.getNumHits().intValue() <= 11 ? 2 : 1;
+            assertEquals(Math.min(1f, tiles / tilesPerPage), pageStats.getFillFactor(), 1e-6f);
+        }
+    }
+
+    /** Same as above, with a driver that does not tell the rows modified by batched statements */
+    @Test
+    public void testPageStatsGatheringBatchesWithoutRowCounts() throws Exception {
+        store.batchSize = 2;
+        AtomicInteger batches = new AtomicInteger();
+        store.jt = new SimpleJdbcTemplate(store.jt.getJdbcTemplate().getDataSource()) {
+            @Override
+            public int[] batchUpdate(String sql, Map<String, ?>[] batchValues) {
+                batches.incrementAndGet();
+                int[] counts = super.batchUpdate(sql, batchValues);
+                Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                return counts;
+            }
+        };
+
+        List<PageStatsPayload> payloads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            PageStatsPayload payload = new PageStatsPayload(new TilePage(testTileSet.getId(), i, 0, 3), testTileSet);
+            payload.setNumTiles(1);
+            payload.setNumHits(10 * (i + 1));
+            payloads.add(payload);
+        }
+        PageStatsPayload again = new PageStatsPayload(payloads.get(0).getPage(), testTileSet);
+        again.setNumTiles(1);
+        again.setNumHits(1);
+        payloads.add(again);
+
+        store.addToQuotaAndTileCounts(testTileSet, new Quota(1, StorageUnit.MiB), payloads);
+        List<PageStats> stats = store.addHitsAndSetAccesTime(payloads).get();
+
+        // the first batch is rolled back and run again one statement at a time, as are the following ones
+        assertEquals(1, batches.get());
+        assertEquals(6, stats.size());
+        List<BigInteger> hits = stats.stream().map(PageStats::getNumHits).collect(Collectors.toList());
+        assertThat(
+                hits,
+                Matchers.containsInAnyOrder(Stream.of(10, 11, 20, 30, 40, 50)
+                        .map(BigInteger::valueOf)
+                        .toArray()));
+
+        float tilesPerPage = tilePageCalculator.getTilesPerPage(testTileSet, 3).floatValue();
+        for (PageStats pageStats : stats) {
+            // the first page, with 10 and 11 hits, got two tiles
+            int tiles = pageStats.getNumHits().intValue() <= 11 ? 2 : 1;
+            assertEquals(Math.min(1f, tiles / tilesPerPage), pageStats.getFillFactor(), 1e-6f);
+        }
+    }
+
     @Test
     public void testGetGloballyUsedQuota() throws InterruptedException {
         Quota usedQuota = store.getGloballyUsedQuota();
@@ -794,6 +880,78 @@ public void testGetLeastFrequentlyUsedPageSkipEmpty() throws Exception {
         assertEquals(page1, leastFrequentlyUsedPage);
     }
 
+    @Test
+    public void testGetLeastFrequentlyUsedPages() throws Exception {
+        final String layerName = testTileSet.getLayerName();
+        Set<String> layerNames = Collections.singleton(layerName);
+
+        assertTrue(store.getLeastFrequentlyUsedPages(layerNames, 10).isEmpty());
+
+        TilePage page1 = new TilePage(testTileSet.getId(), 0, 1, 2);
+        TilePage page2 = new TilePage(testTileSet.getId(), 1, 1, 2);
+        TilePage page3 = new TilePage(testTileSet.getId(), 2, 1, 2);
+
+        PageStatsPayload payload1 = new PageStatsPayload(page1, testTileSet);
+        PageStatsPayload payload2 = new PageStatsPayload(page2, testTileSet);
+        PageStatsPayload payload3 = new PageStatsPayload(page3, testTileSet);
+
+        payload1.setNumHits(100);
+        payload2.setNumHits(10);
+        payload3.setNumHits(1000);
+        store.addHitsAndSetAccesTime(Arrays.asList(payload1, payload2, payload3))
+                .get();
+
+        assertEquals(Arrays.asList(page2, page1), store.getLeastFrequentlyUsedPages(layerNames, 2));
+        assertEquals(Arrays.asList(page2, page1, page3), store.getLeastFrequentlyUsedPages(layerNames, 10));
+
+        store.setTruncated(page2);
+        assertEquals(Arrays.asList(page1, page3), store.getLeastFrequentlyUsedPages(layerNames, 10));
+    }
+
+    @Test
+    public void testGetLeastValuablePages() throws Exception {
+        final String layerName = testTileSet.getLayerName();
+        Set<String> layerNames = new HashSet<>(Arrays.asList(layerName, "unmeasured"));
+
+        TilePage page1 = new TilePage(testTileSet.getId(), 0, 1, 2);
+        TilePage page2 = new TilePage(testTileSet.getId(), 1, 1, 2);
+        TilePage page3 = new TilePage(testTileSet.getId(), 2, 1, 3);
+
+        PageStatsPayload payload1 = new PageStatsPayload(page1, testTileSet);
+        PageStatsPayload payload2 = new PageStatsPayload(page2, testTileSet);
+        PageStatsPayload payload3 = new PageStatsPayload(page3, testTileSet);
+
+        // frequencies of use are scaled by the page fill factors
+        for (PageStatsPayload payload : Arrays.asList(payload1, payload2, payload3)) {
+            int zoomLevel = payload.getPage().getZoomLevel();
+            BigInteger tilesPerPage = tilePageCalculator.getTilesPerPage(testTileSet, zoomLevel);
+            payload.setNumTiles(tilesPerPage.min(BigInteger.valueOf(1000)).intValue());
+        }
+        store.addToQuotaAndTileCounts(
+                testTileSet, new Quota(1, StorageUnit.MiB), Arrays.asList(payload1, payload2, payload3));
+        payload1.setNumHits(100);
+        payload2.setNumHits(10);
+        payload3.setNumHits(1000);
+        store.addHitsAndSetAccesTime(Arrays.asList(payload1, payload2, payload3))
+                .get();
+
+        // without measured costs it's plain LFU
+        PageCosts unknown = new PageCosts(Collections.emptyMap());
+        assertEquals(Arrays.asList(page2, page1, page3), store.getLeastValuablePages(layerNames, 10, unknown));
+
+        // the most used page is also the cheapest to render again by far
+        double[] costs = new double[4];
+        Arrays.fill(costs, Double.NaN);
+        costs[2] = 1000;
+        costs[3] = 0.001;
+        PageCosts measured = new PageCosts(Collections.singletonMap(layerName, costs));
+        assertEquals(Arrays.asList(page3, page2), store.getLeastValuablePages(layerNames, 2, measured));
+        assertEquals(Arrays.asList(page3, page2, page1), store.getLeastValuablePages(layerNames, 10, measured));
+
+        store.setTruncated(page3);
+        assertEquals(Arrays.asList(page2, page1), store.getLeastValuablePages(layerNames, 10, measured));
+    }
+
     @Test
     public void testGetLeastRecentlyUsedPage() throws Exception {
         MockSystemUtils mockSystemUtils = new MockSystemUtils();
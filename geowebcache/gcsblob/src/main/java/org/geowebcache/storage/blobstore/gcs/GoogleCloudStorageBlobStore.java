@@ -24,12 +24,16 @@
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
 import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -50,6 +54,7 @@
 import org.geowebcache.storage.BlobStoreListener;
 import org.geowebcache.storage.BlobStoreListenerList;
 import org.geowebcache.storage.CompositeBlobStore;
+import org.geowebcache.storage.ParametersMetadataRegistry;
 import org.geowebcache.storage.TileObject;
 import org.geowebcache.storage.TileRange;
 import org.geowebcache.storage.TileRangeIterator;
@@ -71,6 +76,12 @@ public class GoogleCloudStorageBlobStore implements BlobStore {
 
     private TileLayerDispatcher layers;
 
+    /**
+     * Parameters metadata already written, to avoid every {@link #put(TileObject)} call to store the same properties
+     * file.
+     */
+    private final ParametersMetadataRegistry parametersMetadata;
+
     /**
      * @param client a pre-configured {@link GoogleCloudStorageClient}
      * @param layers the tile layer dispatcher to build tile keys from
@@ -90,6 +101,7 @@ public GoogleCloudStorageBlobStore(GoogleCloudStorageClient client, TileLayerDis
 
         String prefix = Optional.ofNullable(client.getPrefix()).orElse("");
         this.keyBuilder = new TMSKeyBuilder(prefix, layers);
+        this.parametersMetadata = new ParametersMetadataRegistry(this::listParametersIds);
 
         try {
             ensureCacheSuitability(prefix);
@@ -167,6 +179,55 @@ public boolean get(TileObject obj) throws org.geowebcache.storage.StorageExcepti
      */
     @Override
     public void put(TileObject obj) throws org.geowebcache.storage.StorageException {
+        upload(obj, true);
+    }
+
+    /**
+     * Stores a batch of tiles with concurrent uploads, writing the parameters metadata of each distinct layer and
+     * parameters id only once.
+     *
+     * @param objs The tiles to store.
+     * @throws org.geowebcache.storage.StorageException if any of the uploads fails.
+     */
+    @Override
+    public void putAll(Collection<TileObject> objs) throws org.geowebcache.storage.StorageException {
+        Map<String, TileObject> byParameters = new LinkedHashMap<>();
+        for (TileObject obj : objs) {
+            byParameters.putIfAbsent(keyBuilder.parametersMetadata(obj.getLayerName(), obj.getParametersId()), obj);
+        }
+        for (TileObject obj : byParameters.values()) {
+            putParametersMetadata(obj.getLayerName(), obj.getParametersId(), obj.getParameters());
+        }
+
+        List<Callable<TileObject>> uploads = new ArrayList<>(objs.size());
+        for (TileObject obj : objs) {
+            uploads.add(() -> {
+                upload(obj, false);
+                return obj;
+            });
+        }
+        client.executeParallel(uploads);
+    }
+
+    /**
+     * Retrieves a batch of tiles with concurrent downloads.
+     *
+     * @param objs The tiles to retrieve.
+     * @return The tiles that were found, in the same order as requested.
+     * @throws org.geowebcache.storage.StorageException if any of the downloads fails.
+     */
+    @Override
+    public List<TileObject> getAll(Collection<TileObject> objs) throws org.geowebcache.storage.StorageException {
+        List<Callable<TileObject>> downloads = new ArrayList<>(objs.size());
+        for (TileObject obj : objs) {
+            downloads.add(() -> get(obj) ? obj : null);
+        }
+        return client.executeParallel(downloads).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private void upload(TileObject obj, boolean putParametersMetadata) throws org.geowebcache.storage.StorageException {
         final Resource content = checkNotNull(obj).getBlob();
         checkNotNull(content);
         checkNotNull(obj.getBlobFormat());
@@ -178,7 +239,9 @@ public void put(TileObject obj) throws org.geowebcache.storage.StorageException
 
         client.put(tileKey, content, contentType);
 
-        putParametersMetadata(obj.getLayerName(), obj.getParametersId(), obj.getParameters());
+        if (putParametersMetadata) {
+            putParametersMetadata(obj.getLayerName(), obj.getParametersId(), obj.getParameters());
+        }
 
         if (oldSize < 0) {
             listeners.sendTileStored(obj);
@@ -203,6 +266,8 @@ public boolean delete(String layerName) throws org.geowebcache.storage.StorageEx
         final String metadataKey = keyBuilder.layerMetadata(layerName);
         final String layerPrefix = keyBuilder.forLayer(layerName);
 
+        parametersMetadata.invalidateLayer(layerName);
+
         // this might not be there, tolerant delete
         client.deleteBlob(metadataKey);
 
@@ -229,6 +294,7 @@ public boolean deleteByParametersId(String layerName, String parametersId)
         checkNotNull(layerName, "layerName");
         checkNotNull(parametersId, "parametersId");
 
+        parametersMetadata.invalidate(layerName, parametersId);
         Set<String> gridsetAndFormatPrefixes = keyBuilder.forParameters(layerName, parametersId);
         // for each <prefix>/<layer>/<gridset>/<format>/<parametersId>/
         boolean prefixExists = false;
@@ -358,7 +424,8 @@ private Stream<TileLocation> toTileLocations(TileRange tileRange) {
     static Stream<TileIndex> toTileIndices(TileRange tileRange) {
 
         final int[] metaTilingFactors = {1, 1};
-        final TileRangeIterator trIter = new TileRangeIterator(tileRange, metaTilingFactors);
+        // the stream may be walked from another thread than this one
+        final TileRangeIterator.Consumer trIter = new TileRangeIterator(tileRange, metaTilingFactors).newConsumer();
 
         // optimization for TileRangeIterator.nextMetaGridLocation() to avoid creating many arrays
         final long[] reusedGridLoc = new long[3];
@@ -378,20 +445,9 @@ private String getMimeType(TileObject obj) {
         }
     }
 
-    /**
-     * Local cache of existing parameters metadata to avoid every {@link #put(TileObject)} call to store the same
-     * properties file.
-     *
-     * <p>This is ok since the parameters id is a {@link ParametersUtils#getId(Map) hash code} of the contents
-     */
-    private Map<String, String> existingParametersMedatata = new ConcurrentHashMap<>();
-
     void putParametersMetadata(String layerName, String parametersId, Map<String, String> parameters) {
         assert (isNull(parametersId) == isNull(parameters));
-        if (isNull(parametersId)) {
-            return;
-        }
-        if (existingParametersMedatata.containsKey(parametersId)) {
+        if (isNull(parametersId) || parametersMetadata.isPersisted(layerName, parametersId)) {
             return;
         }
 
@@ -400,12 +456,21 @@ void putParametersMetadata(String layerName, String parametersId, Map<String, St
         String resourceKey = keyBuilder.parametersMetadata(layerName, parametersId);
         try {
             putProperties(resourceKey, properties);
-            existingParametersMedatata.put(layerName, parametersId);
+            parametersMetadata.persisted(layerName, parametersId);
         } catch (org.geowebcache.storage.StorageException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    private List<String> listParametersIds(String layerName) throws org.geowebcache.storage.StorageException {
+        try (Stream<Blob> blobs = client.list(keyBuilder.parametersMetadataPrefix(layerName))) {
+            return blobs.map(Blob::getName)
+                    .map(TMSKeyBuilder::parametersIdFromMetadataKey)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+    }
+
     @Override
     public void clear() throws org.geowebcache.storage.StorageException {
         throw new UnsupportedOperationException("clear() should not be called");
@@ -429,6 +494,7 @@ public boolean removeListener(BlobStoreListener listener) {
     @Override
     public boolean rename(String oldLayerName, String newLayerName) throws org.geowebcache.storage.StorageException {
         log.fine("No need to rename layers, GoogleCloudStorageBlobStore uses layer id as key root");
+        parametersMetadata.invalidateLayer(oldLayerName);
         if (client.directoryExists(oldLayerName)) {
             listeners.sendLayerRenamed(oldLayerName, newLayerName);
         }
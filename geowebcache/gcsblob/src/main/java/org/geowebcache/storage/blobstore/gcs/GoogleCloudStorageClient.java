@@ -39,6 +39,7 @@
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -50,6 +51,7 @@
 import org.geotools.util.logging.Logging;
 import org.geowebcache.GeoWebCacheEnvironment;
 import org.geowebcache.io.Resource;
+import org.geowebcache.storage.ParallelRequests;
 
 /**
  * A low-level client to interact with a Google Cloud Storage bucket, tailored for {@link GoogleCloudStorageBlobStore}'s
@@ -66,6 +68,11 @@ class GoogleCloudStorageClient {
     private static final int DEFAULT_BATCH_SIZE = 1000;
     private final ExecutorService deleteService;
 
+    /** Number of concurrent requests used to upload or download a batch of tiles */
+    private static final int TRANSFER_POOL_SIZE = 32;
+
+    private final ParallelRequests transfers;
+
     private final Storage storage;
 
     private final String bucket;
@@ -81,6 +88,10 @@ private GoogleCloudStorageClient(Storage storageClient, String bucket, String pr
         this.prefix = prefix;
         int poolSize = Runtime.getRuntime().availableProcessors();
         this.deleteService = Executors.newFixedThreadPool(poolSize);
+        this.transfers = new ParallelRequests(
+                "GWC GoogleCloudStorageBlobStore transfer thread-%d. Bucket: " + bucket,
+                "bucket " + bucket,
+                TRANSFER_POOL_SIZE);
     }
 
     /**
@@ -347,6 +358,7 @@ private String dirPrefix(String path) {
      */
     public void close() {
         closed = true;
+        transfers.shutdown();
         if (!deleteService.isShutdown()) {
             deleteService.shutdown();
             try {
@@ -435,6 +447,20 @@ public Blob put(String key, Resource blob, String contentType) throws org.geoweb
         return put(key, bytes, contentType);
     }
 
+    /**
+     * Runs the given requests concurrently, so that their round trips overlap, and waits for all of them to complete.
+     *
+     * <p>Uploads cannot be grouped in a GCS batch request, so batches of tiles are transferred with parallel requests
+     * instead.
+     *
+     * @param requests The requests to run.
+     * @return The results of the requests, in the same order.
+     * @throws org.geowebcache.storage.StorageException the first failure, if any request failed.
+     */
+    public <T> List<T> executeParallel(List<Callable<T>> requests) throws org.geowebcache.storage.StorageException {
+        return transfers.execute(requests);
+    }
+
     /**
      * Deletes a single blob synchronously.
      *
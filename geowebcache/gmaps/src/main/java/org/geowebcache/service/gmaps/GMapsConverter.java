@@ -75,7 +75,7 @@ public ConveyorTile getConveyor(HttpServletRequest request, HttpServletResponse
         }
 
         TileLayer tileLayer = tld.getTileLayer(layers);
-        Map<String, String> filteringParameters = tileLayer.getModifiableParameters(params, encoding);
+        Map<String, String> filteringParameters = tileLayer.getFilteredParameters(params, encoding);
 
         MimeType mimeType = null;
         try {
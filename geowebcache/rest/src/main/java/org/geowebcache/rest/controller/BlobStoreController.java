@@ -14,12 +14,20 @@
 package org.geowebcache.rest.controller;
 
 import java.util.List;
+import java.util.Optional;
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.config.BlobStoreInfo;
 import org.geowebcache.rest.converter.XStreamListAliasWrapper;
 import org.geowebcache.rest.exception.RestException;
+import org.geowebcache.storage.BlobStore;
 import org.geowebcache.storage.BlobStoreAggregator;
+import org.geowebcache.storage.CompositeBlobStore;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.geowebcache.storage.blobstore.file.ParallelDirectoryDeleter;
+import org.json.JSONArray;
+import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -38,6 +46,9 @@ public class BlobStoreController extends GWCController {
     @Autowired
     private BlobStoreAggregator blobStores;
 
+    @Autowired(required = false)
+    private CompositeBlobStore compositeBlobStore;
+
     @RequestMapping(
             method = RequestMethod.GET,
             produces = {MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_XML_VALUE})
@@ -87,4 +98,34 @@ public void blobStoreDelete(@PathVariable String blobStoreName) {
                     HttpStatus.NOT_FOUND);
         }
     }
+
+    /**
+     * Reports the progress of the deletes running in the background, for the blob stores that delete large directory
+     * trees asynchronously, and an empty list otherwise
+     */
+    @RequestMapping(
+            path = "/{blobStoreName}/deletes",
+            method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> pendingDeletesGet(@PathVariable String blobStoreName) {
+        if (!blobStores.blobStoreExists(blobStoreName)) {
+            throw new RestException(
+                    "A BlobStoreInfo with name \"%s\" does not exist.".formatted(blobStoreName), HttpStatus.NOT_FOUND);
+        }
+        JSONArray deletes = new JSONArray();
+        Optional<BlobStore> store =
+                Optional.ofNullable(compositeBlobStore).flatMap(composite -> composite.getLiveBlobStore(blobStoreName));
+        if (store.isPresent() && store.get() instanceof FileBlobStore fileStore) {
+            for (ParallelDirectoryDeleter.Progress progress : fileStore.getPendingDeletes()) {
+                JSONObject delete = new JSONObject();
+                delete.put("directory", progress.directory().getName());
+                delete.put("deletedFiles", progress.deletedFiles());
+                delete.put("deletedBytes", progress.deletedBytes());
+                deletes.put(delete);
+            }
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(new JSONObject().put("deletes", deletes).toString(), headers, HttpStatus.OK);
+    }
 }
@@ -16,6 +16,7 @@
 import java.util.Set;
 import org.geowebcache.grid.GridSet;
 import org.geowebcache.grid.GridSetBroker;
+import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.rest.converter.XStreamListAliasWrapper;
 import org.geowebcache.rest.exception.RestException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +38,9 @@ public class GridSetController extends GWCController {
     @Autowired
     GridSetBroker broker;
 
+    @Autowired
+    TileLayerDispatcher tld;
+
     @RequestMapping(
             method = RequestMethod.GET,
             produces = {MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_XML_VALUE})
@@ -66,6 +70,8 @@ public ResponseEntity<?> gridSetPut(@PathVariable String gridSetName, @RequestBo
 
         if (broker.get(gridSetName) != null) {
             broker.put(gridSet);
+            // the layers using it describe it, in the capabilities documents for example
+            tld.clearLayerIndex();
         } else {
             broker.addGridSet(gridSet);
             return new ResponseEntity<>("", HttpStatus.CREATED);
@@ -120,6 +120,26 @@ public ResponseEntity<?> handleKillAllThreadsPost(Map<String, String> form, Tile
         return new ResponseEntity<>(doc.toString(), getHeaders(), HttpStatus.OK);
     }
 
+    public ResponseEntity<?> handleResumePost(Map<String, String> form, TileLayer tl)
+            throws RestException, GeoWebCacheException {
+        List<GWCTask> resumedTasks = seeder.resumeJobs(tl == null ? null : tl.getName());
+
+        StringBuilder doc = new StringBuilder();
+
+        makeHeader(doc);
+        doc.append("<p>Requested to resume interrupted tasks.");
+        doc.append("Resumed tasks: <ul>");
+        for (GWCTask t : resumedTasks) {
+            doc.append("<li>").append(t).append("</li>");
+        }
+        doc.append("</ul>");
+        if (tl != null) {
+            doc.append("<p><a href=\"./" + tl.getName() + "\">Go back</a></p>\n");
+        }
+
+        return new ResponseEntity<>(doc.toString(), getHeaders(), HttpStatus.OK);
+    }
+
     public ResponseEntity<?> handleKillThreadPost(Map<String, String> form, TileLayer tl) {
         String id = form.get("thread_id");
 
@@ -168,6 +188,8 @@ public ResponseEntity<?> handleFormPost(String layer, Map<String, String> params
             return handleKillThreadPost(params, tl);
         } else if (params.containsKey("kill_all")) {
             return handleKillAllThreadsPost(params, tl);
+        } else if (params.containsKey("resume_all")) {
+            return handleResumePost(params, tl);
         } else if (params.get("minX") != null) {
             if (tl == null) {
                 throw new RestException("No layer specified", HttpStatus.BAD_REQUEST);
@@ -713,8 +735,11 @@ private void makeTaskList(StringBuilder doc, TileLayer tl, boolean listAll) {
             doc.append("<td>(Task ")
                     .append(task.getThreadOffset() + 1)
                     .append(" of ")
-                    .append(task.getThreadCount())
-                    .append(") </td>");
+                    .append(task.getThreadCount());
+            if (task.getConcurrency() < task.getThreadCount()) {
+                doc.append(", ").append(task.getConcurrency()).append(" allowed by the throttle");
+            }
+            doc.append(") </td>");
             doc.append("<td>").append(makeThreadKillForm(task.getTaskId(), tl)).append("</td>");
             doc.append("<tr>");
         }
@@ -824,6 +849,19 @@ private String makeKillallThreadsForm(TileLayer tl, boolean listAll) {
         doc.append("</span>\n");
         doc.append("</form>\n");
 
+        doc.append("</td></tr><tr><td>");
+
+        doc.append("<form form id=\"resume\" action=\"./")
+                .append(escapeHtml4(layerName))
+                .append("\" method=\"post\">\n");
+        doc.append("<span>Resume interrupted Tasks for Layer '")
+                .append(escapeHtml4(layerName))
+                .append("'.");
+        doc.append("<input type=\"hidden\" name=\"resume_all\" value=\"1\" />");
+        doc.append("<input type=\"submit\" value=\" Submit\">");
+        doc.append("</span>\n");
+        doc.append("</form>\n");
+
         doc.append("</td></tr></table>");
         return doc.toString();
     }
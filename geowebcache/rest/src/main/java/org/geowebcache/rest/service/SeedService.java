@@ -194,6 +194,19 @@ public String handleKillAllThreads(HttpServletRequest request, String layer) {
                 if (tl != null) {
                     doc.append("</ul><p><a href=\"./" + tl.getName() + "\">Go back</a></p>\n");
                 }
+            } else if (commandMap.containsKey("resume_all")) {
+                List<GWCTask> resumedTasks;
+                try {
+                    resumedTasks = seeder.resumeJobs(allLayers ? null : tl.getName());
+                } catch (GeoWebCacheException e) {
+                    throw new RestException(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR, e);
+                }
+                doc.append("<p>Requested to resume interrupted tasks.");
+                doc.append("Resumed tasks: <ul>");
+                for (GWCTask t : resumedTasks) {
+                    doc.append("<li>").append(t).append("</li>");
+                }
+                doc.append("</ul>");
             }
             return doc.toString();
         } catch (IOException e) {
@@ -55,4 +55,11 @@ public void testBlobstoresGetContentType() throws Exception {
                 .andExpect(content().contentType(MediaType.TEXT_PLAIN))
                 .andExpect(status().is4xxClientError());
     }
+
+    @Test
+    public void testPendingDeletesUnknownBlobStore() throws Exception {
+        mockMvc.perform(get("/rest/blobstores/{blobStoreName}/deletes", "xxxp4z85")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
 }
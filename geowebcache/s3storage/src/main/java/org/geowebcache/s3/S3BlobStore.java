@@ -36,18 +36,22 @@
 import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.GeoWebCacheException;
@@ -63,6 +67,7 @@
 import org.geowebcache.storage.BlobStoreListener;
 import org.geowebcache.storage.BlobStoreListenerList;
 import org.geowebcache.storage.CompositeBlobStore;
+import org.geowebcache.storage.ParametersMetadataRegistry;
 import org.geowebcache.storage.StorageException;
 import org.geowebcache.storage.TileObject;
 import org.geowebcache.storage.TileRange;
@@ -84,6 +89,8 @@ public class S3BlobStore implements BlobStore {
 
     private CannedAccessControlList acl;
 
+    private final ParametersMetadataRegistry parametersMetadata;
+
     public S3BlobStore(S3BlobStoreInfo config, TileLayerDispatcher layers, LockProvider lockProvider)
             throws StorageException {
         checkNotNull(config);
@@ -95,7 +102,8 @@ public S3BlobStore(S3BlobStoreInfo config, TileLayerDispatcher layers, LockProvi
         conn = validateClient(config.buildClient(), bucketName);
         acl = config.getAccessControlList();
 
-        this.s3Ops = new S3Ops(conn, bucketName, keyBuilder, lockProvider, listeners);
+        this.s3Ops = new S3Ops(conn, bucketName, keyBuilder, lockProvider, listeners, config.maxConnections());
+        this.parametersMetadata = new ParametersMetadataRegistry(this::listParametersIds);
 
         boolean empty = !s3Ops.prefixExists(prefix);
         boolean existing = Objects.nonNull(s3Ops.getObjectMetadata(keyBuilder.storeMetadata()));
@@ -187,6 +195,33 @@ public boolean removeListener(BlobStoreListener listener) {
 
     @Override
     public void put(TileObject obj) throws StorageException {
+        upload(obj, true);
+    }
+
+    /**
+     * Uploads the batch with concurrent requests, writing the parameters metadata of each distinct layer and parameters
+     * id only once
+     */
+    @Override
+    public void putAll(Collection<TileObject> objs) throws StorageException {
+        Map<String, TileObject> byParameters = new LinkedHashMap<>();
+        for (TileObject obj : objs) {
+            byParameters.putIfAbsent(keyBuilder.parametersMetadata(obj.getLayerName(), obj.getParametersId()), obj);
+        }
+        for (TileObject obj : byParameters.values()) {
+            putParametersMetadata(obj.getLayerName(), obj.getParametersId(), obj.getParameters());
+        }
+        List<Callable<Void>> uploads = new ArrayList<>(objs.size());
+        for (TileObject obj : objs) {
+            uploads.add(() -> {
+                upload(obj, false);
+                return null;
+            });
+        }
+        s3Ops.executeParallel(uploads);
+    }
+
+    private void upload(TileObject obj, boolean putParametersMetadata) throws StorageException {
         final Resource blob = obj.getBlob();
         checkNotNull(blob);
         checkNotNull(obj.getBlobFormat());
@@ -222,7 +257,9 @@ public void put(TileObject obj) throws StorageException {
         log.finer(log.isLoggable(Level.FINER) ? ("Storing " + key) : "");
         s3Ops.putObject(putObjectRequest);
 
-        putParametersMetadata(obj.getLayerName(), obj.getParametersId(), obj.getParameters());
+        if (putParametersMetadata) {
+            putParametersMetadata(obj.getLayerName(), obj.getParametersId(), obj.getParameters());
+        }
 
         /*
          * This is important because listeners may be tracking tile existence
@@ -273,6 +310,18 @@ public boolean get(TileObject obj) throws StorageException {
         return true;
     }
 
+    /** Downloads the batch with concurrent requests */
+    @Override
+    public List<TileObject> getAll(Collection<TileObject> objs) throws StorageException {
+        List<Callable<TileObject>> downloads = new ArrayList<>(objs.size());
+        for (TileObject obj : objs) {
+            downloads.add(() -> get(obj) ? obj : null);
+        }
+        return s3Ops.executeParallel(downloads).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public boolean delete(final TileRange tileRange) throws StorageException {
         checkNotNull(tileRange, "tile range must not be null");
@@ -317,6 +366,7 @@ public boolean delete(String layerName) throws StorageException {
         final String layerPrefix = keyBuilder.forLayer(layerName);
 
         s3Ops.deleteObject(metadataKey);
+        parametersMetadata.invalidateLayer(layerName);
 
         boolean layerExists;
         try {
@@ -374,6 +424,7 @@ public boolean delete(TileObject obj) throws StorageException {
     @Override
     public boolean rename(String oldLayerName, String newLayerName) throws StorageException {
         log.fine("No need to rename layers, S3BlobStore uses layer id as key root");
+        parametersMetadata.invalidateLayer(oldLayerName);
         if (s3Ops.prefixExists(oldLayerName)) {
             listeners.sendLayerRenamed(oldLayerName, newLayerName);
         }
@@ -411,7 +462,7 @@ private Properties getLayerMetadata(String layerName) {
     }
 
     private void putParametersMetadata(String layerName, String parametersId, Map<String, String> parameters) {
-        if (isNull(parameters)) {
+        if (isNull(parameters) || parametersMetadata.isPersisted(layerName, parametersId)) {
             return;
         }
         Properties properties = new Properties();
@@ -422,6 +473,16 @@ private void putParametersMetadata(String layerName, String parametersId, Map<St
         } catch (StorageException e) {
             throw new RuntimeException(e);
         }
+        parametersMetadata.persisted(layerName, parametersId);
+    }
+
+    private List<String> listParametersIds(String layerName) {
+        try (Stream<S3ObjectSummary> objects = s3Ops.objectStream(keyBuilder.parametersMetadataPrefix(layerName))) {
+            return objects.map(S3ObjectSummary::getKey)
+                    .map(TMSKeyBuilder::parametersIdFromMetadataKey)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
     }
 
     @Override
@@ -436,6 +497,7 @@ public boolean deleteByParametersId(String layerName, String parametersId) throw
         checkNotNull(layerName, "layerName");
         checkNotNull(parametersId, "parametersId");
 
+        parametersMetadata.invalidate(layerName, parametersId);
         boolean prefixExists = keyBuilder.forParameters(layerName, parametersId).stream()
                 .map(prefix -> {
                     try {
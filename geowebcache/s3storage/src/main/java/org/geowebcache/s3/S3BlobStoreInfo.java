@@ -400,6 +400,15 @@ public String getLocation() {
         }
     }
 
+    /** @return the configured maximum number of connections, or the default of the S3 client if not set */
+    int maxConnections() {
+        Integer maxConnections = toInteger(this.getMaxConnections());
+        if (null != maxConnections && maxConnections > 0) {
+            return maxConnections;
+        }
+        return ClientConfiguration.DEFAULT_MAX_CONNECTIONS;
+    }
+
     /** @return {@link AmazonS3Client} constructed from this {@link S3BlobStoreInfo}. */
     public AmazonS3Client buildClient() {
         ClientConfiguration clientConfig = new ClientConfiguration();
@@ -407,10 +416,7 @@ public AmazonS3Client buildClient() {
         if (null != useHTTPS) {
             clientConfig.setProtocol(useHTTPS ? Protocol.HTTPS : Protocol.HTTP);
         }
-        Integer maxConnections = toInteger(this.getMaxConnections());
-        if (null != maxConnections && maxConnections > 0) {
-            clientConfig.setMaxConnections(maxConnections);
-        }
+        clientConfig.setMaxConnections(maxConnections());
         clientConfig.setProxyDomain(proxyDomain);
         clientConfig.setProxyWorkstation(proxyWorkstation);
         clientConfig.setProxyHost(proxyHost);
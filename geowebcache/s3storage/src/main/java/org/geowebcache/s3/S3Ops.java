@@ -60,6 +60,7 @@
 import org.geowebcache.s3.streams.TileDeletionListenerNotifier;
 import org.geowebcache.s3.streams.UnboundedS3KeySupplier;
 import org.geowebcache.storage.BlobStoreListenerList;
+import org.geowebcache.storage.ParallelRequests;
 import org.geowebcache.storage.StorageException;
 import org.geowebcache.util.TMSKeyBuilder;
 
@@ -76,6 +77,9 @@ class S3Ops {
 
     private ExecutorService deleteExecutorService;
 
+    /** Runs the concurrent uploads and downloads of batch operations */
+    private final ParallelRequests transfers;
+
     private Map<String, Long> pendingDeletesKeyTime = new ConcurrentHashMap<>();
 
     private final BlobStoreListenerList listeners;
@@ -85,7 +89,8 @@ public S3Ops(
             String bucketName,
             TMSKeyBuilder keyBuilder,
             LockProvider locks,
-            BlobStoreListenerList listeners)
+            BlobStoreListenerList listeners,
+            int maxConnections)
             throws StorageException {
         this.conn = conn;
         this.bucketName = bucketName;
@@ -93,6 +98,9 @@ public S3Ops(
         this.locks = locks == null ? new NoOpLockProvider() : locks;
         this.listeners = listeners;
         this.deleteExecutorService = createDeleteExecutorService();
+        // as many threads as the client connection pool, which bounds the actual number of concurrent requests anyway
+        this.transfers = new ParallelRequests(
+                "GWC S3BlobStore transfer thread-%d. Bucket: " + bucketName, "bucket " + bucketName, maxConnections);
         issuePendingBulkDeletes();
     }
 
@@ -107,6 +115,17 @@ private ExecutorService createDeleteExecutorService() {
 
     public void shutDown() {
         deleteExecutorService.shutdownNow();
+        transfers.shutdown();
+    }
+
+    /**
+     * Runs the given requests concurrently, so that their round trips overlap, and waits for all of them to complete
+     *
+     * @return the results of the requests, in the same order
+     * @throws StorageException the first failure, if any request failed
+     */
+    public <T> List<T> executeParallel(List<Callable<T>> requests) throws StorageException {
+        return transfers.execute(requests);
     }
 
     @SuppressWarnings("Finally")
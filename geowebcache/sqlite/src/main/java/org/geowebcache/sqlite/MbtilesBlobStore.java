@@ -23,8 +23,12 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -151,20 +155,7 @@ public void put(TileObject tile) throws StorageException {
             MBTilesFile mbtiles = GeoToolsMbtilesUtils.getMBTilesFile(connection, file);
             MBTilesTile gtTile = new MBTilesTile(tile.getXYZ()[2], tile.getXYZ()[0], tile.getXYZ()[1]);
             try {
-                final boolean gzipped = tileIsGzipped(tile);
-
-                byte[] bytes;
-                if (gzipped) {
-                    try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-                            GZIPOutputStream gzOut = new GZIPOutputStream(byteStream)) {
-                        gzOut.write(Utils.resourceToByteArray(tile.getBlob()));
-                        gzOut.flush();
-                        bytes = byteStream.toByteArray();
-                    }
-                } else {
-                    bytes = Utils.resourceToByteArray(tile.getBlob());
-                }
-                gtTile.setData(bytes);
+                gtTile.setData(tileData(tile));
 
                 // if necessary getting old data size for listeners
                 byte[] olData = null;
@@ -205,6 +196,117 @@ public void put(TileObject tile) throws StorageException {
         persistParameterMap(tile);
     }
 
+    /**
+     * Stores the tiles of each database file in a single transaction, instead of paying for a commit per tile.
+     * Listeners are notified once the transaction has been committed.
+     */
+    @Override
+    public void putAll(Collection<TileObject> tiles) throws StorageException {
+        Map<File, List<TileObject>> tilesByFile = new LinkedHashMap<>();
+        for (TileObject tile : tiles) {
+            tilesByFile
+                    .computeIfAbsent(fileManager.getFile(tile), f -> new ArrayList<>())
+                    .add(tile);
+        }
+        for (Map.Entry<File, List<TileObject>> entry : tilesByFile.entrySet()) {
+            File file = entry.getKey();
+            List<TileObject> fileTiles = entry.getValue();
+            TileObject first = fileTiles.get(0);
+            initDatabaseFileIfNeeded(file, first.getLayerName(), first.getBlobFormat());
+            // do work in write mode
+            long[] oldSizes = connectionManager.doWork(file, false, connection -> {
+                try {
+                    return saveTiles(connection, file, fileTiles);
+                } catch (Exception exception) {
+                    throw Utils.exception(exception, "Error saving %d tiles in file '%s'.", fileTiles.size(), file);
+                }
+            });
+            if (!listeners.isEmpty()) {
+                for (int i = 0; i < oldSizes.length; i++) {
+                    if (oldSizes[i] < 0) {
+                        listeners.sendTileStored(fileTiles.get(i));
+                    } else {
+                        listeners.sendTileUpdated(fileTiles.get(i), oldSizes[i]);
+                    }
+                }
+            }
+        }
+        Map<String, TileObject> byParameters = new LinkedHashMap<>();
+        for (TileObject tile : tiles) {
+            if (Objects.nonNull(tile.getParametersId())) {
+                byParameters.putIfAbsent(tile.getLayerName() + "/" + tile.getParametersId(), tile);
+            }
+        }
+        byParameters.values().forEach(this::persistParameterMap);
+    }
+
+    /**
+     * Saves the tiles in a single transaction using the provided connection, the create times are written with a single
+     * batched prepared statement.
+     *
+     * @return the previous size of each tile, or -1 if the tile is new or there are no listeners to notify
+     */
+    private long[] saveTiles(Connection connection, File file, List<TileObject> tiles) throws Exception {
+        long[] oldSizes = new long[tiles.size()];
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            MBTilesFile mbtiles = GeoToolsMbtilesUtils.getMBTilesFile(connection, file);
+            for (int i = 0; i < oldSizes.length; i++) {
+                TileObject tile = tiles.get(i);
+                long[] xyz = tile.getXYZ();
+                oldSizes[i] = -1;
+                if (!listeners.isEmpty()) {
+                    byte[] oldData = mbtiles.loadTile(xyz[2], xyz[0], xyz[1]).getData();
+                    oldSizes[i] = oldData == null ? -1 : oldData.length;
+                }
+                MBTilesTile gtTile = new MBTilesTile(xyz[2], xyz[0], xyz[1]);
+                gtTile.setData(tileData(tile));
+                mbtiles.saveTile(gtTile);
+            }
+            if (useCreateTime) {
+                // we need to store the tiles create time
+                createTilesMetadataTable(connection);
+                long createTime = System.currentTimeMillis();
+                try (PreparedStatement statement =
+                        connection.prepareStatement("INSERT OR REPLACE INTO tiles_metadata VALUES (?, ?, ?, ?);")) {
+                    for (TileObject tile : tiles) {
+                        long[] xyz = tile.getXYZ();
+                        statement.setLong(1, xyz[2]);
+                        statement.setLong(2, xyz[0]);
+                        statement.setLong(3, xyz[1]);
+                        statement.setLong(4, createTime);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+            connection.commit();
+        } catch (Exception exception) {
+            connection.rollback();
+            throw exception;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("%d tiles saved in file '%s'.".formatted(tiles.size(), file));
+        }
+        return oldSizes;
+    }
+
+    /** Returns the bytes to store for the tile, gzipped if needed. */
+    private byte[] tileData(TileObject tile) throws MimeException, IOException {
+        if (tileIsGzipped(tile)) {
+            try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+                    GZIPOutputStream gzOut = new GZIPOutputStream(byteStream)) {
+                gzOut.write(Utils.resourceToByteArray(tile.getBlob()));
+                gzOut.finish();
+                return byteStream.toByteArray();
+            }
+        }
+        return Utils.resourceToByteArray(tile.getBlob());
+    }
+
     @Override
     public boolean get(final TileObject tile) throws StorageException {
         File file = fileManager.getFile(tile);
@@ -197,8 +197,9 @@ public boolean delete(final TileRange tileRange) {
 
         final Iterator<long[]> tileLocations = new AbstractIterator<>() {
 
-            // TileRange iterator with 1x1 meta tiling factor
-            private final TileRangeIterator trIter = new TileRangeIterator(tileRange, new int[] {1, 1});
+            // TileRange iterator with 1x1 meta tiling factor, whichever thread walks the tile locations
+            private final TileRangeIterator.Consumer trIter =
+                    new TileRangeIterator(tileRange, new int[] {1, 1}).newConsumer();
 
             @Override
             protected long[] computeNext() {
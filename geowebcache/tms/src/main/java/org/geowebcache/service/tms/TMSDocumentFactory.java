@@ -18,6 +18,7 @@
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import org.geowebcache.grid.GridSet;
 import org.geowebcache.grid.GridSetBroker;
 import org.geowebcache.grid.GridSubset;
@@ -26,6 +27,7 @@
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.layer.meta.LayerMetaInformation;
 import org.geowebcache.mime.MimeType;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.util.URLMangler;
 import org.geowebcache.util.URLManglerUtils;
 
@@ -49,6 +51,8 @@ public class TMSDocumentFactory {
 
     Charset encoding;
 
+    private CapabilitiesCache cache;
+
     public static final String TILEMAPSERVICE_LEADINGPATH = "tms/1.0.0";
 
     public static final String SERVICE_PATH = "service/" + TILEMAPSERVICE_LEADINGPATH;
@@ -85,6 +89,20 @@ protected TMSDocumentFactory(TileLayerDispatcher tld, GridSetBroker gsb, URLMang
         this(tld, gsb, null, null, urlMangler);
     }
 
+    /**
+     * Whether the documents only depend on the layers of the {@link TileLayerDispatcher}, and can be cached until it
+     * reports a change. Subclasses drawing their documents from other sources should leave it off, as it is by default
+     * for them.
+     */
+    protected boolean isCacheable() {
+        return getClass() == TMSDocumentFactory.class;
+    }
+
+    /** Caches the layers of the TileMapService document in the given cache */
+    protected void setCapabilitiesCache(CapabilitiesCache cache) {
+        this.cache = cache;
+    }
+
     protected String getTileMapServiceDoc() {
         return getTileMapServiceDoc(defaultBaseUrl, defaultContextPath);
     }
@@ -129,7 +147,17 @@ protected String getTileMapServiceDoc(String baseUrl, String contextPath) {
                 if (!layer.isEnabled() || !layer.isAdvertised()) {
                     continue;
                 }
-                tileMapsForLayer(xml, layer, baseUrl, contextPath);
+                if (cache == null) {
+                    tileMapsForLayer(xml, layer, baseUrl, contextPath);
+                } else {
+                    // the layer fragments do not depend on the user, only on the URLs
+                    CapabilitiesCache.Key key = new CapabilitiesCache.Key(
+                            TMSService.SERVICE_TMS,
+                            Arrays.asList(baseUrl, contextPath, serviceURL(baseUrl, contextPath)),
+                            null);
+                    xml.appendFragment(cache.fragment(
+                            key, layer.getName(), "TileMap", () -> tileMapsFragment(xml, layer, baseUrl, contextPath)));
+                }
             }
             xml.endElement();
             xml.endElement();
@@ -141,6 +169,17 @@ protected String getTileMapServiceDoc(String baseUrl, String contextPath) {
         }
     }
 
+    private String tileMapsFragment(XMLBuilder xml, TileLayer layer, String baseUrl, String contextPath) {
+        StringBuilder str = new StringBuilder();
+        try {
+            tileMapsForLayer(xml.fragmentBuilder(str), layer, baseUrl, contextPath);
+        } catch (IOException ex) {
+            // Should not happen
+            throw new IllegalStateException(ex);
+        }
+        return str.toString();
+    }
+
     protected void tileMapsForLayer(XMLBuilder xml, TileLayer layer, String baseUrl, String contextPath)
             throws IOException {
         for (String gridSetId : layer.getGridSubsets()) {
@@ -247,6 +286,11 @@ protected String tileMapUrl(
         return buildURL(baseUrl, contextPath, SERVICE_PATH + "/" + tileMapName(tl, gridSub, mimeType));
     }
 
+    /** The service URL as mangled for the documents, for keying the cached ones */
+    String serviceURL(String baseUrl, String contextPath) {
+        return buildURL(baseUrl, contextPath, "");
+    }
+
     private String buildURL(String baseUrl, String contextPath, String path) {
         return URLManglerUtils.buildURL(baseUrl, contextPath, path, null, urlMangler, URLMangler.URLType.SERVICE);
     }
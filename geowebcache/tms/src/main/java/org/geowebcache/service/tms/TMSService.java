@@ -23,6 +23,10 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
 import org.geowebcache.GeoWebCacheDispatcher;
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.conveyor.Conveyor;
@@ -35,6 +39,7 @@
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.mime.MimeException;
 import org.geowebcache.mime.MimeType;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.service.HttpErrorCodeException;
 import org.geowebcache.service.Service;
 import org.geowebcache.service.ServiceException;
@@ -46,6 +51,8 @@
 
 public class TMSService extends Service {
 
+    private static final Logger log = Logging.getLogger(TMSService.class.getName());
+
     public static final String SERVICE_TMS = "tms";
 
     private static final String FLIP_Y = "FLIPY";
@@ -60,6 +67,8 @@ public class TMSService extends Service {
 
     private TMSDocumentFactory tmsFactory;
 
+    private CapabilitiesCache capabilitiesCache;
+
     /** Protected no-argument constructor to allow run-time instrumentation */
     protected TMSService() {
         super(SERVICE_TMS);
@@ -86,6 +95,10 @@ public TMSService(
             throw new IllegalArgumentException("Specified TMSFactory should not be null ");
         }
         this.tld = tmsFactory.tld;
+        if (tld != null && tmsFactory.isCacheable()) {
+            this.capabilitiesCache = new CapabilitiesCache(tld);
+            tmsFactory.setCapabilitiesCache(capabilitiesCache);
+        }
     }
 
     public TMSService(StorageBroker sb, TileLayerDispatcher tld, GridSetBroker gsb, RuntimeStats stats) {
@@ -227,7 +240,7 @@ public void handleRequest(Conveyor conv) throws GeoWebCacheException {
                 ServletUtils.getServletContextPath(conv.servletReq, TMSDocumentFactory.SERVICE_PATH, servletPrefix);
 
         final Charset encoding = StandardCharsets.UTF_8;
-        String ret = null;
+        Supplier<String> generator;
 
         if (paramsLength < 2) {
             throw new GeoWebCacheException("Path is too short to be a valid TMS path");
@@ -236,7 +249,7 @@ public void handleRequest(Conveyor conv) throws GeoWebCacheException {
             if (!version.equals("1.0.0")) {
                 throw new GeoWebCacheException("Unknown version " + version + ", only 1.0.0 is supported.");
             } else {
-                ret = tmsFactory.getTileMapServiceDoc(servletBase, context);
+                generator = () -> tmsFactory.getTileMapServiceDoc(servletBase, context);
             }
         } else {
             String layerNameAndSRS = params[2];
@@ -246,19 +259,30 @@ public void handleRequest(Conveyor conv) throws GeoWebCacheException {
             TileLayer tl = tld.getTileLayer(layerSRSFormatExtension[0]);
             GridSubset gridSub = tl.getGridSubset(layerSRSFormatExtension[1]);
             MimeType mimeType = MimeType.createFromExtension(layerSRSFormatExtension[2]);
-            ret = tmsFactory.getTileMapDoc(tl, gridSub, mimeType, servletBase, context);
+            generator = () -> tmsFactory.getTileMapDoc(tl, gridSub, mimeType, servletBase, context);
         }
 
-        byte[] data = ret.getBytes(encoding);
-        stats.log(data.length, CacheResult.OTHER);
+        CapabilitiesCache.Document document;
+        if (capabilitiesCache != null) {
+            CapabilitiesCache.Key key = CapabilitiesCache.key(
+                    conv.servletReq,
+                    SERVICE_TMS,
+                    servletBase,
+                    context,
+                    tmsFactory.serviceURL(servletBase, context),
+                    pathInfo);
+            document = capabilitiesCache.document(key, encoding, generator);
+        } else {
+            document = new CapabilitiesCache.Document(generator.get().getBytes(encoding));
+        }
 
         conv.servletResp.setStatus(200);
         conv.servletResp.setContentType("text/xml");
         conv.servletResp.setHeader("content-disposition", "inline;filename=tms-getcapabilities.xml");
         try {
-            conv.servletResp.getOutputStream().write(data);
+            stats.log(document.write(conv.servletReq, conv.servletResp), CacheResult.OTHER);
         } catch (IOException e) {
-            // TODO log error
+            log.log(Level.FINE, "Failed to write the TMS document", e);
         }
     }
 }
@@ -4,6 +4,8 @@
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,19 +32,27 @@
 import org.geowebcache.grid.SRS;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.layer.TileLayerDispatcherListener;
 import org.geowebcache.mime.MimeType;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.stats.RuntimeStats;
 import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.util.PropertyRule;
 import org.geowebcache.util.URLMangler;
 import org.geowebcache.util.URLManglerUtils;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.w3c.dom.Document;
 
 public class TMSServiceTest {
 
+    @Rule
+    public PropertyRule cacheSize = PropertyRule.system(CapabilitiesCache.CACHE_SIZE);
+
     private TMSService service;
 
     private StorageBroker sb;
@@ -290,6 +300,50 @@ public void testTileMapServiceDocument() throws Exception {
                 "0", xpath.evaluate("count(//TileMap[@title='mockLayer'][contains(@href,'jpeg-png')])", doc));
     }
 
+    @Test
+    public void testTileMapServiceDocumentCached() throws Exception {
+
+        cacheSize.setValue("4");
+        service = new TMSService(sb, tld, gridsetBroker, mock(RuntimeStats.class));
+        ArgumentCaptor<TileLayerDispatcherListener> listener =
+                ArgumentCaptor.forClass(TileLayerDispatcherListener.class);
+        verify(tld).addListener(listener.capture());
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getCharacterEncoding()).thenReturn("UTF-8");
+        when(req.getPathInfo()).thenReturn("/service/tms/1.0.0");
+        when(req.getRequestURI()).thenReturn("/mycontext/service/tms/1.0.0");
+        when(req.getScheme()).thenReturn("http");
+        when(req.getServerName()).thenReturn("localhost");
+        when(req.getServerPort()).thenReturn(8080);
+        when(req.getContextPath()).thenReturn("/mycontext");
+        when(req.getRequestURL()).thenReturn(new StringBuffer("http://localhost:8080/mycontext/service/tms/1.0.0"));
+        List<String> gridSetNames = Arrays.asList("EPSG:4326");
+        TileLayer tileLayer = mockTileLayer(tld, gridsetBroker, "mockLayer", gridSetNames, Collections.emptyList());
+        when(tld.getLayerList()).thenReturn(Arrays.asList(tileLayer));
+        when(tld.getLayerListFiltered()).thenReturn(Arrays.asList(tileLayer));
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        service.handleRequest(service.getConveyor(req, first));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        service.handleRequest(service.getConveyor(req, second));
+
+        Assert.assertTrue(first.getContentAsString().contains("mockLayer"));
+        Assert.assertEquals(first.getContentAsString(), second.getContentAsString());
+        Assert.assertNotNull(first.getHeader("ETag"));
+        Assert.assertEquals(first.getHeader("ETag"), second.getHeader("ETag"));
+        // served from the cache
+        verify(tld, times(1)).getLayerListFiltered();
+
+        // the layer is gone once the dispatcher reports it
+        when(tld.getLayerListFiltered()).thenReturn(Collections.emptyList());
+        listener.getValue().layerChanged("mockLayer");
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        service.handleRequest(service.getConveyor(req, third));
+        Assert.assertFalse(third.getContentAsString().contains("mockLayer"));
+        Assert.assertNotEquals(first.getHeader("ETag"), third.getHeader("ETag"));
+    }
+
     @Test
     public void testTMSDocumentsWithCustomFactory() throws Exception {
 
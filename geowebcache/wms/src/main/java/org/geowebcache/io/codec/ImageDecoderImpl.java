@@ -30,6 +30,7 @@
 import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.MemoryCacheImageInputStream;
 import org.geotools.util.logging.Logging;
+import org.geowebcache.io.FileChannelResource;
 import org.geowebcache.io.FileResource;
 import org.geowebcache.io.Resource;
 
@@ -124,6 +125,8 @@ public BufferedImage decode(Object source, boolean aggressiveInputStreamOptimiza
             // Creation of the associated Writer
             ImageReader reader = null;
             ImageInputStream stream = null;
+            // stream opened here on a resource, closed here too
+            InputStream opened = null;
             try { // NOPMD (handling of stream is complicated)
                 reader = newSpi.createReaderInstance();
                 if (source instanceof FileResource resource) {
@@ -132,9 +135,17 @@ public BufferedImage decode(Object source, boolean aggressiveInputStreamOptimiza
                     // Image reading
                     reader.setInput(stream);
                     return reader.read(0);
+                } else if (source instanceof FileChannelResource resource) {
+                    // file already open, read it from its channel rather than opening it again
+                    opened = resource.getInputStream();
+                    stream = new MemoryCacheImageInputStream(opened);
+                    // Image reading
+                    reader.setInput(stream);
+                    return reader.read(0);
                 } else {
                     // create a stream and move on
-                    source = ((Resource) source).getInputStream();
+                    opened = ((Resource) source).getInputStream();
+                    source = opened;
                 }
 
                 // Check if the input object is an InputStream
@@ -169,6 +180,14 @@ public BufferedImage decode(Object source, boolean aggressiveInputStreamOptimiza
                     }
                     stream = null;
                 }
+                // the image input streams do not close the stream they wrap
+                if (opened != null) {
+                    try {
+                        opened.close();
+                    } catch (IOException e) {
+                        LOGGER.log(Level.SEVERE, e.getMessage(), e);
+                    }
+                }
             }
         }
 
@@ -51,6 +51,7 @@
 import org.geowebcache.layer.meta.MetadataURL;
 import org.geowebcache.mime.ImageMime;
 import org.geowebcache.mime.MimeType;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.util.ServletUtils;
 import org.geowebcache.util.URLMangler;
 import org.geowebcache.util.URLManglerUtils;
@@ -65,6 +66,12 @@ public class WMSGetCapabilities {
 
     private boolean includeVendorSpecific = false;
 
+    private final HttpServletRequest request;
+
+    private CapabilitiesCache cache;
+
+    private CapabilitiesCache.Key cacheKey;
+
     protected WMSGetCapabilities(
             TileLayerDispatcher tld,
             HttpServletRequest servReq,
@@ -88,11 +95,33 @@ protected WMSGetCapabilities(
         if (tiledValue != null && !tiledValue.isEmpty()) {
             includeVendorSpecific = Boolean.parseBoolean(tiledValue.get("TILED"));
         }
+        this.request = servReq;
+    }
+
+    /** Serves the document, and the layers in it, from the given cache */
+    void setCache(CapabilitiesCache cache) {
+        this.cache = cache;
+        this.cacheKey =
+                CapabilitiesCache.key(request, WMSService.SERVICE_WMS, urlStr, "TILED=" + includeVendorSpecific);
     }
 
     protected void writeResponse(HttpServletResponse response) {
 
         final Charset encoding = StandardCharsets.UTF_8;
+        if (cache != null) {
+            CapabilitiesCache.Document document =
+                    cache.document(cacheKey, encoding, () -> generateGetCapabilities(encoding));
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType("application/vnd.ogc.wms_xml");
+            response.setCharacterEncoding(encoding.name());
+            response.setHeader("content-disposition", "inline;filename=wms-getcapabilities.xml");
+            try {
+                document.write(request, response);
+            } catch (IOException ioe) {
+                log.fine("Caught IOException" + ioe.getMessage());
+            }
+            return;
+        }
         byte[] data = generateGetCapabilities(encoding).getBytes(encoding);
 
         response.setStatus(HttpServletResponse.SC_OK);
@@ -349,35 +378,46 @@ private void capabilityVendorSpecific(XMLBuilder xml) throws IOException {
             if (!layer.isEnabled() || !layer.isAdvertised()) {
                 continue;
             }
+            if (cache == null) {
+                capabilityVendorSpecificLayer(xml, layer);
+            } else {
+                xml.appendFragment(cache.fragment(
+                        cacheKey,
+                        layer.getName(),
+                        "TileSet",
+                        () -> fragment(xml, fragment -> capabilityVendorSpecificLayer(fragment, layer))));
+            }
+        }
+        xml.endElement();
+    }
 
-            for (String gridSetId : layer.getGridSubsets()) {
-                GridSubset grid = layer.getGridSubset(gridSetId);
+    private void capabilityVendorSpecificLayer(XMLBuilder xml, TileLayer layer) throws IOException {
+        for (String gridSetId : layer.getGridSubsets()) {
+            GridSubset grid = layer.getGridSubset(gridSetId);
 
-                List<String> formats = new ArrayList<>(2);
+            List<String> formats = new ArrayList<>(2);
 
-                if (layer.getMimeTypes() != null) {
-                    for (MimeType mime : layer.getMimeTypes()) {
-                        formats.add(mime.getFormat());
-                    }
-                } else {
-                    formats.add(ImageMime.png.getFormat());
-                    formats.add(ImageMime.jpeg.getFormat());
+            if (layer.getMimeTypes() != null) {
+                for (MimeType mime : layer.getMimeTypes()) {
+                    formats.add(mime.getFormat());
                 }
+            } else {
+                formats.add(ImageMime.png.getFormat());
+                formats.add(ImageMime.jpeg.getFormat());
+            }
 
-                List<String> styles = getStyles(layer.getParameterFilters());
-                Map<String, LegendInfo> legendsInfo = layer.getLayerLegendsInfo();
-                for (String format : formats) {
-                    for (String style : styles) {
-                        try {
-                            capabilityVendorSpecificTileset(xml, layer, grid, format, style, legendsInfo.get(style));
-                        } catch (GeoWebCacheException e) {
-                            log.log(Level.SEVERE, e.getMessage());
-                        }
+            List<String> styles = getStyles(layer.getParameterFilters());
+            Map<String, LegendInfo> legendsInfo = layer.getLayerLegendsInfo();
+            for (String format : formats) {
+                for (String style : styles) {
+                    try {
+                        capabilityVendorSpecificTileset(xml, layer, grid, format, style, legendsInfo.get(style));
+                    } catch (GeoWebCacheException e) {
+                        log.log(Level.SEVERE, e.getMessage());
                     }
                 }
             }
         }
-        xml.endElement();
     }
 
     /** @return a list with an empty string for the default style, and any other style name verbatim */
@@ -478,16 +518,43 @@ private void capabilityLayerOuter(XMLBuilder xml) throws IOException {
             if (!layer.isEnabled() || !layer.isAdvertised()) {
                 continue;
             }
-            try {
-                capabilityLayerInner(xml, layer);
-            } catch (GeoWebCacheException e) {
-                log.log(Level.SEVERE, e.getMessage());
+            if (cache == null) {
+                try {
+                    capabilityLayerInner(xml, layer);
+                } catch (GeoWebCacheException e) {
+                    log.log(Level.SEVERE, e.getMessage());
+                }
+            } else {
+                xml.appendFragment(cache.fragment(
+                        cacheKey,
+                        layer.getName(),
+                        "Layer",
+                        () -> fragment(xml, fragment -> capabilityLayerInner(fragment, layer))));
             }
         }
 
         xml.endElement();
     }
 
+    /** Writes part of the document for a layer */
+    private interface LayerWriter {
+        void write(XMLBuilder xml) throws GeoWebCacheException, IOException;
+    }
+
+    /** @return the fragment of the document written by the writer, nested at the current depth of {@code xml} */
+    private String fragment(XMLBuilder xml, LayerWriter writer) {
+        StringBuilder str = new StringBuilder();
+        try {
+            writer.write(xml.fragmentBuilder(str));
+        } catch (GeoWebCacheException e) {
+            log.log(Level.SEVERE, e.getMessage());
+        } catch (IOException e) {
+            // Should not happen as StringBuilder doesn't throw IOException
+            throw new IllegalStateException(e);
+        }
+        return str.toString();
+    }
+
     private void capabilityLayerInner(XMLBuilder xml, TileLayer layer) throws GeoWebCacheException, IOException {
         xml.indentElement("Layer");
 
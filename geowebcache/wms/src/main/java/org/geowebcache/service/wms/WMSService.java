@@ -52,6 +52,7 @@
 import org.geowebcache.mime.MimeException;
 import org.geowebcache.mime.MimeType;
 import org.geowebcache.mime.TextMime;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.service.Service;
 import org.geowebcache.service.ServiceException;
 import org.geowebcache.stats.RuntimeStats;
@@ -94,6 +95,8 @@ public class WMSService extends Service {
 
     private SecurityDispatcher securityDispatcher;
 
+    private CapabilitiesCache capabilitiesCache;
+
     /** Protected no-argument constructor to allow run-time instrumentation */
     protected WMSService() {
         super(SERVICE_WMS);
@@ -105,6 +108,7 @@ public WMSService(StorageBroker sb, TileLayerDispatcher tld, RuntimeStats stats)
         this.sb = sb;
         this.tld = tld;
         this.stats = stats;
+        this.capabilitiesCache = new CapabilitiesCache(tld);
     }
 
     public WMSService(
@@ -120,6 +124,7 @@ public WMSService(
         this.stats = stats;
         this.urlMangler = urlMangler;
         this.controller = controller;
+        this.capabilitiesCache = new CapabilitiesCache(tld);
     }
 
     @Override
@@ -155,7 +160,7 @@ public ConveyorTile getConveyor(HttpServletRequest request, HttpServletResponse
             Map<String, String> filteringParameters = null;
             // If tileLayer is not null, then request parameters are extracted from it-
             if (tileLayer != null) {
-                filteringParameters = tileLayer.getModifiableParameters(requestParameterMap, encoding);
+                filteringParameters = tileLayer.getFilteredParameters(requestParameterMap, encoding);
             }
 
             // Creation of a Conveyor Tile with a fake Image/png format and the associated
@@ -183,7 +188,7 @@ public ConveyorTile getConveyor(HttpServletRequest request, HttpServletResponse
         final Map<String, String> paramValues =
                 ServletUtils.selectedStringsFromMap(requestParameterMap, encoding, paramKeys);
 
-        final Map<String, String> fullParameters = tileLayer.getModifiableParameters(requestParameterMap, encoding);
+        final Map<String, String> fullParameters = tileLayer.getFilteredParameters(requestParameterMap, encoding);
 
         final MimeType mimeType;
         String format = paramValues.get("format");
@@ -287,6 +292,9 @@ public void handleRequest(Conveyor conv) throws GeoWebCacheException {
             if (tile.getHint().equalsIgnoreCase("getcapabilities")) {
                 WMSGetCapabilities wmsCap =
                         new WMSGetCapabilities(tld, tile.servletReq, servletBase, context, urlMangler);
+                if (capabilitiesCache != null) {
+                    wmsCap.setCache(capabilitiesCache);
+                }
                 wmsCap.writeResponse(tile.servletResp);
             } else if (tile.getHint().equalsIgnoreCase("getmap")) {
                 getSecurityDispatcher().checkSecurity(tile);
@@ -23,17 +23,27 @@
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.eclipse.imagen.PlanarImage;
 import org.geotools.image.util.ImageUtilities;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.GeoWebCacheExtensions;
 import org.geowebcache.config.HintsLevel;
 import org.geowebcache.conveyor.Conveyor.CacheResult;
 import org.geowebcache.conveyor.ConveyorTile;
@@ -58,6 +68,9 @@
 import org.geowebcache.util.ServletUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 /*
  * It will work as follows
@@ -150,6 +163,12 @@ static class PixelOffsets {
 
     private SecurityDispatcher securityDispatcher;
 
+    /** How many source tiles this request fetches at a time */
+    int maxConcurrentTiles = FetchPool.maxConcurrentTiles();
+
+    /** Runs the concurrent fetches, {@code null} to fetch the tiles one at a time on the request thread */
+    Executor fetchExecutor = FetchPool.executor();
+
     protected WMSTileFuser(TileLayerDispatcher tld, StorageBroker sb, HttpServletRequest servReq)
             throws GeoWebCacheException {
         this.sb = sb;
@@ -199,7 +218,7 @@ protected WMSTileFuser(TileLayerDispatcher tld, StorageBroker sb, HttpServletReq
 
         reqHeight = Integer.valueOf(values.get("height"));
 
-        fullParameters = layer.getModifiableParameters(servReq.getParameterMap(), servReq.getCharacterEncoding());
+        fullParameters = layer.getFilteredParameters(servReq.getParameterMap(), servReq.getCharacterEncoding());
         this.hints = layer.getHintsLevel().getRenderingHints();
 
         if (values.get("hints") != null) {
@@ -379,8 +398,9 @@ protected void createCanvas() {
 
     protected void renderCanvas() throws OutsideCoverageException, GeoWebCacheException, IOException, Exception {
 
-        // Now we loop over all the relevant tiles and write them to the canvas,
+        // Now we loop over all the relevant tiles and work out where they go on the canvas,
         // Starting at the bottom, moving to the right and up
+        List<SourceTile> sourceTiles = new ArrayList<>();
 
         // Bottom row of tiles, in tile coordinates
         long starty = srcRectangle[1];
@@ -434,14 +454,6 @@ protected void renderCanvas() throws OutsideCoverageException, GeoWebCacheExcept
                     continue;
                 }
 
-                layer.getTile(tile);
-                // Selection of the resource input stream
-                Resource blob = tile.getBlob();
-                // Extraction of the image associated with the defined MimeType
-                String formatName = srcFormat.getMimeType();
-                BufferedImage tileImg = decoderMap.decode(
-                        formatName, blob, decoderMap.isAggressiveInputStreamSupported(formatName), null);
-
                 int tilex = 0;
                 int canvasx = (int) (gridx - startx) * gridSubset.getTileWidth();
                 int tileWidth = gridSubset.getTileWidth();
@@ -474,23 +486,125 @@ protected void renderCanvas() throws OutsideCoverageException, GeoWebCacheExcept
                     continue;
                 }
 
-                // Cut down the tile to the part we want
-                if (tileWidth != gridSubset.getTileWidth() || tileHeight != gridSubset.getTileHeight()) {
-                    log.fine("tileImg.getSubimage(" + tilex + "," + tiley + "," + tileWidth + "," + tileHeight + ")");
-                    tileImg = tileImg.getSubimage(tilex, tiley, tileWidth, tileHeight);
-                }
-
-                // Render the tile on the big canvas
-                log.fine("drawImage(subtile," + canvasx + "," + canvasy + ",null) " + Arrays.toString(gridLoc));
+                sourceTiles.add(new SourceTile(tile, tilex, tiley, tileWidth, tileHeight, canvasx, canvasy));
+            }
+        }
 
-                bufferedImageWrapper.drawImage(tileImg, canvasx, canvasy);
+        // Fetch and decode the tiles concurrently, the canvas is only drawn on by this thread
+        // and tiles don't overlap, so the order they arrive in doesn't matter
+        int fanOut = Math.min(maxConcurrentTiles, sourceTiles.size());
+        if (fanOut <= 1 || fetchExecutor == null) {
+            for (SourceTile sourceTile : sourceTiles) {
+                drawTile(sourceTile, fetchTile(sourceTile));
             }
+        } else {
+            renderConcurrently(sourceTiles, fanOut);
         }
+
         if (bufferedImageWrapper != null) {
             bufferedImageWrapper.disposeGraphics();
         }
     }
 
+    /** Fetches and decodes up to {@code fanOut} tiles at a time, drawing each as soon as it's ready */
+    private void renderConcurrently(List<SourceTile> sourceTiles, int fanOut) throws Exception {
+        CompletionService<FetchedTile> completion = new ExecutorCompletionService<>(fetchExecutor);
+        List<Future<FetchedTile>> futures = new ArrayList<>(sourceTiles.size());
+        Iterator<SourceTile> pending = sourceTiles.iterator();
+        int running = 0;
+        try {
+            while (running < fanOut && pending.hasNext()) {
+                futures.add(submit(completion, pending.next()));
+                running++;
+            }
+            while (running > 0) {
+                Future<FetchedTile> done = completion.take();
+                running--;
+                if (pending.hasNext()) {
+                    futures.add(submit(completion, pending.next()));
+                    running++;
+                }
+                FetchedTile fetched;
+                try {
+                    fetched = done.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+                drawTile(fetched.source(), fetched.image());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeoWebCacheException("Interrupted while fetching the tiles of " + layer.getName());
+        } finally {
+            // on failure, don't start rendering tiles nobody is going to look at. The running ones are not
+            // interrupted, as that would close the file channels and connections they share with other requests
+            for (Future<FetchedTile> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Fetches the tile on a pool thread. The Spring request attributes of the request thread are made available to it,
+     * other thread locals, such as a security context, are not.
+     */
+    private Future<FetchedTile> submit(CompletionService<FetchedTile> completion, SourceTile sourceTile) {
+        final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        return completion.submit(() -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                return new FetchedTile(sourceTile, fetchTile(sourceTile));
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        });
+    }
+
+    /** Gets the tile from the layer and decodes the part of it that goes on the canvas */
+    private BufferedImage fetchTile(SourceTile sourceTile) throws Exception {
+        ConveyorTile tile = sourceTile.tile();
+        layer.getTile(tile);
+        // Selection of the resource input stream
+        Resource blob = tile.getBlob();
+        // Extraction of the image associated with the defined MimeType
+        String formatName = srcFormat.getMimeType();
+        BufferedImage tileImg =
+                decoderMap.decode(formatName, blob, decoderMap.isAggressiveInputStreamSupported(formatName), null);
+
+        // Cut down the tile to the part we want
+        if (sourceTile.tileWidth() != gridSubset.getTileWidth()
+                || sourceTile.tileHeight() != gridSubset.getTileHeight()) {
+            log.fine("tileImg.getSubimage("
+                    + sourceTile.tilex()
+                    + ","
+                    + sourceTile.tiley()
+                    + ","
+                    + sourceTile.tileWidth()
+                    + ","
+                    + sourceTile.tileHeight()
+                    + ")");
+            tileImg = tileImg.getSubimage(
+                    sourceTile.tilex(), sourceTile.tiley(), sourceTile.tileWidth(), sourceTile.tileHeight());
+        }
+        return tileImg;
+    }
+
+    private void drawTile(SourceTile sourceTile, BufferedImage tileImg) {
+        // Render the tile on the big canvas
+        log.fine("drawImage(subtile,"
+                + sourceTile.canvasx()
+                + ","
+                + sourceTile.canvasy()
+                + ",null) "
+                + Arrays.toString(sourceTile.tile().getTileIndex()));
+
+        bufferedImageWrapper.drawImage(tileImg, sourceTile.canvasx(), sourceTile.canvasy());
+    }
+
     protected void scaleRaster() {
         if (bufferedImageWrapper != null && canvasSize[0] != reqWidth || canvasSize[1] != reqHeight) {
             BufferedImage preTransform = bufferedImageWrapper.getCanvas();
@@ -589,4 +703,73 @@ public void setSecurityDispatcher(SecurityDispatcher securityDispatcher) {
     RenderingHints getHints() {
         return hints;
     }
+
+    /** A tile to fetch, and the part of it that goes on the canvas */
+    private record SourceTile(
+            ConveyorTile tile, int tilex, int tiley, int tileWidth, int tileHeight, int canvasx, int canvasy) {}
+
+    private record FetchedTile(SourceTile source, BufferedImage image) {}
+
+    /**
+     * Bounded pool of threads fetching and decoding the tiles of full WMS requests, shared by all the requests. Its
+     * size is set by the {@link #FUSER_THREADS} system property or environment variable, a value of 1 or less, the
+     * default, disables concurrent fetching. As the threads mostly wait on the cache or the backend, twice the number
+     * of available processors is a good start. Each request fetches at most {@link #FUSER_MAX_CONCURRENT_TILES} tiles
+     * at a time, so that a single large map doesn't hog the pool. Tasks that do not fit in the pool queue run on the
+     * request thread.
+     *
+     * <p>The pool threads only get the Spring request attributes of the request thread, which is why the pool is
+     * opt-in: layers and blob stores relying on other thread locals of the request, such as the security context of an
+     * embedding application, would not see them.
+     */
+    static final class FetchPool {
+
+        static final String FUSER_THREADS = "GWC_WMS_FUSER_THREADS";
+
+        static final String FUSER_MAX_CONCURRENT_TILES = "GWC_WMS_FUSER_MAX_CONCURRENT_TILES";
+
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static final int MAX_CONCURRENT_TILES = intProperty(FUSER_MAX_CONCURRENT_TILES, 16);
+
+        private static ThreadPoolExecutor createExecutor() {
+            int threads = intProperty(FUSER_THREADS, 1);
+            if (threads <= 1) {
+                return null;
+            }
+            CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC WMS tile fuser-");
+            tf.setDaemon(true);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    threads,
+                    threads,
+                    60,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(threads * 16),
+                    tf,
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+
+        private static int intProperty(String name, int defaultValue) {
+            int value = defaultValue;
+            String configured = GeoWebCacheExtensions.getProperty(name);
+            if (configured != null) {
+                try {
+                    value = Integer.parseInt(configured.trim());
+                } catch (NumberFormatException e) {
+                    log.warning("Invalid value for " + name + ": " + configured + ", using " + value);
+                }
+            }
+            return value;
+        }
+
+        static ThreadPoolExecutor executor() {
+            return EXECUTOR;
+        }
+
+        static int maxConcurrentTiles() {
+            return MAX_CONCURRENT_TILES;
+        }
+    }
 }
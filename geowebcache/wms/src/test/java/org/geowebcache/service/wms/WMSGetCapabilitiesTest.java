@@ -6,6 +6,7 @@
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -33,6 +34,7 @@
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.layer.wms.WMSLayer;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.util.NullURLMangler;
 import org.geowebcache.util.URLMangler;
 import org.hamcrest.xml.HasXPath;
@@ -176,6 +178,49 @@ public void testEscapeXMLChars() throws Exception {
         EasyMock.verify(tld, servReq, response, servInfo);
     }
 
+    @Test
+    public void testCachedLayers() throws Exception {
+        TileLayerDispatcher tld = createMock(TileLayerDispatcher.class);
+        HttpServletRequest servReq = createMock(HttpServletRequest.class);
+
+        Map<String, String[]> parameterMap = new HashMap<>();
+        parameterMap.put("REQUEST", new String[] {"getcapabilities"});
+        parameterMap.put("TILED", new String[] {"true"});
+        expect(servReq.getParameterMap()).andStubReturn(Collections.unmodifiableMap(parameterMap));
+        expect(servReq.getCharacterEncoding()).andStubReturn("UTF-8");
+        expect(servReq.getUserPrincipal()).andStubReturn(null);
+
+        Map<String, GridSubset> subSets = new HashMap<>();
+        GridSubset gridSubSet = GridSubsetFactory.createGridSubSet(
+                new GridSetBroker(Collections.singletonList(new DefaultGridsets(true, true))).get("EPSG:4326"));
+        subSets.put(gridSubSet.getName(), gridSubSet);
+        WMSLayer layer1 = new WMSLayer("layer1", null, null, null, null, subSets, null, null, null, false, null);
+        WMSLayer layer2 = new WMSLayer("layer2", null, null, null, null, subSets, null, null, null, false, null);
+        expect(tld.getServiceInformation()).andStubReturn(null);
+        expect(tld.getLayerListFiltered()).andStubReturn(Arrays.asList(layer1, layer2));
+        tld.addListener(EasyMock.anyObject());
+        EasyMock.expectLastCall();
+        replay(tld, servReq);
+
+        CapabilitiesCache cache = new CapabilitiesCache(tld, 4);
+        String uncached = newCapabilities(tld, servReq, null).generateGetCapabilities(StandardCharsets.UTF_8);
+        assertEquals(uncached, newCapabilities(tld, servReq, cache).generateGetCapabilities(StandardCharsets.UTF_8));
+        // and again, this time from the cached fragments
+        assertEquals(uncached, newCapabilities(tld, servReq, cache).generateGetCapabilities(StandardCharsets.UTF_8));
+
+        EasyMock.verify(tld, servReq);
+    }
+
+    private WMSGetCapabilities newCapabilities(
+            TileLayerDispatcher tld, HttpServletRequest servReq, CapabilitiesCache cache) {
+        WMSGetCapabilities capabilities = new WMSGetCapabilities(
+                tld, servReq, "http://example.com/geowebcache/", "service/", new NullURLMangler());
+        if (cache != null) {
+            capabilities.setCache(cache);
+        }
+        return capabilities;
+    }
+
     /** Returns an XPath expression equivalent to the given string which can safely include both " and ' characters. */
     String xpathString(String s) {
         StringBuilder b = new StringBuilder();
@@ -15,10 +15,12 @@
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -41,9 +43,15 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.imageio.ImageIO;
 import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.GeoWebCacheExtensions;
 import org.geowebcache.config.DefaultGridsets;
 import org.geowebcache.config.HintsLevel;
 import org.geowebcache.conveyor.ConveyorTile;
@@ -72,6 +80,9 @@
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 @SuppressWarnings("FloatCast")
 public class WMSTileFuserTest {
@@ -366,6 +377,162 @@ public boolean get(TileObject stObj) throws StorageException {
         }
     }
 
+    /** Tiles fetched concurrently must end up in the same place as when fetched one at a time */
+    @Test
+    public void testConcurrentFetchSameOutput() throws Exception {
+        final TileLayer layer = createWMSLayer();
+        BoundingBox bounds = new BoundingBox(-35.0, 14.0, 55.0, 39);
+        int width = (int) bounds.getWidth() * 25;
+        int height = (int) bounds.getHeight() * 25;
+        File temp = File.createTempFile("gwc", "wms");
+        temp.delete();
+        temp.mkdirs();
+        try {
+            TileLayerDispatcher dispatcher = new TileLayerDispatcher(gridSetBroker, null) {
+
+                @Override
+                public TileLayer getTileLayer(String layerName) throws GeoWebCacheException {
+                    return layer;
+                }
+            };
+
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addParameter("layers", new String[] {"test:layer"});
+            request.addParameter("srs", new String[] {"EPSG:4326"});
+            request.addParameter("format", new String[] {"image/png"});
+            request.addParameter("width", width + "");
+            request.addParameter("height", height + "");
+            request.addParameter("bbox", bounds.toString());
+
+            // every tile gets its own colour, and they come back in random order
+            StorageBroker broker = new DefaultStorageBroker(
+                    new FileBlobStore(temp.getAbsolutePath()) {
+
+                        @Override
+                        public boolean get(TileObject stObj) throws StorageException {
+                            long[] xyz = stObj.getXYZ();
+                            BufferedImage tile = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+                            Graphics g = tile.getGraphics();
+                            g.setColor(new Color((int) (xyz[0] * 40 % 256), (int) (xyz[1] * 40 % 256), 128));
+                            g.fillRect(0, 0, 256, 256);
+                            g.dispose();
+                            try {
+                                Thread.sleep((long) (Math.random() * 10));
+                                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                                ImageIO.write(tile, "png", bytes);
+                                stObj.setBlob(new ByteArrayResource(bytes.toByteArray()));
+                            } catch (Exception e) {
+                                throw new StorageException(e.getMessage());
+                            }
+                            stObj.setCreated((new Date()).getTime());
+                            return true;
+                        }
+                    },
+                    new TransientCache(100, 1024, 2000));
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try (ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("appContextTest.xml")) {
+                BufferedImage serial = renderCanvas(dispatcher, broker, request, context, 1, null);
+                BufferedImage concurrent = renderCanvas(dispatcher, broker, request, context, 8, executor);
+                assertEquals(serial.getWidth(), concurrent.getWidth());
+                assertEquals(serial.getHeight(), concurrent.getHeight());
+                int[] expected = serial.getRGB(0, 0, serial.getWidth(), serial.getHeight(), null, 0, serial.getWidth());
+                int[] actual = concurrent.getRGB(
+                        0, 0, concurrent.getWidth(), concurrent.getHeight(), null, 0, concurrent.getWidth());
+                assertArrayEquals(expected, actual);
+            } finally {
+                executor.shutdown();
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    @Test
+    public void testFetchPoolDisabledByDefault() throws Exception {
+        assumeTrue(GeoWebCacheExtensions.getProperty(WMSTileFuser.FetchPool.FUSER_THREADS) == null);
+        assertNull(WMSTileFuser.FetchPool.executor());
+    }
+
+    /** The tiles fetched on the pool threads see the request attributes of the request thread */
+    @Test
+    public void testConcurrentFetchSeesRequestAttributes() throws Exception {
+        final TileLayer layer = createWMSLayer();
+        BoundingBox bounds = new BoundingBox(-35.0, 14.0, 55.0, 39);
+        int width = (int) bounds.getWidth() * 25;
+        int height = (int) bounds.getHeight() * 25;
+        File temp = File.createTempFile("gwc", "wms");
+        temp.delete();
+        temp.mkdirs();
+        RequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Set<RequestAttributes> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        RequestContextHolder.setRequestAttributes(attributes);
+        try {
+            TileLayerDispatcher dispatcher = new TileLayerDispatcher(gridSetBroker, null) {
+
+                @Override
+                public TileLayer getTileLayer(String layerName) throws GeoWebCacheException {
+                    return layer;
+                }
+            };
+
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addParameter("layers", new String[] {"test:layer"});
+            request.addParameter("srs", new String[] {"EPSG:4326"});
+            request.addParameter("format", new String[] {"image/png"});
+            request.addParameter("width", width + "");
+            request.addParameter("height", height + "");
+            request.addParameter("bbox", bounds.toString());
+            final File imageTile = new File(getClass().getResource("/image.png").toURI());
+
+            StorageBroker broker = new DefaultStorageBroker(
+                    new FileBlobStore(temp.getAbsolutePath()) {
+
+                        @Override
+                        public boolean get(TileObject stObj) throws StorageException {
+                            threads.add(Thread.currentThread().getName());
+                            seen.add(RequestContextHolder.getRequestAttributes());
+                            stObj.setBlob(new FileResource(imageTile));
+                            stObj.setCreated((new Date()).getTime());
+                            return true;
+                        }
+                    },
+                    new TransientCache(100, 1024, 2000));
+
+            try (ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("appContextTest.xml")) {
+                renderCanvas(dispatcher, broker, request, context, 8, executor);
+            }
+            assertFalse(threads.contains(Thread.currentThread().getName()));
+            assertEquals(Set.of(attributes), seen);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            executor.shutdown();
+            temp.delete();
+        }
+    }
+
+    private BufferedImage renderCanvas(
+            TileLayerDispatcher dispatcher,
+            StorageBroker broker,
+            HttpServletRequest request,
+            ClassPathXmlApplicationContext context,
+            int maxConcurrentTiles,
+            Executor fetchExecutor)
+            throws Exception {
+        WMSTileFuser tileFuser = new WMSTileFuser(dispatcher, broker, request);
+        tileFuser.setSecurityDispatcher(secDisp);
+        tileFuser.setApplicationContext(context);
+        tileFuser.maxConcurrentTiles = maxConcurrentTiles;
+        tileFuser.fetchExecutor = fetchExecutor;
+        tileFuser.determineSourceResolution();
+        tileFuser.determineCanvasLayout();
+        tileFuser.createCanvas();
+        tileFuser.renderCanvas();
+        return tileFuser.bufferedImageWrapper.getCanvas();
+    }
+
     private WMSLayer createWMSLayer() {
         String[] urls = {"http://localhost:38080/wms"};
         List<String> formatList = new LinkedList<>();
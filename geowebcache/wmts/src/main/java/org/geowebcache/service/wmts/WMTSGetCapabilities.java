@@ -54,6 +54,7 @@
 import org.geowebcache.layer.meta.LayerMetaInformation;
 import org.geowebcache.layer.meta.MetadataURL;
 import org.geowebcache.mime.ApplicationMime;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.stats.RuntimeStats;
 import org.geowebcache.util.ServletUtils;
 import org.geowebcache.util.URLMangler;
@@ -70,6 +71,12 @@ public class WMTSGetCapabilities {
 
     private final Collection<WMTSExtension> extensions;
 
+    private final HttpServletRequest request;
+
+    private CapabilitiesCache cache;
+
+    private CapabilitiesCache.Key cacheKey;
+
     protected WMTSGetCapabilities(
             TileLayerDispatcher tld,
             GridSetBroker gsb,
@@ -101,6 +108,18 @@ protected WMTSGetCapabilities(
         this.gsb = gsb;
         this.urls = urls;
         this.extensions = extensions;
+        this.request = servReq;
+    }
+
+    /** Serves the document, and the layers in it, from the given cache */
+    void setCache(CapabilitiesCache cache) {
+        this.cache = cache;
+        this.cacheKey = CapabilitiesCache.key(
+                request,
+                WMTSService.SERVICE_WMTS,
+                urls.serviceBaseUrl(),
+                urls.serviceUrl(WMTSService.SERVICE_PATH),
+                urls.restUrl(WMTSService.REST_PATH));
     }
 
     private static WMTSUrlBuilder buildUrls(
@@ -112,6 +131,20 @@ private static WMTSUrlBuilder buildUrls(
 
     protected void writeResponse(HttpServletResponse response, RuntimeStats stats) {
         final Charset encoding = StandardCharsets.UTF_8;
+        if (cache != null) {
+            CapabilitiesCache.Document document =
+                    cache.document(cacheKey, encoding, () -> generateGetCapabilities(encoding));
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType("text/xml");
+            response.setCharacterEncoding(encoding.name());
+            response.setHeader("content-disposition", "inline;filename=wmts-getcapabilities.xml");
+            try {
+                stats.log(document.write(request, response), CacheResult.OTHER);
+            } catch (IOException ioe) {
+                log.fine("Caught IOException" + ioe.getMessage());
+            }
+            return;
+        }
         byte[] data = generateGetCapabilities(encoding).getBytes(encoding);
 
         response.setStatus(HttpServletResponse.SC_OK);
@@ -436,7 +469,14 @@ private void contents(XMLBuilder xml) throws IOException {
             if (!layer.isEnabled() || !layer.isAdvertised()) {
                 continue;
             }
-            layer(xml, layer, usedGridsets);
+            if (cache == null) {
+                layer(xml, layer, usedGridsets);
+            } else {
+                xml.appendFragment(cache.fragment(cacheKey, layer.getName(), "Layer", () -> layerFragment(xml, layer)));
+                for (String gridSetId : layer.getGridSubsets()) {
+                    usedGridsets.add(layer.getGridSubset(gridSetId).getGridSet());
+                }
+            }
         }
 
         // only dump the gridsets actually used, as the OGC TMS spec introduced many default ones
@@ -451,6 +491,17 @@ private void contents(XMLBuilder xml) throws IOException {
         xml.endElement("Contents");
     }
 
+    private String layerFragment(XMLBuilder xml, TileLayer layer) {
+        StringBuilder str = new StringBuilder();
+        try {
+            layer(xml.fragmentBuilder(str), layer, new HashSet<>());
+        } catch (IOException e) {
+            // Should not happen as StringBuilder doesn't throw
+            throw new IllegalStateException(e);
+        }
+        return str.toString();
+    }
+
     private void layer(XMLBuilder xml, TileLayer layer, Set<GridSet> usedGridsets) throws IOException {
         xml.indentElement("Layer");
         LayerMetaInformation layerMeta = layer.getMetaInformation();
@@ -42,6 +42,7 @@
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.mime.MimeException;
 import org.geowebcache.mime.MimeType;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.service.HttpErrorCodeException;
 import org.geowebcache.service.OWSException;
 import org.geowebcache.service.Service;
@@ -177,6 +178,8 @@ public Map<String, String> toKVP(HttpServletRequest request) {
 
     private SecurityDispatcher securityDispatcher;
 
+    private CapabilitiesCache capabilitiesCache;
+
     /** Protected no-argument constructor to allow run-time instrumentation */
     protected WMTSService() {
         super(SERVICE_WMTS);
@@ -190,6 +193,7 @@ public WMTSService(StorageBroker sb, TileLayerDispatcher tld, GridSetBroker gsb,
         this.tld = tld;
         this.gsb = gsb;
         this.stats = stats;
+        this.capabilitiesCache = new CapabilitiesCache(tld);
         extensions.addAll(GeoWebCacheExtensions.extensions(WMTSExtension.class));
     }
 
@@ -208,6 +212,7 @@ public WMTSService(
         this.stats = stats;
         this.urlMangler = urlMangler;
         this.controller = controller;
+        this.capabilitiesCache = new CapabilitiesCache(tld);
         extensions.addAll(GeoWebCacheExtensions.extensions(WMTSExtension.class));
     }
 
@@ -411,7 +416,7 @@ private ConveyorTile getTile(
                     break;
                 }
             }
-            filteringParameters = tileLayer.getModifiableParameters(rawParameters, encoding);
+            filteringParameters = tileLayer.getFilteredParameters(rawParameters, encoding);
 
         } catch (ParameterException e) {
             throw new OWSException(e.getHttpCode(), e.getExceptionCode(), e.getLocator(), e.getMessage());
@@ -574,6 +579,9 @@ public void handleRequest(Conveyor conv) throws OWSException, GeoWebCacheExcepti
             if (tile.getHint().equals(GET_CAPABILITIES)) {
                 WMTSUrlBuilder urls = buildUrls(tile.servletReq, servletBase, context);
                 WMTSGetCapabilities wmsGC = new WMTSGetCapabilities(tld, gsb, tile.servletReq, urls, extensions);
+                if (capabilitiesCache != null) {
+                    wmsGC.setCache(capabilitiesCache);
+                }
                 wmsGC.writeResponse(tile.servletResp, stats);
 
             } else if (tile.getHint().equals(GET_FEATUREINFO)) {
@@ -617,6 +625,9 @@ private WMTSUrlBuilder buildUrls(HttpServletRequest request, String servletBase,
 
     void addExtension(WMTSExtension extension) {
         extensions.add(extension);
+        if (capabilitiesCache != null) {
+            capabilitiesCache.reset();
+        }
     }
 
     public Collection<WMTSExtension> getExtensions() {
@@ -75,6 +75,7 @@
 import org.geowebcache.layer.TileJSONProvider;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.layer.meta.LayerMetaInformation;
 import org.geowebcache.layer.meta.MetadataURL;
 import org.geowebcache.layer.meta.TileJSON;
 import org.geowebcache.layer.meta.VectorLayerMetadata;
@@ -82,6 +83,7 @@
 import org.geowebcache.mime.ImageMime;
 import org.geowebcache.mime.MimeType;
 import org.geowebcache.mime.XMLMime;
+import org.geowebcache.service.CapabilitiesCache;
 import org.geowebcache.service.OWSException;
 import org.geowebcache.stats.RuntimeStats;
 import org.geowebcache.storage.StorageBroker;
@@ -289,6 +291,49 @@ private TileLayer mockTileLayerWithJSONSupport(String layerName, List<String> gr
         return tileLayer;
     }
 
+    @Test
+    public void testGetCapCached() throws Exception {
+        List<String> gridSetNames = Arrays.asList("GlobalCRS84Pixel", "GlobalCRS84Scale", "EPSG:4326");
+        TileLayer tileLayer = mockTileLayer("mockLayer", gridSetNames, Collections.emptyList());
+        TileLayer tileLayer2 = mockTileLayer("mockLayer2", Arrays.asList("EPSG:4326"), Collections.emptyList());
+        when(tld.getLayerListFiltered()).thenReturn(Arrays.asList(tileLayer, tileLayer2));
+
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        String uncached = getCapabilities(req, null).getContentAsString();
+
+        // same document, assembled from the cached layers
+        CapabilitiesCache cache = new CapabilitiesCache(tld, 4);
+        MockHttpServletResponse resp = getCapabilities(req, cache);
+        assertEquals(uncached, resp.getContentAsString());
+        String etag = resp.getHeader("ETag");
+
+        // not regenerated until told the layer changed
+        when(tileLayer2.getMetaInformation()).thenReturn(new LayerMetaInformation("Changed title", null, null, null));
+        assertEquals(uncached, getCapabilities(req, cache).getContentAsString());
+        cache.layerChanged("mockLayer2");
+        resp = getCapabilities(req, cache);
+        assertEquals(getCapabilities(req, null).getContentAsString(), resp.getContentAsString());
+        assertThat(resp.getContentAsString(), containsString("Changed title"));
+        assertNotEquals(etag, resp.getHeader("ETag"));
+
+        // clients having the document already get a 304
+        req.addHeader("If-None-Match", resp.getHeader("ETag"));
+        resp = getCapabilities(req, cache);
+        assertEquals(304, resp.getStatus());
+        assertEquals("", resp.getContentAsString());
+    }
+
+    private MockHttpServletResponse getCapabilities(HttpServletRequest req, CapabilitiesCache cache) throws Exception {
+        WMTSGetCapabilities capabilities = new WMTSGetCapabilities(
+                tld, gridsetBroker, req, "http://localhost:8080", "/geowebcache", new NullURLMangler());
+        if (cache != null) {
+            capabilities.setCache(cache);
+        }
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        capabilities.writeResponse(resp, mock(RuntimeStats.class));
+        return resp;
+    }
+
     @Test
     public void testGetCap() throws Exception {
 
@@ -1065,11 +1110,11 @@ public void testGetTileWithStyle() throws Exception {
             TileLayer tileLayer = mockTileLayer("mockLayer", gridSetNames, Collections.singletonList(styleFilter));
 
             // Style parameter should have been made plural by the time
-            // getModifiableParameters is
+            // getFilteredParameters is
             // called.
             Map<String, String> map = new HashMap<>();
             map.put("STYLES", "Bar");
-            when(tileLayer.getModifiableParameters(
+            when(tileLayer.getFilteredParameters(
                             argThat(m -> hasEntry(
                                             equalToIgnoringCase("styles"), arrayContaining(equalToIgnoringCase("Bar")))
                                     .matches(m)),